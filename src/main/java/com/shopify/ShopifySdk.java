@@ -1,12 +1,34 @@
 package com.shopify;
 
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
@@ -18,23 +40,20 @@ import javax.ws.rs.core.Response.Status;
 
 import org.apache.commons.lang3.StringUtils;
 import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.RequestEntityProcessing;
 import org.glassfish.jersey.jackson.JacksonFeature;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
-import com.github.rholder.retry.Attempt;
-import com.github.rholder.retry.RetryException;
-import com.github.rholder.retry.RetryListener;
-import com.github.rholder.retry.Retryer;
-import com.github.rholder.retry.RetryerBuilder;
-import com.github.rholder.retry.StopStrategies;
-import com.github.rholder.retry.WaitStrategies;
 import com.shopify.exceptions.ShopifyClientException;
 import com.shopify.exceptions.ShopifyErrorResponseException;
+import com.shopify.exceptions.ShopifyRetryException;
+import com.shopify.mappers.ShopifyJsonStreamingOutput;
+import com.shopify.mappers.ShopifyMappers;
 import com.shopify.mappers.ShopifySdkObjectMapper;
+import com.shopify.mappers.ShopifyStringPool;
 import com.shopify.model.Count;
 import com.shopify.model.Image;
 import com.shopify.model.ImageAltTextCreationRequest;
@@ -57,6 +76,8 @@ import com.shopify.model.ShopifyGetCustomersRequest;
 import com.shopify.model.ShopifyGiftCard;
 import com.shopify.model.ShopifyGiftCardCreationRequest;
 import com.shopify.model.ShopifyGiftCardRoot;
+import com.shopify.model.ShopifyGraphQlRequest;
+import com.shopify.model.ShopifyGraphQlResponse;
 import com.shopify.model.ShopifyImageRoot;
 import com.shopify.model.ShopifyInventoryLevel;
 import com.shopify.model.ShopifyInventoryLevelRoot;
@@ -64,6 +85,8 @@ import com.shopify.model.ShopifyLocation;
 import com.shopify.model.ShopifyLocationsRoot;
 import com.shopify.model.ShopifyOrder;
 import com.shopify.model.ShopifyOrderCreationRequest;
+import com.shopify.model.ShopifyOrderDetails;
+import com.shopify.model.ShopifyOrderDetailsPart;
 import com.shopify.model.ShopifyOrderRisk;
 import com.shopify.model.ShopifyOrderRisksRoot;
 import com.shopify.model.ShopifyOrderRoot;
@@ -92,6 +115,10 @@ import com.shopify.model.ShopifyVariantMetafieldCreationRequest;
 import com.shopify.model.ShopifyVariantRoot;
 import com.shopify.model.ShopifyVariantUpdateRequest;
 import com.shopify.model.ShopifyCustomerObjectUpdateRequestRoot;
+import com.shopify.ratelimit.ShopifyRateLimiter;
+import com.shopify.retry.ShopifyRetryAttempt;
+import com.shopify.retry.ShopifyRetryListener;
+import com.shopify.retry.ShopifyRetryPolicy;
 
 
 public class ShopifySdk {
@@ -104,6 +131,8 @@ public class ShopifySdk {
 
 	private static final String INVALID_MINIMUM_REQUEST_RETRY_DELAY_MESSAGE = "Minimum request retry delay cannot be set lower than 1 second.";
 
+	private static final String INVALID_CONCURRENT_REQUESTS_MESSAGE = "Concurrent requests cannot be set lower than 1.";
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(ShopifySdk.class);
 
 	private static final String HTTPS = "https://";
@@ -135,9 +164,12 @@ public class ShopifySdk {
 	static final String ANY_STATUSES = "any";
 	static final String CREATED_AT_MIN_QUERY_PARAMETER = "created_at_min";
 	static final String CREATED_AT_MAX_QUERY_PARAMETER = "created_at_max";
+	static final String UPDATED_AT_MIN_QUERY_PARAMETER = "updated_at_min";
+	static final String UPDATED_AT_MAX_QUERY_PARAMETER = "updated_at_max";
 	static final String ATTRIBUTION_APP_ID_QUERY_PARAMETER = "attribution_app_id";
 	static final String IDS_QUERY_PARAMETER = "ids";
 	static final String SINCE_ID_QUERY_PARAMETER = "since_id";
+	static final String LOWEST_SINCE_ID = "0";
 	static final String QUERY_QUERY_PARAMETER = "query";
 	static final String CALCULATE = "calculate";
 	static final String REFUNDS = "refunds";
@@ -145,11 +177,15 @@ public class ShopifySdk {
 	static final String GIFT_CARDS = "gift_cards";
 	static final String REFUND_KIND = "refund";
 	static final String SET = "set";
+	static final String API = "api";
+	static final String GRAPHQL = "graphql.json";
 	private static final String CLIENT_ID = "client_id";
 	private static final String CLIENT_SECRET = "client_secret";
 	private static final String AUTHORIZATION_CODE = "code";
 
 	private static final int DEFAULT_REQUEST_LIMIT = 50;
+	private static final int MAXIMUM_REQUEST_LIMIT = 250;
+	private static final int MAXIMUM_IDS_QUERY_PARAMETER_LENGTH = 4000;
 	private static final int TOO_MANY_REQUESTS_STATUS_CODE = 429;
 	private static final int UNPROCESSABLE_ENTITY_STATUS_CODE = 422;
 	private static final int LOCKED_STATUS_CODE = 423;
@@ -167,6 +203,8 @@ public class ShopifySdk {
 	private static final Long DEFAULT_MINIMUM_REQUEST_RETRY_RANDOM_DELAY_IN_MILLISECONDS = 1000L;
 	private static final long DEFAULT_READ_TIMEOUT_IN_MILLISECONDS = 15000L;
 	private static final long DEFAULT_CONNECTION_TIMEOUT_IN_MILLISECONDS = 60000L;
+	private static final int DEFAULT_CONCURRENT_REQUESTS = 4;
+	private static final String REQUEST_THREAD_NAME_FORMAT = "shopify-sdk-request-%d";
 
 	private String shopSubdomain;
 	private String apiUrl;
@@ -178,7 +216,14 @@ public class ShopifySdk {
 	private long minimumRequestRetryRandomDelayMilliseconds;
 	private long maximumRequestRetryRandomDelayMilliseconds;
 	private long maximumRequestRetryTimeoutMilliseconds;
-	private final ShopifySdkRetryListener shopifySdkRetryListener = new ShopifySdkRetryListener();
+	private boolean numericIds;
+	private Client client = CLIENT;
+	private ShopifySdkRetryListener shopifySdkRetryListener = new ShopifySdkRetryListener(
+			ShopifyRetryListener.none());
+	private ShopifyRetryPolicy<Response> responseRetryPolicy;
+	private ShopifyRateLimiter rateLimiter = new ShopifyRateLimiter();
+	private int concurrentRequests = DEFAULT_CONCURRENT_REQUESTS;
+	private ExecutorService requestExecutorService;
 
 	private static final Client CLIENT = buildClient();
 
@@ -243,6 +288,64 @@ public class ShopifySdk {
 		 */
 		OptionalsStep withReadTimeout(int duration, TimeUnit timeUnit);
 
+		/**
+		 * Index bulk containers such as {@link ShopifyProducts} by numeric ID in
+		 * primitive keyed maps instead of string keyed hash maps. Every retrieved
+		 * entity must then have a numeric ID. <br>
+		 * Default value is: false.
+		 *
+		 * @param numericIds
+		 * @return {@link OptionalsStep}
+		 */
+		OptionalsStep withNumericIds(boolean numericIds);
+
+		/**
+		 * Canonicalize repeated string fields, such as order statuses and
+		 * gateways, so retrieved entities share one instance of each value.
+		 * Use {@link ShopifyStringPool#withDefaultFields()} or configure the
+		 * fields to pool. The SDK then reads responses with its own client
+		 * instead of the shared one. <br>
+		 * Default value is: no pooling.
+		 *
+		 * @param stringPool
+		 * @return {@link OptionalsStep}
+		 */
+		OptionalsStep withStringPool(ShopifyStringPool stringPool);
+
+		/**
+		 * Notified as each request attempt starts and finishes, and before each
+		 * wait to retry, for example to count retries or time waits. It is
+		 * called on the requesting thread, in addition to the SDK's own logging
+		 * of failed attempts. <br>
+		 * Default value is: no listener.
+		 *
+		 * @param retryListener
+		 * @return {@link OptionalsStep}
+		 */
+		OptionalsStep withRetryListener(ShopifyRetryListener<Response> retryListener);
+
+		/**
+		 * Paces REST calls by the shop's leaky bucket. Share one limiter
+		 * between every SDK calling the same shop so they pace together. <br>
+		 * Default value is: a limiter of this SDK's own, which learns the
+		 * bucket from the responses.
+		 *
+		 * @param rateLimiter
+		 * @return {@link OptionalsStep}
+		 */
+		OptionalsStep withRateLimiter(ShopifyRateLimiter rateLimiter);
+
+		/**
+		 * The most requests a composite call, such as
+		 * {@link ShopifySdk#getOrderDetails(Collection, ShopifyOrderDetailsPart...)},
+		 * makes at once. <br>
+		 * Default value is: 4.
+		 *
+		 * @param concurrentRequests
+		 * @return {@link OptionalsStep}
+		 */
+		OptionalsStep withConcurrentRequests(int concurrentRequests);
+
 		ShopifySdk build();
 
 	}
@@ -284,11 +387,24 @@ public class ShopifySdk {
 			this.minimumRequestRetryRandomDelayMilliseconds = steps.minimumRequestRetryRandomDelayMilliseconds;
 			this.maximumRequestRetryRandomDelayMilliseconds = steps.maximumRequestRetryRandomDelayMilliseconds;
 			this.maximumRequestRetryTimeoutMilliseconds = steps.maximumRequestRetryTimeoutMilliseconds;
+			this.numericIds = steps.numericIds;
+			if (steps.stringPool != null) {
+				this.client = buildClient(new ShopifyMappers(ShopifySdkObjectMapper.buildMapper(steps.stringPool)));
+			}
+
+			if (steps.retryListener != null) {
+				this.shopifySdkRetryListener = new ShopifySdkRetryListener(steps.retryListener);
+			}
+			if (steps.rateLimiter != null) {
+				this.rateLimiter = steps.rateLimiter;
+			}
+			this.concurrentRequests = steps.concurrentRequests;
 
-			CLIENT.property(ClientProperties.CONNECT_TIMEOUT, Math.toIntExact(steps.connectionTimeoutMilliseconds));
-			CLIENT.property(ClientProperties.READ_TIMEOUT, Math.toIntExact(steps.readTimeoutMilliseconds));
+			client.property(ClientProperties.CONNECT_TIMEOUT, Math.toIntExact(steps.connectionTimeoutMilliseconds));
+			client.property(ClientProperties.READ_TIMEOUT, Math.toIntExact(steps.readTimeoutMilliseconds));
 			validateConstructionOfShopifySdk();
 		}
+		this.responseRetryPolicy = buildResponseRetryPolicy();
 
 	}
 
@@ -307,6 +423,9 @@ public class ShopifySdk {
 			throw new IllegalArgumentException(
 					MINIMUM_REQUEST_RETRY_DELAY_CANNOT_BE_LARGER_THAN_MAXIMUM_REQUEST_RETRY_DELAY_MESSAGE);
 		}
+		if (concurrentRequests < 1) {
+			throw new IllegalArgumentException(INVALID_CONCURRENT_REQUESTS_MESSAGE);
+		}
 	}
 
 	protected static class Steps
@@ -323,6 +442,11 @@ public class ShopifySdk {
 		private long maximumRequestRetryTimeoutMilliseconds = DEFAULT_MAXIMUM_REQUEST_RETRY_TIMEOUT_IN_MILLISECONDS;
 		private long connectionTimeoutMilliseconds = DEFAULT_CONNECTION_TIMEOUT_IN_MILLISECONDS;
 		private long readTimeoutMilliseconds = DEFAULT_READ_TIMEOUT_IN_MILLISECONDS;
+		private boolean numericIds;
+		private ShopifyStringPool stringPool;
+		private ShopifyRetryListener<Response> retryListener;
+		private ShopifyRateLimiter rateLimiter;
+		private int concurrentRequests = DEFAULT_CONCURRENT_REQUESTS;
 
 		@Override
 		public ShopifySdk build() {
@@ -395,6 +519,36 @@ public class ShopifySdk {
 			return this;
 		}
 
+		@Override
+		public OptionalsStep withNumericIds(final boolean numericIds) {
+			this.numericIds = numericIds;
+			return this;
+		}
+
+		@Override
+		public OptionalsStep withStringPool(final ShopifyStringPool stringPool) {
+			this.stringPool = stringPool;
+			return this;
+		}
+
+		@Override
+		public OptionalsStep withRetryListener(final ShopifyRetryListener<Response> retryListener) {
+			this.retryListener = retryListener;
+			return this;
+		}
+
+		@Override
+		public OptionalsStep withRateLimiter(final ShopifyRateLimiter rateLimiter) {
+			this.rateLimiter = rateLimiter;
+			return this;
+		}
+
+		@Override
+		public OptionalsStep withConcurrentRequests(final int concurrentRequests) {
+			this.concurrentRequests = concurrentRequests;
+			return this;
+		}
+
 	}
 
 	public boolean revokeOAuthToken() {
@@ -426,18 +580,53 @@ public class ShopifySdk {
 	}
 
 	public ShopifyProducts getProducts() {
-		final List<ShopifyProduct> shopifyProducts = new LinkedList<>();
-
+		final List<ShopifyProduct> shopifyProducts = new ArrayList<>();
+		forEachProduct(shopifyProducts::add);
+		return numericIds ? ShopifyProducts.withNumericIds(shopifyProducts) : new ShopifyProducts(shopifyProducts);
+	}
+
+	/**
+	 * Retrieves every product page by page and hands each product to the
+	 * consumer as its page arrives, so only one page is held at a time. Use this
+	 * to fill a {@link com.shopify.model.OffHeapShopifyProducts} for very large
+	 * catalogs.
+	 *
+	 * @param shopifyProductConsumer
+	 */
+	public void forEachProduct(final Consumer<ShopifyProduct> shopifyProductConsumer) {
 		List<ShopifyProduct> shopifyProductsPage;
 		int page = 1;
 		do {
 			shopifyProductsPage = getProducts(page, DEFAULT_REQUEST_LIMIT);
 			LOGGER.info("Retrieved {} products from page {}", shopifyProductsPage.size(), page);
 			page++;
-			shopifyProducts.addAll(shopifyProductsPage);
+			shopifyProductsPage.forEach(shopifyProductConsumer);
 		} while (!shopifyProductsPage.isEmpty());
+	}
 
-		return new ShopifyProducts(shopifyProducts);
+	/**
+	 * Retrieves products updated within a window in ascending ID order. Page
+	 * through the window by passing the ID of the last product of the previous
+	 * page as the since ID; unlike page numbers, this does not skip products
+	 * when others are updated while paging. A since ID is always sent, as
+	 * Shopify only orders by ascending ID when one is given.
+	 *
+	 * @param minimumUpdatedAt
+	 *            inclusive lower bound, or null for no lower bound.
+	 * @param maximumUpdatedAt
+	 *            inclusive upper bound.
+	 * @param sinceId
+	 *            only return products with a higher ID, or null to start from
+	 *            the lowest ID.
+	 * @param pageSize
+	 * @return {@link List} of {@link ShopifyProduct}
+	 */
+	public List<ShopifyProduct> getUpdatedProducts(final DateTime minimumUpdatedAt, final DateTime maximumUpdatedAt,
+			final String sinceId, final int pageSize) {
+		final WebTarget target = withUpdatedWindow(getWebTarget().path(PRODUCTS), minimumUpdatedAt, maximumUpdatedAt,
+				sinceId, pageSize);
+		final ShopifyProductsRoot shopifyProductsRoot = get(target).readEntity(ShopifyProductsRoot.class);
+		return shopifyProductsRoot.getProducts();
 	}
 
 	public int getProductCount() {
@@ -455,7 +644,7 @@ public class ShopifySdk {
 		final ShopifyProductRoot shopifyProductRootRequest = new ShopifyProductRoot();
 		final ShopifyProduct shopifyProduct = shopifyProductCreationRequest.getRequest();
 		shopifyProductRootRequest.setProduct(shopifyProduct);
-		final Response response = post(getWebTarget().path(PRODUCTS), shopifyProductRootRequest);
+		final Response response = postStreaming(getWebTarget().path(PRODUCTS), shopifyProductRootRequest);
 		final ShopifyProductRoot shopifyProductRootResponse = response.readEntity(ShopifyProductRoot.class);
 		final ShopifyProduct createdShopifyProduct = shopifyProductRootResponse.getProduct();
 		return updateProductImages(shopifyProductCreationRequest, createdShopifyProduct);
@@ -602,6 +791,29 @@ public class ShopifySdk {
 		return getOrders(response);
 	}
 
+	/**
+	 * Retrieves orders of any status updated within a window in ascending ID
+	 * order. See {@link #getUpdatedProducts(DateTime, DateTime, String, int)}
+	 * for how to page through the window.
+	 *
+	 * @param minimumUpdatedAt
+	 *            inclusive lower bound, or null for no lower bound.
+	 * @param maximumUpdatedAt
+	 *            inclusive upper bound.
+	 * @param sinceId
+	 *            only return orders with a higher ID, or null to start from the
+	 *            lowest ID.
+	 * @param pageSize
+	 * @return {@link List} of {@link ShopifyOrder}
+	 */
+	public List<ShopifyOrder> getUpdatedOrders(final DateTime minimumUpdatedAt, final DateTime maximumUpdatedAt,
+			final String sinceId, final int pageSize) {
+		final WebTarget target = withUpdatedWindow(
+				getWebTarget().path(ORDERS).queryParam(STATUS_QUERY_PARAMETER, ANY_STATUSES), minimumUpdatedAt,
+				maximumUpdatedAt, sinceId, pageSize);
+		return getOrders(get(target));
+	}
+
 	public ShopifyFulfillment createFulfillment(
 			final ShopifyFulfillmentCreationRequest shopifyFulfillmentCreationRequest) {
 		final ShopifyFulfillmentRoot shopifyFulfillmentRoot = new ShopifyFulfillmentRoot();
@@ -690,10 +902,49 @@ public class ShopifySdk {
 		if (shopifyGetCustomersRequest.getCreatedAtMax() != null) {
 			target = target.queryParam(CREATED_AT_MAX_QUERY_PARAMETER, shopifyGetCustomersRequest.getCreatedAtMax());
 		}
+		if (shopifyGetCustomersRequest.getUpdatedAtMin() != null) {
+			target = target.queryParam(UPDATED_AT_MIN_QUERY_PARAMETER, shopifyGetCustomersRequest.getUpdatedAtMin());
+		}
+		if (shopifyGetCustomersRequest.getUpdatedAtMax() != null) {
+			target = target.queryParam(UPDATED_AT_MAX_QUERY_PARAMETER, shopifyGetCustomersRequest.getUpdatedAtMax());
+		}
 		Response response = get(target);
 		return getCustomers(response);
 	}
 
+	/**
+	 * Gets the customers with the given IDs. The IDs are split into requests
+	 * of at most 250 customers whose query stays within URL length limits, and
+	 * the requests are made {@link OptionalsStep#withConcurrentRequests(int) a
+	 * few at a time} within the rate limit.
+	 *
+	 * @param customerIds
+	 * @return the customers by customer ID, in the order of the IDs. IDs of
+	 *         customers that do not exist are left out.
+	 */
+	public Map<String, ShopifyCustomer> getCustomersByIds(final Collection<String> customerIds) {
+		final List<CompletableFuture<List<ShopifyCustomer>>> customersFutures = new ArrayList<>();
+		for (final List<String> customerIdsChunk : toIdsChunks(new LinkedHashSet<>(customerIds))) {
+			final ShopifyGetCustomersRequest shopifyGetCustomersRequest = ShopifyGetCustomersRequest.newBuilder()
+					.withIds(customerIdsChunk).withLimit(customerIdsChunk.size()).build();
+			customersFutures.add(supplyAsync(() -> getCustomers(shopifyGetCustomersRequest)));
+		}
+		final Map<String, ShopifyCustomer> retrievedCustomers = new HashMap<>();
+		for (final CompletableFuture<List<ShopifyCustomer>> customersFuture : customersFutures) {
+			for (final ShopifyCustomer shopifyCustomer : join(customersFuture)) {
+				retrievedCustomers.put(shopifyCustomer.getId(), shopifyCustomer);
+			}
+		}
+		final Map<String, ShopifyCustomer> customers = new LinkedHashMap<>();
+		for (final String customerId : customerIds) {
+			final ShopifyCustomer shopifyCustomer = retrievedCustomers.get(customerId);
+			if (shopifyCustomer != null) {
+				customers.put(customerId, shopifyCustomer);
+			}
+		}
+		return customers;
+	}
+
 	public List<ShopifyCustomer> searchCustomer(String query) {
 		final Response response = get(getWebTarget().path(CUSTOMERS).path(SEARCH)
 				.queryParam(QUERY_QUERY_PARAMETER, query)
@@ -701,6 +952,46 @@ public class ShopifySdk {
 		return searchCustomer(response);
 	}
 
+	public List<ShopifyCustomer> searchCustomer(final String query, final int page, final int pageSize) {
+		final Response response = get(getWebTarget().path(CUSTOMERS).path(SEARCH)
+				.queryParam(QUERY_QUERY_PARAMETER, query).queryParam(LIMIT_QUERY_PARAMETER, pageSize)
+				.queryParam(PAGE_QUERY_PARAMETER, page));
+		return searchCustomer(response);
+	}
+
+	/**
+	 * Searches customers across every page of results. Pages of 250 customers
+	 * are retrieved as the stream is consumed, and the next page is requested
+	 * while the current one is read.
+	 *
+	 * @param query
+	 * @return the matching customers.
+	 */
+	public Stream<ShopifyCustomer> searchCustomers(final String query) {
+		return searchCustomers(query, Function.identity());
+	}
+
+	/**
+	 * Searches customers across every page of results like
+	 * {@link #searchCustomers(String)}, keeping only the projection of each
+	 * customer. Each page is projected as soon as it is retrieved, so at most
+	 * two pages of full customers are held at a time however many match.
+	 *
+	 * @param query
+	 * @param projection
+	 *            the values to keep of each customer, such as its ID or email.
+	 * @return the projection of the matching customers.
+	 */
+	public <T> Stream<T> searchCustomers(final String query, final Function<ShopifyCustomer, T> projection) {
+		final PrefetchingPageIterator<T> pageIterator = new PrefetchingPageIterator<>(
+				page -> searchCustomer(query, page, MAXIMUM_REQUEST_LIMIT).stream().map(projection)
+						.collect(Collectors.toList()),
+				MAXIMUM_REQUEST_LIMIT);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(pageIterator, Spliterator.ORDERED), false)
+				.onClose(pageIterator::close);
+	}
+
 	public ShopifyFulfillment cancelFulfillment(final String orderId, final String fulfillmentId) {
 		final Response response = post(
 				getWebTarget().path(ORDERS).path(orderId).path(FULFILLMENTS).path(fulfillmentId).path(CANCEL),
@@ -787,19 +1078,89 @@ public class ShopifySdk {
 		return metafieldsRootResponse.getMetafields();
 	}
 
-	public ShopifyRefund refund(final ShopifyRefundCreationRequest shopifyRefundCreationRequest) {
+	/**
+	 * Gets an order together with the given parts, requesting them all at once
+	 * rather than one after another. The order's metafields are set on the
+	 * order.
+	 *
+	 * @param orderId
+	 * @param parts
+	 *            the parts to get with the order, or none for all of them.
+	 * @return {@link ShopifyOrderDetails}
+	 */
+	public ShopifyOrderDetails getOrderDetails(final String orderId, final ShopifyOrderDetailsPart... parts) {
+		return join(getOrderDetailsAsync(orderId, toPartSet(parts)));
+	}
+
+	/**
+	 * Gets many orders together with the given parts. The requests of all the
+	 * orders are queued at once and made {@link OptionalsStep#withConcurrentRequests(int)
+	 * a few at a time} within the rate limit, so the requests of the next
+	 * orders are made while those of the previous ones are answered.
+	 *
+	 * @param orderIds
+	 * @param parts
+	 *            the parts to get with each order, or none for all of them.
+	 * @return the details of each order by order ID, in the order of the IDs.
+	 */
+	public Map<String, ShopifyOrderDetails> getOrderDetails(final Collection<String> orderIds,
+			final ShopifyOrderDetailsPart... parts) {
+		final Set<ShopifyOrderDetailsPart> partSet = toPartSet(parts);
+		final Map<String, CompletableFuture<ShopifyOrderDetails>> orderDetailsFutures = new LinkedHashMap<>();
+		for (final String orderId : orderIds) {
+			orderDetailsFutures.computeIfAbsent(orderId, id -> getOrderDetailsAsync(id, partSet));
+		}
+		final Map<String, ShopifyOrderDetails> orderDetails = new LinkedHashMap<>();
+		for (final Map.Entry<String, CompletableFuture<ShopifyOrderDetails>> orderDetailsFuture : orderDetailsFutures
+				.entrySet()) {
+			orderDetails.put(orderDetailsFuture.getKey(), join(orderDetailsFuture.getValue()));
+		}
+		return orderDetails;
+	}
 
+	public ShopifyRefund refund(final ShopifyRefundCreationRequest shopifyRefundCreationRequest) {
 		final ShopifyRefund calculatedShopifyRefund = calculateRefund(shopifyRefundCreationRequest);
-		calculatedShopifyRefund.getTransactions().forEach(transaction -> transaction.setKind(REFUND_KIND));
+		return createRefund(shopifyRefundCreationRequest.getRequest().getOrderId(), calculatedShopifyRefund);
+	}
+
+	/**
+	 * Calculates the transactions of a refund without creating it, the first
+	 * step of {@link #refund(ShopifyRefundCreationRequest)}.
+	 *
+	 * @param shopifyRefundCreationRequest
+	 * @return the refund to pass to {@link #createRefund(String, ShopifyRefund)}.
+	 */
+	public ShopifyRefund calculateRefund(final ShopifyRefundCreationRequest shopifyRefundCreationRequest) {
+		final ShopifyRefundRoot shopifyRefundRoot = new ShopifyRefundRoot();
+
+		shopifyRefundRoot.setRefund(shopifyRefundCreationRequest.getRequest());
 
 		final WebTarget path = getWebTarget().path(ORDERS).path(shopifyRefundCreationRequest.getRequest().getOrderId())
-				.path(REFUNDS);
+				.path(REFUNDS).path(CALCULATE);
+		final Response response = post(path, shopifyRefundRoot);
+		final ShopifyRefundRoot shopifyRefundRootResponse = response.readEntity(ShopifyRefundRoot.class);
+		return shopifyRefundRootResponse.getRefund();
+
+	}
+
+	/**
+	 * Creates a refund calculated by
+	 * {@link #calculateRefund(ShopifyRefundCreationRequest)}, the second step
+	 * of {@link #refund(ShopifyRefundCreationRequest)}.
+	 *
+	 * @param orderId
+	 * @param calculatedShopifyRefund
+	 * @return the created refund.
+	 */
+	public ShopifyRefund createRefund(final String orderId, final ShopifyRefund calculatedShopifyRefund) {
+		calculatedShopifyRefund.getTransactions().forEach(transaction -> transaction.setKind(REFUND_KIND));
+
+		final WebTarget path = getWebTarget().path(ORDERS).path(orderId).path(REFUNDS);
 		final ShopifyRefundRoot shopifyRefundRoot = new ShopifyRefundRoot();
 		shopifyRefundRoot.setRefund(calculatedShopifyRefund);
 		final Response response = post(path, shopifyRefundRoot);
 		final ShopifyRefundRoot shopifyRefundRootResponse = response.readEntity(ShopifyRefundRoot.class);
 		return shopifyRefundRootResponse.getRefund();
-
 	}
 
 	public ShopifyGiftCard createGiftCard(final ShopifyGiftCardCreationRequest shopifyGiftCardCreationRequest) {
@@ -811,6 +1172,46 @@ public class ShopifySdk {
 		return shopifyOrderRootResponse.getGiftCard();
 	}
 
+	/**
+	 * Posts a query to the GraphQL Admin API with the same authentication,
+	 * connection and retries as the REST calls. A throttled query is answered
+	 * with 200 and a <code>THROTTLED</code> error rather than 429, so it is not
+	 * retried here; see {@link com.shopify.graphql.ShopifyGraphQlClient}.
+	 *
+	 * @param shopifyGraphQlRequest
+	 * @return the response, which may hold errors.
+	 */
+	public ShopifyGraphQlResponse postGraphQl(final ShopifyGraphQlRequest shopifyGraphQlRequest) {
+		final WebTarget graphQlTarget = getWebTarget().path(API).path(GRAPHQL);
+		final Callable<Response> responseCallable = () -> {
+			final Entity<ShopifyGraphQlRequest> entity = Entity.entity(shopifyGraphQlRequest,
+					MediaType.APPLICATION_JSON);
+			return graphQlTarget.request(MediaType.APPLICATION_JSON).header(ACCESS_TOKEN_HEADER, accessToken)
+					.post(entity);
+		};
+		final Response response = invokeUnpacedResponseCallable(responseCallable);
+		return handleResponse(response, Status.OK).readEntity(ShopifyGraphQlResponse.class);
+	}
+
+	/**
+	 * Opens the JSONL result of a finished bulk operation for reading. The URL
+	 * is signed, so the access token is not sent with it. The caller closes
+	 * the stream.
+	 *
+	 * @param url
+	 *            the url of a completed bulk operation.
+	 * @return the result, read from the connection as it is consumed.
+	 */
+	public InputStream openBulkOperationResult(final String url) {
+		final Callable<Response> responseCallable = () -> client.target(url).request().get();
+		final Response response = invokeUnpacedResponseCallable(responseCallable);
+		return handleResponse(response, Status.OK).readEntity(InputStream.class);
+	}
+
+	public ShopifyRateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
 	public String getAccessToken() {
 		return accessToken;
 	}
@@ -825,19 +1226,6 @@ public class ShopifySdk {
 		return shopifyCustomersRoot.getCustomers();
 	}
 
-	private ShopifyRefund calculateRefund(final ShopifyRefundCreationRequest shopifyRefundCreationRequest) {
-		final ShopifyRefundRoot shopifyRefundRoot = new ShopifyRefundRoot();
-
-		shopifyRefundRoot.setRefund(shopifyRefundCreationRequest.getRequest());
-
-		final WebTarget path = getWebTarget().path(ORDERS).path(shopifyRefundCreationRequest.getRequest().getOrderId())
-				.path(REFUNDS).path(CALCULATE);
-		final Response response = post(path, shopifyRefundRoot);
-		final ShopifyRefundRoot shopifyRefundRootResponse = response.readEntity(ShopifyRefundRoot.class);
-		return shopifyRefundRootResponse.getRefund();
-
-	}
-
 	private ShopifyProduct updateProductImages(final ShopifyProductRequest shopifyProductRequest,
 			final ShopifyProduct shopifyProduct) {
 		setVariantImageIds(shopifyProductRequest, shopifyProduct);
@@ -861,11 +1249,99 @@ public class ShopifySdk {
 		});
 	}
 
+	private WebTarget withUpdatedWindow(final WebTarget webTarget, final DateTime minimumUpdatedAt,
+			final DateTime maximumUpdatedAt, final String sinceId, final int pageSize) {
+		WebTarget target = webTarget.queryParam(LIMIT_QUERY_PARAMETER, pageSize)
+				.queryParam(UPDATED_AT_MAX_QUERY_PARAMETER, maximumUpdatedAt.toString());
+		if (minimumUpdatedAt != null) {
+			target = target.queryParam(UPDATED_AT_MIN_QUERY_PARAMETER, minimumUpdatedAt.toString());
+		}
+		return target.queryParam(SINCE_ID_QUERY_PARAMETER, (sinceId == null) ? LOWEST_SINCE_ID : sinceId);
+	}
+
 	private List<ShopifyOrder> getOrders(final Response response) {
 		final ShopifyOrdersRoot shopifyOrderRootResponse = response.readEntity(ShopifyOrdersRoot.class);
 		return shopifyOrderRootResponse.getOrders();
 	}
 
+	private CompletableFuture<ShopifyOrderDetails> getOrderDetailsAsync(final String orderId,
+			final Set<ShopifyOrderDetailsPart> parts) {
+		final CompletableFuture<ShopifyOrder> orderFuture = supplyAsync(() -> getOrder(orderId));
+		final CompletableFuture<List<ShopifyTransaction>> transactionsFuture = parts
+				.contains(ShopifyOrderDetailsPart.TRANSACTIONS) ? supplyAsync(() -> getOrderTransactions(orderId))
+						: CompletableFuture.completedFuture(Collections.emptyList());
+		final CompletableFuture<List<ShopifyOrderRisk>> risksFuture = parts.contains(ShopifyOrderDetailsPart.RISKS)
+				? supplyAsync(() -> getOrderRisks(orderId))
+				: CompletableFuture.completedFuture(Collections.emptyList());
+		final CompletableFuture<List<Metafield>> metafieldsFuture = parts.contains(ShopifyOrderDetailsPart.METAFIELDS)
+				? supplyAsync(() -> getOrderMetafields(orderId))
+				: CompletableFuture.completedFuture(null);
+
+		return CompletableFuture.allOf(orderFuture, transactionsFuture, risksFuture, metafieldsFuture).thenApply(v -> {
+			final ShopifyOrder shopifyOrder = orderFuture.join();
+			if (metafieldsFuture.join() != null) {
+				shopifyOrder.setMetafields(metafieldsFuture.join());
+			}
+			final ShopifyOrderDetails shopifyOrderDetails = new ShopifyOrderDetails();
+			shopifyOrderDetails.setOrder(shopifyOrder);
+			shopifyOrderDetails.setTransactions(transactionsFuture.join());
+			shopifyOrderDetails.setRisks(risksFuture.join());
+			return shopifyOrderDetails;
+		});
+	}
+
+	private static List<List<String>> toIdsChunks(final Collection<String> ids) {
+		final List<List<String>> idsChunks = new ArrayList<>();
+		List<String> idsChunk = new ArrayList<>();
+		int idsChunkLength = 0;
+		for (final String id : ids) {
+			if ((idsChunk.size() == MAXIMUM_REQUEST_LIMIT)
+					|| (!idsChunk.isEmpty() && ((idsChunkLength + 1 + id.length()) > MAXIMUM_IDS_QUERY_PARAMETER_LENGTH))) {
+				idsChunks.add(idsChunk);
+				idsChunk = new ArrayList<>();
+				idsChunkLength = 0;
+			}
+			idsChunkLength += (idsChunk.isEmpty() ? 0 : 1) + id.length();
+			idsChunk.add(id);
+		}
+		if (!idsChunk.isEmpty()) {
+			idsChunks.add(idsChunk);
+		}
+		return idsChunks;
+	}
+
+	private static Set<ShopifyOrderDetailsPart> toPartSet(final ShopifyOrderDetailsPart... parts) {
+		return (parts.length == 0) ? EnumSet.allOf(ShopifyOrderDetailsPart.class)
+				: EnumSet.copyOf(Arrays.asList(parts));
+	}
+
+	private <T> CompletableFuture<T> supplyAsync(final Supplier<T> supplier) {
+		return CompletableFuture.supplyAsync(supplier, getRequestExecutorService());
+	}
+
+	private synchronized ExecutorService getRequestExecutorService() {
+		if (requestExecutorService == null) {
+			requestExecutorService = Executors.newFixedThreadPool(concurrentRequests,
+					new ShopifyThreadFactory(REQUEST_THREAD_NAME_FORMAT));
+		}
+		return requestExecutorService;
+	}
+
+	/**
+	 * Waits for a composite call and throws the exception of the request that
+	 * failed it, as the call would have made one request at a time.
+	 */
+	private static <T> T join(final CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (final CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new ShopifyClientException(e.getCause());
+		}
+	}
+
 	private Response get(final WebTarget webTarget) {
 		final Callable<Response> responseCallable = () -> webTarget.request(MediaType.APPLICATION_JSON)
 				.header(ACCESS_TOKEN_HEADER, accessToken).get();
@@ -880,6 +1356,24 @@ public class ShopifySdk {
 		return handleResponse(response, Status.OK);
 	}
 
+	/**
+	 * Posts the object serialized straight to the connection with chunked
+	 * transfer encoding, for payloads large enough that buffering them first
+	 * costs noticeable memory and delay.
+	 */
+	private <T> Response postStreaming(final WebTarget webTarget, final T object) {
+		final Callable<Response> responseCallable = () -> {
+			final ShopifyMappers shopifyMappers = ShopifyMappers.getDefault();
+			final Entity<ShopifyJsonStreamingOutput> entity = Entity.entity(new ShopifyJsonStreamingOutput(
+					shopifyMappers.getMapper(), shopifyMappers.getWriter(object.getClass()), object),
+					MediaType.APPLICATION_JSON);
+			return webTarget.request(MediaType.APPLICATION_JSON).header(ACCESS_TOKEN_HEADER, accessToken)
+					.property(ClientProperties.REQUEST_ENTITY_PROCESSING, RequestEntityProcessing.CHUNKED).post(entity);
+		};
+		final Response response = invokeResponseCallable(responseCallable);
+		return handleResponse(response, Status.CREATED, Status.OK);
+	}
+
 	private <T> Response post(final WebTarget webTarget, final T object) {
 		final Callable<Response> responseCallable = () -> {
 			final Entity<T> entity = Entity.entity(object, MediaType.APPLICATION_JSON);
@@ -910,7 +1404,7 @@ public class ShopifySdk {
 			return response;
 		}
 
-		throw new ShopifyErrorResponseException(response, shopifySdkRetryListener.getResponseBody());
+		throw new ShopifyErrorResponseException(response);
 	}
 
 	private List<Integer> getExpectedStatusCodes(final Status... expectedStatus) {
@@ -918,21 +1412,64 @@ public class ShopifySdk {
 	}
 
 	private Response invokeResponseCallable(final Callable<Response> responseCallable) {
-		final Retryer<Response> retryer = buildResponseRetyer();
+		return invokeUnpacedResponseCallable(() -> callWithinRateLimit(responseCallable));
+	}
+
+	/**
+	 * Retries without taking from the REST rate limit, for GraphQL, which is
+	 * limited by query cost instead, and for downloads from outside Shopify's
+	 * API.
+	 */
+	private Response invokeUnpacedResponseCallable(final Callable<Response> responseCallable) {
 		try {
-			return retryer.call(responseCallable);
-		} catch (ExecutionException | RetryException e) {
+			return responseRetryPolicy.call(responseCallable, shopifySdkRetryListener);
+		} catch (final ShopifyRetryException e) {
+			releaseLastResponse(e);
 			throw new ShopifyClientException(RETRY_FAILED_MESSAGE, e);
 		}
 	}
 
-	private Retryer<Response> buildResponseRetyer() {
-		return RetryerBuilder.<Response>newBuilder().retryIfResult(ShopifySdk::shouldRetryResponse).retryIfException()
-				.withWaitStrategy(WaitStrategies.randomWait(minimumRequestRetryRandomDelayMilliseconds,
-						TimeUnit.MILLISECONDS, maximumRequestRetryRandomDelayMilliseconds, TimeUnit.MILLISECONDS))
-				.withStopStrategy(
-						StopStrategies.stopAfterDelay(maximumRequestRetryTimeoutMilliseconds, TimeUnit.MILLISECONDS))
-				.withRetryListener(shopifySdkRetryListener).build();
+	/**
+	 * Responses that are retried are closed while waiting, but the response of
+	 * the last attempt is carried in the exception. Its entity is read and the
+	 * response closed so the connection is not leaked; its status and headers
+	 * stay readable.
+	 */
+	private static void releaseLastResponse(final ShopifyRetryException shopifyRetryException) {
+		final ShopifyRetryAttempt<?> lastAttempt = shopifyRetryException.getLastAttempt();
+		if ((lastAttempt != null) && lastAttempt.hasResult()) {
+			final Response response = (Response) lastAttempt.getResult();
+			try {
+				response.bufferEntity();
+			} finally {
+				response.close();
+			}
+		}
+	}
+
+	private Response callWithinRateLimit(final Callable<Response> responseCallable) throws Exception {
+		Response response = null;
+		try {
+			// The slot is taken before waiting for it, so it is released even
+			// when the wait is interrupted.
+			rateLimiter.acquire();
+			response = responseCallable.call();
+			return response;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw e;
+		} finally {
+			rateLimiter.release(
+					(response == null) ? null : response.getHeaderString(ShopifyRateLimiter.CALL_LIMIT_HEADER));
+		}
+	}
+
+	private ShopifyRetryPolicy<Response> buildResponseRetryPolicy() {
+		return ShopifyRetryPolicy.<Response>newBuilder()
+				.withRandomDelay(minimumRequestRetryRandomDelayMilliseconds,
+						maximumRequestRetryRandomDelayMilliseconds, TimeUnit.MILLISECONDS)
+				.withTimeout(maximumRequestRetryTimeoutMilliseconds, TimeUnit.MILLISECONDS)
+				.retryIfResult(ShopifySdk::shouldRetryResponse).build();
 	}
 
 	private static boolean shouldRetryResponse(final Response response) {
@@ -949,8 +1486,8 @@ public class ShopifySdk {
 	}
 
 	private static boolean hasNotBeenSaved(final Response response) {
-		response.bufferEntity();
 		if ((UNPROCESSABLE_ENTITY_STATUS_CODE == response.getStatus()) && response.hasEntity()) {
+			response.bufferEntity();
 			final String shopifyErrorResponse = response.readEntity(String.class);
 			LOGGER.debug(shopifyErrorResponse);
 			return shopifyErrorResponse.contains(COULD_NOT_BE_SAVED_SHOPIFY_ERROR_MESSAGE);
@@ -984,11 +1521,11 @@ public class ShopifySdk {
 		if (this.webTarget == null) {
 
 			if (StringUtils.isNotBlank(this.shopSubdomain)) {
-				this.webTarget = CLIENT.target(
+				this.webTarget = client.target(
 						new StringBuilder().append(HTTPS).append(this.shopSubdomain).append(API_TARGET).toString());
 
 			} else {
-				this.webTarget = CLIENT.target(this.apiUrl);
+				this.webTarget = client.target(this.apiUrl);
 			}
 			if (this.accessToken == null) {
 				this.accessToken = generateToken();
@@ -1000,49 +1537,128 @@ public class ShopifySdk {
 	}
 
 	private static Client buildClient() {
-		final ObjectMapper mapper = ShopifySdkObjectMapper.buildMapper();
+		return buildClient(ShopifyMappers.getDefault());
+	}
+
+	private static Client buildClient(final ShopifyMappers shopifyMappers) {
 		final JacksonJaxbJsonProvider provider = new JacksonJaxbJsonProvider();
-		provider.setMapper(mapper);
+		provider.setMapper(shopifyMappers.getMapper());
 
 		return ClientBuilder.newClient().register(JacksonFeature.class).register(provider);
 	}
 
-	public class ShopifySdkRetryListener implements RetryListener {
+	/**
+	 * Iterates over the items of numbered pages, requesting the next page on
+	 * the request threads while the items of the current one are consumed. A
+	 * page holding fewer items than the page size is the last one.
+	 */
+	private class PrefetchingPageIterator<T> implements Iterator<T> {
+
+		private final IntFunction<List<T>> pageRetriever;
+		private final int pageSize;
+
+		private int page = 1;
+		private CompletableFuture<List<T>> nextPage;
+		private Iterator<T> currentPage = Collections.emptyIterator();
+		private boolean lastPage;
+
+		private PrefetchingPageIterator(final IntFunction<List<T>> pageRetriever, final int pageSize) {
+			this.pageRetriever = pageRetriever;
+			this.pageSize = pageSize;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!currentPage.hasNext() && !lastPage) {
+				if (nextPage == null) {
+					nextPage = requestPage();
+				}
+				final List<T> items = join(nextPage);
+				lastPage = items.size() < pageSize;
+				nextPage = lastPage ? null : requestPage();
+				currentPage = items.iterator();
+			}
+			return currentPage.hasNext();
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return currentPage.next();
+		}
+
+		private CompletableFuture<List<T>> requestPage() {
+			final int requestedPage = page++;
+			return supplyAsync(() -> pageRetriever.apply(requestedPage));
+		}
+
+		private void close() {
+			lastPage = true;
+			if (nextPage != null) {
+				nextPage.cancel(false);
+				nextPage = null;
+			}
+			currentPage = Collections.emptyIterator();
+		}
+	}
+
+	/**
+	 * Logs failed attempts, other than rate limited ones, closes the responses
+	 * of attempts that are retried, and passes every hook on to the listener
+	 * given to the builder. It keeps no state, so one instance serves
+	 * concurrent requests.
+	 */
+	public static class ShopifySdkRetryListener implements ShopifyRetryListener<Response> {
 
 		private static final String RETRY_EXCEPTION_ATTEMPT_MESSAGE = "An exception occurred while making an API call to shopify: {} on attempt number {} and {} seconds since first attempt";
 		private static final String RETRY_INVALID_RESPONSE_ATTEMPT_MESSAGE = "Waited {} seconds since first retry attempt. This is attempt {}. Please review the following failed request information.\nRequest Location of {}\nResponse Status Code of {}\nResponse Headers of:\n{}\nResponse Body of:\n{}";
 
-		private String responseBody;
+		private final ShopifyRetryListener<Response> retryListener;
+
+		ShopifySdkRetryListener(final ShopifyRetryListener<Response> retryListener) {
+			this.retryListener = retryListener;
+		}
 
 		@Override
-		public <V> void onRetry(final Attempt<V> attempt) {
-			if (attempt.hasResult()) {
-				final Response response = (Response) attempt.getResult();
+		public void onAttemptStarted(final int attemptNumber) {
+			retryListener.onAttemptStarted(attemptNumber);
+		}
 
-				response.bufferEntity();
-				this.responseBody = response.readEntity(String.class);
+		@Override
+		public void onAttemptFinished(final ShopifyRetryAttempt<Response> attempt) {
+			if (attempt.hasResult()) {
+				final Response response = attempt.getResult();
 
 				if (LOGGER.isWarnEnabled() && !hasExceededRateLimit(response) && shouldRetryResponse(response)) {
+					response.bufferEntity();
+					final String responseBody = response.readEntity(String.class);
 
 					final long delaySinceFirstAttemptInSeconds = convertMillisecondsToSeconds(
-							attempt.getDelaySinceFirstAttempt());
+							attempt.getDelaySinceFirstAttemptMilliseconds());
 					LOGGER.warn(RETRY_INVALID_RESPONSE_ATTEMPT_MESSAGE, delaySinceFirstAttemptInSeconds,
 							attempt.getAttemptNumber(), response.getLocation(), response.getStatus(),
-							response.getStringHeaders(), this.responseBody);
+							response.getStringHeaders(), responseBody);
 
 				}
 
-			} else if (LOGGER.isWarnEnabled() && attempt.hasException()) {
+			} else if (LOGGER.isWarnEnabled()) {
 
 				final long delaySinceFirstAttemptInSeconds = convertMillisecondsToSeconds(
-						attempt.getDelaySinceFirstAttempt());
+						attempt.getDelaySinceFirstAttemptMilliseconds());
 				LOGGER.warn(RETRY_EXCEPTION_ATTEMPT_MESSAGE, attempt.getAttemptNumber(),
-						delaySinceFirstAttemptInSeconds, attempt.getExceptionCause());
+						delaySinceFirstAttemptInSeconds, attempt.getException());
 			}
+			retryListener.onAttemptFinished(attempt);
 		}
 
-		public String getResponseBody() {
-			return responseBody;
+		@Override
+		public void onWaiting(final ShopifyRetryAttempt<Response> attempt, final long delayMilliseconds) {
+			retryListener.onWaiting(attempt, delayMilliseconds);
+			if (attempt.hasResult()) {
+				attempt.getResult().close();
+			}
 		}
 
 		private long convertMillisecondsToSeconds(final long milliiseconds) {
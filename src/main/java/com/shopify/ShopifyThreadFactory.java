@@ -0,0 +1,31 @@
+package com.shopify;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the daemon threads of the SDK's pools, numbered in the order they
+ * are created, so a pool left open does not keep the JVM from exiting.
+ */
+public class ShopifyThreadFactory implements ThreadFactory {
+
+	private final String nameFormat;
+	private final AtomicInteger threadCount = new AtomicInteger();
+
+	/**
+	 * @param nameFormat
+	 *            the name of each thread, with <code>%d</code> for its
+	 *            number, such as <code>shopify-bulk-%d</code>.
+	 */
+	public ShopifyThreadFactory(final String nameFormat) {
+		this.nameFormat = nameFormat;
+	}
+
+	@Override
+	public Thread newThread(final Runnable runnable) {
+		final Thread thread = new Thread(runnable, String.format(nameFormat, threadCount.incrementAndGet()));
+		thread.setDaemon(true);
+		return thread;
+	}
+
+}
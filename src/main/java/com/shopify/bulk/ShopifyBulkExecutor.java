@@ -0,0 +1,462 @@
+package com.shopify.bulk;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shopify.ShopifySdk;
+import com.shopify.ShopifyThreadFactory;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.exceptions.ShopifyErrorClassifier;
+import com.shopify.ratelimit.ShopifyRateLimiter;
+
+/**
+ * Applies an SDK mutation, such as <code>ShopifySdk::updateVariant</code> or
+ * <code>ShopifySdk::closeOrder</code>, to many items at once.
+ *
+ * Items are attempted on a fixed number of threads. While other items are in
+ * flight, an item is only started when the SDK's {@link ShopifyRateLimiter}
+ * has calls available, so the threads do not pile up waiting on a full bucket.
+ * Items with the same {@link Builder#withKey(Function) key} are attempted one
+ * after another in the order they were submitted, each once the previous one
+ * has stopped running, even if its future was cancelled meanwhile. An item
+ * that fails in a way the
+ * {@link Builder#withRetryClassifier(Predicate) retry classifier} accepts is
+ * attempted again after a growing delay, before the next item of its key, up
+ * to the maximum attempts.
+ *
+ * The result of each item is returned as a future, completed with the result
+ * of the mutation or with the exception of its last attempt. Cancelling a
+ * future before its item is started skips the item; {@link #cancel()} skips
+ * every item not started yet. {@link #getReport()} summarizes the progress at
+ * any time. An executor is thread safe. Close it to stop its threads once the
+ * submitted items are finished; items it can no longer start are completed
+ * with a {@link RejectedExecutionException}.
+ *
+ * @param <T>
+ *            the items, such as update requests or IDs.
+ * @param <R>
+ *            the result of the mutation for an item.
+ */
+public class ShopifyBulkExecutor<T, R> implements Closeable {
+
+	static final int DEFAULT_MAXIMUM_CONCURRENCY = 4;
+	static final int DEFAULT_MAXIMUM_ATTEMPTS = 3;
+	static final long DEFAULT_RETRY_DELAY_MILLISECONDS = 1000L;
+	static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS = 60_000L;
+	static final long AVAILABLE_CALLS_POLL_MILLISECONDS = 50L;
+
+	static final String INVALID_SHOPIFY_SDK_MESSAGE = "Bulk executor requires a Shopify SDK.";
+	static final String INVALID_MUTATION_MESSAGE = "Bulk executor requires a mutation.";
+	static final String INVALID_MAXIMUM_CONCURRENCY_MESSAGE = "Bulk executor maximum concurrency must be at least 1.";
+	static final String INVALID_MAXIMUM_ATTEMPTS_MESSAGE = "Bulk executor maximum attempts must be at least 1.";
+	static final String CLOSED_MESSAGE = "Bulk executor is closed.";
+
+	private static final String THREAD_NAME = "shopify-bulk-%d";
+	private static final String RETRYING_MESSAGE = "Retrying bulk item {} in {} milliseconds after attempt {}";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShopifyBulkExecutor.class);
+
+	private final ShopifySdk shopifySdk;
+	private final BiFunction<ShopifySdk, T, R> mutation;
+	private final Function<T, ?> key;
+	private final BiPredicate<T, Throwable> retryClassifier;
+	private final int maximumAttempts;
+	private final long retryDelayMilliseconds;
+	private final long shutdownTimeoutMilliseconds;
+	private final ExecutorService executorService;
+	private final Map<Object, CompletableFuture<Void>> lastItemsByKey = new HashMap<>();
+	private final Set<CompletableFuture<Void>> pendingItems = ConcurrentHashMap.newKeySet();
+	private final Object inFlightMonitor = new Object();
+	private final ConcurrentLinkedQueue<ShopifyBulkFailure<T>> failures = new ConcurrentLinkedQueue<>();
+	private final LongAdder submittedCount = new LongAdder();
+	private final LongAdder succeededCount = new LongAdder();
+	private final LongAdder failedCount = new LongAdder();
+	private final LongAdder cancelledCount = new LongAdder();
+	private final LongAdder retriedCount = new LongAdder();
+
+	private int inFlightCount;
+	private volatile boolean cancelled;
+	private volatile boolean closed;
+	private volatile long startedAtNanoseconds;
+
+	/**
+	 * @param shopifySdk
+	 * @param mutation
+	 *            the SDK call to make for each item, such as
+	 *            <code>ShopifySdk::updateVariant</code>.
+	 */
+	public static <T, R> Builder<T, R> newBuilder(final ShopifySdk shopifySdk,
+			final BiFunction<ShopifySdk, T, R> mutation) {
+		return new Builder<>(shopifySdk, mutation);
+	}
+
+	private ShopifyBulkExecutor(final Builder<T, R> builder) {
+		this.shopifySdk = builder.shopifySdk;
+		this.mutation = builder.mutation;
+		this.key = builder.key;
+		this.retryClassifier = builder.retryClassifier;
+		this.maximumAttempts = builder.maximumAttempts;
+		this.retryDelayMilliseconds = builder.retryDelayMilliseconds;
+		this.shutdownTimeoutMilliseconds = builder.shutdownTimeoutMilliseconds;
+		this.executorService = new ThreadPoolExecutor(builder.maximumConcurrency, builder.maximumConcurrency, 0L,
+				TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new ShopifyThreadFactory(THREAD_NAME));
+	}
+
+	public CompletableFuture<R> submit(final T item) {
+		if (closed) {
+			throw new RejectedExecutionException(CLOSED_MESSAGE);
+		}
+		if (startedAtNanoseconds == 0) {
+			startedAtNanoseconds = System.nanoTime();
+		}
+		submittedCount.increment();
+		final ItemTask itemTask = new ItemTask(item);
+		pendingItems.add(itemTask.finished);
+		itemTask.finished.whenComplete((ignored, throwable) -> pendingItems.remove(itemTask.finished));
+		if (key == null) {
+			start(itemTask);
+			return itemTask.result;
+		}
+		final Object itemKey = key.apply(item);
+		// The next item of the key waits for this one to stop running rather
+		// than for its result, which the caller may cancel while it runs.
+		synchronized (lastItemsByKey) {
+			final CompletableFuture<Void> lastItemFinished = lastItemsByKey.get(itemKey);
+			if (lastItemFinished == null) {
+				start(itemTask);
+			} else {
+				lastItemFinished.whenComplete((ignored, throwable) -> start(itemTask));
+			}
+			lastItemsByKey.put(itemKey, itemTask.finished);
+		}
+		itemTask.finished.whenComplete((ignored, throwable) -> {
+			synchronized (lastItemsByKey) {
+				lastItemsByKey.remove(itemKey, itemTask.finished);
+			}
+		});
+		return itemTask.result;
+	}
+
+	/**
+	 * Submits every item of the stream without waiting for any of them to
+	 * finish.
+	 *
+	 * @param items
+	 * @return the result of each item, in the order of the stream.
+	 */
+	public List<CompletableFuture<R>> submitAll(final Stream<T> items) {
+		return items.map(this::submit).collect(Collectors.toList());
+	}
+
+	/**
+	 * Submits every item of the stream and waits for all of them to finish.
+	 *
+	 * @param items
+	 * @return the report once every item succeeded, failed or was cancelled.
+	 */
+	public ShopifyBulkReport<T> executeAll(final Stream<T> items) {
+		final List<CompletableFuture<R>> results = submitAll(items);
+		CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[results.size()]))
+				.handle((result, throwable) -> null).join();
+		return getReport();
+	}
+
+	/**
+	 * Skips every item that has not been started yet, completing its future as
+	 * cancelled. Items in flight are finished.
+	 */
+	public void cancel() {
+		cancelled = true;
+		synchronized (inFlightMonitor) {
+			inFlightMonitor.notifyAll();
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public ShopifyBulkReport<T> getReport() {
+		final long elapsedNanoseconds = (startedAtNanoseconds == 0) ? 0 : System.nanoTime() - startedAtNanoseconds;
+		return new ShopifyBulkReport<>(submittedCount.sum(), succeededCount.sum(), failedCount.sum(),
+				cancelledCount.sum(), retriedCount.sum(), TimeUnit.NANOSECONDS.toMillis(elapsedNanoseconds),
+				new ArrayList<>(failures));
+	}
+
+	/**
+	 * Stops accepting items and waits for the submitted ones to finish, up to
+	 * the shutdown timeout, including items still waiting for the previous item
+	 * of their key.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		final long deadlineNanoseconds = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMilliseconds);
+		try {
+			CompletableFuture.allOf(pendingItems.toArray(new CompletableFuture<?>[0]))
+					.handle((result, throwable) -> null).get(shutdownTimeoutMilliseconds, TimeUnit.MILLISECONDS);
+			executorService.shutdown();
+			if (!executorService.awaitTermination(deadlineNanoseconds - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+				shutdownNow();
+			}
+		} catch (final InterruptedException e) {
+			shutdownNow();
+			Thread.currentThread().interrupt();
+		} catch (final ExecutionException | TimeoutException e) {
+			shutdownNow();
+		}
+	}
+
+	private void shutdownNow() {
+		for (final Runnable runnable : executorService.shutdownNow()) {
+			((ItemTask) runnable).reject(new RejectedExecutionException(CLOSED_MESSAGE));
+		}
+	}
+
+	private void start(final ItemTask itemTask) {
+		try {
+			executorService.execute(itemTask);
+		} catch (final RejectedExecutionException e) {
+			itemTask.reject(e);
+		}
+	}
+
+	private void execute(final T item, final CompletableFuture<R> result) {
+		if (result.isDone() || cancelled) {
+			cancelledCount.increment();
+			result.cancel(false);
+			return;
+		}
+		try {
+			awaitAvailableCall();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancelledCount.increment();
+			result.cancel(false);
+			return;
+		}
+		try {
+			result.complete(attempt(item));
+		} catch (final RuntimeException e) {
+			result.completeExceptionally(e);
+		} finally {
+			synchronized (inFlightMonitor) {
+				inFlightCount--;
+				inFlightMonitor.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Waits until no other item is in flight or the rate limiter has a call
+	 * available, and counts the item as in flight.
+	 */
+	private void awaitAvailableCall() throws InterruptedException {
+		final ShopifyRateLimiter rateLimiter = shopifySdk.getRateLimiter();
+		synchronized (inFlightMonitor) {
+			while ((inFlightCount > 0) && !cancelled && (rateLimiter != null)
+					&& (rateLimiter.getAvailableCalls() == 0)) {
+				inFlightMonitor.wait(AVAILABLE_CALLS_POLL_MILLISECONDS);
+			}
+			inFlightCount++;
+		}
+	}
+
+	private R attempt(final T item) {
+		int attempt = 1;
+		long delayMilliseconds = retryDelayMilliseconds;
+		while (true) {
+			try {
+				final R result = mutation.apply(shopifySdk, item);
+				succeededCount.increment();
+				return result;
+			} catch (final RuntimeException e) {
+				if ((attempt >= maximumAttempts) || cancelled || !retryClassifier.test(item, e)) {
+					fail(item, e, attempt);
+					throw e;
+				}
+				LOGGER.warn(RETRYING_MESSAGE, item, delayMilliseconds, attempt, e);
+				try {
+					TimeUnit.MILLISECONDS.sleep(delayMilliseconds);
+				} catch (final InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+					fail(item, e, attempt);
+					throw new ShopifyClientException(e);
+				}
+				retriedCount.increment();
+				attempt++;
+				delayMilliseconds *= 2;
+			}
+		}
+	}
+
+	private void fail(final T item, final RuntimeException exception, final int attempts) {
+		failures.add(new ShopifyBulkFailure<>(item, exception, attempts));
+		failedCount.increment();
+	}
+
+	/**
+	 * An item with its result, and a future completed once the item stops
+	 * running, for the next item of its key.
+	 */
+	private class ItemTask implements Runnable {
+
+		private final T item;
+		private final CompletableFuture<R> result = new CompletableFuture<>();
+		private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+		private ItemTask(final T item) {
+			this.item = item;
+		}
+
+		@Override
+		public void run() {
+			try {
+				execute(item, result);
+			} finally {
+				finished.complete(null);
+			}
+		}
+
+		/**
+		 * Completes an item that will never run, so the next item of its key
+		 * is rejected in turn rather than left waiting.
+		 */
+		void reject(final RejectedExecutionException exception) {
+			cancelledCount.increment();
+			result.completeExceptionally(exception);
+			finished.completeExceptionally(exception);
+		}
+
+	}
+
+	public static class Builder<T, R> {
+
+		private final ShopifySdk shopifySdk;
+		private final BiFunction<ShopifySdk, T, R> mutation;
+		private Function<T, ?> key;
+		private BiPredicate<T, Throwable> retryClassifier = (item, failure) -> ShopifyErrorClassifier
+				.isUnprocessed(failure);
+		private int maximumConcurrency = DEFAULT_MAXIMUM_CONCURRENCY;
+		private int maximumAttempts = DEFAULT_MAXIMUM_ATTEMPTS;
+		private long retryDelayMilliseconds = DEFAULT_RETRY_DELAY_MILLISECONDS;
+		private long shutdownTimeoutMilliseconds = DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS;
+
+		private Builder(final ShopifySdk shopifySdk, final BiFunction<ShopifySdk, T, R> mutation) {
+			this.shopifySdk = shopifySdk;
+			this.mutation = mutation;
+		}
+
+		/**
+		 * Attempts items with equal keys one after another, such as the
+		 * changes to one order, which Shopify refuses to make concurrently. By
+		 * default every item may be attempted at the same time as any other.
+		 */
+		public Builder<T, R> withKey(final Function<T, ?> key) {
+			this.key = key;
+			return this;
+		}
+
+		/**
+		 * Decides whether an item is attempted again after it failed. Defaults
+		 * to {@link ShopifyErrorClassifier#isUnprocessed(Throwable)}, which is
+		 * safe for any mutation. Use
+		 * {@link ShopifyErrorClassifier#isRetriable(Throwable)} only for
+		 * idempotent mutations, such as updates, since it also retries items
+		 * Shopify may have applied already.
+		 */
+		public Builder<T, R> withRetryClassifier(final Predicate<Throwable> retryClassifier) {
+			this.retryClassifier = (item, failure) -> retryClassifier.test(failure);
+			return this;
+		}
+
+		/**
+		 * Decides whether an item is attempted again after it failed, for items
+		 * that are not all safe to attempt twice, such as creations mixed with
+		 * updates.
+		 */
+		public Builder<T, R> withItemRetryClassifier(final BiPredicate<T, Throwable> retryClassifier) {
+			this.retryClassifier = retryClassifier;
+			return this;
+		}
+
+		/**
+		 * @param maximumConcurrency
+		 *            the number of items in flight at the same time when the
+		 *            rate limiter has calls available.
+		 */
+		public Builder<T, R> withMaximumConcurrency(final int maximumConcurrency) {
+			if (maximumConcurrency < 1) {
+				throw new IllegalArgumentException(INVALID_MAXIMUM_CONCURRENCY_MESSAGE);
+			}
+			this.maximumConcurrency = maximumConcurrency;
+			return this;
+		}
+
+		/**
+		 * @param maximumAttempts
+		 *            the number of times an item is attempted before its
+		 *            failure is returned, including the first one, on top of
+		 *            the {@link ShopifyErrorClassifier retries of the SDK}.
+		 */
+		public Builder<T, R> withMaximumAttempts(final int maximumAttempts) {
+			if (maximumAttempts < 1) {
+				throw new IllegalArgumentException(INVALID_MAXIMUM_ATTEMPTS_MESSAGE);
+			}
+			this.maximumAttempts = maximumAttempts;
+			return this;
+		}
+
+		/**
+		 * @param retryDelay
+		 *            the wait before the second attempt of an item, doubled for
+		 *            each attempt after it.
+		 * @param timeUnit
+		 */
+		public Builder<T, R> withRetryDelay(final long retryDelay, final TimeUnit timeUnit) {
+			this.retryDelayMilliseconds = timeUnit.toMillis(retryDelay);
+			return this;
+		}
+
+		public Builder<T, R> withShutdownTimeout(final long shutdownTimeout, final TimeUnit timeUnit) {
+			this.shutdownTimeoutMilliseconds = timeUnit.toMillis(shutdownTimeout);
+			return this;
+		}
+
+		public ShopifyBulkExecutor<T, R> build() {
+			if (shopifySdk == null) {
+				throw new IllegalArgumentException(INVALID_SHOPIFY_SDK_MESSAGE);
+			}
+			if (mutation == null) {
+				throw new IllegalArgumentException(INVALID_MUTATION_MESSAGE);
+			}
+			return new ShopifyBulkExecutor<>(this);
+		}
+
+	}
+
+}
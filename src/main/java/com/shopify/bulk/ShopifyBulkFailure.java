@@ -0,0 +1,34 @@
+package com.shopify.bulk;
+
+/**
+ * An item of a {@link ShopifyBulkExecutor} whose last attempt failed.
+ */
+public class ShopifyBulkFailure<T> {
+
+	private final T item;
+	private final Throwable exception;
+	private final int attempts;
+
+	ShopifyBulkFailure(final T item, final Throwable exception, final int attempts) {
+		this.item = item;
+		this.exception = exception;
+		this.attempts = attempts;
+	}
+
+	public T getItem() {
+		return item;
+	}
+
+	public Throwable getException() {
+		return exception;
+	}
+
+	/**
+	 * @return the number of times the item was attempted, including the first
+	 *         one.
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.shopify.bulk;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The progress of a {@link ShopifyBulkExecutor} at the time it was taken.
+ */
+public class ShopifyBulkReport<T> {
+
+	private static final String SUMMARY_FORMAT = "%d submitted, %d succeeded, %d failed, %d cancelled, %d pending, %d retries in %d milliseconds (%.1f items per second)";
+	private static final double MILLISECONDS_PER_SECOND = 1000.0;
+
+	private final long submittedCount;
+	private final long succeededCount;
+	private final long failedCount;
+	private final long cancelledCount;
+	private final long retriedCount;
+	private final long elapsedMilliseconds;
+	private final List<ShopifyBulkFailure<T>> failures;
+
+	ShopifyBulkReport(final long submittedCount, final long succeededCount, final long failedCount,
+			final long cancelledCount, final long retriedCount, final long elapsedMilliseconds,
+			final List<ShopifyBulkFailure<T>> failures) {
+		this.submittedCount = submittedCount;
+		this.succeededCount = succeededCount;
+		this.failedCount = failedCount;
+		this.cancelledCount = cancelledCount;
+		this.retriedCount = retriedCount;
+		this.elapsedMilliseconds = elapsedMilliseconds;
+		this.failures = Collections.unmodifiableList(failures);
+	}
+
+	public long getSubmittedCount() {
+		return submittedCount;
+	}
+
+	public long getSucceededCount() {
+		return succeededCount;
+	}
+
+	/**
+	 * @return the number of items whose last attempt failed.
+	 */
+	public long getFailedCount() {
+		return failedCount;
+	}
+
+	/**
+	 * @return the number of items that were not attempted because they or the
+	 *         executor were cancelled.
+	 */
+	public long getCancelledCount() {
+		return cancelledCount;
+	}
+
+	/**
+	 * @return the number of attempts made again after a retriable failure.
+	 */
+	public long getRetriedCount() {
+		return retriedCount;
+	}
+
+	/**
+	 * @return the number of submitted items not finished yet.
+	 */
+	public long getPendingCount() {
+		return submittedCount - succeededCount - failedCount - cancelledCount;
+	}
+
+	/**
+	 * @return the time since the first item was submitted.
+	 */
+	public long getElapsedMilliseconds() {
+		return elapsedMilliseconds;
+	}
+
+	/**
+	 * @return the finished items per second since the first item was
+	 *         submitted.
+	 */
+	public double getItemsPerSecond() {
+		if (elapsedMilliseconds == 0) {
+			return 0;
+		}
+		return ((succeededCount + failedCount) * MILLISECONDS_PER_SECOND) / elapsedMilliseconds;
+	}
+
+	/**
+	 * @return the failed items, in the order they failed.
+	 */
+	public List<ShopifyBulkFailure<T>> getFailures() {
+		return failures;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ENGLISH, SUMMARY_FORMAT, submittedCount, succeededCount, failedCount,
+				cancelledCount, getPendingCount(), retriedCount, elapsedMilliseconds, getItemsPerSecond());
+	}
+
+}
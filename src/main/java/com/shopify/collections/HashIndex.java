@@ -0,0 +1,127 @@
+package com.shopify.collections;
+
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Open addressing index of values by a key derived from each value. Only the
+ * value references are stored; keys are read back through the key extractor
+ * while probing, so an index over objects that already hold their keys costs a
+ * single reference per slot.
+ *
+ * Values whose key is null are not indexed. When two values share a key, the
+ * collision resolver decides which one is kept.
+ *
+ * This class is not thread safe. Containers that use it fill it once and only
+ * read from it afterwards.
+ */
+public class HashIndex<K, V> {
+
+	private static final int MINIMUM_CAPACITY = 4;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	private static final double LOAD_FACTOR = 0.75;
+	private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+	private final Function<? super V, ? extends K> keyExtractor;
+	private final BinaryOperator<V> collisionResolver;
+	private Object[] slots;
+	private int mask;
+	private int resizeThreshold;
+	private int size;
+
+	public HashIndex(final int expectedSize, final Function<? super V, ? extends K> keyExtractor,
+			final BinaryOperator<V> collisionResolver) {
+		this.keyExtractor = keyExtractor;
+		this.collisionResolver = collisionResolver;
+		allocate(capacityFor(expectedSize));
+	}
+
+	public V get(final Object key) {
+		if (key == null) {
+			return null;
+		}
+		int index = indexFor(key);
+		V existingValue;
+		while ((existingValue = valueAt(index)) != null) {
+			if (key.equals(keyExtractor.apply(existingValue))) {
+				return existingValue;
+			}
+			index = (index + 1) & mask;
+		}
+		return null;
+	}
+
+	public boolean containsKey(final Object key) {
+		return get(key) != null;
+	}
+
+	public void add(final V value) {
+		final K key = keyExtractor.apply(value);
+		if (key == null) {
+			return;
+		}
+		int index = indexFor(key);
+		V existingValue;
+		while ((existingValue = valueAt(index)) != null) {
+			if (key.equals(keyExtractor.apply(existingValue))) {
+				slots[index] = collisionResolver.apply(existingValue, value);
+				return;
+			}
+			index = (index + 1) & mask;
+		}
+		slots[index] = value;
+		if (++size > resizeThreshold) {
+			allocate(slots.length << 1);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V valueAt(final int index) {
+		return (V) slots[index];
+	}
+
+	private int indexFor(final Object key) {
+		final int hash = key.hashCode() * GOLDEN_RATIO;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	private void allocate(final int capacity) {
+		final Object[] previousSlots = slots;
+
+		slots = new Object[capacity];
+		mask = capacity - 1;
+		resizeThreshold = (capacity == MAXIMUM_CAPACITY) ? Integer.MAX_VALUE : (int) (capacity * LOAD_FACTOR);
+
+		if (previousSlots != null) {
+			for (final Object previousValue : previousSlots) {
+				if (previousValue != null) {
+					@SuppressWarnings("unchecked")
+					final K key = keyExtractor.apply((V) previousValue);
+					int index = indexFor(key);
+					while (slots[index] != null) {
+						index = (index + 1) & mask;
+					}
+					slots[index] = previousValue;
+				}
+			}
+		}
+	}
+
+	private static int capacityFor(final int expectedSize) {
+		final long minimumCapacity = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+		if (minimumCapacity >= MAXIMUM_CAPACITY) {
+			return MAXIMUM_CAPACITY;
+		}
+		final int capacity = Integer.highestOneBit((int) minimumCapacity - 1) << 1;
+		return Math.max(capacity, MINIMUM_CAPACITY);
+	}
+
+}
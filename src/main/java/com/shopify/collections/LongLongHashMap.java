@@ -0,0 +1,164 @@
+package com.shopify.collections;
+
+/**
+ * Open addressing hash map from primitive <code>long</code> keys to primitive
+ * <code>long</code> values, laid out like {@link LongObjectHashMap}. The key
+ * <code>0</code> is reserved to mark empty slots.
+ *
+ * This class is not thread safe. Containers that use it fill it once and only
+ * read from it afterwards.
+ */
+public class LongLongHashMap {
+
+	static final String RESERVED_KEY_MESSAGE = "Key of 0 is reserved and cannot be stored.";
+	static final String FULL_MESSAGE = "Map is full and cannot store more than %d keys.";
+
+	private static final long EMPTY_KEY = 0L;
+	private static final int DEFAULT_EXPECTED_SIZE = 16;
+	private static final int MINIMUM_CAPACITY = 4;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	private static final double LOAD_FACTOR = 0.75;
+	private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+	private long[] keys;
+	private long[] values;
+	private int mask;
+	private int resizeThreshold;
+	private int size;
+
+	public LongLongHashMap() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	public LongLongHashMap(final int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * @return the value mapped to the key, or the default value if there is
+	 *         none.
+	 */
+	public long get(final long key, final long defaultValue) {
+		if (key == EMPTY_KEY) {
+			return defaultValue;
+		}
+		int index = indexFor(key);
+		long existingKey;
+		while ((existingKey = keys[index]) != EMPTY_KEY) {
+			if (existingKey == key) {
+				return values[index];
+			}
+			index = (index + 1) & mask;
+		}
+		return defaultValue;
+	}
+
+	public boolean containsKey(final long key) {
+		if (key == EMPTY_KEY) {
+			return false;
+		}
+		int index = indexFor(key);
+		long existingKey;
+		while ((existingKey = keys[index]) != EMPTY_KEY) {
+			if (existingKey == key) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	public void put(final long key, final long value) {
+		if (key == EMPTY_KEY) {
+			throw new IllegalArgumentException(RESERVED_KEY_MESSAGE);
+		}
+		int index = indexFor(key);
+		long existingKey;
+		while ((existingKey = keys[index]) != EMPTY_KEY) {
+			if (existingKey == key) {
+				values[index] = value;
+				return;
+			}
+			index = (index + 1) & mask;
+		}
+		// At the maximum capacity the table no longer grows, so one slot is
+		// kept empty for probes of missing keys to stop at.
+		if ((keys.length == MAXIMUM_CAPACITY) && ((size + 1) >= keys.length)) {
+			throw new IllegalStateException(String.format(FULL_MESSAGE, keys.length - 1));
+		}
+		keys[index] = key;
+		values[index] = value;
+		if (++size > resizeThreshold) {
+			allocate(keys.length << 1);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public long[] keys() {
+		final long[] keyArray = new long[size];
+		int position = 0;
+		for (int index = 0; index < keys.length; index++) {
+			if (keys[index] != EMPTY_KEY) {
+				keyArray[position++] = keys[index];
+			}
+		}
+		return keyArray;
+	}
+
+	public long[] values() {
+		final long[] valueArray = new long[size];
+		int position = 0;
+		for (int index = 0; index < keys.length; index++) {
+			if (keys[index] != EMPTY_KEY) {
+				valueArray[position++] = values[index];
+			}
+		}
+		return valueArray;
+	}
+
+	private int indexFor(final long key) {
+		final long hash = key * GOLDEN_RATIO;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private void allocate(final int capacity) {
+		final long[] previousKeys = keys;
+		final long[] previousValues = values;
+
+		keys = new long[capacity];
+		values = new long[capacity];
+		mask = capacity - 1;
+		resizeThreshold = (capacity == MAXIMUM_CAPACITY) ? Integer.MAX_VALUE : (int) (capacity * LOAD_FACTOR);
+
+		if (previousKeys != null) {
+			for (int previousIndex = 0; previousIndex < previousKeys.length; previousIndex++) {
+				final long key = previousKeys[previousIndex];
+				if (key != EMPTY_KEY) {
+					int index = indexFor(key);
+					while (keys[index] != EMPTY_KEY) {
+						index = (index + 1) & mask;
+					}
+					keys[index] = key;
+					values[index] = previousValues[previousIndex];
+				}
+			}
+		}
+	}
+
+	private static int capacityFor(final int expectedSize) {
+		final long minimumCapacity = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+		if (minimumCapacity >= MAXIMUM_CAPACITY) {
+			return MAXIMUM_CAPACITY;
+		}
+		final int capacity = Integer.highestOneBit((int) minimumCapacity - 1) << 1;
+		return Math.max(capacity, MINIMUM_CAPACITY);
+	}
+
+}
@@ -0,0 +1,178 @@
+package com.shopify.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Open addressing hash map keyed by primitive <code>long</code>. Keys and
+ * values are held in two parallel arrays with linear probing, so there is no
+ * boxed key and no entry object per mapping. The key <code>0</code> is
+ * reserved to mark empty slots; Shopify never assigns it as an ID.
+ *
+ * This class is not thread safe. Containers that use it fill it once and only
+ * read from it afterwards.
+ */
+public class LongObjectHashMap<V> {
+
+	static final String RESERVED_KEY_MESSAGE = "Key of 0 is reserved and cannot be stored.";
+	static final String FULL_MESSAGE = "Map is full and cannot store more than %d keys.";
+
+	private static final long EMPTY_KEY = 0L;
+	private static final int DEFAULT_EXPECTED_SIZE = 16;
+	private static final int MINIMUM_CAPACITY = 4;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	private static final double LOAD_FACTOR = 0.75;
+	private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+	private long[] keys;
+	private Object[] values;
+	private int mask;
+	private int resizeThreshold;
+	private int size;
+
+	public LongObjectHashMap() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	public LongObjectHashMap(final int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	public V get(final long key) {
+		if (key == EMPTY_KEY) {
+			return null;
+		}
+		int index = indexFor(key);
+		long existingKey;
+		while ((existingKey = keys[index]) != EMPTY_KEY) {
+			if (existingKey == key) {
+				return valueAt(index);
+			}
+			index = (index + 1) & mask;
+		}
+		return null;
+	}
+
+	public boolean containsKey(final long key) {
+		if (key == EMPTY_KEY) {
+			return false;
+		}
+		int index = indexFor(key);
+		long existingKey;
+		while ((existingKey = keys[index]) != EMPTY_KEY) {
+			if (existingKey == key) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the previous value mapped to the key, or null if there was none.
+	 */
+	public V put(final long key, final V value) {
+		if (key == EMPTY_KEY) {
+			throw new IllegalArgumentException(RESERVED_KEY_MESSAGE);
+		}
+		int index = indexFor(key);
+		long existingKey;
+		while ((existingKey = keys[index]) != EMPTY_KEY) {
+			if (existingKey == key) {
+				final V previousValue = valueAt(index);
+				values[index] = value;
+				return previousValue;
+			}
+			index = (index + 1) & mask;
+		}
+		// At the maximum capacity the table no longer grows, so one slot is
+		// kept empty for probes of missing keys to stop at.
+		if ((keys.length == MAXIMUM_CAPACITY) && ((size + 1) >= keys.length)) {
+			throw new IllegalStateException(String.format(FULL_MESSAGE, keys.length - 1));
+		}
+		keys[index] = key;
+		values[index] = value;
+		if (++size > resizeThreshold) {
+			allocate(keys.length << 1);
+		}
+		return null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void forEachValue(final Consumer<? super V> consumer) {
+		for (int index = 0; index < keys.length; index++) {
+			if (keys[index] != EMPTY_KEY) {
+				consumer.accept(valueAt(index));
+			}
+		}
+	}
+
+	public List<V> values() {
+		final List<V> valueList = new ArrayList<>(size);
+		forEachValue(valueList::add);
+		return valueList;
+	}
+
+	public long[] keys() {
+		final long[] keyArray = new long[size];
+		int position = 0;
+		for (int index = 0; index < keys.length; index++) {
+			if (keys[index] != EMPTY_KEY) {
+				keyArray[position++] = keys[index];
+			}
+		}
+		return keyArray;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V valueAt(final int index) {
+		return (V) values[index];
+	}
+
+	private int indexFor(final long key) {
+		final long hash = key * GOLDEN_RATIO;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private void allocate(final int capacity) {
+		final long[] previousKeys = keys;
+		final Object[] previousValues = values;
+
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		resizeThreshold = (capacity == MAXIMUM_CAPACITY) ? Integer.MAX_VALUE : (int) (capacity * LOAD_FACTOR);
+
+		if (previousKeys != null) {
+			for (int previousIndex = 0; previousIndex < previousKeys.length; previousIndex++) {
+				final long key = previousKeys[previousIndex];
+				if (key != EMPTY_KEY) {
+					int index = indexFor(key);
+					while (keys[index] != EMPTY_KEY) {
+						index = (index + 1) & mask;
+					}
+					keys[index] = key;
+					values[index] = previousValues[previousIndex];
+				}
+			}
+		}
+	}
+
+	private static int capacityFor(final int expectedSize) {
+		final long minimumCapacity = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+		if (minimumCapacity >= MAXIMUM_CAPACITY) {
+			return MAXIMUM_CAPACITY;
+		}
+		final int capacity = Integer.highestOneBit((int) minimumCapacity - 1) << 1;
+		return Math.max(capacity, MINIMUM_CAPACITY);
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.shopify.collections;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append only store of byte records kept outside the Java heap, either in
+ * direct buffers or in a memory mapped file. Space is allocated in fixed size
+ * segments and a record never spans two segments. Each record is addressed by
+ * the <code>long</code> returned when it was appended.
+ *
+ * This class is not thread safe while records are being appended. Once it is
+ * filled, records can be read concurrently.
+ */
+public class OffHeapRecordStore implements Closeable {
+
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	static final String RECORD_TOO_LARGE_MESSAGE = "Record of %s bytes does not fit in a segment of %s bytes.";
+	static final String INVALID_SEGMENT_SIZE_MESSAGE = "Segment size of %s is too small.";
+
+	private static final int LENGTH_BYTES = Integer.BYTES;
+
+	private final int segmentSize;
+	private final FileChannel fileChannel;
+	private final List<ByteBuffer> segments = new ArrayList<>();
+	private ByteBuffer currentSegment;
+	private long sizeInBytes;
+
+	private OffHeapRecordStore(final int segmentSize, final FileChannel fileChannel) {
+		if (segmentSize <= LENGTH_BYTES) {
+			throw new IllegalArgumentException(String.format(INVALID_SEGMENT_SIZE_MESSAGE, segmentSize));
+		}
+		this.segmentSize = segmentSize;
+		this.fileChannel = fileChannel;
+	}
+
+	/**
+	 * @param segmentSize
+	 * @return an {@link OffHeapRecordStore} backed by direct buffers.
+	 */
+	public static OffHeapRecordStore direct(final int segmentSize) {
+		return new OffHeapRecordStore(segmentSize, null);
+	}
+
+	/**
+	 * Stores records in the given file, which is created or truncated. The
+	 * operating system pages the file in and out, so the store can grow well
+	 * beyond the available memory.
+	 *
+	 * @param file
+	 * @param segmentSize
+	 * @return an {@link OffHeapRecordStore} backed by a memory mapped file.
+	 * @throws IOException
+	 *             when the file cannot be opened.
+	 */
+	public static OffHeapRecordStore mapped(final Path file, final int segmentSize) throws IOException {
+		final FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		return new OffHeapRecordStore(segmentSize, fileChannel);
+	}
+
+	/**
+	 * @param record
+	 * @param length
+	 *            number of bytes of the record to store.
+	 * @return the address of the stored record.
+	 * @throws IOException
+	 *             when the file backing the store cannot be extended.
+	 */
+	public long append(final byte[] record, final int length) throws IOException {
+		final int requiredBytes = LENGTH_BYTES + length;
+		if (requiredBytes > segmentSize) {
+			throw new IllegalArgumentException(String.format(RECORD_TOO_LARGE_MESSAGE, length, segmentSize));
+		}
+		if ((currentSegment == null) || (currentSegment.remaining() < requiredBytes)) {
+			currentSegment = allocateSegment(segments.size());
+			segments.add(currentSegment);
+		}
+		final long address = ((long) (segments.size() - 1) * segmentSize) + currentSegment.position();
+		currentSegment.putInt(length);
+		currentSegment.put(record, 0, length);
+		sizeInBytes += requiredBytes;
+		return address;
+	}
+
+	public byte[] read(final long address) {
+		final ByteBuffer segment = segments.get((int) (address / segmentSize)).duplicate();
+		segment.position((int) (address % segmentSize));
+		final byte[] record = new byte[segment.getInt()];
+		segment.get(record);
+		return record;
+	}
+
+	/**
+	 * @return the number of bytes used by the stored records.
+	 */
+	public long sizeInBytes() {
+		return sizeInBytes;
+	}
+
+	/**
+	 * Releases the segments. Mapped segments are unmapped once they are garbage
+	 * collected; the backing file is left in place.
+	 */
+	@Override
+	public void close() throws IOException {
+		segments.clear();
+		currentSegment = null;
+		if (fileChannel != null) {
+			fileChannel.close();
+		}
+	}
+
+	private ByteBuffer allocateSegment(final int segmentIndex) throws IOException {
+		if (fileChannel == null) {
+			return ByteBuffer.allocateDirect(segmentSize);
+		}
+		return fileChannel.map(MapMode.READ_WRITE, (long) segmentIndex * segmentSize, segmentSize);
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.shopify.exceptions;
+
+import com.shopify.model.ShopifyBulkOperation;
+
+/**
+ * Thrown when a bulk operation fails, is canceled or expires, or does not
+ * finish in time.
+ */
+public class ShopifyBulkOperationException extends RuntimeException {
+
+	private static final long serialVersionUID = -3021876415203870466L;
+
+	static final String MESSAGE = "Bulk operation %s ended with status %s and error code %s.";
+
+	private final transient ShopifyBulkOperation bulkOperation;
+
+	public ShopifyBulkOperationException(final ShopifyBulkOperation bulkOperation) {
+		this(String.format(MESSAGE, bulkOperation.getId(), bulkOperation.getStatus(), bulkOperation.getErrorCode()),
+				bulkOperation);
+	}
+
+	public ShopifyBulkOperationException(final String message, final ShopifyBulkOperation bulkOperation) {
+		super(message);
+		this.bulkOperation = bulkOperation;
+	}
+
+	public ShopifyBulkOperation getBulkOperation() {
+		return bulkOperation;
+	}
+
+}
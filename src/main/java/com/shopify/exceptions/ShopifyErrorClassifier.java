@@ -0,0 +1,161 @@
+package com.shopify.exceptions;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import javax.ws.rs.core.Response;
+
+import com.shopify.retry.ShopifyRetryAttempt;
+
+/**
+ * Tells failures worth trying again, because Shopify was busy or unreachable,
+ * from those that will fail the same way every time, such as invalid requests
+ * and missing resources.
+ *
+ * The SDK already retries busy responses and failed connections itself until
+ * its maximum request retry timeout passes, 3 minutes by default, and only
+ * then throws a {@link ShopifyClientException} caused by a
+ * {@link ShopifyRetryException}. Callers that queue work of their own, such as
+ * batches, use this to decide whether a request that still failed should be
+ * queued again, with {@link #isUnprocessed(Throwable)} for requests that must
+ * not be made twice, such as creations. The two layers multiply: each attempt of a caller that makes
+ * a request up to 3 times may itself take the whole retry timeout, so such a
+ * request can take 3 times the timeout before it finally fails. Lower the
+ * SDK's retry timeout or the caller's attempts when that is too long.
+ */
+public final class ShopifyErrorClassifier {
+
+	static final String COULD_NOT_BE_SAVED_MESSAGE = "could not successfully be saved";
+
+	private static final int TOO_MANY_REQUESTS_STATUS_CODE = 429;
+	private static final int LOCKED_STATUS_CODE = 423;
+	private static final int UNPROCESSABLE_ENTITY_STATUS_CODE = 422;
+	private static final int MINIMUM_SERVER_ERROR_STATUS_CODE = 500;
+
+	private ShopifyErrorClassifier() {
+	}
+
+	/**
+	 * @param throwable
+	 *            the failure of a request, possibly wrapped by a future.
+	 * @return true when the request may succeed if made again.
+	 */
+	public static boolean isRetriable(final Throwable throwable) {
+		final Throwable cause = unwrap(throwable);
+		if (cause instanceof ShopifyErrorResponseException) {
+			final ShopifyErrorResponseException shopifyErrorResponseException = (ShopifyErrorResponseException) cause;
+			return isRetriable(shopifyErrorResponseException.getStatusCode(),
+					shopifyErrorResponseException.getShopifyErrorCodes());
+		}
+		// Only requests that could not be sent or kept being answered busy
+		// until the retry timeout passed are worth making again. The SDK also
+		// throws client exceptions for rejected access tokens, responses that
+		// cannot be mapped and interrupts, which would fail the same way.
+		final ShopifyRetryException shopifyRetryException = findCause(cause, ShopifyRetryException.class);
+		return (shopifyRetryException != null)
+				&& (findCause(shopifyRetryException, InterruptedException.class) == null);
+	}
+
+	/**
+	 * Stricter than {@link #isRetriable(Throwable)}, for requests that must not
+	 * be made twice, such as creating a refund. A request that timed out or
+	 * was answered with a server error may still have been processed by
+	 * Shopify, so only requests that Shopify turned away as busy, or that could
+	 * not connect to Shopify at all, are worth making again.
+	 *
+	 * @param throwable
+	 *            the failure of a request, possibly wrapped by a future.
+	 * @return true when Shopify certainly did not act on the request.
+	 */
+	public static boolean isUnprocessed(final Throwable throwable) {
+		final Throwable cause = unwrap(throwable);
+		if (cause instanceof ShopifyErrorResponseException) {
+			final ShopifyErrorResponseException shopifyErrorResponseException = (ShopifyErrorResponseException) cause;
+			return isUnprocessed(shopifyErrorResponseException.getStatusCode(),
+					shopifyErrorResponseException.getShopifyErrorCodes());
+		}
+		final ShopifyRetryException shopifyRetryException = findCause(cause, ShopifyRetryException.class);
+		if ((shopifyRetryException == null) || (shopifyRetryException.getLastAttempt() == null)
+				|| (findCause(shopifyRetryException, InterruptedException.class) != null)) {
+			return false;
+		}
+		final ShopifyRetryAttempt<?> lastAttempt = shopifyRetryException.getLastAttempt();
+		if (lastAttempt.hasException()) {
+			return (findCause(lastAttempt.getException(), ConnectException.class) != null)
+					|| (findCause(lastAttempt.getException(), UnknownHostException.class) != null);
+		}
+		// The SDK only retries unprocessable responses that could not be
+		// saved.
+		return (lastAttempt.getResult() instanceof Response)
+				&& isUnprocessedStatusCode(((Response) lastAttempt.getResult()).getStatus());
+	}
+
+	/**
+	 * @param statusCode
+	 * @param shopifyErrorCodes
+	 *            the error codes of the response, as created by
+	 *            {@link ShopifyErrorCodeFactory}.
+	 * @return true when a request answered with them was certainly not acted
+	 *         on by Shopify.
+	 */
+	public static boolean isUnprocessed(final int statusCode, final List<ShopifyErrorCode> shopifyErrorCodes) {
+		if (statusCode == UNPROCESSABLE_ENTITY_STATUS_CODE) {
+			return isRetriable(statusCode, shopifyErrorCodes);
+		}
+		return isUnprocessedStatusCode(statusCode);
+	}
+
+	/**
+	 * @param statusCode
+	 * @param shopifyErrorCodes
+	 *            the error codes of the response, as created by
+	 *            {@link ShopifyErrorCodeFactory}.
+	 * @return true when a request answered with them may succeed if made
+	 *         again.
+	 */
+	public static boolean isRetriable(final int statusCode, final List<ShopifyErrorCode> shopifyErrorCodes) {
+		if ((statusCode == TOO_MANY_REQUESTS_STATUS_CODE) || (statusCode == LOCKED_STATUS_CODE)
+				|| (statusCode >= MINIMUM_SERVER_ERROR_STATUS_CODE)) {
+			return true;
+		}
+		if (statusCode != UNPROCESSABLE_ENTITY_STATUS_CODE) {
+			return false;
+		}
+		// A concurrent change to the same resource is answered with a generic
+		// error, while invalid fields have error codes of their own.
+		return !shopifyErrorCodes.isEmpty() && shopifyErrorCodes.stream()
+				.allMatch(shopifyErrorCode -> (shopifyErrorCode.getType() == ShopifyErrorCode.Type.UNKNOWN)
+						&& (shopifyErrorCode.getMessage() != null)
+						&& shopifyErrorCode.getMessage().contains(COULD_NOT_BE_SAVED_MESSAGE));
+	}
+
+	private static boolean isUnprocessedStatusCode(final int statusCode) {
+		return (statusCode == TOO_MANY_REQUESTS_STATUS_CODE) || (statusCode == LOCKED_STATUS_CODE)
+				|| (statusCode == UNPROCESSABLE_ENTITY_STATUS_CODE);
+	}
+
+	private static <T extends Throwable> T findCause(final Throwable throwable, final Class<T> causeClass) {
+		for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+			if (causeClass.isInstance(cause)) {
+				return causeClass.cast(cause);
+			}
+			if (cause.getCause() == cause) {
+				break;
+			}
+		}
+		return null;
+	}
+
+	private static Throwable unwrap(final Throwable throwable) {
+		Throwable cause = throwable;
+		while (((cause instanceof CompletionException) || (cause instanceof ExecutionException))
+				&& (cause.getCause() != null)) {
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+
+}
@@ -7,14 +7,15 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.shopify.mappers.ShopifySdkObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.shopify.mappers.ShopifyMappers;
 import com.shopify.model.ShopifyErrorsRoot;
 
 public class ShopifyErrorCodeFactory {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ShopifyErrorCodeFactory.class);
 	private static final String COULD_NOT_PARSE_ERROR_RESPONSE_MESSAGE = "Could not parse error message from shopify for response body: {}";
 	private static final String NO_VALID_ERROR_CODES_FOUND_MESSAGE = "Shopify error format is not readable %s";
+	private static final ObjectReader ERRORS_READER = ShopifyMappers.getDefault().getReader(ShopifyErrorsRoot.class);
 
 	private ShopifyErrorCodeFactory() {
 	}
@@ -22,9 +23,7 @@ public class ShopifyErrorCodeFactory {
 	public static final List<ShopifyErrorCode> create(final String responseBody) {
 		final List<ShopifyErrorCode> shopifyErrorCodes = new LinkedList<>();
 		try {
-			final ObjectMapper objectMapper = ShopifySdkObjectMapper.buildMapper();
-
-			final ShopifyErrorsRoot shopifyErrorsRoot = objectMapper.readValue(responseBody, ShopifyErrorsRoot.class);
+			final ShopifyErrorsRoot shopifyErrorsRoot = ERRORS_READER.readValue(responseBody);
 			final List<ShopifyErrorCode> shippingAddressErrorCodes = shopifyErrorsRoot.getErrors()
 					.getShippingAddressErrors().stream()
 					.map(shippingAddress -> new ShopifyErrorCode(ShopifyErrorCode.Type.SHIPPING_ADDRESS,
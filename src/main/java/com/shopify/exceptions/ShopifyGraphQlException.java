@@ -0,0 +1,31 @@
+package com.shopify.exceptions;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.shopify.model.ShopifyGraphQlError;
+
+/**
+ * Thrown when a GraphQL Admin API response has errors. GraphQL reports errors
+ * in the body of a 200 response, so they do not surface as a
+ * {@link ShopifyErrorResponseException}.
+ */
+public class ShopifyGraphQlException extends RuntimeException {
+
+	private static final long serialVersionUID = 6190482710364518163L;
+
+	static final String MESSAGE = "GraphQL query failed with errors: %s";
+
+	private final transient List<ShopifyGraphQlError> errors;
+
+	public ShopifyGraphQlException(final List<ShopifyGraphQlError> errors) {
+		super(String.format(MESSAGE,
+				errors.stream().map(ShopifyGraphQlError::getMessage).collect(Collectors.joining("; "))));
+		this.errors = errors;
+	}
+
+	public List<ShopifyGraphQlError> getErrors() {
+		return errors;
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.shopify.exceptions;
+
+import com.shopify.retry.ShopifyRetryAttempt;
+
+/**
+ * Thrown when a {@link com.shopify.retry.ShopifyRetryPolicy} stops retrying,
+ * because its timeout passed or the waiting thread was interrupted.
+ */
+public class ShopifyRetryException extends Exception {
+
+	static final String MESSAGE = "Retrying failed after %d attempts and %d milliseconds.";
+	private static final long serialVersionUID = -2315380187014282617L;
+
+	private final transient ShopifyRetryAttempt<?> lastAttempt;
+
+	public ShopifyRetryException(final ShopifyRetryAttempt<?> lastAttempt) {
+		this(lastAttempt, lastAttempt.getException());
+	}
+
+	public ShopifyRetryException(final ShopifyRetryAttempt<?> lastAttempt, final Throwable cause) {
+		super(String.format(MESSAGE, lastAttempt.getAttemptNumber(),
+				lastAttempt.getDelaySinceFirstAttemptMilliseconds()), cause);
+		this.lastAttempt = lastAttempt;
+	}
+
+	public ShopifyRetryAttempt<?> getLastAttempt() {
+		return lastAttempt;
+	}
+
+}
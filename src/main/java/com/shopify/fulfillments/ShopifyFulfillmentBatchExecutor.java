@@ -0,0 +1,243 @@
+package com.shopify.fulfillments;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.shopify.ShopifySdk;
+import com.shopify.bulk.ShopifyBulkExecutor;
+import com.shopify.bulk.ShopifyBulkReport;
+import com.shopify.exceptions.ShopifyErrorClassifier;
+import com.shopify.model.ShopifyFulfillment;
+import com.shopify.model.ShopifyFulfillmentCreationRequest;
+import com.shopify.model.ShopifyFulfillmentUpdateRequest;
+
+/**
+ * Creates and updates fulfillments of many orders at once.
+ *
+ * Requests of different orders are made by a {@link ShopifyBulkExecutor} on a
+ * fixed number of threads, within the SDK's
+ * {@link com.shopify.ratelimit.ShopifyRateLimiter}. Requests of the same order
+ * are made one after another in the order they were submitted, since Shopify
+ * refuses concurrent changes to the fulfillments of an order. A creation that
+ * Shopify {@link ShopifyErrorClassifier#isUnprocessed(Throwable) certainly did
+ * not act on}, or an update that failed in a way
+ * {@link ShopifyErrorClassifier#isRetriable(Throwable) worth retrying}, is made
+ * again after a growing delay, before the next request of its order, up to
+ * the maximum attempts. A creation that timed out is not made again, since it
+ * may have created the fulfillment already.
+ *
+ * The result of each request is returned as a future, completed with the
+ * fulfillment or with the exception of its last attempt. An executor is
+ * thread safe. Close it to stop its threads once the submitted requests are
+ * made.
+ */
+public class ShopifyFulfillmentBatchExecutor implements Closeable {
+
+	static final int DEFAULT_CONCURRENT_ORDERS = 4;
+	static final int DEFAULT_MAXIMUM_ATTEMPTS = 3;
+	static final long DEFAULT_RETRY_DELAY_MILLISECONDS = 1000L;
+	static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS = 60_000L;
+
+	static final String INVALID_SHOPIFY_SDK_MESSAGE = "Fulfillment batch executor requires a Shopify SDK.";
+	static final String INVALID_CONCURRENT_ORDERS_MESSAGE = "Fulfillment batch concurrent orders must be at least 1.";
+	static final String INVALID_MAXIMUM_ATTEMPTS_MESSAGE = "Fulfillment batch maximum attempts must be at least 1.";
+
+	private final ShopifyBulkExecutor<FulfillmentRequest, ShopifyFulfillment> bulkExecutor;
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	private ShopifyFulfillmentBatchExecutor(final Builder builder) {
+		this.bulkExecutor = ShopifyBulkExecutor
+				.<FulfillmentRequest, ShopifyFulfillment>newBuilder(builder.shopifySdk,
+						(shopifySdk, fulfillmentRequest) -> fulfillmentRequest.request.apply(shopifySdk))
+				.withKey(fulfillmentRequest -> fulfillmentRequest.orderId)
+				.withItemRetryClassifier(
+						(fulfillmentRequest, failure) -> fulfillmentRequest.retryClassifier.test(failure))
+				.withMaximumConcurrency(builder.concurrentOrders).withMaximumAttempts(builder.maximumAttempts)
+				.withRetryDelay(builder.retryDelayMilliseconds, TimeUnit.MILLISECONDS)
+				.withShutdownTimeout(builder.shutdownTimeoutMilliseconds, TimeUnit.MILLISECONDS).build();
+	}
+
+	public CompletableFuture<ShopifyFulfillment> create(
+			final ShopifyFulfillmentCreationRequest shopifyFulfillmentCreationRequest) {
+		return bulkExecutor.submit(new FulfillmentRequest(shopifyFulfillmentCreationRequest.getRequest(),
+				shopifySdk -> shopifySdk.createFulfillment(shopifyFulfillmentCreationRequest),
+				ShopifyErrorClassifier::isUnprocessed));
+	}
+
+	public CompletableFuture<ShopifyFulfillment> update(
+			final ShopifyFulfillmentUpdateRequest shopifyFulfillmentUpdateRequest) {
+		return bulkExecutor.submit(new FulfillmentRequest(shopifyFulfillmentUpdateRequest.getRequest(),
+				shopifySdk -> shopifySdk.updateFulfillment(shopifyFulfillmentUpdateRequest),
+				ShopifyErrorClassifier::isRetriable));
+	}
+
+	/**
+	 * Submits every creation request of the stream without waiting for any of
+	 * them to be made.
+	 *
+	 * @param shopifyFulfillmentCreationRequests
+	 * @return the result of each request, in the order of the stream.
+	 */
+	public List<CompletableFuture<ShopifyFulfillment>> createAll(
+			final Stream<ShopifyFulfillmentCreationRequest> shopifyFulfillmentCreationRequests) {
+		return shopifyFulfillmentCreationRequests.map(this::create).collect(Collectors.toList());
+	}
+
+	/**
+	 * Submits every update request of the stream without waiting for any of
+	 * them to be made.
+	 *
+	 * @param shopifyFulfillmentUpdateRequests
+	 * @return the result of each request, in the order of the stream.
+	 */
+	public List<CompletableFuture<ShopifyFulfillment>> updateAll(
+			final Stream<ShopifyFulfillmentUpdateRequest> shopifyFulfillmentUpdateRequests) {
+		return shopifyFulfillmentUpdateRequests.map(this::update).collect(Collectors.toList());
+	}
+
+	/**
+	 * @return the number of requests that returned a fulfillment.
+	 */
+	public long getSucceededCount() {
+		return bulkExecutor.getReport().getSucceededCount();
+	}
+
+	/**
+	 * @return the number of requests that failed on their last attempt.
+	 */
+	public long getFailedCount() {
+		return bulkExecutor.getReport().getFailedCount();
+	}
+
+	/**
+	 * @return the number of attempts made again after a retriable failure.
+	 */
+	public long getRetriedCount() {
+		return bulkExecutor.getReport().getRetriedCount();
+	}
+
+	/**
+	 * @return the progress of the submitted requests, with every request that
+	 *         failed.
+	 */
+	public ShopifyBulkReport<FulfillmentRequest> getReport() {
+		return bulkExecutor.getReport();
+	}
+
+	/**
+	 * Stops accepting requests and waits for the submitted ones to be made, up
+	 * to the shutdown timeout.
+	 */
+	@Override
+	public void close() {
+		bulkExecutor.close();
+	}
+
+	/**
+	 * A fulfillment creation or update, made one after another with the other
+	 * requests of its order.
+	 */
+	public static class FulfillmentRequest {
+
+		private final ShopifyFulfillment shopifyFulfillment;
+		private final String orderId;
+		private final Function<ShopifySdk, ShopifyFulfillment> request;
+		private final Predicate<Throwable> retryClassifier;
+
+		private FulfillmentRequest(final ShopifyFulfillment shopifyFulfillment,
+				final Function<ShopifySdk, ShopifyFulfillment> request, final Predicate<Throwable> retryClassifier) {
+			this.shopifyFulfillment = shopifyFulfillment;
+			this.orderId = shopifyFulfillment.getOrderId();
+			this.request = request;
+			this.retryClassifier = retryClassifier;
+		}
+
+		/**
+		 * @return the fulfillment to create or update.
+		 */
+		public ShopifyFulfillment getShopifyFulfillment() {
+			return shopifyFulfillment;
+		}
+
+		@Override
+		public String toString() {
+			return "fulfillment " + shopifyFulfillment.getId() + " of order " + orderId;
+		}
+
+	}
+
+	public static class Builder {
+
+		private ShopifySdk shopifySdk;
+		private int concurrentOrders = DEFAULT_CONCURRENT_ORDERS;
+		private int maximumAttempts = DEFAULT_MAXIMUM_ATTEMPTS;
+		private long retryDelayMilliseconds = DEFAULT_RETRY_DELAY_MILLISECONDS;
+		private long shutdownTimeoutMilliseconds = DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS;
+
+		private Builder() {
+		}
+
+		public Builder withShopifySdk(final ShopifySdk shopifySdk) {
+			this.shopifySdk = shopifySdk;
+			return this;
+		}
+
+		/**
+		 * @param concurrentOrders
+		 *            the number of orders whose requests are made at the same
+		 *            time.
+		 */
+		public Builder withConcurrentOrders(final int concurrentOrders) {
+			if (concurrentOrders < 1) {
+				throw new IllegalArgumentException(INVALID_CONCURRENT_ORDERS_MESSAGE);
+			}
+			this.concurrentOrders = concurrentOrders;
+			return this;
+		}
+
+		/**
+		 * @param maximumAttempts
+		 *            the number of times a request is made before its failure
+		 *            is returned, as for
+		 *            {@link ShopifyBulkExecutor.Builder#withMaximumAttempts(int)}.
+		 */
+		public Builder withMaximumAttempts(final int maximumAttempts) {
+			if (maximumAttempts < 1) {
+				throw new IllegalArgumentException(INVALID_MAXIMUM_ATTEMPTS_MESSAGE);
+			}
+			this.maximumAttempts = maximumAttempts;
+			return this;
+		}
+
+		/**
+		 * @see ShopifyBulkExecutor.Builder#withRetryDelay(long, TimeUnit)
+		 */
+		public Builder withRetryDelay(final long retryDelay, final TimeUnit timeUnit) {
+			this.retryDelayMilliseconds = timeUnit.toMillis(retryDelay);
+			return this;
+		}
+
+		public Builder withShutdownTimeout(final long shutdownTimeout, final TimeUnit timeUnit) {
+			this.shutdownTimeoutMilliseconds = timeUnit.toMillis(shutdownTimeout);
+			return this;
+		}
+
+		public ShopifyFulfillmentBatchExecutor build() {
+			if (shopifySdk == null) {
+				throw new IllegalArgumentException(INVALID_SHOPIFY_SDK_MESSAGE);
+			}
+			return new ShopifyFulfillmentBatchExecutor(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.shopify.graphql;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.shopify.mappers.ShopifyMappers;
+import com.shopify.model.ShopifyLineItem;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyVariant;
+
+/**
+ * Reads the JSONL result of a bulk operation one line at a time. A bulk
+ * result lists the nodes of nested connections as lines of their own after
+ * their parent, linked to it by <code>__parentId</code>, so the reader holds
+ * one parent and adds its children until the next parent starts. Only one
+ * product or order is in memory at a time, however large the result.
+ */
+public final class ShopifyBulkOperationResultReader {
+
+	static final String ORPHAN_LINE_MESSAGE = "Bulk operation result line %d belongs to %s, which is not the "
+			+ "object before it.";
+
+	private static final ObjectReader JSON_NODE_READER = ShopifyMappers.getDefault().getMapper()
+			.reader(JsonNode.class);
+
+	private ShopifyBulkOperationResultReader() {
+	}
+
+	/**
+	 * Reads products with their variants, as selected by
+	 * {@link ShopifyBulkOperationRunner#PRODUCTS_QUERY}.
+	 *
+	 * @param inputStream
+	 * @param shopifyProductConsumer
+	 * @return the number of products read.
+	 */
+	public static int readProducts(final InputStream inputStream,
+			final Consumer<ShopifyProduct> shopifyProductConsumer) {
+		return read(inputStream, productNode -> {
+			final ShopifyProduct shopifyProduct = ShopifyGraphQlMapper.toProduct(productNode);
+			shopifyProduct.setVariants(new ArrayList<>());
+			return shopifyProduct;
+		}, (shopifyProduct, variantNode) -> {
+			final ShopifyVariant shopifyVariant = ShopifyGraphQlMapper.toVariant(variantNode, shopifyProduct.getId());
+			shopifyProduct.getVariants().add(shopifyVariant);
+		}, shopifyProductConsumer);
+	}
+
+	/**
+	 * Reads orders with their line items, as selected by
+	 * {@link ShopifyBulkOperationRunner#ORDERS_QUERY}.
+	 *
+	 * @param inputStream
+	 * @param shopifyOrderConsumer
+	 * @return the number of orders read.
+	 */
+	public static int readOrders(final InputStream inputStream, final Consumer<ShopifyOrder> shopifyOrderConsumer) {
+		return read(inputStream, orderNode -> {
+			final ShopifyOrder shopifyOrder = ShopifyGraphQlMapper.toOrder(orderNode);
+			shopifyOrder.setLineItems(new ArrayList<>());
+			return shopifyOrder;
+		}, (shopifyOrder, lineItemNode) -> {
+			final ShopifyLineItem shopifyLineItem = ShopifyGraphQlMapper.toLineItem(lineItemNode);
+			shopifyOrder.getLineItems().add(shopifyLineItem);
+		}, shopifyOrderConsumer);
+	}
+
+	private static <P> int read(final InputStream inputStream, final Function<JsonNode, P> parentBinder,
+			final BiConsumer<P, JsonNode> childAdder, final Consumer<P> parentConsumer) {
+		int parentCount = 0;
+		int lineNumber = 0;
+		String parentGid = null;
+		P parent = null;
+		try (final MappingIterator<JsonNode> lines = JSON_NODE_READER.readValues(inputStream)) {
+			while (lines.hasNextValue()) {
+				final JsonNode line = lines.nextValue();
+				lineNumber++;
+				final JsonNode lineParentGid = line.get(ShopifyGraphQlMapper.BULK_PARENT_ID);
+				if (lineParentGid == null) {
+					if (parent != null) {
+						parentConsumer.accept(parent);
+						parentCount++;
+					}
+					parentGid = line.path(ShopifyGraphQlMapper.ID).asText();
+					parent = parentBinder.apply(line);
+				} else if ((parent != null) && parentGid.equals(lineParentGid.asText())) {
+					childAdder.accept(parent, line);
+				} else {
+					throw new IllegalStateException(
+							String.format(ORPHAN_LINE_MESSAGE, lineNumber, lineParentGid.asText()));
+				}
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (parent != null) {
+			parentConsumer.accept(parent);
+			parentCount++;
+		}
+		return parentCount;
+	}
+
+}
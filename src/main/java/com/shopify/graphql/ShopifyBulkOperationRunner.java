@@ -0,0 +1,243 @@
+package com.shopify.graphql;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToIntBiFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shopify.exceptions.ShopifyBulkOperationException;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.exceptions.ShopifyGraphQlException;
+import com.shopify.mappers.ShopifyMappers;
+import com.shopify.model.ShopifyBulkOperation;
+import com.shopify.model.ShopifyGraphQlError;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+
+/**
+ * Exports whole catalogs and order histories with GraphQL bulk operations:
+ * Shopify runs the query in the background and writes the result to a JSONL
+ * file, so an export of any size takes a handful of requests and barely
+ * touches the rate limit.
+ *
+ * The runner submits the query, polls the operation with an exponential
+ * backoff until it finishes, and streams the result through
+ * {@link ShopifyBulkOperationResultReader}. A shop runs one bulk query at a
+ * time.
+ */
+public class ShopifyBulkOperationRunner {
+
+	static final long DEFAULT_MINIMUM_POLL_DELAY_MILLISECONDS = 1000L;
+	static final long DEFAULT_MAXIMUM_POLL_DELAY_MILLISECONDS = 30000L;
+	static final long DEFAULT_TIMEOUT_MILLISECONDS = TimeUnit.HOURS.toMillis(24);
+
+	static final String TIMED_OUT_MESSAGE = "Bulk operation %s did not finish within %d milliseconds.";
+	static final String INTERRUPTED_MESSAGE = "Interrupted while waiting for bulk operation %s.";
+	static final String UNBINDABLE_BULK_OPERATION_MESSAGE = "Bulk operation could not be read from the response.";
+
+	static final String QUERY_VARIABLE = "query";
+	static final String ID_VARIABLE = "id";
+	static final String BULK_OPERATION_RUN_QUERY = "bulkOperationRunQuery";
+	static final String BULK_OPERATION = "bulkOperation";
+	static final String USER_ERRORS = "userErrors";
+	static final String MESSAGE = "message";
+	static final String NODE = "node";
+
+	static final String BULK_OPERATION_FIELDS = "id status errorCode objectCount url partialDataUrl createdAt "
+			+ "completedAt";
+	static final String SUBMIT_MUTATION = "mutation bulkOperationRunQuery($query: String!) { "
+			+ "bulkOperationRunQuery(query: $query) { bulkOperation { " + BULK_OPERATION_FIELDS + " } "
+			+ "userErrors { field message } } }";
+	static final String POLL_QUERY = "query getBulkOperation($id: ID!) { node(id: $id) { ... on BulkOperation { "
+			+ BULK_OPERATION_FIELDS + " } } }";
+
+	/**
+	 * Every product with its variants.
+	 */
+	public static final String PRODUCTS_QUERY = "{ products { edges { node { id "
+			+ ShopifyGraphQlClient.PRODUCT_FIELDS + " variants { edges { node { id "
+			+ ShopifyGraphQlClient.VARIANT_FIELDS + " } } } } } } }";
+
+	/**
+	 * Every order with its line items.
+	 */
+	public static final String ORDERS_QUERY = "{ orders { edges { node { id " + ShopifyGraphQlClient.ORDER_FIELDS
+			+ " lineItems { edges { node { id title name sku quantity vendor variant_title: variantTitle "
+			+ "requires_shipping: requiresShipping taxable gift_card: isGiftCard "
+			+ "fulfillable_quantity: fulfillableQuantity variant { legacyResourceId } product { legacyResourceId } "
+			+ "price: originalUnitPriceSet { shopMoney { amount } } "
+			+ "total_discount: totalDiscountSet { shopMoney { amount } } } } } } } } }";
+
+	private static final String BULK_OPERATION_FINISHED_MESSAGE = "Bulk operation {} finished with status {} "
+			+ "and {} objects";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShopifyBulkOperationRunner.class);
+
+	private final ShopifyGraphQlClient shopifyGraphQlClient;
+	private final long minimumPollDelayMilliseconds;
+	private final long maximumPollDelayMilliseconds;
+	private final long timeoutMilliseconds;
+
+	public ShopifyBulkOperationRunner(final ShopifyGraphQlClient shopifyGraphQlClient) {
+		this(shopifyGraphQlClient, DEFAULT_MINIMUM_POLL_DELAY_MILLISECONDS, DEFAULT_MAXIMUM_POLL_DELAY_MILLISECONDS,
+				DEFAULT_TIMEOUT_MILLISECONDS);
+	}
+
+	/**
+	 * @param shopifyGraphQlClient
+	 * @param minimumPollDelayMilliseconds
+	 *            the delay before the first poll, doubled after each poll.
+	 * @param maximumPollDelayMilliseconds
+	 * @param timeoutMilliseconds
+	 *            how long to wait for an operation to finish.
+	 */
+	public ShopifyBulkOperationRunner(final ShopifyGraphQlClient shopifyGraphQlClient,
+			final long minimumPollDelayMilliseconds, final long maximumPollDelayMilliseconds,
+			final long timeoutMilliseconds) {
+		this.shopifyGraphQlClient = shopifyGraphQlClient;
+		this.minimumPollDelayMilliseconds = minimumPollDelayMilliseconds;
+		this.maximumPollDelayMilliseconds = maximumPollDelayMilliseconds;
+		this.timeoutMilliseconds = timeoutMilliseconds;
+	}
+
+	/**
+	 * @param shopifyProductConsumer
+	 * @return the number of products exported.
+	 */
+	public int exportProducts(final Consumer<ShopifyProduct> shopifyProductConsumer) {
+		return export(PRODUCTS_QUERY, ShopifyBulkOperationResultReader::readProducts, shopifyProductConsumer);
+	}
+
+	/**
+	 * @param shopifyOrderConsumer
+	 * @return the number of orders exported.
+	 */
+	public int exportOrders(final Consumer<ShopifyOrder> shopifyOrderConsumer) {
+		return export(ORDERS_QUERY, ShopifyBulkOperationResultReader::readOrders, shopifyOrderConsumer);
+	}
+
+	/**
+	 * Submits a bulk query and waits for it to complete.
+	 *
+	 * @param bulkQuery
+	 * @return the completed operation.
+	 * @throws ShopifyBulkOperationException
+	 *             if the operation did not complete.
+	 */
+	public ShopifyBulkOperation run(final String bulkQuery) {
+		final ShopifyBulkOperation bulkOperation = awaitFinished(submit(bulkQuery).getId());
+		if (!bulkOperation.isCompleted()) {
+			throw new ShopifyBulkOperationException(bulkOperation);
+		}
+		return bulkOperation;
+	}
+
+	/**
+	 * @param bulkQuery
+	 * @return the created operation.
+	 * @throws ShopifyGraphQlException
+	 *             if Shopify rejected the query, for instance because another
+	 *             bulk query is running.
+	 */
+	public ShopifyBulkOperation submit(final String bulkQuery) {
+		final JsonNode result = shopifyGraphQlClient
+				.query(SUBMIT_MUTATION, Collections.singletonMap(QUERY_VARIABLE, bulkQuery))
+				.path(BULK_OPERATION_RUN_QUERY);
+		final JsonNode userErrors = result.path(USER_ERRORS);
+		if (userErrors.size() > 0) {
+			final List<ShopifyGraphQlError> errors = new ArrayList<>(userErrors.size());
+			for (final JsonNode userError : userErrors) {
+				final ShopifyGraphQlError error = new ShopifyGraphQlError();
+				error.setMessage(userError.path(MESSAGE).asText());
+				errors.add(error);
+			}
+			throw new ShopifyGraphQlException(errors);
+		}
+		return toBulkOperation(result.get(BULK_OPERATION));
+	}
+
+	/**
+	 * Polls an operation until it finishes, waiting twice as long between each
+	 * poll up to the maximum poll delay.
+	 *
+	 * @param bulkOperationId
+	 * @return the finished operation, whatever its status.
+	 * @throws ShopifyBulkOperationException
+	 *             if the operation did not finish within the timeout.
+	 */
+	public ShopifyBulkOperation awaitFinished(final String bulkOperationId) {
+		final long deadline = System.currentTimeMillis() + timeoutMilliseconds;
+		long pollDelayMilliseconds = minimumPollDelayMilliseconds;
+		while (true) {
+			sleep(bulkOperationId, Math.min(pollDelayMilliseconds, Math.max(0, deadline - System.currentTimeMillis())));
+			final ShopifyBulkOperation bulkOperation = toBulkOperation(shopifyGraphQlClient
+					.query(POLL_QUERY, Collections.singletonMap(ID_VARIABLE, bulkOperationId)).get(NODE));
+			if (bulkOperation.isFinished()) {
+				LOGGER.info(BULK_OPERATION_FINISHED_MESSAGE, bulkOperation.getId(), bulkOperation.getStatus(),
+						bulkOperation.getObjectCount());
+				return bulkOperation;
+			}
+			if (System.currentTimeMillis() >= deadline) {
+				throw new ShopifyBulkOperationException(
+						String.format(TIMED_OUT_MESSAGE, bulkOperationId, timeoutMilliseconds), bulkOperation);
+			}
+			pollDelayMilliseconds = Math.min(pollDelayMilliseconds * 2, maximumPollDelayMilliseconds);
+		}
+	}
+
+	/**
+	 * Opens the result of a completed operation. The caller closes the stream.
+	 *
+	 * @param bulkOperation
+	 * @return the JSONL result, which is empty if the operation matched no
+	 *         objects.
+	 */
+	public InputStream openResult(final ShopifyBulkOperation bulkOperation) {
+		if (bulkOperation.getUrl() == null) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		return shopifyGraphQlClient.getShopifySdk().openBulkOperationResult(bulkOperation.getUrl());
+	}
+
+	private <T> int export(final String bulkQuery, final ToIntBiFunction<InputStream, Consumer<T>> resultReader,
+			final Consumer<T> consumer) {
+		final ShopifyBulkOperation bulkOperation = run(bulkQuery);
+		try (final InputStream inputStream = openResult(bulkOperation)) {
+			return resultReader.applyAsInt(inputStream, consumer);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void sleep(final String bulkOperationId, final long delayMilliseconds) {
+		try {
+			TimeUnit.MILLISECONDS.sleep(delayMilliseconds);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ShopifyClientException(String.format(INTERRUPTED_MESSAGE, bulkOperationId), e);
+		}
+	}
+
+	private static ShopifyBulkOperation toBulkOperation(final JsonNode bulkOperationNode) {
+		if ((bulkOperationNode == null) || bulkOperationNode.isNull()) {
+			throw new IllegalStateException(UNBINDABLE_BULK_OPERATION_MESSAGE);
+		}
+		try {
+			return ShopifyMappers.getDefault().getMapper().treeToValue(bulkOperationNode, ShopifyBulkOperation.class);
+		} catch (final JsonProcessingException e) {
+			throw new ShopifyClientException(UNBINDABLE_BULK_OPERATION_MESSAGE, e);
+		}
+	}
+
+}
@@ -0,0 +1,273 @@
+package com.shopify.graphql;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shopify.ShopifySdk;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.exceptions.ShopifyGraphQlException;
+import com.shopify.model.Metafield;
+import com.shopify.model.ShopifyGraphQlError;
+import com.shopify.model.ShopifyGraphQlRequest;
+import com.shopify.model.ShopifyGraphQlResponse;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyOrderDetails;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyProductDetails;
+import com.shopify.model.ShopifyVariant;
+
+/**
+ * Queries the GraphQL Admin API through a {@link ShopifySdk}, so it shares the
+ * SDK's authentication, connection and retries.
+ *
+ * GraphQL rate limits by the calculated cost of each query instead of by the
+ * number of requests. The client remembers the requested cost of each query it
+ * has sent and waits on a {@link ShopifyGraphQlThrottle} for that many points
+ * before sending it again; throttled queries wait for the points to be
+ * restored and are sent again.
+ *
+ * The typed queries fetch in one request what takes several REST calls, and
+ * bind the result to the REST models.
+ */
+public class ShopifyGraphQlClient {
+
+	static final int MAXIMUM_THROTTLED_ATTEMPTS = 10;
+	static final int VARIANT_PAGE_SIZE = 25;
+	static final int METAFIELD_PAGE_SIZE = 25;
+	static final int TRANSACTION_LIMIT = 100;
+	static final int RISK_LIMIT = 10;
+	static final int ORDER_METAFIELD_PAGE_SIZE = 100;
+
+	static final String THROTTLED = "THROTTLED";
+	static final String INTERRUPTED_MESSAGE = "Interrupted while waiting for GraphQL query cost to be restored.";
+
+	static final String COST = "cost";
+	static final String REQUESTED_QUERY_COST = "requestedQueryCost";
+	static final String THROTTLE_STATUS = "throttleStatus";
+
+	static final String ID_VARIABLE = "id";
+	static final String AFTER_VARIABLE = "after";
+	static final String VARIANTS_VARIABLE = "variants";
+	static final String METAFIELDS_VARIABLE = "metafields";
+	static final String TRANSACTIONS_VARIABLE = "transactions";
+	static final String RISKS_VARIABLE = "risks";
+	static final String PRODUCT = "product";
+	static final String ORDER = "order";
+
+	static final String PRODUCT_FIELDS = "title product_type: productType body_html: descriptionHtml vendor tags "
+			+ "published_at: publishedAt created_at: createdAt updated_at: updatedAt";
+	static final String VARIANT_FIELDS = "title price compare_at_price: compareAtPrice sku barcode position "
+			+ "inventory_quantity: inventoryQuantity inventory_policy: inventoryPolicy taxable "
+			+ "selectedOptions { value } inventoryItem { legacyResourceId } created_at: createdAt "
+			+ "updated_at: updatedAt";
+	static final String ORDER_FIELDS = "name email note tags created_at: createdAt updated_at: updatedAt "
+			+ "processed_at: processedAt closed_at: closedAt cancelled_at: cancelledAt cancel_reason: cancelReason "
+			+ "currency: currencyCode financial_status: displayFinancialStatus taxes_included: taxesIncluded "
+			+ "total_weight: totalWeight total_price: totalPriceSet { shopMoney { amount } } "
+			+ "subtotal_price: subtotalPriceSet { shopMoney { amount } } "
+			+ "total_tax: totalTaxSet { shopMoney { amount } } "
+			+ "total_discounts: totalDiscountsSet { shopMoney { amount } }";
+
+	static final String METAFIELD_CONNECTION_FRAGMENT = "fragment metafieldConnection on MetafieldConnection { "
+			+ "pageInfo { hasNextPage } edges { node { id: legacyResourceId namespace key value "
+			+ "value_type: valueType created_at: createdAt updated_at: updatedAt } } }";
+	static final String VARIANT_CONNECTION_FRAGMENT = "fragment variantConnection on ProductVariantConnection { "
+			+ "pageInfo { hasNextPage } edges { cursor node { id: legacyResourceId " + VARIANT_FIELDS + " "
+			+ "metafields(first: $metafields) { ...metafieldConnection } } } }";
+
+	static final String PRODUCT_DETAILS_QUERY = "query getProductDetails($id: ID!, $variants: Int!, "
+			+ "$metafields: Int!, $after: String) { product(id: $id) { id: legacyResourceId " + PRODUCT_FIELDS + " "
+			+ "metafields(first: $metafields) { ...metafieldConnection } "
+			+ "variants(first: $variants, after: $after) { ...variantConnection } } } "
+			+ VARIANT_CONNECTION_FRAGMENT + " " + METAFIELD_CONNECTION_FRAGMENT;
+	static final String PRODUCT_VARIANTS_QUERY = "query getProductVariants($id: ID!, $variants: Int!, "
+			+ "$metafields: Int!, $after: String) { product(id: $id) { "
+			+ "variants(first: $variants, after: $after) { ...variantConnection } } } "
+			+ VARIANT_CONNECTION_FRAGMENT + " " + METAFIELD_CONNECTION_FRAGMENT;
+	static final String ORDER_DETAILS_QUERY = "query getOrderDetails($id: ID!, $transactions: Int!, $risks: Int!, "
+			+ "$metafields: Int!) { order(id: $id) { id: legacyResourceId " + ORDER_FIELDS + " "
+			+ "transactions(first: $transactions) { id kind gateway parentTransaction { id } "
+			+ "amount: amountSet { shopMoney { amount currencyCode } } } "
+			+ "risks(first: $risks) { display level message } "
+			+ "metafields(first: $metafields) { ...metafieldConnection } } } " + METAFIELD_CONNECTION_FRAGMENT;
+
+	private final ShopifySdk shopifySdk;
+	private final ShopifyGraphQlThrottle throttle;
+	private final Map<String, Double> requestedQueryCosts = new ConcurrentHashMap<>();
+
+	public ShopifyGraphQlClient(final ShopifySdk shopifySdk) {
+		this(shopifySdk, new ShopifyGraphQlThrottle());
+	}
+
+	/**
+	 * @param shopifySdk
+	 * @param throttle
+	 *            shared by every client of the shop.
+	 */
+	public ShopifyGraphQlClient(final ShopifySdk shopifySdk, final ShopifyGraphQlThrottle throttle) {
+		this.shopifySdk = shopifySdk;
+		this.throttle = throttle;
+	}
+
+	/**
+	 * @param query
+	 * @param variables
+	 * @return the data of the response.
+	 * @throws ShopifyGraphQlException
+	 *             if the response has errors, or the query is still throttled
+	 *             after {@link #MAXIMUM_THROTTLED_ATTEMPTS}.
+	 */
+	public JsonNode query(final String query, final Map<String, Object> variables) {
+		final ShopifyGraphQlRequest shopifyGraphQlRequest = new ShopifyGraphQlRequest(query, variables);
+		ShopifyGraphQlResponse shopifyGraphQlResponse = null;
+		for (int attempt = 1; attempt <= MAXIMUM_THROTTLED_ATTEMPTS; attempt++) {
+			acquire(requestedQueryCosts.getOrDefault(query, 0.0));
+			shopifyGraphQlResponse = shopifySdk.postGraphQl(shopifyGraphQlRequest);
+
+			final JsonNode cost = (shopifyGraphQlResponse.getExtensions() == null) ? null
+					: shopifyGraphQlResponse.getExtensions().get(COST);
+			if (cost != null) {
+				if (cost.hasNonNull(REQUESTED_QUERY_COST)) {
+					requestedQueryCosts.put(query, cost.get(REQUESTED_QUERY_COST).asDouble());
+				}
+				throttle.update(cost.get(THROTTLE_STATUS));
+			}
+
+			if (shopifyGraphQlResponse.getErrors().isEmpty()) {
+				return shopifyGraphQlResponse.getData();
+			}
+			if (!isThrottled(shopifyGraphQlResponse.getErrors())) {
+				break;
+			}
+		}
+		throw new ShopifyGraphQlException(shopifyGraphQlResponse.getErrors());
+	}
+
+	/**
+	 * Gets a product with its variants, its metafields and the metafields of
+	 * each variant. Variants are fetched {@value #VARIANT_PAGE_SIZE} at a time
+	 * with their metafields; the rare owner with more than
+	 * {@value #METAFIELD_PAGE_SIZE} metafields has them fetched through REST.
+	 *
+	 * @param productId
+	 * @return the product details, or null if there is no such product.
+	 */
+	public ShopifyProductDetails getProductDetails(final String productId) {
+		final Map<String, Object> variables = new HashMap<>();
+		variables.put(ID_VARIABLE, ShopifyGraphQlMapper.toGid(ShopifyGraphQlMapper.PRODUCT, productId));
+		variables.put(VARIANTS_VARIABLE, VARIANT_PAGE_SIZE);
+		variables.put(METAFIELDS_VARIABLE, METAFIELD_PAGE_SIZE);
+
+		final JsonNode productNode = query(PRODUCT_DETAILS_QUERY, variables).get(PRODUCT);
+		if ((productNode == null) || productNode.isNull()) {
+			return null;
+		}
+
+		final ShopifyProductDetails shopifyProductDetails = new ShopifyProductDetails();
+		final ShopifyProduct shopifyProduct = ShopifyGraphQlMapper.toProduct(productNode);
+		shopifyProductDetails.setProduct(shopifyProduct);
+
+		final JsonNode metafieldConnection = productNode.get(ShopifyGraphQlMapper.METAFIELDS);
+		shopifyProductDetails.setMetafields(ShopifyGraphQlMapper.hasNextPage(metafieldConnection)
+				? shopifySdk.getProductMetafields(productId)
+				: ShopifyGraphQlMapper.toMetafields(metafieldConnection, productId,
+						ShopifyGraphQlMapper.PRODUCT_OWNER_RESOURCE));
+
+		final List<ShopifyVariant> shopifyVariants = new ArrayList<>();
+		final Map<String, List<Metafield>> variantMetafields = new LinkedHashMap<>();
+		JsonNode variantConnection = productNode.get(ShopifyGraphQlMapper.VARIANTS);
+		addVariants(variantConnection, productId, shopifyVariants, variantMetafields);
+		while (ShopifyGraphQlMapper.hasNextPage(variantConnection)) {
+			variables.put(AFTER_VARIABLE, ShopifyGraphQlMapper.getEndCursor(variantConnection));
+			variantConnection = query(PRODUCT_VARIANTS_QUERY, variables).path(PRODUCT)
+					.get(ShopifyGraphQlMapper.VARIANTS);
+			addVariants(variantConnection, productId, shopifyVariants, variantMetafields);
+		}
+		shopifyProduct.setVariants(shopifyVariants);
+		shopifyProductDetails.setVariantMetafields(variantMetafields);
+		return shopifyProductDetails;
+	}
+
+	/**
+	 * Gets an order with its transactions, risks and metafields. The order has
+	 * its identifying, status, timestamp and total fields; get line items,
+	 * addresses and fulfillments through {@link ShopifySdk#getOrder(String)}.
+	 *
+	 * @param orderId
+	 * @return the order details, or null if there is no such order.
+	 */
+	public ShopifyOrderDetails getOrderDetails(final String orderId) {
+		final Map<String, Object> variables = new HashMap<>();
+		variables.put(ID_VARIABLE, ShopifyGraphQlMapper.toGid(ShopifyGraphQlMapper.ORDER, orderId));
+		variables.put(TRANSACTIONS_VARIABLE, TRANSACTION_LIMIT);
+		variables.put(RISKS_VARIABLE, RISK_LIMIT);
+		variables.put(METAFIELDS_VARIABLE, ORDER_METAFIELD_PAGE_SIZE);
+
+		final JsonNode orderNode = query(ORDER_DETAILS_QUERY, variables).get(ORDER);
+		if ((orderNode == null) || orderNode.isNull()) {
+			return null;
+		}
+
+		final ShopifyOrder shopifyOrder = ShopifyGraphQlMapper.toOrder(orderNode);
+		final JsonNode metafieldConnection = orderNode.get(ShopifyGraphQlMapper.METAFIELDS);
+		shopifyOrder.setMetafields(ShopifyGraphQlMapper.hasNextPage(metafieldConnection)
+				? shopifySdk.getOrderMetafields(orderId)
+				: ShopifyGraphQlMapper.toMetafields(metafieldConnection, orderId,
+						ShopifyGraphQlMapper.ORDER_OWNER_RESOURCE));
+
+		final ShopifyOrderDetails shopifyOrderDetails = new ShopifyOrderDetails();
+		shopifyOrderDetails.setOrder(shopifyOrder);
+		shopifyOrderDetails
+				.setTransactions(ShopifyGraphQlMapper.toTransactions(orderNode.get(ShopifyGraphQlMapper.TRANSACTIONS),
+						orderId));
+		shopifyOrderDetails.setRisks(ShopifyGraphQlMapper.toRisks(orderNode.get(ShopifyGraphQlMapper.RISKS), orderId));
+		return shopifyOrderDetails;
+	}
+
+	public ShopifyGraphQlThrottle getThrottle() {
+		return throttle;
+	}
+
+	ShopifySdk getShopifySdk() {
+		return shopifySdk;
+	}
+
+	private void addVariants(final JsonNode variantConnection, final String productId,
+			final List<ShopifyVariant> shopifyVariants, final Map<String, List<Metafield>> variantMetafields) {
+		for (final JsonNode variantNode : ShopifyGraphQlMapper.getNodes(variantConnection)) {
+			final ShopifyVariant shopifyVariant = ShopifyGraphQlMapper.toVariant(variantNode, productId);
+			shopifyVariants.add(shopifyVariant);
+
+			final JsonNode metafieldConnection = variantNode.get(ShopifyGraphQlMapper.METAFIELDS);
+			variantMetafields.put(shopifyVariant.getId(),
+					ShopifyGraphQlMapper.hasNextPage(metafieldConnection)
+							? shopifySdk.getVariantMetafields(shopifyVariant.getId())
+							: ShopifyGraphQlMapper.toMetafields(metafieldConnection, shopifyVariant.getId(),
+									ShopifyGraphQlMapper.VARIANT_OWNER_RESOURCE));
+		}
+	}
+
+	private void acquire(final double cost) {
+		try {
+			throttle.acquire(cost);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ShopifyClientException(INTERRUPTED_MESSAGE, e);
+		}
+	}
+
+	private static boolean isThrottled(final List<ShopifyGraphQlError> errors) {
+		for (final ShopifyGraphQlError error : errors) {
+			if (THROTTLED.equals(error.getCode())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
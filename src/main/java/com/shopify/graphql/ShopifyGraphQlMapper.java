@@ -0,0 +1,310 @@
+package com.shopify.graphql;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.mappers.ShopifyMappers;
+import com.shopify.model.Metafield;
+import com.shopify.model.MetafieldValueType;
+import com.shopify.model.OrderRiskRecommendation;
+import com.shopify.model.ShopifyLineItem;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyOrderRisk;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyTransaction;
+import com.shopify.model.ShopifyVariant;
+
+/**
+ * Binds GraphQL nodes, and the lines of bulk operation results, to the REST
+ * models. The queries alias most fields to their REST names, so a node only
+ * needs its IDs, enums, tags, money and connections reshaped before the SDK
+ * mapper reads it.
+ */
+final class ShopifyGraphQlMapper {
+
+	static final String GID_PREFIX = "gid://shopify/";
+	static final String PRODUCT = "Product";
+	static final String ORDER = "Order";
+
+	static final String UNBINDABLE_NODE_MESSAGE = "GraphQL node could not be bound to %s.";
+
+	static final String ID = "id";
+	static final String BULK_PARENT_ID = "__parentId";
+	static final String EDGES = "edges";
+	static final String NODE = "node";
+	static final String CURSOR = "cursor";
+	static final String PAGE_INFO = "pageInfo";
+	static final String HAS_NEXT_PAGE = "hasNextPage";
+	static final String METAFIELDS = "metafields";
+	static final String VARIANTS = "variants";
+	static final String TRANSACTIONS = "transactions";
+	static final String RISKS = "risks";
+	static final String TAGS = "tags";
+	static final String SHOP_MONEY = "shopMoney";
+	static final String AMOUNT = "amount";
+	static final String CURRENCY_CODE = "currencyCode";
+	static final String CURRENCY = "currency";
+	static final String VALUE_TYPE = "value_type";
+	static final String OWNER_ID = "owner_id";
+	static final String OWNER_RESOURCE = "owner_resource";
+	static final String PRODUCT_ID = "product_id";
+	static final String VARIANT_ID = "variant_id";
+	static final String PRODUCT_NODE = "product";
+	static final String VARIANT_NODE = "variant";
+	static final String LINE_ITEMS = "lineItems";
+	static final String ORDER_ID = "order_id";
+	static final String INVENTORY_POLICY = "inventory_policy";
+	static final String INVENTORY_ITEM = "inventoryItem";
+	static final String INVENTORY_ITEM_ID = "inventory_item_id";
+	static final String LEGACY_RESOURCE_ID = "legacyResourceId";
+	static final String SELECTED_OPTIONS = "selectedOptions";
+	static final String VALUE = "value";
+	static final String OPTION = "option";
+	static final String FINANCIAL_STATUS = "financial_status";
+	static final String KIND = "kind";
+	static final String PARENT_TRANSACTION = "parentTransaction";
+	static final String PARENT_ID = "parent_id";
+	static final String LEVEL = "level";
+	static final String RECOMMENDATION = "recommendation";
+	static final String HIGH = "HIGH";
+	static final String MEDIUM = "MEDIUM";
+	static final String PRODUCT_OWNER_RESOURCE = "product";
+	static final String VARIANT_OWNER_RESOURCE = "variant";
+	static final String ORDER_OWNER_RESOURCE = "order";
+	static final String TAG_DELIMITER = ", ";
+	static final String[] ORDER_MONEY_FIELDS = { "total_price", "subtotal_price", "total_tax", "total_discounts" };
+	static final String[] LINE_ITEM_MONEY_FIELDS = { "price", "total_discount" };
+	static final int MAXIMUM_OPTIONS = 3;
+
+	private static final ObjectMapper MAPPER = ShopifyMappers.getDefault().getMapper();
+
+	private ShopifyGraphQlMapper() {
+	}
+
+	static String toGid(final String type, final String id) {
+		return GID_PREFIX + type + "/" + id;
+	}
+
+	/**
+	 * @param gid
+	 *            such as <code>gid://shopify/OrderTransaction/389404469</code>.
+	 * @return the REST ID, such as <code>389404469</code>.
+	 */
+	static String toId(final String gid) {
+		if (gid == null) {
+			return null;
+		}
+		final int queryIndex = gid.indexOf('?');
+		final int endIndex = (queryIndex < 0) ? gid.length() : queryIndex;
+		return gid.substring(gid.lastIndexOf('/', endIndex - 1) + 1, endIndex);
+	}
+
+	static List<JsonNode> getNodes(final JsonNode connection) {
+		final List<JsonNode> nodes = new ArrayList<>();
+		if ((connection != null) && connection.has(EDGES)) {
+			for (final JsonNode edge : connection.get(EDGES)) {
+				nodes.add(edge.get(NODE));
+			}
+		}
+		return nodes;
+	}
+
+	static boolean hasNextPage(final JsonNode connection) {
+		return (connection != null) && connection.path(PAGE_INFO).path(HAS_NEXT_PAGE).asBoolean();
+	}
+
+	/**
+	 * @param connection
+	 * @return the cursor of the last edge, or null if there are none.
+	 */
+	static String getEndCursor(final JsonNode connection) {
+		final JsonNode edges = connection.path(EDGES);
+		return (edges.size() == 0) ? null : edges.get(edges.size() - 1).path(CURSOR).asText(null);
+	}
+
+	static ShopifyProduct toProduct(final JsonNode productNode) {
+		final ObjectNode product = copy(productNode);
+		product.remove(METAFIELDS);
+		product.remove(VARIANTS);
+		joinTags(product);
+		return bind(product, ShopifyProduct.class);
+	}
+
+	static ShopifyVariant toVariant(final JsonNode variantNode, final String productId) {
+		final ObjectNode variant = copy(variantNode);
+		variant.remove(METAFIELDS);
+		variant.put(PRODUCT_ID, productId);
+		lowerCase(variant, INVENTORY_POLICY);
+
+		final JsonNode inventoryItem = variant.remove(INVENTORY_ITEM);
+		if (inventoryItem != null) {
+			variant.put(INVENTORY_ITEM_ID, inventoryItem.path(LEGACY_RESOURCE_ID).asText(null));
+		}
+
+		final JsonNode selectedOptions = variant.remove(SELECTED_OPTIONS);
+		if (selectedOptions != null) {
+			final Iterator<JsonNode> selectedOptionIterator = selectedOptions.elements();
+			for (int position = 1; (position <= MAXIMUM_OPTIONS) && selectedOptionIterator.hasNext(); position++) {
+				variant.put(OPTION + position, selectedOptionIterator.next().path(VALUE).asText(null));
+			}
+		}
+		return bind(variant, ShopifyVariant.class);
+	}
+
+	static List<Metafield> toMetafields(final JsonNode connection, final String ownerId, final String ownerResource) {
+		final List<Metafield> metafields = new ArrayList<>();
+		for (final JsonNode metafieldNode : getNodes(connection)) {
+			final ObjectNode metafield = copy(metafieldNode);
+			metafield.put(OWNER_ID, ownerId);
+			metafield.put(OWNER_RESOURCE, ownerResource);
+			lowerCase(metafield, VALUE_TYPE);
+			if (metafield.hasNonNull(VALUE_TYPE) && !isRestValueType(metafield.get(VALUE_TYPE).asText())) {
+				metafield.remove(VALUE_TYPE);
+			}
+			metafields.add(bind(metafield, Metafield.class));
+		}
+		return metafields;
+	}
+
+	static ShopifyOrder toOrder(final JsonNode orderNode) {
+		final ObjectNode order = copy(orderNode);
+		order.remove(METAFIELDS);
+		order.remove(TRANSACTIONS);
+		order.remove(RISKS);
+		order.remove(LINE_ITEMS);
+		joinTags(order);
+		lowerCase(order, FINANCIAL_STATUS);
+		toShopAmounts(order, ORDER_MONEY_FIELDS);
+		return bind(order, ShopifyOrder.class);
+	}
+
+	static ShopifyLineItem toLineItem(final JsonNode lineItemNode) {
+		final ObjectNode lineItem = copy(lineItemNode);
+		toShopAmounts(lineItem, LINE_ITEM_MONEY_FIELDS);
+		final JsonNode variant = lineItem.remove(VARIANT_NODE);
+		if (variant != null) {
+			lineItem.put(VARIANT_ID, variant.path(LEGACY_RESOURCE_ID).asText(null));
+		}
+		final JsonNode product = lineItem.remove(PRODUCT_NODE);
+		if (product != null) {
+			lineItem.put(PRODUCT_ID, product.path(LEGACY_RESOURCE_ID).asText(null));
+		}
+		return bind(lineItem, ShopifyLineItem.class);
+	}
+
+	static List<ShopifyTransaction> toTransactions(final JsonNode transactionNodes, final String orderId) {
+		final List<ShopifyTransaction> transactions = new ArrayList<>();
+		if (transactionNodes == null) {
+			return transactions;
+		}
+		for (final JsonNode transactionNode : transactionNodes) {
+			final ObjectNode transaction = copy(transactionNode);
+			transaction.remove(ID);
+			transaction.put(ORDER_ID, orderId);
+			lowerCase(transaction, KIND);
+
+			final JsonNode amountBag = transaction.remove(AMOUNT);
+			if (amountBag != null) {
+				final JsonNode shopMoney = amountBag.path(SHOP_MONEY);
+				transaction.set(AMOUNT, shopMoney.get(AMOUNT));
+				transaction.set(CURRENCY, shopMoney.get(CURRENCY_CODE));
+			}
+
+			final JsonNode parentTransaction = transaction.remove(PARENT_TRANSACTION);
+			if ((parentTransaction != null) && parentTransaction.hasNonNull(ID)) {
+				transaction.put(PARENT_ID, toId(parentTransaction.get(ID).asText()));
+			}
+			transactions.add(bind(transaction, ShopifyTransaction.class));
+		}
+		return transactions;
+	}
+
+	/**
+	 * GraphQL grades risks by level rather than recommending an action, so the
+	 * level is mapped to the recommendation the REST API gives for it.
+	 */
+	static List<ShopifyOrderRisk> toRisks(final JsonNode riskNodes, final String orderId) {
+		final List<ShopifyOrderRisk> risks = new ArrayList<>();
+		if (riskNodes == null) {
+			return risks;
+		}
+		for (final JsonNode riskNode : riskNodes) {
+			final ObjectNode risk = copy(riskNode);
+			risk.put(ORDER_ID, orderId);
+			final String level = risk.path(LEVEL).asText();
+			risk.remove(LEVEL);
+			final OrderRiskRecommendation recommendation = HIGH.equals(level) ? OrderRiskRecommendation.CANCEL
+					: MEDIUM.equals(level) ? OrderRiskRecommendation.INVESTIGATE : OrderRiskRecommendation.ACCEPT;
+			risk.put(RECOMMENDATION, recommendation.toString());
+			risks.add(bind(risk, ShopifyOrderRisk.class));
+		}
+		return risks;
+	}
+
+	/**
+	 * Copies a node to reshape it, taking the REST ID from its GID and dropping
+	 * the parent reference of a bulk operation result line.
+	 */
+	private static ObjectNode copy(final JsonNode node) {
+		final ObjectNode copy = ((ObjectNode) node).deepCopy();
+		copy.remove(BULK_PARENT_ID);
+		if (copy.hasNonNull(ID)) {
+			copy.put(ID, toId(copy.get(ID).asText()));
+		}
+		return copy;
+	}
+
+	private static void toShopAmounts(final ObjectNode node, final String... moneyFields) {
+		for (final String moneyField : moneyFields) {
+			final JsonNode moneyBag = node.remove(moneyField);
+			if (moneyBag != null) {
+				node.set(moneyField, moneyBag.path(SHOP_MONEY).get(AMOUNT));
+			}
+		}
+	}
+
+	private static void joinTags(final ObjectNode node) {
+		final JsonNode tags = node.get(TAGS);
+		if ((tags != null) && tags.isArray()) {
+			final StringBuilder tagStringBuilder = new StringBuilder();
+			for (final JsonNode tag : tags) {
+				if (tagStringBuilder.length() > 0) {
+					tagStringBuilder.append(TAG_DELIMITER);
+				}
+				tagStringBuilder.append(tag.asText());
+			}
+			node.put(TAGS, tagStringBuilder.toString());
+		}
+	}
+
+	private static void lowerCase(final ObjectNode node, final String field) {
+		if (node.hasNonNull(field)) {
+			node.put(field, node.get(field).asText().toLowerCase(Locale.ROOT));
+		}
+	}
+
+	private static boolean isRestValueType(final String valueType) {
+		for (final MetafieldValueType metafieldValueType : MetafieldValueType.values()) {
+			if (metafieldValueType.toString().equals(valueType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static <T> T bind(final JsonNode node, final Class<T> type) {
+		try {
+			return MAPPER.treeToValue(node, type);
+		} catch (final JsonProcessingException e) {
+			throw new ShopifyClientException(String.format(UNBINDABLE_NODE_MESSAGE, type.getSimpleName()), e);
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.shopify.graphql;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Tracks the shop's GraphQL cost bucket so queries wait for enough points to
+ * be restored instead of being throttled by Shopify.
+ *
+ * The bucket starts at Shopify's defaults and is corrected from the
+ * <code>extensions.cost.throttleStatus</code> of each response. Reserving
+ * points for a query may leave the bucket negative, so concurrent callers
+ * queue behind each other for the restore rate rather than all waking at once.
+ * One throttle should be shared by every client of a shop.
+ */
+public class ShopifyGraphQlThrottle {
+
+	static final double DEFAULT_MAXIMUM_AVAILABLE = 1000.0;
+	static final double DEFAULT_RESTORE_RATE = 50.0;
+
+	static final String MAXIMUM_AVAILABLE = "maximumAvailable";
+	static final String CURRENTLY_AVAILABLE = "currentlyAvailable";
+	static final String RESTORE_RATE = "restoreRate";
+
+	private static final long NANOSECONDS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final LongSupplier nanoClock;
+
+	private double maximumAvailable = DEFAULT_MAXIMUM_AVAILABLE;
+	private double currentlyAvailable = DEFAULT_MAXIMUM_AVAILABLE;
+	private double restoreRate = DEFAULT_RESTORE_RATE;
+	private long restoredAt;
+
+	public ShopifyGraphQlThrottle() {
+		this(System::nanoTime);
+	}
+
+	ShopifyGraphQlThrottle(final LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+		this.restoredAt = nanoClock.getAsLong();
+	}
+
+	/**
+	 * Waits until the bucket holds enough points for a query of the given cost
+	 * and takes them.
+	 *
+	 * @param cost
+	 *            the expected cost of the query.
+	 * @throws InterruptedException
+	 */
+	public void acquire(final double cost) throws InterruptedException {
+		final long waitInNanoseconds = reserve(cost);
+		if (waitInNanoseconds > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitInNanoseconds);
+		}
+	}
+
+	/**
+	 * Takes the points for a query of the given cost.
+	 *
+	 * @param cost
+	 * @return the nanoseconds to wait before sending the query.
+	 */
+	synchronized long reserve(final double cost) {
+		restore();
+		currentlyAvailable -= Math.min(cost, maximumAvailable);
+		if (currentlyAvailable >= 0) {
+			return 0;
+		}
+		return (long) Math.ceil((-currentlyAvailable / restoreRate) * NANOSECONDS_PER_SECOND);
+	}
+
+	/**
+	 * Replaces the tracked state of the bucket with the one reported by
+	 * Shopify.
+	 *
+	 * @param throttleStatus
+	 *            the <code>extensions.cost.throttleStatus</code> of a response,
+	 *            or null if it had none.
+	 */
+	public synchronized void update(final JsonNode throttleStatus) {
+		if ((throttleStatus == null) || !throttleStatus.hasNonNull(CURRENTLY_AVAILABLE)) {
+			return;
+		}
+		restore();
+		if (throttleStatus.hasNonNull(MAXIMUM_AVAILABLE)) {
+			maximumAvailable = throttleStatus.get(MAXIMUM_AVAILABLE).asDouble();
+		}
+		if (throttleStatus.hasNonNull(RESTORE_RATE) && (throttleStatus.get(RESTORE_RATE).asDouble() > 0)) {
+			restoreRate = throttleStatus.get(RESTORE_RATE).asDouble();
+		}
+		final double reportedAvailable = throttleStatus.get(CURRENTLY_AVAILABLE).asDouble();
+		// A negative bucket holds reservations of queries Shopify has not seen
+		// yet, which the reported state would drop.
+		if ((currentlyAvailable >= 0) || (reportedAvailable < currentlyAvailable)) {
+			currentlyAvailable = reportedAvailable;
+		}
+	}
+
+	public synchronized double getCurrentlyAvailable() {
+		restore();
+		return currentlyAvailable;
+	}
+
+	private void restore() {
+		final long now = nanoClock.getAsLong();
+		currentlyAvailable = Math.min(maximumAvailable,
+				currentlyAvailable + ((restoreRate * (now - restoredAt)) / NANOSECONDS_PER_SECOND));
+		restoredAt = now;
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.shopify.mappers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Request entity that serializes a model straight to the connection output
+ * stream as it is sent, instead of having the client buffer the serialized
+ * entity first. Send it with chunked transfer encoding so the client does not
+ * need its length up front.
+ *
+ * Generators come from the mapper's factory, which recycles their encoding
+ * buffers per thread, and leave the output stream open for the client to
+ * finish. The entity can be written again, for example when a request is
+ * retried.
+ */
+public class ShopifyJsonStreamingOutput implements StreamingOutput {
+
+	private final ObjectMapper mapper;
+	private final ObjectWriter writer;
+	private final Object value;
+
+	public ShopifyJsonStreamingOutput(final ObjectMapper mapper, final Object value) {
+		this(mapper, mapper.writer(), value);
+	}
+
+	public ShopifyJsonStreamingOutput(final ObjectMapper mapper, final ObjectWriter writer, final Object value) {
+		this.mapper = mapper;
+		this.writer = writer;
+		this.value = value;
+	}
+
+	@Override
+	public void write(final OutputStream outputStream) throws IOException {
+		final JsonGenerator jsonGenerator = mapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+		jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		try {
+			writer.writeValue(jsonGenerator, value);
+		} finally {
+			jsonGenerator.close();
+		}
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.shopify.mappers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.shopify.model.MetafieldRoot;
+import com.shopify.model.MetafieldsRoot;
+import com.shopify.model.ShopifyCustomerRoot;
+import com.shopify.model.ShopifyCustomersRoot;
+import com.shopify.model.ShopifyErrorsRoot;
+import com.shopify.model.ShopifyFulfillmentRoot;
+import com.shopify.model.ShopifyOrderRoot;
+import com.shopify.model.ShopifyOrdersRoot;
+import com.shopify.model.ShopifyProductRoot;
+import com.shopify.model.ShopifyProductsRoot;
+import com.shopify.model.ShopifyTransactionsRoot;
+import com.shopify.model.ShopifyVariantRoot;
+
+/**
+ * Holds one {@link ObjectMapper} with the SDK configuration and the
+ * {@link ObjectReader}s and {@link ObjectWriter}s built from it, one per type.
+ * Building a mapper introspects every model it meets again, so the SDK, its
+ * Jersey provider and its error handling share the mapper of
+ * {@link #getDefault()} instead of building their own.
+ *
+ * Readers and writers are built the first time a type is requested and reused
+ * afterwards; the root types the SDK reads most often are built up front. A
+ * registry is thread safe.
+ */
+public class ShopifyMappers {
+
+	private static final List<Class<?>> PREBUILT_READER_TYPES = Arrays.asList(ShopifyErrorsRoot.class,
+			ShopifyOrderRoot.class, ShopifyOrdersRoot.class, ShopifyProductRoot.class, ShopifyProductsRoot.class,
+			ShopifyVariantRoot.class, ShopifyCustomerRoot.class, ShopifyCustomersRoot.class,
+			ShopifyFulfillmentRoot.class, ShopifyTransactionsRoot.class, MetafieldRoot.class, MetafieldsRoot.class);
+	private static final List<Class<?>> PREBUILT_WRITER_TYPES = Arrays.asList(ShopifyProductRoot.class,
+			ShopifyOrderRoot.class, ShopifyFulfillmentRoot.class, MetafieldRoot.class);
+
+	private static final ShopifyMappers DEFAULT = new ShopifyMappers(ShopifySdkObjectMapper.buildMapper());
+
+	private final ObjectMapper mapper;
+	private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+	/**
+	 * @param mapper
+	 *            built by {@link ShopifySdkObjectMapper}, for example with a
+	 *            {@link ShopifyStringPool}. It must not be reconfigured
+	 *            afterwards.
+	 */
+	public ShopifyMappers(final ObjectMapper mapper) {
+		this.mapper = mapper;
+		for (final Class<?> type : PREBUILT_READER_TYPES) {
+			getReader(type);
+		}
+		for (final Class<?> type : PREBUILT_WRITER_TYPES) {
+			getWriter(type);
+		}
+	}
+
+	public static ShopifyMappers getDefault() {
+		return DEFAULT;
+	}
+
+	public ObjectMapper getMapper() {
+		return mapper;
+	}
+
+	public ObjectReader getReader(final Class<?> type) {
+		return readers.computeIfAbsent(type, mapper::reader);
+	}
+
+	@SuppressWarnings("deprecation")
+	public ObjectWriter getWriter(final Class<?> type) {
+		return writers.computeIfAbsent(type, mapper::writerWithType);
+	}
+
+}
@@ -1,11 +1,13 @@
 package com.shopify.mappers;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.AnnotationIntrospector;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
 
@@ -15,7 +17,39 @@ public class ShopifySdkObjectMapper {
 	}
 
 	public static ObjectMapper buildMapper() {
-		final ObjectMapper mapper = new ObjectMapper();
+		return buildMapper(new JsonFactory());
+	}
+
+	/**
+	 * Builds a mapper with the SDK configuration on top of another data format,
+	 * such as a binary encoding of the same models.
+	 *
+	 * @param jsonFactory
+	 * @return {@link ObjectMapper}
+	 */
+	public static ObjectMapper buildMapper(final JsonFactory jsonFactory) {
+		return buildMapper(jsonFactory, null);
+	}
+
+	/**
+	 * Builds a mapper that canonicalizes the pooled fields of the models it
+	 * reads with the {@link ShopifyStringPool}.
+	 *
+	 * @param stringPool
+	 * @return {@link ObjectMapper}
+	 */
+	public static ObjectMapper buildMapper(final ShopifyStringPool stringPool) {
+		return buildMapper(new JsonFactory(), stringPool);
+	}
+
+	/**
+	 * @param jsonFactory
+	 * @param stringPool
+	 *            or null to not canonicalize any field.
+	 * @return {@link ObjectMapper}
+	 */
+	public static ObjectMapper buildMapper(final JsonFactory jsonFactory, final ShopifyStringPool stringPool) {
+		final ObjectMapper mapper = new ObjectMapper(jsonFactory);
 		mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 		mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
@@ -24,6 +58,12 @@ public class ShopifySdkObjectMapper {
 		mapper.setAnnotationIntrospector(pair);
 
 		mapper.enable(MapperFeature.USE_ANNOTATIONS);
+
+		if (stringPool != null) {
+			final SimpleModule stringPoolModule = new SimpleModule();
+			stringPoolModule.setDeserializerModifier(new StringPoolDeserializerModifier(stringPool));
+			mapper.registerModule(stringPoolModule);
+		}
 		return mapper;
 	}
 }
@@ -0,0 +1,151 @@
+package com.shopify.mappers;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.shopify.model.ShopifyGiftCard;
+import com.shopify.model.ShopifyLineItem;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyTransaction;
+import com.shopify.model.ShopifyVariant;
+
+/**
+ * Canonicalizes strings that repeat across many entities, such as order
+ * statuses, gateways and vendors, so that entities held in memory share one
+ * instance of each value instead of each holding its own copy.
+ *
+ * The pool is a fixed number of slots grouped in buckets of
+ * {@link #BUCKET_SIZE} and indexed by hash. A value takes a free slot of its
+ * bucket or replaces one of its occupants, so the pool never grows and never
+ * blocks; an eviction only costs a duplicate string. Strings longer than
+ * {@link #MAXIMUM_STRING_LENGTH} are not pooled. The pool is safe to share
+ * between threads and mappers.
+ *
+ * Only the configured fields are pooled, identified by model class and Java
+ * field name. {@link #withDefaultFields()} pools the low cardinality fields of
+ * orders, line items, variants, transactions and gift cards.
+ */
+public class ShopifyStringPool {
+
+	public static final int DEFAULT_CAPACITY = 4096;
+	public static final int MAXIMUM_STRING_LENGTH = 64;
+	public static final int BUCKET_SIZE = 4;
+
+	static final String INVALID_CAPACITY_MESSAGE = "String pool capacity must be positive but was %s.";
+	static final String UNKNOWN_FIELD_MESSAGE = "%s does not declare a String field named %s to pool.";
+
+	private static final Map<Class<?>, Set<String>> DEFAULT_FIELDS = new HashMap<>();
+	static {
+		DEFAULT_FIELDS.put(ShopifyOrder.class, fieldNames("financialStatus", "fulfillmentStatus", "sourceName",
+				"processingMethod"));
+		DEFAULT_FIELDS.put(ShopifyLineItem.class, fieldNames("vendor", "fulfillmentStatus", "fulfillmentService"));
+		DEFAULT_FIELDS.put(ShopifyVariant.class, fieldNames("inventoryManagement", "fulfillmentService"));
+		DEFAULT_FIELDS.put(ShopifyTransaction.class, fieldNames("gateway", "kind"));
+		DEFAULT_FIELDS.put(ShopifyGiftCard.class, fieldNames("currency"));
+	}
+
+	private final AtomicReferenceArray<String> slots;
+	private final int bucketMask;
+	private final Map<Class<?>, List<Field>> pooledFields;
+
+	/**
+	 * @param capacity
+	 *            rounded up to a power of two of at least {@link #BUCKET_SIZE}.
+	 * @param fields
+	 *            Java field names to pool, by model class.
+	 * @throws IllegalArgumentException
+	 *             when a class does not declare a String field of that name.
+	 */
+	public ShopifyStringPool(final int capacity, final Map<Class<?>, ? extends Collection<String>> fields) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException(String.format(INVALID_CAPACITY_MESSAGE, capacity));
+		}
+		final int slotCount = Integer.highestOneBit(Math.min(Math.max(capacity, BUCKET_SIZE), 1 << 30) - 1) << 1;
+		this.slots = new AtomicReferenceArray<>(slotCount);
+		this.bucketMask = (slotCount - 1) & ~(BUCKET_SIZE - 1);
+
+		this.pooledFields = new HashMap<>(fields.size());
+		for (final Map.Entry<Class<?>, ? extends Collection<String>> entry : fields.entrySet()) {
+			final List<Field> modelFields = new ArrayList<>(entry.getValue().size());
+			for (final String fieldName : new HashSet<>(entry.getValue())) {
+				modelFields.add(findStringField(entry.getKey(), fieldName));
+			}
+			this.pooledFields.put(entry.getKey(), Collections.unmodifiableList(modelFields));
+		}
+	}
+
+	/**
+	 * @return {@link ShopifyStringPool} of {@link #DEFAULT_CAPACITY} for the
+	 *         default fields.
+	 */
+	public static ShopifyStringPool withDefaultFields() {
+		return new ShopifyStringPool(DEFAULT_CAPACITY, DEFAULT_FIELDS);
+	}
+
+	/**
+	 * @param value
+	 * @return an equal string held by the pool, or the value itself when it is
+	 *         not pooled yet. It is then added to the pool.
+	 */
+	public String canonicalize(final String value) {
+		if ((value == null) || (value.length() > MAXIMUM_STRING_LENGTH)) {
+			return value;
+		}
+		final int hash = value.hashCode() ^ (value.hashCode() >>> 16);
+		final int bucket = hash & bucketMask;
+		for (int slot = bucket; slot < (bucket + BUCKET_SIZE); slot++) {
+			final String pooledValue = slots.get(slot);
+			if (pooledValue == null) {
+				slots.lazySet(slot, value);
+				return value;
+			}
+			if (value.equals(pooledValue)) {
+				return pooledValue;
+			}
+		}
+		slots.lazySet(bucket + ((hash >>> 28) & (BUCKET_SIZE - 1)), value);
+		return value;
+	}
+
+	/**
+	 * @param modelClass
+	 * @return the pooled fields declared by the class, empty if there are
+	 *         none.
+	 */
+	List<Field> getPooledFields(final Class<?> modelClass) {
+		final List<Field> modelFields = pooledFields.get(modelClass);
+		return (modelFields == null) ? Collections.emptyList() : modelFields;
+	}
+
+	public int getCapacity() {
+		return slots.length();
+	}
+
+	private static Field findStringField(final Class<?> modelClass, final String fieldName) {
+		try {
+			final Field field = modelClass.getDeclaredField(fieldName);
+			if (field.getType() != String.class) {
+				throw new IllegalArgumentException(String.format(UNKNOWN_FIELD_MESSAGE, modelClass.getName(), fieldName));
+			}
+			field.setAccessible(true);
+			return field;
+		} catch (final NoSuchFieldException e) {
+			throw new IllegalArgumentException(String.format(UNKNOWN_FIELD_MESSAGE, modelClass.getName(), fieldName),
+					e);
+		}
+	}
+
+	private static Set<String> fieldNames(final String... fieldNames) {
+		return new HashSet<>(Arrays.asList(fieldNames));
+	}
+
+}
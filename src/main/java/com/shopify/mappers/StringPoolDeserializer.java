@@ -0,0 +1,68 @@
+package com.shopify.mappers;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+
+/**
+ * Deserializes a model with its own deserializer, then replaces the values of
+ * its pooled string fields with their canonical instances. Canonicalizing after
+ * the fact keeps adapters such as
+ * {@link com.shopify.model.adapters.EscapedStringAdapter} applied to the field.
+ */
+class StringPoolDeserializer extends DelegatingDeserializer {
+
+	private static final long serialVersionUID = 1L;
+
+	static final String FIELD_ACCESS_FAILED_MESSAGE = "Unable to canonicalize field %s.";
+
+	private final ShopifyStringPool stringPool;
+	private final List<Field> pooledFields;
+
+	StringPoolDeserializer(final JsonDeserializer<?> delegatee, final ShopifyStringPool stringPool,
+			final List<Field> pooledFields) {
+		super(delegatee);
+		this.stringPool = stringPool;
+		this.pooledFields = pooledFields;
+	}
+
+	@Override
+	protected JsonDeserializer<?> newDelegatingInstance(final JsonDeserializer<?> newDelegatee) {
+		return new StringPoolDeserializer(newDelegatee, stringPool, pooledFields);
+	}
+
+	@Override
+	public Object deserialize(final JsonParser jsonParser, final DeserializationContext context) throws IOException {
+		return canonicalize(super.deserialize(jsonParser, context));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object deserialize(final JsonParser jsonParser, final DeserializationContext context,
+			final Object intoValue) throws IOException {
+		return canonicalize(((JsonDeserializer<Object>) _delegatee).deserialize(jsonParser, context, intoValue));
+	}
+
+	private Object canonicalize(final Object model) {
+		if (model == null) {
+			return null;
+		}
+		for (final Field pooledField : pooledFields) {
+			try {
+				final String value = (String) pooledField.get(model);
+				if (value != null) {
+					pooledField.set(model, stringPool.canonicalize(value));
+				}
+			} catch (final IllegalAccessException e) {
+				throw new IllegalStateException(String.format(FIELD_ACCESS_FAILED_MESSAGE, pooledField), e);
+			}
+		}
+		return model;
+	}
+
+}
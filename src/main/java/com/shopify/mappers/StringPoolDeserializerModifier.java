@@ -0,0 +1,33 @@
+package com.shopify.mappers;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+
+/**
+ * Wraps the deserializers of models with pooled fields in a
+ * {@link StringPoolDeserializer}.
+ */
+class StringPoolDeserializerModifier extends BeanDeserializerModifier {
+
+	private final ShopifyStringPool stringPool;
+
+	StringPoolDeserializerModifier(final ShopifyStringPool stringPool) {
+		this.stringPool = stringPool;
+	}
+
+	@Override
+	public JsonDeserializer<?> modifyDeserializer(final DeserializationConfig config, final BeanDescription beanDesc,
+			final JsonDeserializer<?> deserializer) {
+		final List<Field> pooledFields = stringPool.getPooledFields(beanDesc.getBeanClass());
+		if (pooledFields.isEmpty()) {
+			return deserializer;
+		}
+		return new StringPoolDeserializer(deserializer, stringPool, pooledFields);
+	}
+
+}
@@ -0,0 +1,283 @@
+package com.shopify.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.shopify.collections.LongLongHashMap;
+import com.shopify.collections.OffHeapRecordStore;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.mappers.ShopifySdkObjectMapper;
+
+/**
+ * Product catalog for shops too large to hold in the heap. Products are
+ * encoded with Smile, the binary form of the SDK's JSON mapping, and appended
+ * to an {@link OffHeapRecordStore}. Only primitive indexes stay on the heap;
+ * each lookup decodes a fresh copy of the product.
+ *
+ * SKUs and barcodes are indexed by a 64 bit hash. A lookup checks the decoded
+ * variant against the requested value, so a hash collision can at worst hide
+ * one of the two colliding variants, never return the wrong one.
+ *
+ * Fill it with {@link #add(ShopifyProduct)}, typically from
+ * {@link com.shopify.ShopifySdk#forEachProduct(Consumer)}, and read from it
+ * afterwards. It is not thread safe while it is being filled. Adding a product
+ * that is already stored replaces it.
+ */
+public class OffHeapShopifyProducts implements ShopifyProductCatalog, Closeable {
+
+	static final String NON_NUMERIC_PRODUCT_ID_MESSAGE = "Product ID of %s is not numeric and cannot be stored.";
+	static final String PRODUCT_ENCODING_FAILED_MESSAGE = "Unable to store product %s.";
+	static final String PRODUCT_DECODING_FAILED_MESSAGE = "Unable to read stored product %s.";
+
+	private static final ObjectMapper SMILE_MAPPER = ShopifySdkObjectMapper.buildMapper(new SmileFactory());
+	private static final ObjectReader PRODUCT_READER = SMILE_MAPPER.reader(ShopifyProduct.class);
+	private static final long NO_ADDRESS = -1L;
+	private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+
+	private final OffHeapRecordStore records;
+	private final RecordBuffer recordBuffer = new RecordBuffer();
+	private final LongLongHashMap productIdToAddress = new LongLongHashMap();
+	private final LongLongHashMap variantIdToProductId = new LongLongHashMap();
+	private final LongLongHashMap inventoryItemIdToVariantId = new LongLongHashMap();
+	private final LongLongHashMap skuHashToVariantId = new LongLongHashMap();
+	private final LongLongHashMap barcodeHashToVariantId = new LongLongHashMap();
+
+	private OffHeapShopifyProducts(final OffHeapRecordStore records) {
+		this.records = records;
+	}
+
+	/**
+	 * @return {@link OffHeapShopifyProducts} stored in direct buffers.
+	 */
+	public static OffHeapShopifyProducts direct() {
+		return new OffHeapShopifyProducts(OffHeapRecordStore.direct(OffHeapRecordStore.DEFAULT_SEGMENT_SIZE));
+	}
+
+	/**
+	 * @param file
+	 *            created or truncated to hold the encoded products.
+	 * @return {@link OffHeapShopifyProducts} stored in a memory mapped file.
+	 * @throws IOException
+	 *             when the file cannot be opened.
+	 */
+	public static OffHeapShopifyProducts mapped(final Path file) throws IOException {
+		return new OffHeapShopifyProducts(OffHeapRecordStore.mapped(file, OffHeapRecordStore.DEFAULT_SEGMENT_SIZE));
+	}
+
+	/**
+	 * @param shopifyProduct
+	 * @throws IllegalArgumentException
+	 *             when the product does not have a numeric ID.
+	 */
+	public void add(final ShopifyProduct shopifyProduct) {
+		final long productId = shopifyProduct.getNumericId();
+		if (productId == ShopifyIds.NO_ID) {
+			throw new IllegalArgumentException(String.format(NON_NUMERIC_PRODUCT_ID_MESSAGE, shopifyProduct.getId()));
+		}
+
+		recordBuffer.reset();
+		try {
+			SMILE_MAPPER.writeValue(recordBuffer, shopifyProduct);
+			productIdToAddress.put(productId, records.append(recordBuffer.bytes(), recordBuffer.size()));
+		} catch (final IOException e) {
+			throw new ShopifyClientException(String.format(PRODUCT_ENCODING_FAILED_MESSAGE, shopifyProduct.getId()), e);
+		}
+
+		for (final ShopifyVariant shopifyVariant : shopifyProduct.getVariants()) {
+			if (shopifyVariant.getNumericId() != ShopifyIds.NO_ID) {
+				variantIdToProductId.put(shopifyVariant.getNumericId(), productId);
+				putVariantId(inventoryItemIdToVariantId, ShopifyVariant::getNumericInventoryItemId, shopifyProduct,
+						shopifyVariant);
+				putVariantId(skuHashToVariantId, variant -> hash(variant.getSku()), shopifyProduct, shopifyVariant);
+				putVariantId(barcodeHashToVariantId, variant -> hash(variant.getBarcode()), shopifyProduct,
+						shopifyVariant);
+			}
+		}
+	}
+
+	@Override
+	public ShopifyProduct get(final String productId) {
+		return get(ShopifyIds.toLong(productId));
+	}
+
+	@Override
+	public ShopifyProduct get(final long productId) {
+		final long address = productIdToAddress.get(productId, NO_ADDRESS);
+		return (address == NO_ADDRESS) ? null : decode(address);
+	}
+
+	/**
+	 * Decodes every product onto the heap. Prefer
+	 * {@link #forEachProduct(Consumer)} to visit a large catalog.
+	 */
+	@Override
+	public List<ShopifyProduct> values() {
+		final List<ShopifyProduct> shopifyProducts = new ArrayList<>(size());
+		forEachProduct(shopifyProducts::add);
+		return shopifyProducts;
+	}
+
+	/**
+	 * Decodes every product onto the heap. Prefer
+	 * {@link #forEachProduct(Consumer)} to visit a large catalog.
+	 */
+	@Override
+	public List<ShopifyVariant> getVariants() {
+		final List<ShopifyVariant> shopifyVariants = new ArrayList<>(variantIdToProductId.size());
+		forEachProduct(shopifyProduct -> shopifyVariants.addAll(shopifyProduct.getVariants()));
+		return shopifyVariants;
+	}
+
+	/**
+	 * Decodes the products one at a time, so only the product being visited is
+	 * held on the heap.
+	 *
+	 * @param shopifyProductConsumer
+	 */
+	public void forEachProduct(final Consumer<ShopifyProduct> shopifyProductConsumer) {
+		for (final long address : productIdToAddress.values()) {
+			shopifyProductConsumer.accept(decode(address));
+		}
+	}
+
+	@Override
+	public ShopifyVariant getVariant(final String variantId) {
+		return getVariant(ShopifyIds.toLong(variantId));
+	}
+
+	@Override
+	public ShopifyVariant getVariant(final long variantId) {
+		final ShopifyProduct shopifyProduct = get(variantIdToProductId.get(variantId, ShopifyIds.NO_ID));
+		if (shopifyProduct != null) {
+			for (final ShopifyVariant shopifyVariant : shopifyProduct.getVariants()) {
+				if (shopifyVariant.getNumericId() == variantId) {
+					return shopifyVariant;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public ShopifyVariant getVariantByInventoryItemId(final String inventoryItemId) {
+		return getVariantByInventoryItemId(ShopifyIds.toLong(inventoryItemId));
+	}
+
+	@Override
+	public ShopifyVariant getVariantByInventoryItemId(final long inventoryItemId) {
+		final ShopifyVariant shopifyVariant = getVariant(
+				inventoryItemIdToVariantId.get(inventoryItemId, ShopifyIds.NO_ID));
+		return ((shopifyVariant != null) && (shopifyVariant.getNumericInventoryItemId() == inventoryItemId))
+				? shopifyVariant
+				: null;
+	}
+
+	@Override
+	public ShopifyVariant getVariantBySku(final String sku) {
+		final ShopifyVariant shopifyVariant = getVariant(skuHashToVariantId.get(hash(sku), ShopifyIds.NO_ID));
+		return ((shopifyVariant != null) && sku.equals(shopifyVariant.getSku())) ? shopifyVariant : null;
+	}
+
+	@Override
+	public ShopifyVariant getVariantByBarcode(final String barcode) {
+		final ShopifyVariant shopifyVariant = getVariant(barcodeHashToVariantId.get(hash(barcode), ShopifyIds.NO_ID));
+		return ((shopifyVariant != null) && barcode.equals(shopifyVariant.getBarcode())) ? shopifyVariant : null;
+	}
+
+	@Override
+	public int size() {
+		return productIdToAddress.size();
+	}
+
+	@Override
+	public boolean containsKey(final String productId) {
+		return containsKey(ShopifyIds.toLong(productId));
+	}
+
+	@Override
+	public boolean containsKey(final long productId) {
+		return productIdToAddress.containsKey(productId);
+	}
+
+	/**
+	 * @return the number of bytes used by the encoded products, including
+	 *         replaced ones.
+	 */
+	public long sizeInBytes() {
+		return records.sizeInBytes();
+	}
+
+	@Override
+	public void close() throws IOException {
+		records.close();
+	}
+
+	private ShopifyProduct decode(final long address) {
+		try {
+			return PRODUCT_READER.readValue(records.read(address));
+		} catch (final IOException e) {
+			throw new ShopifyClientException(String.format(PRODUCT_DECODING_FAILED_MESSAGE, address), e);
+		}
+	}
+
+	/**
+	 * Keeps the lowest variant ID for a key. A mapping left behind by an earlier
+	 * version of the product is replaced once its variant no longer has the key.
+	 */
+	private void putVariantId(final LongLongHashMap keyToVariantId, final ToLongFunction<ShopifyVariant> keyExtractor,
+			final ShopifyProduct shopifyProduct, final ShopifyVariant shopifyVariant) {
+		final long key = keyExtractor.applyAsLong(shopifyVariant);
+		if (key == ShopifyIds.NO_ID) {
+			return;
+		}
+		final long variantId = shopifyVariant.getNumericId();
+		final long existingVariantId = keyToVariantId.get(key, ShopifyIds.NO_ID);
+		if ((existingVariantId == ShopifyIds.NO_ID) || (variantId < existingVariantId)
+				|| isStale(existingVariantId, key, keyExtractor, shopifyProduct)) {
+			keyToVariantId.put(key, variantId);
+		}
+	}
+
+	private boolean isStale(final long variantId, final long key, final ToLongFunction<ShopifyVariant> keyExtractor,
+			final ShopifyProduct shopifyProduct) {
+		if (variantIdToProductId.get(variantId, ShopifyIds.NO_ID) != shopifyProduct.getNumericId()) {
+			return false;
+		}
+		for (final ShopifyVariant shopifyVariant : shopifyProduct.getVariants()) {
+			if (shopifyVariant.getNumericId() == variantId) {
+				return keyExtractor.applyAsLong(shopifyVariant) != key;
+			}
+		}
+		return true;
+	}
+
+	private static long hash(final String value) {
+		if (value == null) {
+			return ShopifyIds.NO_ID;
+		}
+		long hash = FNV_OFFSET_BASIS;
+		for (int index = 0; index < value.length(); index++) {
+			hash = (hash ^ value.charAt(index)) * FNV_PRIME;
+		}
+		return (hash == ShopifyIds.NO_ID) ? 1L : hash;
+	}
+
+	private static class RecordBuffer extends ByteArrayOutputStream {
+
+		byte[] bytes() {
+			return buf;
+		}
+
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.shopify.model;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+import org.joda.time.DateTime;
+
+import com.shopify.model.adapters.DateTimeAdapter;
+
+/**
+ * A bulk query run by Shopify in the background. Once it has completed, its
+ * result is a JSONL file at {@link #getUrl()}.
+ */
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ShopifyBulkOperation {
+
+	public static final String CREATED = "CREATED";
+	public static final String RUNNING = "RUNNING";
+	public static final String COMPLETED = "COMPLETED";
+	public static final String CANCELING = "CANCELING";
+
+	private String id;
+	private String status;
+	private String errorCode;
+	private long objectCount;
+	private String url;
+	private String partialDataUrl;
+	@XmlJavaTypeAdapter(DateTimeAdapter.class)
+	private DateTime createdAt;
+	@XmlJavaTypeAdapter(DateTimeAdapter.class)
+	private DateTime completedAt;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(final String id) {
+		this.id = id;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(final String status) {
+		this.status = status;
+	}
+
+	public String getErrorCode() {
+		return errorCode;
+	}
+
+	public void setErrorCode(final String errorCode) {
+		this.errorCode = errorCode;
+	}
+
+	public long getObjectCount() {
+		return objectCount;
+	}
+
+	public void setObjectCount(final long objectCount) {
+		this.objectCount = objectCount;
+	}
+
+	/**
+	 * @return the url of the result, or null if the operation has not
+	 *         completed or matched no objects.
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(final String url) {
+		this.url = url;
+	}
+
+	public String getPartialDataUrl() {
+		return partialDataUrl;
+	}
+
+	public void setPartialDataUrl(final String partialDataUrl) {
+		this.partialDataUrl = partialDataUrl;
+	}
+
+	public DateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(final DateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public DateTime getCompletedAt() {
+		return completedAt;
+	}
+
+	public void setCompletedAt(final DateTime completedAt) {
+		this.completedAt = completedAt;
+	}
+
+	/**
+	 * @return true if the operation will not change status any more.
+	 */
+	public boolean isFinished() {
+		return !(CREATED.equals(status) || RUNNING.equals(status) || CANCELING.equals(status));
+	}
+
+	public boolean isCompleted() {
+		return COMPLETED.equals(status);
+	}
+
+}
@@ -46,6 +46,10 @@ public class ShopifyCustomer {
 		this.id = id;
 	}
 
+	public long getNumericId() {
+		return ShopifyIds.toLong(id);
+	}
+
 	public String getEmail() {
 		return email;
 	}
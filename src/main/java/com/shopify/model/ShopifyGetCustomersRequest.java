@@ -11,6 +11,8 @@ public class ShopifyGetCustomersRequest {
     private String sinceId;
     private DateTime createdAtMin;
     private DateTime createdAtMax;
+    private DateTime updatedAtMin;
+    private DateTime updatedAtMax;
     public static interface OptionalsStep {
         OptionalsStep withPage(int page);
 
@@ -24,6 +26,10 @@ public class ShopifyGetCustomersRequest {
 
         OptionalsStep withCreatedAtMax(DateTime createdAtMax);
 
+        OptionalsStep withUpdatedAtMin(DateTime updatedAtMin);
+
+        OptionalsStep withUpdatedAtMax(DateTime updatedAtMax);
+
         ShopifyGetCustomersRequest build();
     }
 
@@ -39,6 +45,8 @@ public class ShopifyGetCustomersRequest {
             this.sinceId = steps.sinceId;
             this.createdAtMin = steps.createdAtMin;
             this.createdAtMax = steps.createdAtMax;
+            this.updatedAtMin = steps.updatedAtMin;
+            this.updatedAtMax = steps.updatedAtMax;
         }
     }
 
@@ -49,6 +57,8 @@ public class ShopifyGetCustomersRequest {
         private String sinceId;
         private DateTime createdAtMin;
         private DateTime createdAtMax;
+        private DateTime updatedAtMin;
+        private DateTime updatedAtMax;
 
         @Override
         public ShopifyGetCustomersRequest build() {
@@ -84,6 +94,16 @@ public class ShopifyGetCustomersRequest {
             this.createdAtMax = createdAtMax;
             return this;
         }
+        @Override
+        public OptionalsStep withUpdatedAtMin(DateTime updatedAtMin) {
+            this.updatedAtMin = updatedAtMin;
+            return this;
+        }
+        @Override
+        public OptionalsStep withUpdatedAtMax(DateTime updatedAtMax) {
+            this.updatedAtMax = updatedAtMax;
+            return this;
+        }
     }
     public int getPage() {
         return page;
@@ -132,4 +152,20 @@ public class ShopifyGetCustomersRequest {
     public void setCreatedAtMax(DateTime createdAtMax) {
         this.createdAtMax = createdAtMax;
     }
+
+    public DateTime getUpdatedAtMin() {
+        return updatedAtMin;
+    }
+
+    public void setUpdatedAtMin(DateTime updatedAtMin) {
+        this.updatedAtMin = updatedAtMin;
+    }
+
+    public DateTime getUpdatedAtMax() {
+        return updatedAtMax;
+    }
+
+    public void setUpdatedAtMax(DateTime updatedAtMax) {
+        this.updatedAtMax = updatedAtMax;
+    }
 }
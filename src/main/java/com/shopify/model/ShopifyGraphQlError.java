@@ -0,0 +1,47 @@
+package com.shopify.model;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ShopifyGraphQlError {
+
+	static final String CODE = "code";
+
+	private String message;
+	private JsonNode extensions;
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(final String message) {
+		this.message = message;
+	}
+
+	public JsonNode getExtensions() {
+		return extensions;
+	}
+
+	public void setExtensions(final JsonNode extensions) {
+		this.extensions = extensions;
+	}
+
+	/**
+	 * @return the error code in the extensions, such as <code>THROTTLED</code>,
+	 *         or null if there is none.
+	 */
+	public String getCode() {
+		return ((extensions == null) || !extensions.hasNonNull(CODE)) ? null : extensions.get(CODE).asText();
+	}
+
+	@Override
+	public String toString() {
+		return message;
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.shopify.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ShopifyGraphQlRequest {
+
+	private String query;
+	private Map<String, Object> variables = new LinkedHashMap<>();
+
+	public ShopifyGraphQlRequest() {
+	}
+
+	public ShopifyGraphQlRequest(final String query, final Map<String, Object> variables) {
+		this.query = query;
+		this.variables = variables;
+	}
+
+	public String getQuery() {
+		return query;
+	}
+
+	public void setQuery(final String query) {
+		this.query = query;
+	}
+
+	public Map<String, Object> getVariables() {
+		return variables;
+	}
+
+	public void setVariables(final Map<String, Object> variables) {
+		this.variables = variables;
+	}
+
+}
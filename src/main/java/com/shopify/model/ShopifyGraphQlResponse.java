@@ -0,0 +1,49 @@
+package com.shopify.model;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The body of a GraphQL Admin API response. The data is kept as a tree since
+ * its shape follows the query; the extensions hold the cost of the query and
+ * the state of the shop's cost bucket.
+ */
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ShopifyGraphQlResponse {
+
+	private JsonNode data;
+	private List<ShopifyGraphQlError> errors = new LinkedList<>();
+	private JsonNode extensions;
+
+	public JsonNode getData() {
+		return data;
+	}
+
+	public void setData(final JsonNode data) {
+		this.data = data;
+	}
+
+	public List<ShopifyGraphQlError> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(final List<ShopifyGraphQlError> errors) {
+		this.errors = errors;
+	}
+
+	public JsonNode getExtensions() {
+		return extensions;
+	}
+
+	public void setExtensions(final JsonNode extensions) {
+		this.extensions = extensions;
+	}
+
+}
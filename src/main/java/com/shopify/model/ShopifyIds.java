@@ -0,0 +1,51 @@
+package com.shopify.model;
+
+/**
+ * Conversions between the string IDs used by the Shopify models and primitive
+ * <code>long</code> IDs. Shopify never assigns an ID of zero, so
+ * {@link #NO_ID} stands in for a missing or non numeric ID.
+ */
+public final class ShopifyIds {
+
+	public static final long NO_ID = 0L;
+
+	private static final int MAXIMUM_DIGITS = 19;
+
+	private ShopifyIds() {
+	}
+
+	/**
+	 * Parses a Shopify ID without throwing or allocating.
+	 *
+	 * @param id
+	 * @return the numeric ID, or {@link #NO_ID} when the ID is null, blank, not
+	 *         a positive base 10 number or too large for a <code>long</code>.
+	 */
+	public static long toLong(final String id) {
+		if (id == null) {
+			return NO_ID;
+		}
+		final int length = id.length();
+		if ((length == 0) || (length > MAXIMUM_DIGITS)) {
+			return NO_ID;
+		}
+		long numericId = 0L;
+		for (int index = 0; index < length; index++) {
+			final int digit = id.charAt(index) - '0';
+			if ((digit < 0) || (digit > 9) || (numericId > ((Long.MAX_VALUE - digit) / 10))) {
+				return NO_ID;
+			}
+			numericId = (numericId * 10) + digit;
+		}
+		return numericId;
+	}
+
+	/**
+	 * @param id
+	 * @return the string form of the ID, or null for {@link #NO_ID}.
+	 */
+	public static String toString(final long id) {
+		return (id == NO_ID) ? null : Long.toString(id);
+	}
+
+}
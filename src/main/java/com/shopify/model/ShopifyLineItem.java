@@ -49,6 +49,10 @@ public class ShopifyLineItem {
 		this.id = id;
 	}
 
+	public long getNumericId() {
+		return ShopifyIds.toLong(id);
+	}
+
 	public String getVariantId() {
 		return variantId;
 	}
@@ -57,6 +61,10 @@ public class ShopifyLineItem {
 		this.variantId = variantId;
 	}
 
+	public long getNumericVariantId() {
+		return ShopifyIds.toLong(variantId);
+	}
+
 	public String getTitle() {
 		return title;
 	}
@@ -121,6 +129,10 @@ public class ShopifyLineItem {
 		this.productId = productId;
 	}
 
+	public long getNumericProductId() {
+		return ShopifyIds.toLong(productId);
+	}
+
 	public boolean isRequiresShipping() {
 		return requiresShipping;
 	}
@@ -1,8 +1,8 @@
 package com.shopify.model;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Currency;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -88,21 +88,21 @@ public class ShopifyOrder {
 	@XmlElement(name = "order_status_url")
 	private String orderStatusUrl;
 	@XmlElement(name = "line_items")
-	private List<ShopifyLineItem> lineItems = new LinkedList<>();
-	private List<ShopifyFulfillment> fulfillments = new LinkedList<>();
+	private List<ShopifyLineItem> lineItems;
+	private List<ShopifyFulfillment> fulfillments;
 	@XmlElement(name = "billing_address")
-	private ShopifyAddress billingAddress = new ShopifyAddress();
+	private ShopifyAddress billingAddress;
 	@XmlElement(name = "shipping_address")
-	private ShopifyAddress shippingAddress = new ShopifyAddress();
-	private ShopifyCustomer customer = new ShopifyCustomer();
+	private ShopifyAddress shippingAddress;
+	private ShopifyCustomer customer;
 	@XmlElement(name = "shipping_lines")
-	private List<ShopifyShippingLine> shippingLines = new LinkedList<>();
+	private List<ShopifyShippingLine> shippingLines;
 	@XmlElement(name = "tax_lines")
-	private List<ShopifyTaxLine> taxLines = new LinkedList<>();
+	private List<ShopifyTaxLine> taxLines;
 	@XmlElement(name = "note_attributes")
-	private List<ShopifyAttribute> noteAttributes = new LinkedList<>();
-	private List<ShopifyRefund> refunds = new LinkedList<>();
-	private List<Metafield> metafields = new LinkedList<>();
+	private List<ShopifyAttribute> noteAttributes;
+	private List<ShopifyRefund> refunds;
+	private List<Metafield> metafields;
 
 	public String getId() {
 		return id;
@@ -112,6 +112,10 @@ public class ShopifyOrder {
 		this.id = id;
 	}
 
+	public long getNumericId() {
+		return ShopifyIds.toLong(id);
+	}
+
 	public String getEmail() {
 		return email;
 	}
@@ -377,6 +381,9 @@ public class ShopifyOrder {
 	}
 
 	public List<ShopifyLineItem> getLineItems() {
+		if (lineItems == null) {
+			lineItems = new ArrayList<>();
+		}
 		return lineItems;
 	}
 
@@ -385,6 +392,9 @@ public class ShopifyOrder {
 	}
 
 	public List<ShopifyFulfillment> getFulfillments() {
+		if (fulfillments == null) {
+			fulfillments = new ArrayList<>();
+		}
 		return fulfillments;
 	}
 
@@ -393,6 +403,9 @@ public class ShopifyOrder {
 	}
 
 	public ShopifyAddress getBillingAddress() {
+		if (billingAddress == null) {
+			billingAddress = new ShopifyAddress();
+		}
 		return billingAddress;
 	}
 
@@ -401,6 +414,9 @@ public class ShopifyOrder {
 	}
 
 	public ShopifyAddress getShippingAddress() {
+		if (shippingAddress == null) {
+			shippingAddress = new ShopifyAddress();
+		}
 		return shippingAddress;
 	}
 
@@ -409,6 +425,9 @@ public class ShopifyOrder {
 	}
 
 	public ShopifyCustomer getCustomer() {
+		if (customer == null) {
+			customer = new ShopifyCustomer();
+		}
 		return customer;
 	}
 
@@ -417,6 +436,9 @@ public class ShopifyOrder {
 	}
 
 	public List<ShopifyShippingLine> getShippingLines() {
+		if (shippingLines == null) {
+			shippingLines = new ArrayList<>();
+		}
 		return shippingLines;
 	}
 
@@ -425,6 +447,9 @@ public class ShopifyOrder {
 	}
 
 	public List<ShopifyTaxLine> getTaxLines() {
+		if (taxLines == null) {
+			taxLines = new ArrayList<>();
+		}
 		return taxLines;
 	}
 
@@ -433,6 +458,9 @@ public class ShopifyOrder {
 	}
 
 	public List<ShopifyAttribute> getNoteAttributes() {
+		if (noteAttributes == null) {
+			noteAttributes = new ArrayList<>();
+		}
 		return noteAttributes;
 	}
 
@@ -441,6 +469,9 @@ public class ShopifyOrder {
 	}
 
 	public List<Metafield> getMetafields() {
+		if (metafields == null) {
+			metafields = new ArrayList<>();
+		}
 		return metafields;
 	}
 
@@ -449,6 +480,9 @@ public class ShopifyOrder {
 	}
 
 	public List<ShopifyRefund> getRefunds() {
+		if (refunds == null) {
+			refunds = new ArrayList<>();
+		}
 		return refunds;
 	}
 
@@ -0,0 +1,40 @@
+package com.shopify.model;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * An order with its transactions and risks. The order's metafields are set on
+ * the order.
+ */
+public class ShopifyOrderDetails {
+
+	private ShopifyOrder order;
+	private List<ShopifyTransaction> transactions = new LinkedList<>();
+	private List<ShopifyOrderRisk> risks = new LinkedList<>();
+
+	public ShopifyOrder getOrder() {
+		return order;
+	}
+
+	public void setOrder(final ShopifyOrder order) {
+		this.order = order;
+	}
+
+	public List<ShopifyTransaction> getTransactions() {
+		return transactions;
+	}
+
+	public void setTransactions(final List<ShopifyTransaction> transactions) {
+		this.transactions = transactions;
+	}
+
+	public List<ShopifyOrderRisk> getRisks() {
+		return risks;
+	}
+
+	public void setRisks(final List<ShopifyOrderRisk> risks) {
+		this.risks = risks;
+	}
+
+}
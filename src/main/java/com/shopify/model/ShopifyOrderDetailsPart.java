@@ -0,0 +1,10 @@
+package com.shopify.model;
+
+/**
+ * The parts of {@link ShopifyOrderDetails} to get with an order.
+ */
+public enum ShopifyOrderDetailsPart {
+
+	TRANSACTIONS, RISKS, METAFIELDS;
+
+}
@@ -0,0 +1,53 @@
+package com.shopify.model;
+
+import java.util.List;
+
+import com.shopify.collections.LongObjectHashMap;
+
+/**
+ * Orders indexed by their numeric ID. Backed by a primitive keyed map so that
+ * large order windows do not pay for boxed keys and hash entries.
+ */
+public class ShopifyOrders {
+
+	static final String NON_NUMERIC_ORDER_ID_MESSAGE = "Order ID of %s is not numeric and cannot be indexed.";
+
+	private final LongObjectHashMap<ShopifyOrder> orderIdToShopifyOrder;
+
+	public ShopifyOrders(final List<ShopifyOrder> shopifyOrders) {
+		orderIdToShopifyOrder = new LongObjectHashMap<>(shopifyOrders.size());
+		for (final ShopifyOrder shopifyOrder : shopifyOrders) {
+			final long orderId = shopifyOrder.getNumericId();
+			if (orderId == ShopifyIds.NO_ID) {
+				throw new IllegalArgumentException(
+						String.format(NON_NUMERIC_ORDER_ID_MESSAGE, shopifyOrder.getId()));
+			}
+			orderIdToShopifyOrder.put(orderId, shopifyOrder);
+		}
+	}
+
+	public ShopifyOrder get(final long orderId) {
+		return orderIdToShopifyOrder.get(orderId);
+	}
+
+	public ShopifyOrder get(final String orderId) {
+		return orderIdToShopifyOrder.get(ShopifyIds.toLong(orderId));
+	}
+
+	public List<ShopifyOrder> values() {
+		return orderIdToShopifyOrder.values();
+	}
+
+	public int size() {
+		return orderIdToShopifyOrder.size();
+	}
+
+	public boolean containsKey(final long orderId) {
+		return orderIdToShopifyOrder.containsKey(orderId);
+	}
+
+	public boolean containsKey(final String orderId) {
+		return orderIdToShopifyOrder.containsKey(ShopifyIds.toLong(orderId));
+	}
+
+}
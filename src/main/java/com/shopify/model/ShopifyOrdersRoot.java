@@ -1,6 +1,6 @@
 package com.shopify.model;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.xml.bind.annotation.XmlRootElement;
@@ -8,9 +8,12 @@ import javax.xml.bind.annotation.XmlRootElement;
 @XmlRootElement
 public class ShopifyOrdersRoot {
 
-	private List<ShopifyOrder> orders = new LinkedList<>();
+	private List<ShopifyOrder> orders;
 
 	public List<ShopifyOrder> getOrders() {
+		if (orders == null) {
+			orders = new ArrayList<>();
+		}
 		return orders;
 	}
 
@@ -1,8 +1,8 @@
 package com.shopify.model;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -14,7 +14,9 @@ import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 import org.apache.commons.lang3.StringUtils;
+import org.joda.time.DateTime;
 
+import com.shopify.model.adapters.DateTimeAdapter;
 import com.shopify.model.adapters.EscapedStringAdapter;
 import com.shopify.model.adapters.TagsAdapter;
 
@@ -34,18 +36,24 @@ public class ShopifyProduct {
 	private String vendor;
 	@XmlJavaTypeAdapter(TagsAdapter.class)
 	@XmlElement(name = "tags")
-	private Set<String> tags = new HashSet<>();
-	private List<Option> options = new LinkedList<>();
+	private Set<String> tags;
+	private List<Option> options;
 	@XmlElement(name = "metafields_global_title_tag")
 	private String metafieldsGlobalTitleTag;
 	@XmlElement(name = "metafields_global_description_tag")
 	private String metafieldsGlobalDescriptionTag;
-	private List<Image> images = new LinkedList<>();
+	private List<Image> images;
 	private Image image;
-	private List<ShopifyVariant> variants = new LinkedList<>();
+	private List<ShopifyVariant> variants;
 	@XmlElement(name = "published_at")
 	private String publishedAt;
 	private Boolean published;
+	@XmlElement(name = "created_at")
+	@XmlJavaTypeAdapter(DateTimeAdapter.class)
+	private DateTime createdAt;
+	@XmlElement(name = "updated_at")
+	@XmlJavaTypeAdapter(DateTimeAdapter.class)
+	private DateTime updatedAt;
 
 	public String getId() {
 		return id;
@@ -55,6 +63,10 @@ public class ShopifyProduct {
 		this.id = id;
 	}
 
+	public long getNumericId() {
+		return ShopifyIds.toLong(id);
+	}
+
 	public String getTitle() {
 		return title;
 	}
@@ -88,6 +100,9 @@ public class ShopifyProduct {
 	}
 
 	public Set<String> getTags() {
+		if (tags == null) {
+			tags = new HashSet<>();
+		}
 		return tags;
 	}
 
@@ -96,6 +111,9 @@ public class ShopifyProduct {
 	}
 
 	public List<Option> getOptions() {
+		if (options == null) {
+			options = new ArrayList<>();
+		}
 		return options;
 	}
 
@@ -120,6 +138,9 @@ public class ShopifyProduct {
 	}
 
 	public List<Image> getImages() {
+		if (images == null) {
+			images = new ArrayList<>();
+		}
 		return images;
 	}
 
@@ -136,6 +157,9 @@ public class ShopifyProduct {
 	}
 
 	public List<ShopifyVariant> getVariants() {
+		if (variants == null) {
+			variants = new ArrayList<>();
+		}
 		return variants;
 	}
 
@@ -159,6 +183,22 @@ public class ShopifyProduct {
 		this.published = published;
 	}
 
+	public DateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(final DateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public DateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(final DateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
 	public List<String> getSortedOptionNames() {
 		final Comparator<Option> optionPositionCompartor = new Comparator<Option>() {
 			@Override
@@ -166,6 +206,6 @@ public class ShopifyProduct {
 				return o1.getPosition() - o2.getPosition();
 			}
 		};
-		return options.stream().sorted(optionPositionCompartor).map(Option::getName).collect(Collectors.toList());
+		return getOptions().stream().sorted(optionPositionCompartor).map(Option::getName).collect(Collectors.toList());
 	}
 }
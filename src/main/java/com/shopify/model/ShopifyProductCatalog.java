@@ -0,0 +1,41 @@
+package com.shopify.model;
+
+import java.util.List;
+
+/**
+ * Lookups over a retrieved product catalog. Products are keyed by product ID
+ * and variants by variant ID, SKU, barcode and inventory item ID. The string
+ * and <code>long</code> overloads of each lookup are interchangeable.
+ *
+ * Shopify does not require SKUs or barcodes to be unique. When several
+ * variants share one, the variant with the lowest ID is returned.
+ */
+public interface ShopifyProductCatalog {
+
+	ShopifyProduct get(String productId);
+
+	ShopifyProduct get(long productId);
+
+	List<ShopifyProduct> values();
+
+	List<ShopifyVariant> getVariants();
+
+	ShopifyVariant getVariant(String variantId);
+
+	ShopifyVariant getVariant(long variantId);
+
+	ShopifyVariant getVariantByInventoryItemId(String inventoryItemId);
+
+	ShopifyVariant getVariantByInventoryItemId(long inventoryItemId);
+
+	ShopifyVariant getVariantBySku(String sku);
+
+	ShopifyVariant getVariantByBarcode(String barcode);
+
+	int size();
+
+	boolean containsKey(String productId);
+
+	boolean containsKey(long productId);
+
+}
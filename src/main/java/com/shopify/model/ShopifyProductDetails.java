@@ -0,0 +1,51 @@
+package com.shopify.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A product with its variants, its metafields and the metafields of each
+ * variant.
+ */
+public class ShopifyProductDetails {
+
+	private ShopifyProduct product;
+	private List<Metafield> metafields = new LinkedList<>();
+	private Map<String, List<Metafield>> variantMetafields = new HashMap<>();
+
+	public ShopifyProduct getProduct() {
+		return product;
+	}
+
+	public void setProduct(final ShopifyProduct product) {
+		this.product = product;
+	}
+
+	public List<Metafield> getMetafields() {
+		return metafields;
+	}
+
+	public void setMetafields(final List<Metafield> metafields) {
+		this.metafields = metafields;
+	}
+
+	/**
+	 * @param variantId
+	 * @return the metafields of the variant, or an empty list if it has none.
+	 */
+	public List<Metafield> getVariantMetafields(final String variantId) {
+		return variantMetafields.getOrDefault(variantId, Collections.emptyList());
+	}
+
+	public Map<String, List<Metafield>> getVariantMetafields() {
+		return variantMetafields;
+	}
+
+	public void setVariantMetafields(final Map<String, List<Metafield>> variantMetafields) {
+		this.variantMetafields = variantMetafields;
+	}
+
+}
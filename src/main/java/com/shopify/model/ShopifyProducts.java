@@ -2,44 +2,287 @@ package com.shopify.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
-public class ShopifyProducts {
+import com.shopify.collections.HashIndex;
+import com.shopify.collections.LongObjectHashMap;
+
+/**
+ * Products indexed by product ID. Variants can also be looked up by variant
+ * ID, SKU, barcode and inventory item ID; each of those indexes is built the
+ * first time it is used. The indexes do not notice when a variant's SKU,
+ * barcode or IDs change after they were built: lookups of that variant by its
+ * old or its new key may then miss until {@link #clearVariantIndexes()} is
+ * called.
+ */
+public class ShopifyProducts implements ShopifyProductCatalog {
+
+	static final String NON_NUMERIC_PRODUCT_ID_MESSAGE = "Product ID of %s is not numeric and cannot be indexed.";
+
+	private static final BinaryOperator<ShopifyVariant> LOWEST_VARIANT_ID = BinaryOperator
+			.minBy(Comparator.comparingLong(ShopifyVariant::getNumericId).thenComparing(ShopifyVariant::getId,
+					Comparator.nullsLast(Comparator.naturalOrder())));
 
 	private final Map<String, ShopifyProduct> productIdToShopifyProduct;
+	private final LongObjectHashMap<ShopifyProduct> numericProductIdToShopifyProduct;
+
+	private HashIndex<String, ShopifyVariant> variantIdToShopifyVariant;
+	private HashIndex<String, ShopifyVariant> inventoryItemIdToShopifyVariant;
+	private LongObjectHashMap<ShopifyVariant> numericVariantIdToShopifyVariant;
+	private LongObjectHashMap<ShopifyVariant> numericInventoryItemIdToShopifyVariant;
+	private HashIndex<String, ShopifyVariant> skuToShopifyVariant;
+	private HashIndex<String, ShopifyVariant> barcodeToShopifyVariant;
 
 	public ShopifyProducts(final List<ShopifyProduct> shopifyProducts) {
 		productIdToShopifyProduct = new HashMap<>(shopifyProducts.size());
+		numericProductIdToShopifyProduct = null;
 		shopifyProducts.stream().forEach(shopifyProduct -> {
 			productIdToShopifyProduct.put(shopifyProduct.getId(), shopifyProduct);
 		});
 	}
 
+	private ShopifyProducts(final LongObjectHashMap<ShopifyProduct> numericProductIdToShopifyProduct) {
+		this.productIdToShopifyProduct = null;
+		this.numericProductIdToShopifyProduct = numericProductIdToShopifyProduct;
+	}
+
+	/**
+	 * Indexes products by their numeric ID in a primitive keyed map instead of
+	 * a string keyed {@link HashMap}. Use this for large catalogs where the
+	 * boxed keys and hash entries would outweigh the products themselves.
+	 *
+	 * @param shopifyProducts
+	 * @return {@link ShopifyProducts}
+	 * @throws IllegalArgumentException
+	 *             when a product does not have a numeric ID.
+	 */
+	public static ShopifyProducts withNumericIds(final List<ShopifyProduct> shopifyProducts) {
+		final LongObjectHashMap<ShopifyProduct> numericProductIdToShopifyProduct = new LongObjectHashMap<>(
+				shopifyProducts.size());
+		for (final ShopifyProduct shopifyProduct : shopifyProducts) {
+			final long productId = shopifyProduct.getNumericId();
+			if (productId == ShopifyIds.NO_ID) {
+				throw new IllegalArgumentException(
+						String.format(NON_NUMERIC_PRODUCT_ID_MESSAGE, shopifyProduct.getId()));
+			}
+			numericProductIdToShopifyProduct.put(productId, shopifyProduct);
+		}
+		return new ShopifyProducts(numericProductIdToShopifyProduct);
+	}
+
+	@Override
 	public ShopifyProduct get(final String productId) {
+		if (hasNumericIds()) {
+			return numericProductIdToShopifyProduct.get(ShopifyIds.toLong(productId));
+		}
 		return productIdToShopifyProduct.get(productId);
 	}
 
+	@Override
+	public ShopifyProduct get(final long productId) {
+		if (hasNumericIds()) {
+			return numericProductIdToShopifyProduct.get(productId);
+		}
+		return productIdToShopifyProduct.get(ShopifyIds.toString(productId));
+	}
+
+	@Override
 	public List<ShopifyProduct> values() {
+		if (hasNumericIds()) {
+			return numericProductIdToShopifyProduct.values();
+		}
 		return new ArrayList<>(productIdToShopifyProduct.values());
 	}
 
+	@Override
 	public List<ShopifyVariant> getVariants() {
-		final Collection<ShopifyProduct> shopifyProducts = productIdToShopifyProduct.values();
-		final List<ShopifyVariant> shopifyVariants = new ArrayList<>(shopifyProducts.size());
+		final Collection<ShopifyProduct> shopifyProducts = values();
+		final List<ShopifyVariant> shopifyVariants = new ArrayList<>(countVariants(shopifyProducts));
 		for (ShopifyProduct shopifyProduct : shopifyProducts) {
 			shopifyVariants.addAll(shopifyProduct.getVariants());
 		}
 		return shopifyVariants;
 	}
 
+	@Override
+	public ShopifyVariant getVariant(final String variantId) {
+		if (hasNumericIds()) {
+			return getVariant(ShopifyIds.toLong(variantId));
+		}
+		return getVariantIdIndex().get(variantId);
+	}
+
+	@Override
+	public ShopifyVariant getVariant(final long variantId) {
+		if (hasNumericIds()) {
+			return getNumericVariantIdIndex().get(variantId);
+		}
+		return getVariantIdIndex().get(ShopifyIds.toString(variantId));
+	}
+
+	@Override
+	public ShopifyVariant getVariantByInventoryItemId(final String inventoryItemId) {
+		if (hasNumericIds()) {
+			return getVariantByInventoryItemId(ShopifyIds.toLong(inventoryItemId));
+		}
+		return getInventoryItemIdIndex().get(inventoryItemId);
+	}
+
+	@Override
+	public ShopifyVariant getVariantByInventoryItemId(final long inventoryItemId) {
+		if (hasNumericIds()) {
+			return getNumericInventoryItemIdIndex().get(inventoryItemId);
+		}
+		return getInventoryItemIdIndex().get(ShopifyIds.toString(inventoryItemId));
+	}
+
+	/**
+	 * Shopify does not require SKUs to be unique. When several variants share a
+	 * SKU, the variant with the lowest ID is returned.
+	 *
+	 * @param sku
+	 * @return the {@link ShopifyVariant} with the SKU, or null if there is none.
+	 */
+	@Override
+	public ShopifyVariant getVariantBySku(final String sku) {
+		return getSkuIndex().get(sku);
+	}
+
+	/**
+	 * Shopify does not require barcodes to be unique. When several variants
+	 * share a barcode, the variant with the lowest ID is returned.
+	 *
+	 * @param barcode
+	 * @return the {@link ShopifyVariant} with the barcode, or null if there is
+	 *         none.
+	 */
+	@Override
+	public ShopifyVariant getVariantByBarcode(final String barcode) {
+		return getBarcodeIndex().get(barcode);
+	}
+
+	@Override
 	public int size() {
+		if (hasNumericIds()) {
+			return numericProductIdToShopifyProduct.size();
+		}
 		return productIdToShopifyProduct.size();
 	}
 
+	@Override
 	public boolean containsKey(final String productId) {
+		if (hasNumericIds()) {
+			return numericProductIdToShopifyProduct.containsKey(ShopifyIds.toLong(productId));
+		}
 		return productIdToShopifyProduct.containsKey(productId);
 	}
 
+	@Override
+	public boolean containsKey(final long productId) {
+		if (hasNumericIds()) {
+			return numericProductIdToShopifyProduct.containsKey(productId);
+		}
+		return productIdToShopifyProduct.containsKey(ShopifyIds.toString(productId));
+	}
+
+	public boolean hasNumericIds() {
+		return numericProductIdToShopifyProduct != null;
+	}
+
+	/**
+	 * Drops the variant indexes so that each is built again from the current
+	 * variants the next time it is used. Call this after changing the SKU,
+	 * barcode or IDs of variants that were already indexed.
+	 */
+	public synchronized void clearVariantIndexes() {
+		variantIdToShopifyVariant = null;
+		inventoryItemIdToShopifyVariant = null;
+		numericVariantIdToShopifyVariant = null;
+		numericInventoryItemIdToShopifyVariant = null;
+		skuToShopifyVariant = null;
+		barcodeToShopifyVariant = null;
+	}
+
+	private synchronized HashIndex<String, ShopifyVariant> getVariantIdIndex() {
+		if (variantIdToShopifyVariant == null) {
+			variantIdToShopifyVariant = buildIndex(ShopifyVariant::getId);
+		}
+		return variantIdToShopifyVariant;
+	}
+
+	private synchronized HashIndex<String, ShopifyVariant> getInventoryItemIdIndex() {
+		if (inventoryItemIdToShopifyVariant == null) {
+			inventoryItemIdToShopifyVariant = buildIndex(ShopifyVariant::getInventoryItemId);
+		}
+		return inventoryItemIdToShopifyVariant;
+	}
+
+	private synchronized HashIndex<String, ShopifyVariant> getSkuIndex() {
+		if (skuToShopifyVariant == null) {
+			skuToShopifyVariant = buildIndex(ShopifyVariant::getSku);
+		}
+		return skuToShopifyVariant;
+	}
+
+	private synchronized HashIndex<String, ShopifyVariant> getBarcodeIndex() {
+		if (barcodeToShopifyVariant == null) {
+			barcodeToShopifyVariant = buildIndex(ShopifyVariant::getBarcode);
+		}
+		return barcodeToShopifyVariant;
+	}
+
+	private synchronized LongObjectHashMap<ShopifyVariant> getNumericVariantIdIndex() {
+		if (numericVariantIdToShopifyVariant == null) {
+			numericVariantIdToShopifyVariant = buildNumericIndex(ShopifyVariant::getNumericId);
+		}
+		return numericVariantIdToShopifyVariant;
+	}
+
+	private synchronized LongObjectHashMap<ShopifyVariant> getNumericInventoryItemIdIndex() {
+		if (numericInventoryItemIdToShopifyVariant == null) {
+			numericInventoryItemIdToShopifyVariant = buildNumericIndex(ShopifyVariant::getNumericInventoryItemId);
+		}
+		return numericInventoryItemIdToShopifyVariant;
+	}
+
+	private HashIndex<String, ShopifyVariant> buildIndex(final Function<ShopifyVariant, String> keyExtractor) {
+		final Collection<ShopifyProduct> shopifyProducts = values();
+		final HashIndex<String, ShopifyVariant> index = new HashIndex<>(countVariants(shopifyProducts), keyExtractor,
+				LOWEST_VARIANT_ID);
+		for (final ShopifyProduct shopifyProduct : shopifyProducts) {
+			for (final ShopifyVariant shopifyVariant : shopifyProduct.getVariants()) {
+				index.add(shopifyVariant);
+			}
+		}
+		return index;
+	}
+
+	private LongObjectHashMap<ShopifyVariant> buildNumericIndex(final ToLongFunction<ShopifyVariant> keyExtractor) {
+		final Collection<ShopifyProduct> shopifyProducts = values();
+		final LongObjectHashMap<ShopifyVariant> index = new LongObjectHashMap<>(countVariants(shopifyProducts));
+		for (final ShopifyProduct shopifyProduct : shopifyProducts) {
+			for (final ShopifyVariant shopifyVariant : shopifyProduct.getVariants()) {
+				final long key = keyExtractor.applyAsLong(shopifyVariant);
+				if (key != ShopifyIds.NO_ID) {
+					index.put(key, shopifyVariant);
+				}
+			}
+		}
+		return index;
+	}
+
+	private static int countVariants(final Collection<ShopifyProduct> shopifyProducts) {
+		int variantCount = 0;
+		for (final ShopifyProduct shopifyProduct : shopifyProducts) {
+			variantCount += shopifyProduct.getVariants().size();
+		}
+		return variantCount;
+	}
+
 }
@@ -1,6 +1,6 @@
 package com.shopify.model;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.xml.bind.annotation.XmlRootElement;
@@ -8,9 +8,12 @@ import javax.xml.bind.annotation.XmlRootElement;
 @XmlRootElement
 public class ShopifyProductsRoot {
 
-	private List<ShopifyProduct> products = new LinkedList<ShopifyProduct>();
+	private List<ShopifyProduct> products;
 
 	public List<ShopifyProduct> getProducts() {
+		if (products == null) {
+			products = new ArrayList<>();
+		}
 		return products;
 	}
 
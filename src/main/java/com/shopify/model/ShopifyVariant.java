@@ -63,6 +63,10 @@ public class ShopifyVariant {
 		this.id = id;
 	}
 
+	public long getNumericId() {
+		return ShopifyIds.toLong(id);
+	}
+
 	public String getProductId() {
 		return productId;
 	}
@@ -71,6 +75,10 @@ public class ShopifyVariant {
 		this.productId = productId;
 	}
 
+	public long getNumericProductId() {
+		return ShopifyIds.toLong(productId);
+	}
+
 	public String getTitle() {
 		return title;
 	}
@@ -216,6 +224,10 @@ public class ShopifyVariant {
 		this.inventoryItemId = inventoryItemId;
 	}
 
+	public long getNumericInventoryItemId() {
+		return ShopifyIds.toLong(inventoryItemId);
+	}
+
 	public long getAvailable() {
 		return available;
 	}
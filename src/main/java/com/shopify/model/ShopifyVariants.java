@@ -0,0 +1,54 @@
+package com.shopify.model;
+
+import java.util.List;
+
+import com.shopify.collections.LongObjectHashMap;
+
+/**
+ * Variants indexed by their numeric ID. Backed by a primitive keyed map so that
+ * catalogs with millions of variants do not pay for boxed keys and hash
+ * entries.
+ */
+public class ShopifyVariants {
+
+	static final String NON_NUMERIC_VARIANT_ID_MESSAGE = "Variant ID of %s is not numeric and cannot be indexed.";
+
+	private final LongObjectHashMap<ShopifyVariant> variantIdToShopifyVariant;
+
+	public ShopifyVariants(final List<ShopifyVariant> shopifyVariants) {
+		variantIdToShopifyVariant = new LongObjectHashMap<>(shopifyVariants.size());
+		for (final ShopifyVariant shopifyVariant : shopifyVariants) {
+			final long variantId = shopifyVariant.getNumericId();
+			if (variantId == ShopifyIds.NO_ID) {
+				throw new IllegalArgumentException(
+						String.format(NON_NUMERIC_VARIANT_ID_MESSAGE, shopifyVariant.getId()));
+			}
+			variantIdToShopifyVariant.put(variantId, shopifyVariant);
+		}
+	}
+
+	public ShopifyVariant get(final long variantId) {
+		return variantIdToShopifyVariant.get(variantId);
+	}
+
+	public ShopifyVariant get(final String variantId) {
+		return variantIdToShopifyVariant.get(ShopifyIds.toLong(variantId));
+	}
+
+	public List<ShopifyVariant> values() {
+		return variantIdToShopifyVariant.values();
+	}
+
+	public int size() {
+		return variantIdToShopifyVariant.size();
+	}
+
+	public boolean containsKey(final long variantId) {
+		return variantIdToShopifyVariant.containsKey(variantId);
+	}
+
+	public boolean containsKey(final String variantId) {
+		return variantIdToShopifyVariant.containsKey(ShopifyIds.toLong(variantId));
+	}
+
+}
@@ -12,7 +12,7 @@ public class DateTimeAdapter extends XmlAdapter<String, DateTime> {
 		if (StringUtils.isBlank(timestamp)) {
 			return null;
 		}
-		return DateTime.parse(timestamp);
+		return ShopifyTimestamps.toDateTime(timestamp);
 	}
 
 	@Override
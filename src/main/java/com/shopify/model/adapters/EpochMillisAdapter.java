@@ -0,0 +1,32 @@
+package com.shopify.model.adapters;
+
+import java.time.Instant;
+
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Maps timestamps to milliseconds since the epoch for models that only compare
+ * or store instants. The offset of the timestamp is not kept and marshalled
+ * timestamps are in UTC.
+ */
+public class EpochMillisAdapter extends XmlAdapter<String, Long> {
+
+	@Override
+	public Long unmarshal(final String timestamp) throws Exception {
+		if (StringUtils.isBlank(timestamp)) {
+			return null;
+		}
+		return ShopifyTimestamps.toEpochMillis(timestamp);
+	}
+
+	@Override
+	public String marshal(final Long epochMillis) throws Exception {
+		if (epochMillis == null) {
+			return null;
+		}
+		return Instant.ofEpochMilli(epochMillis).toString();
+	}
+
+}
@@ -6,9 +6,11 @@ import org.apache.commons.lang3.StringEscapeUtils;
 
 public class EscapedStringAdapter extends XmlAdapter<String, String> {
 
+	private static final char ENTITY_START = '&';
+
 	@Override
 	public String unmarshal(final String escapedString) throws Exception {
-		return StringEscapeUtils.unescapeHtml4(escapedString);
+		return unescape(escapedString);
 	}
 
 	@Override
@@ -16,4 +18,18 @@ public class EscapedStringAdapter extends XmlAdapter<String, String> {
 		return unescapedString;
 	}
 
+	/**
+	 * Every HTML entity starts with an ampersand, so strings without one are
+	 * returned as they are instead of being copied by the unescaper.
+	 *
+	 * @param escapedString
+	 * @return the unescaped string.
+	 */
+	static String unescape(final String escapedString) {
+		if ((escapedString == null) || (escapedString.indexOf(ENTITY_START) < 0)) {
+			return escapedString;
+		}
+		return StringEscapeUtils.unescapeHtml4(escapedString);
+	}
+
 }
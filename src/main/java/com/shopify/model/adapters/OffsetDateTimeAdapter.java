@@ -0,0 +1,31 @@
+package com.shopify.model.adapters;
+
+import java.time.OffsetDateTime;
+
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Maps timestamps to {@link OffsetDateTime} for models that do not need Joda
+ * objects.
+ */
+public class OffsetDateTimeAdapter extends XmlAdapter<String, OffsetDateTime> {
+
+	@Override
+	public OffsetDateTime unmarshal(final String timestamp) throws Exception {
+		if (StringUtils.isBlank(timestamp)) {
+			return null;
+		}
+		return ShopifyTimestamps.toOffsetDateTime(timestamp);
+	}
+
+	@Override
+	public String marshal(final OffsetDateTime offsetDateTime) throws Exception {
+		if (offsetDateTime == null) {
+			return null;
+		}
+		return offsetDateTime.toString();
+	}
+
+}
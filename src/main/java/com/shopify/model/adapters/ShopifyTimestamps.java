@@ -0,0 +1,176 @@
+package com.shopify.model.adapters;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
+
+/**
+ * Parses the timestamps Shopify sends, such as
+ * <code>2018-10-22T14:25:15-04:00</code>, without a general purpose formatter.
+ * Seconds may carry a fraction and the offset may be <code>Z</code>. Anything
+ * else falls back to the general ISO-8601 parser of Joda or
+ * <code>java.time</code>, so results and errors match theirs.
+ *
+ * Parsed {@link DateTime}s keep the offset of the timestamp as their zone, as
+ * {@link DateTime#parse(String)} does. The chronology for each offset is
+ * cached so repeated offsets do not look up or build a zone again.
+ */
+public final class ShopifyTimestamps {
+
+	private static final long NOT_PARSED = Long.MIN_VALUE;
+	private static final int MAXIMUM_OFFSET_MINUTES = 18 * 60;
+	private static final int MINIMUM_LENGTH = 20;
+	private static final int OFFSET_LENGTH = 6;
+	private static final int MILLISECOND_DIGITS = 3;
+	private static final int MAXIMUM_FRACTION_DIGITS = 9;
+	private static final int MILLISECONDS_PER_MINUTE = 60 * 1000;
+	private static final ISOChronology UTC_CHRONOLOGY = ISOChronology.getInstanceUTC();
+	private static final ISOChronology[] CHRONOLOGIES = new ISOChronology[(2 * MAXIMUM_OFFSET_MINUTES) + 1];
+
+	private ShopifyTimestamps() {
+	}
+
+	public static DateTime toDateTime(final String timestamp) {
+		final long offsetMinutes = parseOffsetMinutes(timestamp);
+		if (offsetMinutes != NOT_PARSED) {
+			final long localMillis = parseLocalMillis(timestamp, offsetMinutes);
+			if (localMillis != NOT_PARSED) {
+				return new DateTime(localMillis - (offsetMinutes * MILLISECONDS_PER_MINUTE),
+						getChronology((int) offsetMinutes));
+			}
+		}
+		return DateTime.parse(timestamp);
+	}
+
+	/**
+	 * @param timestamp
+	 * @return milliseconds since the epoch, for callers that only compare or
+	 *         store instants and do not need a date object.
+	 */
+	public static long toEpochMillis(final String timestamp) {
+		final long offsetMinutes = parseOffsetMinutes(timestamp);
+		if (offsetMinutes != NOT_PARSED) {
+			final long localMillis = parseLocalMillis(timestamp, offsetMinutes);
+			if (localMillis != NOT_PARSED) {
+				return localMillis - (offsetMinutes * MILLISECONDS_PER_MINUTE);
+			}
+		}
+		return DateTime.parse(timestamp).getMillis();
+	}
+
+	public static OffsetDateTime toOffsetDateTime(final String timestamp) {
+		final long offsetMinutes = parseOffsetMinutes(timestamp);
+		if (offsetMinutes != NOT_PARSED) {
+			final long localMillis = parseLocalMillis(timestamp, offsetMinutes);
+			if (localMillis != NOT_PARSED) {
+				return Instant.ofEpochMilli(localMillis - (offsetMinutes * MILLISECONDS_PER_MINUTE))
+						.atOffset(ZoneOffset.ofTotalSeconds((int) offsetMinutes * 60));
+			}
+		}
+		return OffsetDateTime.parse(timestamp);
+	}
+
+	private static ISOChronology getChronology(final int offsetMinutes) {
+		final int index = offsetMinutes + MAXIMUM_OFFSET_MINUTES;
+		ISOChronology chronology = CHRONOLOGIES[index];
+		if (chronology == null) {
+			chronology = ISOChronology.getInstance(DateTimeZone.forOffsetMillis(offsetMinutes * MILLISECONDS_PER_MINUTE));
+			CHRONOLOGIES[index] = chronology;
+		}
+		return chronology;
+	}
+
+	/**
+	 * Reads the trailing <code>Z</code> or <code>&plusmn;hh:mm</code>.
+	 */
+	private static long parseOffsetMinutes(final String timestamp) {
+		final int length = timestamp.length();
+		if (length < MINIMUM_LENGTH) {
+			return NOT_PARSED;
+		}
+		if (timestamp.charAt(length - 1) == 'Z') {
+			return 0;
+		}
+		final int offsetStart = length - OFFSET_LENGTH;
+		final char sign = timestamp.charAt(offsetStart);
+		if (((sign != '+') && (sign != '-')) || (timestamp.charAt(offsetStart + 3) != ':')) {
+			return NOT_PARSED;
+		}
+		final int hours = parseDigits(timestamp, offsetStart + 1, 2);
+		final int minutes = parseDigits(timestamp, offsetStart + 4, 2);
+		if ((hours < 0) || (minutes < 0) || (minutes > 59)) {
+			return NOT_PARSED;
+		}
+		final int offsetMinutes = (hours * 60) + minutes;
+		if (offsetMinutes > MAXIMUM_OFFSET_MINUTES) {
+			return NOT_PARSED;
+		}
+		return (sign == '-') ? -offsetMinutes : offsetMinutes;
+	}
+
+	/**
+	 * Reads <code>yyyy-MM-ddTHH:mm:ss</code> and an optional fraction of a
+	 * second, and returns the local time as if it were UTC.
+	 */
+	private static long parseLocalMillis(final String timestamp, final long offsetMinutes) {
+		if ((timestamp.charAt(4) != '-') || (timestamp.charAt(7) != '-') || (timestamp.charAt(10) != 'T')
+				|| (timestamp.charAt(13) != ':') || (timestamp.charAt(16) != ':')) {
+			return NOT_PARSED;
+		}
+		final int year = parseDigits(timestamp, 0, 4);
+		final int month = parseDigits(timestamp, 5, 2);
+		final int day = parseDigits(timestamp, 8, 2);
+		final int hour = parseDigits(timestamp, 11, 2);
+		final int minute = parseDigits(timestamp, 14, 2);
+		final int second = parseDigits(timestamp, 17, 2);
+		if ((year < 0) || (month < 0) || (day < 0) || (hour < 0) || (minute < 0) || (second < 0)) {
+			return NOT_PARSED;
+		}
+
+		final int offsetStart = (offsetMinutes == 0) && (timestamp.charAt(timestamp.length() - 1) == 'Z')
+				? timestamp.length() - 1
+				: timestamp.length() - OFFSET_LENGTH;
+		int millisecond = 0;
+		if (offsetStart > 19) {
+			final int fractionDigits = offsetStart - 20;
+			if ((timestamp.charAt(19) != '.') || (fractionDigits < 1) || (fractionDigits > MAXIMUM_FRACTION_DIGITS)
+					|| (parseDigits(timestamp, 20, fractionDigits) < 0)) {
+				return NOT_PARSED;
+			}
+			for (int index = 0; index < MILLISECOND_DIGITS; index++) {
+				millisecond = millisecond * 10;
+				if (index < fractionDigits) {
+					millisecond += timestamp.charAt(20 + index) - '0';
+				}
+			}
+		} else if (offsetStart != 19) {
+			return NOT_PARSED;
+		}
+
+		try {
+			return UTC_CHRONOLOGY.getDateTimeMillis(year, month, day, hour, minute, second, millisecond);
+		} catch (final IllegalArgumentException e) {
+			return NOT_PARSED;
+		}
+	}
+
+	/**
+	 * @return the number, or -1 if any character is not a digit.
+	 */
+	private static int parseDigits(final String timestamp, final int start, final int count) {
+		int value = 0;
+		for (int index = start; index < (start + count); index++) {
+			final int digit = timestamp.charAt(index) - '0';
+			if ((digit < 0) || (digit > 9)) {
+				return -1;
+			}
+			value = (value * 10) + digit;
+		}
+		return value;
+	}
+
+}
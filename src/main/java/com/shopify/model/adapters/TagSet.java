@@ -0,0 +1,140 @@
+package com.shopify.model.adapters;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable tags in the order they were parsed. A handful of tags is held in
+ * an array and searched linearly, which is smaller and as fast as hashing for
+ * the tag counts products usually have; larger tag lists fall back to a hash
+ * set. The joined string is kept when it can be marshalled as is.
+ */
+final class TagSet extends AbstractSet<String> {
+
+	static final int MAXIMUM_ARRAY_SIZE = 16;
+
+	private final String[] tagArray;
+	private final Set<String> tagSet;
+	private final String tags;
+
+	private TagSet(final String[] tagArray, final Set<String> tagSet, final String tags) {
+		this.tagArray = tagArray;
+		this.tagSet = tagSet;
+		this.tags = tags;
+	}
+
+	/**
+	 * Splits like <code>tags.split(", ")</code>: empty tags are kept except at
+	 * the end, and duplicate tags are kept once.
+	 */
+	static TagSet parse(final String tags) {
+		final int delimiterLength = TagsAdapter.TAG_DELIMITTER.length();
+		String[] tagArray = new String[4];
+		int tagCount = 0;
+		int nonEmptyTagCount = 0;
+		int start = 0;
+		while (start <= tags.length()) {
+			int end = tags.indexOf(TagsAdapter.TAG_DELIMITTER, start);
+			if (end < 0) {
+				end = tags.length();
+			}
+			if (tagCount == tagArray.length) {
+				tagArray = Arrays.copyOf(tagArray, tagCount * 2);
+			}
+			final String tag = tags.substring(start, end);
+			tagArray[tagCount++] = tag;
+			if (!tag.isEmpty()) {
+				nonEmptyTagCount = tagCount;
+			}
+			start = end + delimiterLength;
+		}
+		final boolean trailingTagsDropped = nonEmptyTagCount < tagCount;
+		tagCount = nonEmptyTagCount;
+
+		if (tagCount > MAXIMUM_ARRAY_SIZE) {
+			final Set<String> tagSet = new LinkedHashSet<>(Arrays.asList(tagArray).subList(0, tagCount));
+			final boolean unchanged = !trailingTagsDropped && (tagSet.size() == tagCount);
+			return new TagSet(null, Collections.unmodifiableSet(tagSet), unchanged ? tags : null);
+		}
+
+		int distinctTagCount = 0;
+		for (int index = 0; index < tagCount; index++) {
+			if (indexOf(tagArray, distinctTagCount, tagArray[index]) < 0) {
+				tagArray[distinctTagCount++] = tagArray[index];
+			}
+		}
+		final boolean unchanged = !trailingTagsDropped && (distinctTagCount == tagCount);
+		return new TagSet(Arrays.copyOf(tagArray, distinctTagCount), null, unchanged ? tags : null);
+	}
+
+	/**
+	 * @return the tags joined with {@link TagsAdapter#TAG_DELIMITTER}.
+	 */
+	String getTags() {
+		if (tags != null) {
+			return tags;
+		}
+		final StringBuilder tagStringBuilder = new StringBuilder();
+		final Iterator<String> tagIterator = iterator();
+		while (tagIterator.hasNext()) {
+			tagStringBuilder.append(tagIterator.next());
+			if (tagIterator.hasNext()) {
+				tagStringBuilder.append(TagsAdapter.TAG_DELIMITTER);
+			}
+		}
+		return tagStringBuilder.toString();
+	}
+
+	@Override
+	public boolean contains(final Object tag) {
+		if (tagSet != null) {
+			return tagSet.contains(tag);
+		}
+		return indexOf(tagArray, tagArray.length, tag) >= 0;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		if (tagSet != null) {
+			return tagSet.iterator();
+		}
+		return new Iterator<String>() {
+
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < tagArray.length;
+			}
+
+			@Override
+			public String next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return tagArray[index++];
+			}
+
+		};
+	}
+
+	@Override
+	public int size() {
+		return (tagSet != null) ? tagSet.size() : tagArray.length;
+	}
+
+	private static int indexOf(final String[] tagArray, final int tagCount, final Object tag) {
+		for (int index = 0; index < tagCount; index++) {
+			if (tagArray[index].equals(tag)) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -1,8 +1,6 @@
 package com.shopify.model.adapters;
 
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -10,17 +8,22 @@ import javax.xml.bind.annotation.adapters.XmlAdapter;
 
 import org.apache.commons.lang3.StringUtils;
 
+/**
+ * Splits and joins Shopify's comma separated tags without a regular
+ * expression. Unmarshalled tags are an immutable {@link TagSet} in the order
+ * Shopify sent them; replace them with
+ * {@link com.shopify.model.ShopifyProduct#setTags(Set)} to change them.
+ */
 public class TagsAdapter extends XmlAdapter<String, Set<String>> {
 
-	private static final String TAG_DELIMITTER = ", ";
+	static final String TAG_DELIMITTER = ", ";
 
 	@Override
 	public Set<String> unmarshal(final String tags) throws Exception {
 		if (StringUtils.isBlank(tags)) {
 			return Collections.emptySet();
 		}
-		final String[] tagArray = tags.split(TAG_DELIMITTER);
-		return new HashSet<>(Arrays.asList(tagArray));
+		return TagSet.parse(tags);
 	}
 
 	@Override
@@ -28,8 +31,19 @@ public class TagsAdapter extends XmlAdapter<String, Set<String>> {
 		if ((tags == null) || tags.isEmpty()) {
 			return null;
 		}
+		if (tags instanceof TagSet) {
+			return ((TagSet) tags).getTags();
+		}
 
-		final StringBuilder tagStringBuilder = new StringBuilder();
+		final int tagCount = tags.size();
+		if (tagCount == 1) {
+			return tags.iterator().next();
+		}
+		int length = (tagCount - 1) * TAG_DELIMITTER.length();
+		for (final String tag : tags) {
+			length += String.valueOf(tag).length();
+		}
+		final StringBuilder tagStringBuilder = new StringBuilder(length);
 		final Iterator<String> tagIterator = tags.iterator();
 		while (tagIterator.hasNext()) {
 			final String tag = tagIterator.next();
@@ -0,0 +1,163 @@
+package com.shopify.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces REST calls to a shop by Shopify's leaky bucket, so calls wait for room
+ * in the bucket instead of being rejected with 429 and retried after a random
+ * delay.
+ *
+ * Every call takes a slot in the bucket, and the bucket leaks a fixed number of
+ * slots each second. Shopify reports the slots in use and the size of the
+ * bucket in the <code>X-Shopify-Shop-Api-Call-Limit</code> header of each
+ * response, such as <code>32/40</code>. The limiter takes that as the state of
+ * the bucket, adds the calls it has let through that have not been answered
+ * yet, and makes further calls wait until the bucket has leaked enough for
+ * them. Until a response reports the bucket, calls are not paced.
+ *
+ * Every SDK calling a shop should share the shop's limiter.
+ */
+public class ShopifyRateLimiter {
+
+	public static final String CALL_LIMIT_HEADER = "X-Shopify-Shop-Api-Call-Limit";
+
+	static final String INVALID_LEAK_RATE_MESSAGE = "Leak rate must be greater than 0.";
+
+	/**
+	 * Shopify leaks a twentieth of the bucket each second, whatever the plan's
+	 * bucket size.
+	 */
+	static final double LEAK_RATE_PER_BUCKET_SLOT = 0.05;
+
+	private static final long NANOSECONDS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final char CALL_LIMIT_SEPARATOR = '/';
+
+	private final LongSupplier nanoClock;
+	private final double fixedLeakRatePerSecond;
+
+	private int bucketSize;
+	private double leakRatePerSecond;
+	private double level;
+	private int unansweredCalls;
+	private long leakedAt;
+
+	/**
+	 * Learns the bucket size from the responses and leaks at Shopify's rate
+	 * for that size.
+	 */
+	public ShopifyRateLimiter() {
+		this(0, System::nanoTime);
+	}
+
+	/**
+	 * @param leakRatePerSecond
+	 *            the slots the bucket leaks each second, for shops or
+	 *            simulators whose rate differs from Shopify's.
+	 */
+	public ShopifyRateLimiter(final double leakRatePerSecond) {
+		this(leakRatePerSecond, System::nanoTime);
+		if (leakRatePerSecond <= 0) {
+			throw new IllegalArgumentException(INVALID_LEAK_RATE_MESSAGE);
+		}
+	}
+
+	ShopifyRateLimiter(final double fixedLeakRatePerSecond, final LongSupplier nanoClock) {
+		this.fixedLeakRatePerSecond = fixedLeakRatePerSecond;
+		this.nanoClock = nanoClock;
+		this.leakedAt = nanoClock.getAsLong();
+	}
+
+	/**
+	 * Waits until the bucket has room for a call and takes a slot for it. Each
+	 * call to acquire must be followed by {@link #release(String)} once the
+	 * call has been answered or has failed.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void acquire() throws InterruptedException {
+		final long waitInNanoseconds = reserve();
+		if (waitInNanoseconds > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitInNanoseconds);
+		}
+	}
+
+	/**
+	 * @param callLimit
+	 *            the <code>X-Shopify-Shop-Api-Call-Limit</code> header of the
+	 *            response, or null if there was no response or no header.
+	 */
+	public synchronized void release(final String callLimit) {
+		unansweredCalls = Math.max(0, unansweredCalls - 1);
+		final int separatorIndex = (callLimit == null) ? -1 : callLimit.indexOf(CALL_LIMIT_SEPARATOR);
+		if (separatorIndex < 0) {
+			return;
+		}
+		final int callsInBucket;
+		final int reportedBucketSize;
+		try {
+			callsInBucket = Integer.parseInt(callLimit.substring(0, separatorIndex).trim());
+			reportedBucketSize = Integer.parseInt(callLimit.substring(separatorIndex + 1).trim());
+		} catch (final NumberFormatException e) {
+			return;
+		}
+		if (reportedBucketSize <= 0) {
+			return;
+		}
+		leak();
+		if (reportedBucketSize != bucketSize) {
+			bucketSize = reportedBucketSize;
+			leakRatePerSecond = (fixedLeakRatePerSecond > 0) ? fixedLeakRatePerSecond
+					: bucketSize * LEAK_RATE_PER_BUCKET_SLOT;
+		}
+		level = (double) callsInBucket + unansweredCalls;
+	}
+
+	/**
+	 * @return the calls that can be made now without waiting, or
+	 *         {@link Integer#MAX_VALUE} if no response has reported the bucket
+	 *         yet.
+	 */
+	public synchronized int getAvailableCalls() {
+		if (bucketSize == 0) {
+			return Integer.MAX_VALUE;
+		}
+		leak();
+		return Math.max(0, (int) Math.floor(bucketSize - level));
+	}
+
+	/**
+	 * @return the size of the bucket, or 0 if no response has reported it yet.
+	 */
+	public synchronized int getBucketSize() {
+		return bucketSize;
+	}
+
+	/**
+	 * Takes a slot for a call. The bucket may overflow, so concurrent callers
+	 * queue behind each other for the leak rate rather than all waking at once.
+	 *
+	 * @return the nanoseconds to wait before making the call.
+	 */
+	synchronized long reserve() {
+		unansweredCalls++;
+		if (bucketSize == 0) {
+			return 0;
+		}
+		leak();
+		level++;
+		if (level <= bucketSize) {
+			return 0;
+		}
+		return (long) Math.ceil(((level - bucketSize) / leakRatePerSecond) * NANOSECONDS_PER_SECOND);
+	}
+
+	private void leak() {
+		final long now = nanoClock.getAsLong();
+		if (bucketSize > 0) {
+			level = Math.max(0, level - ((leakRatePerSecond * (now - leakedAt)) / NANOSECONDS_PER_SECOND));
+		}
+		leakedAt = now;
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.shopify.refunds;
+
+import com.shopify.model.ShopifyRefund;
+import com.shopify.model.ShopifyRefundCreationRequest;
+
+/**
+ * What became of a refund submitted to a {@link ShopifyRefundProcessor}.
+ */
+public class ShopifyRefundOutcome {
+
+	public enum Status {
+		REFUNDED, CALCULATION_FAILED, CREATION_FAILED
+	}
+
+	private final ShopifyRefundCreationRequest request;
+	private final Status status;
+	private final ShopifyRefund calculatedRefund;
+	private final ShopifyRefund refund;
+	private final Throwable exception;
+	private final int calculationAttempts;
+	private final int creationAttempts;
+
+	ShopifyRefundOutcome(final ShopifyRefundCreationRequest request, final Status status,
+			final ShopifyRefund calculatedRefund, final ShopifyRefund refund, final Throwable exception,
+			final int calculationAttempts, final int creationAttempts) {
+		this.request = request;
+		this.status = status;
+		this.calculatedRefund = calculatedRefund;
+		this.refund = refund;
+		this.exception = exception;
+		this.calculationAttempts = calculationAttempts;
+		this.creationAttempts = creationAttempts;
+	}
+
+	public ShopifyRefundCreationRequest getRequest() {
+		return request;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public boolean isRefunded() {
+		return status == Status.REFUNDED;
+	}
+
+	/**
+	 * @return the refund calculated by Shopify, or null if the calculation
+	 *         failed.
+	 */
+	public ShopifyRefund getCalculatedRefund() {
+		return calculatedRefund;
+	}
+
+	/**
+	 * @return the created refund, or null if the refund failed.
+	 */
+	public ShopifyRefund getRefund() {
+		return refund;
+	}
+
+	/**
+	 * @return the exception of the last failed attempt, or null if the refund
+	 *         was created.
+	 */
+	public Throwable getException() {
+		return exception;
+	}
+
+	public int getCalculationAttempts() {
+		return calculationAttempts;
+	}
+
+	public int getCreationAttempts() {
+		return creationAttempts;
+	}
+
+}
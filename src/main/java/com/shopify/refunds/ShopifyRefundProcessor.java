@@ -0,0 +1,367 @@
+package com.shopify.refunds;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shopify.ShopifySdk;
+import com.shopify.ShopifyThreadFactory;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.exceptions.ShopifyErrorClassifier;
+import com.shopify.model.ShopifyRefund;
+import com.shopify.model.ShopifyRefundCreationRequest;
+import com.shopify.refunds.ShopifyRefundOutcome.Status;
+
+/**
+ * Refunds many orders at once, calculating the next refunds while earlier ones
+ * are created.
+ *
+ * Each refund is calculated with
+ * {@link ShopifySdk#calculateRefund(ShopifyRefundCreationRequest)} and then
+ * created with {@link ShopifySdk#createRefund(String, ShopifyRefund)}. Both
+ * steps share a fixed number of threads, and a calculated refund is created
+ * before any further refund is calculated, so calculations never run far
+ * ahead of creations. Refunds of the same order are calculated only once the
+ * previous refund of the order is finished, since each refund changes what
+ * remains refundable.
+ *
+ * A calculation that fails in a way
+ * {@link ShopifyErrorClassifier#isRetriable(Throwable) worth retrying} is
+ * attempted again after a growing delay, up to the maximum attempts. A
+ * creation is only attempted again when Shopify
+ * {@link ShopifyErrorClassifier#isUnprocessed(Throwable) certainly did not act
+ * on it}, such as when Shopify was busy or could not be reached, and with the
+ * refund already calculated rather than calculating it again. Any other
+ * failed creation, such as a timed out one that Shopify may have processed,
+ * is returned as {@link Status#CREATION_FAILED} for the caller to check the
+ * order's refunds before refunding again.
+ *
+ * Every submitted refund gets a {@link ShopifyRefundOutcome}, whether it was
+ * created or not. A processor is thread safe. Close it to stop its threads
+ * once the submitted refunds are finished.
+ */
+public class ShopifyRefundProcessor implements Closeable {
+
+	static final int DEFAULT_CONCURRENT_REQUESTS = 4;
+	static final int DEFAULT_MAXIMUM_ATTEMPTS = 3;
+	static final long DEFAULT_RETRY_DELAY_MILLISECONDS = 1000L;
+	static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS = 60_000L;
+
+	static final String INVALID_SHOPIFY_SDK_MESSAGE = "Refund processor requires a Shopify SDK.";
+	static final String INVALID_CONCURRENT_REQUESTS_MESSAGE = "Refund processor concurrent requests must be at least 1.";
+	static final String INVALID_MAXIMUM_ATTEMPTS_MESSAGE = "Refund processor maximum attempts must be at least 1.";
+	static final String CLOSED_MESSAGE = "Refund processor is closed.";
+
+	private static final String THREAD_NAME = "shopify-refund-%d";
+	private static final String RETRYING_MESSAGE = "Retrying {} of refund for order {} in {} milliseconds after attempt {}";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShopifyRefundProcessor.class);
+
+	private final ShopifySdk shopifySdk;
+	private final int maximumAttempts;
+	private final long retryDelayMilliseconds;
+	private final long shutdownTimeoutMilliseconds;
+	private final ThreadPoolExecutor executorService;
+	private final AtomicLong nextSequence = new AtomicLong();
+	private final Map<String, CompletableFuture<ShopifyRefundOutcome>> lastRefundsByOrder = new HashMap<>();
+	private final Set<CompletableFuture<ShopifyRefundOutcome>> pendingOutcomes = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean closed;
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	private ShopifyRefundProcessor(final Builder builder) {
+		this.shopifySdk = builder.shopifySdk;
+		this.maximumAttempts = builder.maximumAttempts;
+		this.retryDelayMilliseconds = builder.retryDelayMilliseconds;
+		this.shutdownTimeoutMilliseconds = builder.shutdownTimeoutMilliseconds;
+		this.executorService = new ThreadPoolExecutor(builder.concurrentRequests, builder.concurrentRequests, 0L,
+				TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), new ShopifyThreadFactory(THREAD_NAME));
+	}
+
+	/**
+	 * @param shopifyRefundCreationRequest
+	 * @return the outcome of the refund. The future does not fail when the
+	 *         refund does; the outcome holds the exception instead.
+	 */
+	public CompletableFuture<ShopifyRefundOutcome> submit(
+			final ShopifyRefundCreationRequest shopifyRefundCreationRequest) {
+		if (closed) {
+			throw new RejectedExecutionException(CLOSED_MESSAGE);
+		}
+		final RefundJob refundJob = new RefundJob(shopifyRefundCreationRequest);
+		final String orderId = refundJob.orderId;
+		pendingOutcomes.add(refundJob.outcome);
+		synchronized (lastRefundsByOrder) {
+			final CompletableFuture<ShopifyRefundOutcome> lastRefund = lastRefundsByOrder.get(orderId);
+			if (lastRefund == null) {
+				schedule(Step.CALCULATION, refundJob);
+			} else {
+				lastRefund.whenComplete((outcome, throwable) -> schedule(Step.CALCULATION, refundJob));
+			}
+			lastRefundsByOrder.put(orderId, refundJob.outcome);
+		}
+		return refundJob.outcome.whenComplete((outcome, throwable) -> {
+			synchronized (lastRefundsByOrder) {
+				lastRefundsByOrder.remove(orderId, refundJob.outcome);
+			}
+			pendingOutcomes.remove(refundJob.outcome);
+		});
+	}
+
+	/**
+	 * Submits every refund of the stream and waits for all of them to finish.
+	 *
+	 * @param shopifyRefundCreationRequests
+	 * @return the outcome of each refund, in the order of the stream.
+	 */
+	public List<ShopifyRefundOutcome> processAll(
+			final Stream<ShopifyRefundCreationRequest> shopifyRefundCreationRequests) {
+		final List<CompletableFuture<ShopifyRefundOutcome>> outcomes = shopifyRefundCreationRequests
+				.map(this::submit).collect(Collectors.toList());
+		final List<ShopifyRefundOutcome> finishedOutcomes = new ArrayList<>(outcomes.size());
+		for (final CompletableFuture<ShopifyRefundOutcome> outcome : outcomes) {
+			finishedOutcomes.add(outcome.join());
+		}
+		return finishedOutcomes;
+	}
+
+	/**
+	 * @return the number of submitted refunds not finished yet.
+	 */
+	public int getPendingCount() {
+		return pendingOutcomes.size();
+	}
+
+	/**
+	 * Stops accepting refunds and waits for the submitted ones to finish, up to
+	 * the shutdown timeout.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		final long deadlineNanoseconds = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMilliseconds);
+		try {
+			CompletableFuture.allOf(pendingOutcomes.toArray(new CompletableFuture<?>[0]))
+					.get(shutdownTimeoutMilliseconds, TimeUnit.MILLISECONDS);
+			executorService.shutdown();
+			if (!executorService.awaitTermination(deadlineNanoseconds - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+				executorService.shutdownNow();
+			}
+		} catch (final InterruptedException e) {
+			executorService.shutdownNow();
+			Thread.currentThread().interrupt();
+		} catch (final ExecutionException | TimeoutException e) {
+			executorService.shutdownNow();
+		}
+	}
+
+	private void schedule(final Step step, final RefundJob refundJob) {
+		executorService.execute(new StepTask(step, nextSequence.getAndIncrement(), refundJob));
+	}
+
+	private void calculate(final RefundJob refundJob) {
+		try {
+			refundJob.calculatedRefund = attempt(Step.CALCULATION, refundJob,
+					() -> shopifySdk.calculateRefund(refundJob.request));
+		} catch (final RuntimeException e) {
+			refundJob.finish(Status.CALCULATION_FAILED, null, e);
+			return;
+		}
+		schedule(Step.CREATION, refundJob);
+	}
+
+	private void create(final RefundJob refundJob) {
+		try {
+			final ShopifyRefund shopifyRefund = attempt(Step.CREATION, refundJob,
+					() -> shopifySdk.createRefund(refundJob.orderId, refundJob.calculatedRefund));
+			refundJob.finish(Status.REFUNDED, shopifyRefund, null);
+		} catch (final RuntimeException e) {
+			refundJob.finish(Status.CREATION_FAILED, null, e);
+		}
+	}
+
+	private ShopifyRefund attempt(final Step step, final RefundJob refundJob,
+			final Supplier<ShopifyRefund> request) {
+		long delayMilliseconds = retryDelayMilliseconds;
+		while (true) {
+			final int attempt = refundJob.incrementAttempts(step);
+			try {
+				return request.get();
+			} catch (final RuntimeException e) {
+				if ((attempt >= maximumAttempts) || !step.retryClassifier.test(e)) {
+					throw e;
+				}
+				LOGGER.warn(RETRYING_MESSAGE, step, refundJob.orderId, delayMilliseconds, attempt, e);
+				try {
+					TimeUnit.MILLISECONDS.sleep(delayMilliseconds);
+				} catch (final InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+					throw new ShopifyClientException(e);
+				}
+				delayMilliseconds *= 2;
+			}
+		}
+	}
+
+	/**
+	 * Creations are run before calculations, and each step in the order it
+	 * was scheduled. A creation moves money, so it is only made again when
+	 * Shopify certainly did not act on the failed attempt.
+	 */
+	private enum Step {
+		CREATION(ShopifyErrorClassifier::isUnprocessed), CALCULATION(ShopifyErrorClassifier::isRetriable);
+
+		private final Predicate<Throwable> retryClassifier;
+
+		Step(final Predicate<Throwable> retryClassifier) {
+			this.retryClassifier = retryClassifier;
+		}
+	}
+
+	private class StepTask implements Runnable, Comparable<StepTask> {
+
+		private final Step step;
+		private final long sequence;
+		private final RefundJob refundJob;
+
+		StepTask(final Step step, final long sequence, final RefundJob refundJob) {
+			this.step = step;
+			this.sequence = sequence;
+			this.refundJob = refundJob;
+		}
+
+		@Override
+		public void run() {
+			if (step == Step.CALCULATION) {
+				calculate(refundJob);
+			} else {
+				create(refundJob);
+			}
+		}
+
+		@Override
+		public int compareTo(final StepTask other) {
+			final int stepComparison = step.compareTo(other.step);
+			return (stepComparison != 0) ? stepComparison : Long.compare(sequence, other.sequence);
+		}
+
+	}
+
+	private static class RefundJob {
+
+		private final ShopifyRefundCreationRequest request;
+		private final String orderId;
+		private final CompletableFuture<ShopifyRefundOutcome> outcome = new CompletableFuture<>();
+		private volatile ShopifyRefund calculatedRefund;
+		private volatile int calculationAttempts;
+		private volatile int creationAttempts;
+
+		RefundJob(final ShopifyRefundCreationRequest request) {
+			this.request = request;
+			this.orderId = request.getRequest().getOrderId();
+		}
+
+		/**
+		 * Each step of a job runs on one thread at a time.
+		 */
+		int incrementAttempts(final Step step) {
+			return (step == Step.CALCULATION) ? ++calculationAttempts : ++creationAttempts;
+		}
+
+		void finish(final Status status, final ShopifyRefund refund, final Throwable exception) {
+			outcome.complete(new ShopifyRefundOutcome(request, status, calculatedRefund, refund, exception,
+					calculationAttempts, creationAttempts));
+		}
+
+	}
+
+	public static class Builder {
+
+		private ShopifySdk shopifySdk;
+		private int concurrentRequests = DEFAULT_CONCURRENT_REQUESTS;
+		private int maximumAttempts = DEFAULT_MAXIMUM_ATTEMPTS;
+		private long retryDelayMilliseconds = DEFAULT_RETRY_DELAY_MILLISECONDS;
+		private long shutdownTimeoutMilliseconds = DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS;
+
+		private Builder() {
+		}
+
+		public Builder withShopifySdk(final ShopifySdk shopifySdk) {
+			this.shopifySdk = shopifySdk;
+			return this;
+		}
+
+		/**
+		 * @param concurrentRequests
+		 *            the number of calculations and creations made at the
+		 *            same time, together.
+		 */
+		public Builder withConcurrentRequests(final int concurrentRequests) {
+			if (concurrentRequests < 1) {
+				throw new IllegalArgumentException(INVALID_CONCURRENT_REQUESTS_MESSAGE);
+			}
+			this.concurrentRequests = concurrentRequests;
+			return this;
+		}
+
+		/**
+		 * @param maximumAttempts
+		 *            the number of times each step of a refund is attempted
+		 *            before its failure is returned, including the first one.
+		 */
+		public Builder withMaximumAttempts(final int maximumAttempts) {
+			if (maximumAttempts < 1) {
+				throw new IllegalArgumentException(INVALID_MAXIMUM_ATTEMPTS_MESSAGE);
+			}
+			this.maximumAttempts = maximumAttempts;
+			return this;
+		}
+
+		/**
+		 * @param retryDelay
+		 *            the wait before the second attempt of a step, doubled for
+		 *            each attempt after it.
+		 * @param timeUnit
+		 */
+		public Builder withRetryDelay(final long retryDelay, final TimeUnit timeUnit) {
+			this.retryDelayMilliseconds = timeUnit.toMillis(retryDelay);
+			return this;
+		}
+
+		public Builder withShutdownTimeout(final long shutdownTimeout, final TimeUnit timeUnit) {
+			this.shutdownTimeoutMilliseconds = timeUnit.toMillis(shutdownTimeout);
+			return this;
+		}
+
+		public ShopifyRefundProcessor build() {
+			if (shopifySdk == null) {
+				throw new IllegalArgumentException(INVALID_SHOPIFY_SDK_MESSAGE);
+			}
+			return new ShopifyRefundProcessor(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.shopify.retry;
+
+/**
+ * The outcome of one attempt of a call: either the result it returned or the
+ * exception it threw.
+ *
+ * @param <T>
+ *            type of the result
+ */
+public final class ShopifyRetryAttempt<T> {
+
+	private final int attemptNumber;
+	private final long delaySinceFirstAttemptMilliseconds;
+	private final T result;
+	private final Exception exception;
+
+	ShopifyRetryAttempt(final int attemptNumber, final long delaySinceFirstAttemptMilliseconds, final T result,
+			final Exception exception) {
+		this.attemptNumber = attemptNumber;
+		this.delaySinceFirstAttemptMilliseconds = delaySinceFirstAttemptMilliseconds;
+		this.result = result;
+		this.exception = exception;
+	}
+
+	/**
+	 * @return the number of this attempt, starting at 1.
+	 */
+	public int getAttemptNumber() {
+		return attemptNumber;
+	}
+
+	/**
+	 * @return milliseconds from the start of the first attempt to the end of
+	 *         this one.
+	 */
+	public long getDelaySinceFirstAttemptMilliseconds() {
+		return delaySinceFirstAttemptMilliseconds;
+	}
+
+	public boolean hasResult() {
+		return exception == null;
+	}
+
+	public boolean hasException() {
+		return exception != null;
+	}
+
+	public T getResult() {
+		return result;
+	}
+
+	public Exception getException() {
+		return exception;
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.shopify.retry;
+
+/**
+ * Hooks into each step of a {@link ShopifyRetryPolicy} call, for example to
+ * log failed attempts or record retry counts and waits. Hooks run on the
+ * calling thread and an exception thrown by a hook ends the call.
+ *
+ * @param <T>
+ *            type of the result
+ */
+public interface ShopifyRetryListener<T> {
+
+	/**
+	 * @param attemptNumber
+	 *            the number of the attempt about to start, starting at 1.
+	 */
+	default void onAttemptStarted(final int attemptNumber) {
+	}
+
+	default void onAttemptFinished(final ShopifyRetryAttempt<T> attempt) {
+	}
+
+	/**
+	 * Called before waiting to retry a failed attempt.
+	 *
+	 * @param attempt
+	 *            the failed attempt
+	 * @param delayMilliseconds
+	 *            how long the policy waits before the next attempt
+	 */
+	default void onWaiting(final ShopifyRetryAttempt<T> attempt, final long delayMilliseconds) {
+	}
+
+	static <T> ShopifyRetryListener<T> none() {
+		return new ShopifyRetryListener<T>() {
+		};
+	}
+
+}
@@ -0,0 +1,156 @@
+package com.shopify.retry;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import com.shopify.exceptions.ShopifyRetryException;
+
+/**
+ * Retries a call that throws an exception or returns a result the policy
+ * rejects, waiting a random delay between attempts, until an attempt succeeds
+ * or the timeout since the first attempt passes.
+ *
+ * A policy is immutable and keeps no state between calls, so one policy can
+ * be built once and shared by every call and thread. A call only allocates
+ * the {@link ShopifyRetryAttempt} of each attempt.
+ *
+ * @param <T>
+ *            type of the result
+ */
+public final class ShopifyRetryPolicy<T> {
+
+	static final String INVALID_DELAY_MESSAGE = "Retry delays must not be negative and the minimum delay must not be larger than the maximum delay.";
+	static final String INVALID_TIMEOUT_MESSAGE = "Retry timeout must not be negative.";
+
+	private final long minimumDelayMilliseconds;
+	private final long maximumDelayMilliseconds;
+	private final long timeoutMilliseconds;
+	private final Predicate<? super T> retryIfResult;
+
+	public static <T> Builder<T> newBuilder() {
+		return new Builder<>();
+	}
+
+	private ShopifyRetryPolicy(final Builder<T> builder) {
+		this.minimumDelayMilliseconds = builder.minimumDelayMilliseconds;
+		this.maximumDelayMilliseconds = builder.maximumDelayMilliseconds;
+		this.timeoutMilliseconds = builder.timeoutMilliseconds;
+		this.retryIfResult = builder.retryIfResult;
+	}
+
+	public T call(final Callable<T> callable) throws ShopifyRetryException {
+		return call(callable, ShopifyRetryListener.none());
+	}
+
+	/**
+	 * @param callable
+	 * @param listener
+	 *            notified as each attempt starts, finishes and waits.
+	 * @return the result of the first attempt that succeeds.
+	 * @throws ShopifyRetryException
+	 *             when the timeout passes or the thread is interrupted while
+	 *             waiting. The last attempt is attached.
+	 */
+	public T call(final Callable<T> callable, final ShopifyRetryListener<T> listener) throws ShopifyRetryException {
+		final long startNanoseconds = System.nanoTime();
+		for (int attemptNumber = 1;; attemptNumber++) {
+			listener.onAttemptStarted(attemptNumber);
+			T result = null;
+			Exception exception = null;
+			try {
+				result = callable.call();
+			} catch (final Exception e) {
+				exception = e;
+			}
+			final long delaySinceFirstAttemptMilliseconds = TimeUnit.NANOSECONDS
+					.toMillis(System.nanoTime() - startNanoseconds);
+			final ShopifyRetryAttempt<T> attempt = new ShopifyRetryAttempt<>(attemptNumber,
+					delaySinceFirstAttemptMilliseconds, result, exception);
+			listener.onAttemptFinished(attempt);
+
+			if ((exception == null) && !retryIfResult.test(result)) {
+				return result;
+			}
+			if (delaySinceFirstAttemptMilliseconds >= timeoutMilliseconds) {
+				throw new ShopifyRetryException(attempt);
+			}
+
+			final long delayMilliseconds = nextDelayMilliseconds();
+			listener.onWaiting(attempt, delayMilliseconds);
+			try {
+				TimeUnit.MILLISECONDS.sleep(delayMilliseconds);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ShopifyRetryException(attempt, e);
+			}
+		}
+	}
+
+	public long getMinimumDelayMilliseconds() {
+		return minimumDelayMilliseconds;
+	}
+
+	public long getMaximumDelayMilliseconds() {
+		return maximumDelayMilliseconds;
+	}
+
+	public long getTimeoutMilliseconds() {
+		return timeoutMilliseconds;
+	}
+
+	private long nextDelayMilliseconds() {
+		if (minimumDelayMilliseconds == maximumDelayMilliseconds) {
+			return minimumDelayMilliseconds;
+		}
+		return ThreadLocalRandom.current().nextLong(minimumDelayMilliseconds, maximumDelayMilliseconds + 1);
+	}
+
+	public static class Builder<T> {
+
+		private long minimumDelayMilliseconds;
+		private long maximumDelayMilliseconds;
+		private long timeoutMilliseconds;
+		private Predicate<? super T> retryIfResult = result -> false;
+
+		private Builder() {
+		}
+
+		public Builder<T> withRandomDelay(final long minimumDelay, final long maximumDelay, final TimeUnit timeUnit) {
+			if ((minimumDelay < 0) || (minimumDelay > maximumDelay)) {
+				throw new IllegalArgumentException(INVALID_DELAY_MESSAGE);
+			}
+			this.minimumDelayMilliseconds = timeUnit.toMillis(minimumDelay);
+			this.maximumDelayMilliseconds = timeUnit.toMillis(maximumDelay);
+			return this;
+		}
+
+		/**
+		 * Stops retrying once an attempt ends this long after the first
+		 * attempt started. The default of 0 makes a single attempt.
+		 */
+		public Builder<T> withTimeout(final long timeout, final TimeUnit timeUnit) {
+			if (timeout < 0) {
+				throw new IllegalArgumentException(INVALID_TIMEOUT_MESSAGE);
+			}
+			this.timeoutMilliseconds = timeUnit.toMillis(timeout);
+			return this;
+		}
+
+		/**
+		 * Exceptions are always retried; results are retried when they match
+		 * the predicate. By default no result is retried.
+		 */
+		public Builder<T> retryIfResult(final Predicate<? super T> retryIfResult) {
+			this.retryIfResult = retryIfResult;
+			return this;
+		}
+
+		public ShopifyRetryPolicy<T> build() {
+			return new ShopifyRetryPolicy<>(this);
+		}
+
+	}
+
+}
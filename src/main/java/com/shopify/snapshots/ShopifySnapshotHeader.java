@@ -0,0 +1,52 @@
+package com.shopify.snapshots;
+
+import org.joda.time.DateTime;
+
+public class ShopifySnapshotHeader {
+
+	public enum Type {
+		PRODUCTS, ORDERS
+	}
+
+	private final int formatVersion;
+	private final Type type;
+	private final int count;
+	private final DateTime createdAt;
+	private final DateTime latestUpdatedAt;
+
+	ShopifySnapshotHeader(final int formatVersion, final Type type, final int count, final DateTime createdAt,
+			final DateTime latestUpdatedAt) {
+		this.formatVersion = formatVersion;
+		this.type = type;
+		this.count = count;
+		this.createdAt = createdAt;
+		this.latestUpdatedAt = latestUpdatedAt;
+	}
+
+	public int getFormatVersion() {
+		return formatVersion;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public DateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	/**
+	 * @return the most recent <code>updated_at</code> of the entities in the
+	 *         snapshot, or null if none of them has one. Pass it as
+	 *         <code>updated_at_min</code> to catch up on changes made after
+	 *         the snapshot was taken.
+	 */
+	public DateTime getLatestUpdatedAt() {
+		return latestUpdatedAt;
+	}
+
+}
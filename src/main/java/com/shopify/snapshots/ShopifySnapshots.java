@@ -0,0 +1,235 @@
+package com.shopify.snapshots;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.shopify.mappers.ShopifySdkObjectMapper;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.snapshots.ShopifySnapshotHeader.Type;
+
+/**
+ * Reads and writes snapshots of products and orders so a restarted process
+ * can load them from a local file instead of retrieving them again. A
+ * snapshot is a fixed header followed by the entities encoded with Smile, the
+ * binary form of the SDK's JSON mapping.
+ *
+ * The header holds a magic number, {@link #FORMAT_VERSION}, the entity type,
+ * the entity count, the time the snapshot was written and the latest
+ * <code>updated_at</code> of its entities. Snapshots written with another
+ * format version are rejected rather than misread, and so are snapshots that
+ * hold a different number of entities than their header records.
+ */
+public class ShopifySnapshots {
+
+	public static final int FORMAT_VERSION = 1;
+
+	static final String NOT_A_SNAPSHOT_MESSAGE = "File %s is not a Shopify snapshot.";
+	static final String UNSUPPORTED_FORMAT_VERSION_MESSAGE = "Snapshot %s has format version %s but only version %s "
+			+ "is supported.";
+	static final String UNEXPECTED_TYPE_MESSAGE = "Snapshot %s contains %s, not %s.";
+	static final String INVALID_COUNT_MESSAGE = "Snapshot %s records an invalid entity count of %s.";
+	static final String COUNT_MISMATCH_MESSAGE = "Snapshot %s holds %s entities but its header records %s.";
+
+	private static final int MAGIC_NUMBER = 0x53485053;
+	private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+	private static final ObjectMapper SMILE_MAPPER = ShopifySdkObjectMapper.buildMapper(new SmileFactory());
+
+	private ShopifySnapshots() {
+	}
+
+	/**
+	 * Writes the products to a temporary file next to the target and moves it
+	 * into place, so an interrupted write never leaves a partial snapshot.
+	 *
+	 * @param file
+	 * @param shopifyProducts
+	 * @throws IOException
+	 */
+	public static void writeProducts(final Path file, final Collection<ShopifyProduct> shopifyProducts)
+			throws IOException {
+		write(file, Type.PRODUCTS, shopifyProducts, ShopifyProduct::getUpdatedAt);
+	}
+
+	/**
+	 * Writes the orders to a temporary file next to the target and moves it
+	 * into place, so an interrupted write never leaves a partial snapshot.
+	 *
+	 * @param file
+	 * @param shopifyOrders
+	 * @throws IOException
+	 */
+	public static void writeOrders(final Path file, final Collection<ShopifyOrder> shopifyOrders)
+			throws IOException {
+		write(file, Type.ORDERS, shopifyOrders, ShopifyOrder::getUpdatedAt);
+	}
+
+	public static List<ShopifyProduct> readProducts(final Path file) throws IOException {
+		final List<ShopifyProduct> shopifyProducts = new ArrayList<>();
+		readProducts(file, shopifyProducts::add);
+		return shopifyProducts;
+	}
+
+	/**
+	 * Decodes the products one at a time and hands each to the consumer, for
+	 * example to fill a {@link com.shopify.model.OffHeapShopifyProducts}.
+	 *
+	 * @param file
+	 * @param shopifyProductConsumer
+	 * @return the {@link ShopifySnapshotHeader} of the snapshot.
+	 * @throws IOException
+	 *             when the file cannot be read, is not a product snapshot of
+	 *             this format version or holds fewer or more products than its
+	 *             header records. Products decoded before that was noticed have
+	 *             already been handed to the consumer.
+	 */
+	public static ShopifySnapshotHeader readProducts(final Path file,
+			final Consumer<ShopifyProduct> shopifyProductConsumer) throws IOException {
+		return read(file, Type.PRODUCTS, ShopifyProduct.class, shopifyProductConsumer);
+	}
+
+	public static List<ShopifyOrder> readOrders(final Path file) throws IOException {
+		final List<ShopifyOrder> shopifyOrders = new ArrayList<>();
+		readOrders(file, shopifyOrders::add);
+		return shopifyOrders;
+	}
+
+	/**
+	 * @param file
+	 * @param shopifyOrderConsumer
+	 * @return the {@link ShopifySnapshotHeader} of the snapshot.
+	 * @throws IOException
+	 *             when the file cannot be read, is not an order snapshot of
+	 *             this format version or holds fewer or more orders than its
+	 *             header records. Orders decoded before that was noticed have
+	 *             already been handed to the consumer.
+	 */
+	public static ShopifySnapshotHeader readOrders(final Path file, final Consumer<ShopifyOrder> shopifyOrderConsumer)
+			throws IOException {
+		return read(file, Type.ORDERS, ShopifyOrder.class, shopifyOrderConsumer);
+	}
+
+	public static ShopifySnapshotHeader readHeader(final Path file) throws IOException {
+		try (final DataInputStream dataInputStream = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+			return readHeader(file, dataInputStream);
+		}
+	}
+
+	private static <T> void write(final Path file, final Type type, final Collection<T> entities,
+			final Function<T, DateTime> updatedAtExtractor) throws IOException {
+		long latestUpdatedAt = NO_TIMESTAMP;
+		for (final T entity : entities) {
+			final DateTime updatedAt = updatedAtExtractor.apply(entity);
+			if ((updatedAt != null) && (updatedAt.getMillis() > latestUpdatedAt)) {
+				latestUpdatedAt = updatedAt.getMillis();
+			}
+		}
+
+		final Path temporaryFile = file.resolveSibling(file.getFileName() + TEMPORARY_FILE_SUFFIX);
+		try {
+			try (final DataOutputStream dataOutputStream = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temporaryFile), BUFFER_SIZE))) {
+				dataOutputStream.writeInt(MAGIC_NUMBER);
+				dataOutputStream.writeInt(FORMAT_VERSION);
+				dataOutputStream.writeByte(type.ordinal());
+				dataOutputStream.writeInt(entities.size());
+				dataOutputStream.writeLong(System.currentTimeMillis());
+				dataOutputStream.writeLong(latestUpdatedAt);
+
+				final JsonGenerator jsonGenerator = SMILE_MAPPER.getFactory()
+						.createGenerator((OutputStream) dataOutputStream);
+				for (final T entity : entities) {
+					SMILE_MAPPER.writeValue(jsonGenerator, entity);
+				}
+				jsonGenerator.close();
+			}
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException | RuntimeException e) {
+			try {
+				Files.deleteIfExists(temporaryFile);
+			} catch (final IOException deleteException) {
+				e.addSuppressed(deleteException);
+			}
+			throw e;
+		}
+	}
+
+	private static <T> ShopifySnapshotHeader read(final Path file, final Type type, final Class<T> entityClass,
+			final Consumer<T> entityConsumer) throws IOException {
+		try (final DataInputStream dataInputStream = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+			final ShopifySnapshotHeader shopifySnapshotHeader = readHeader(file, dataInputStream);
+			if (shopifySnapshotHeader.getType() != type) {
+				throw new IOException(
+						String.format(UNEXPECTED_TYPE_MESSAGE, file, shopifySnapshotHeader.getType(), type));
+			}
+
+			final MappingIterator<T> entities = SMILE_MAPPER.reader(entityClass).readValues((InputStream) dataInputStream);
+			int count = 0;
+			while (entities.hasNextValue()) {
+				if (++count > shopifySnapshotHeader.getCount()) {
+					throw new IOException(
+							String.format(COUNT_MISMATCH_MESSAGE, file, count, shopifySnapshotHeader.getCount()));
+				}
+				entityConsumer.accept(entities.nextValue());
+			}
+			if (count != shopifySnapshotHeader.getCount()) {
+				throw new IOException(
+						String.format(COUNT_MISMATCH_MESSAGE, file, count, shopifySnapshotHeader.getCount()));
+			}
+			return shopifySnapshotHeader;
+		}
+	}
+
+	private static ShopifySnapshotHeader readHeader(final Path file, final DataInputStream dataInputStream)
+			throws IOException {
+		if (dataInputStream.readInt() != MAGIC_NUMBER) {
+			throw new IOException(String.format(NOT_A_SNAPSHOT_MESSAGE, file));
+		}
+		final int formatVersion = dataInputStream.readInt();
+		if (formatVersion != FORMAT_VERSION) {
+			throw new IOException(
+					String.format(UNSUPPORTED_FORMAT_VERSION_MESSAGE, file, formatVersion, FORMAT_VERSION));
+		}
+		final int typeOrdinal = dataInputStream.readUnsignedByte();
+		if (typeOrdinal >= Type.values().length) {
+			throw new IOException(String.format(NOT_A_SNAPSHOT_MESSAGE, file));
+		}
+		final Type type = Type.values()[typeOrdinal];
+		final int count = dataInputStream.readInt();
+		if (count < 0) {
+			throw new IOException(String.format(INVALID_COUNT_MESSAGE, file, count));
+		}
+		final DateTime createdAt = toDateTime(dataInputStream.readLong());
+		final DateTime latestUpdatedAt = toDateTime(dataInputStream.readLong());
+		return new ShopifySnapshotHeader(formatVersion, type, count, createdAt, latestUpdatedAt);
+	}
+
+	private static DateTime toDateTime(final long timestamp) {
+		return (timestamp == NO_TIMESTAMP) ? null : new DateTime(timestamp, DateTimeZone.UTC);
+	}
+
+}
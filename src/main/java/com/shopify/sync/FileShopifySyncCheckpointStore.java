@@ -0,0 +1,80 @@
+package com.shopify.sync;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Keeps each checkpoint in its own small text file in a directory, named after
+ * the shop and resource. Checkpoints are written to a temporary file and moved
+ * into place, so a crash leaves either the previous or the new checkpoint.
+ */
+public class FileShopifySyncCheckpointStore implements ShopifySyncCheckpointStore {
+
+	static final String INVALID_CHECKPOINT_MESSAGE = "Checkpoint file %s is not valid.";
+
+	private static final String CHECKPOINT_FILE_SUFFIX = ".checkpoint";
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+	private static final String SEPARATOR = " ";
+
+	private final Path directory;
+
+	public FileShopifySyncCheckpointStore(final Path directory) {
+		this.directory = directory;
+	}
+
+	@Override
+	public ShopifySyncCheckpoint load(final String shop, final ShopifySyncResource resource) {
+		final Path file = getFile(shop, resource);
+		try {
+			final String[] checkpoint = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim()
+					.split(SEPARATOR);
+			if (checkpoint.length != 2) {
+				throw new IllegalStateException(String.format(INVALID_CHECKPOINT_MESSAGE, file));
+			}
+			return new ShopifySyncCheckpoint(new DateTime(Long.parseLong(checkpoint[0]), DateTimeZone.UTC),
+					Long.parseLong(checkpoint[1]));
+		} catch (final NoSuchFileException e) {
+			return null;
+		} catch (final NumberFormatException e) {
+			throw new IllegalStateException(String.format(INVALID_CHECKPOINT_MESSAGE, file), e);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void save(final String shop, final ShopifySyncResource resource, final ShopifySyncCheckpoint checkpoint) {
+		final Path file = getFile(shop, resource);
+		final Path temporaryFile = file.resolveSibling(file.getFileName() + TEMPORARY_FILE_SUFFIX);
+		final String contents = checkpoint.getUpdatedAt().getMillis() + SEPARATOR + checkpoint.getId();
+		try {
+			Files.createDirectories(directory);
+			Files.write(temporaryFile, contents.getBytes(StandardCharsets.UTF_8));
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private Path getFile(final String shop, final ShopifySyncResource resource) {
+		try {
+			final String fileName = URLEncoder.encode(shop, StandardCharsets.UTF_8.name()) + "."
+					+ resource.name().toLowerCase(Locale.ROOT) + CHECKPOINT_FILE_SUFFIX;
+			return directory.resolve(fileName);
+		} catch (final UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
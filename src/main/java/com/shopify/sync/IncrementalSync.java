@@ -0,0 +1,153 @@
+package com.shopify.sync;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shopify.ShopifySdk;
+import com.shopify.model.ShopifyCustomer;
+import com.shopify.model.ShopifyGetCustomersRequest;
+import com.shopify.model.ShopifyIds;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+
+/**
+ * Emits the orders, products and customers of a shop that changed since the
+ * previous sync, instead of listing everything again.
+ *
+ * Each sync covers a window of <code>updated_at</code> from the saved
+ * {@link ShopifySyncCheckpoint} up to a few seconds before now, and pages
+ * through it in ascending ID order with <code>since_id</code>, starting from
+ * <code>since_id=0</code> since Shopify otherwise lists newest first. The next
+ * page starts after the highest ID of the previous one. The window's
+ * lower bound is inclusive, so entities sharing the checkpoint's timestamp are
+ * fetched again; those at or before the checkpoint's ID were already emitted
+ * and are dropped. The upper bound trails the clock by
+ * {@link #SETTLING_DELAY_IN_MILLISECONDS} so entities updated while a sync
+ * runs land in the next window rather than being missed.
+ *
+ * The checkpoint is saved once a window has been fully consumed. If a sync is
+ * interrupted, the next one emits the same window again, so consumers should
+ * tolerate seeing an entity more than once.
+ */
+public class IncrementalSync {
+
+	static final int PAGE_SIZE = 250;
+	static final long SETTLING_DELAY_IN_MILLISECONDS = 5000L;
+	static final String FIRST_PAGE_SINCE_ID = "0";
+
+	private static final String SYNC_COMPLETED_MESSAGE = "Synced {} changed {} for shop {} up to {}";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalSync.class);
+
+	private final ShopifySdk shopifySdk;
+	private final String shop;
+	private final ShopifySyncCheckpointStore checkpointStore;
+
+	public IncrementalSync(final ShopifySdk shopifySdk, final String shop,
+			final ShopifySyncCheckpointStore checkpointStore) {
+		this.shopifySdk = shopifySdk;
+		this.shop = shop;
+		this.checkpointStore = checkpointStore;
+	}
+
+	/**
+	 * @param shopifySdk
+	 * @param shop
+	 * @param checkpointDirectory
+	 *            directory of a {@link FileShopifySyncCheckpointStore}.
+	 */
+	public IncrementalSync(final ShopifySdk shopifySdk, final String shop, final Path checkpointDirectory) {
+		this(shopifySdk, shop, new FileShopifySyncCheckpointStore(checkpointDirectory));
+	}
+
+	/**
+	 * @param shopifyOrderConsumer
+	 * @return the number of changed orders emitted.
+	 */
+	public int syncOrders(final Consumer<ShopifyOrder> shopifyOrderConsumer) {
+		return sync(ShopifySyncResource.ORDERS, shopifySdk::getUpdatedOrders, ShopifyOrder::getUpdatedAt,
+				ShopifyOrder::getNumericId, shopifyOrderConsumer);
+	}
+
+	/**
+	 * @param shopifyProductConsumer
+	 * @return the number of changed products emitted.
+	 */
+	public int syncProducts(final Consumer<ShopifyProduct> shopifyProductConsumer) {
+		return sync(ShopifySyncResource.PRODUCTS, shopifySdk::getUpdatedProducts, ShopifyProduct::getUpdatedAt,
+				ShopifyProduct::getNumericId, shopifyProductConsumer);
+	}
+
+	/**
+	 * @param shopifyCustomerConsumer
+	 * @return the number of changed customers emitted.
+	 */
+	public int syncCustomers(final Consumer<ShopifyCustomer> shopifyCustomerConsumer) {
+		return sync(ShopifySyncResource.CUSTOMERS, this::getUpdatedCustomers, ShopifyCustomer::getUpdatedAt,
+				ShopifyCustomer::getNumericId, shopifyCustomerConsumer);
+	}
+
+	private List<ShopifyCustomer> getUpdatedCustomers(final DateTime minimumUpdatedAt,
+			final DateTime maximumUpdatedAt, final String sinceId, final int pageSize) {
+		return shopifySdk.getCustomers(ShopifyGetCustomersRequest.newBuilder().withUpdatedAtMin(minimumUpdatedAt)
+				.withUpdatedAtMax(maximumUpdatedAt).withSinceId(sinceId).withLimit(pageSize).build());
+	}
+
+	private <T> int sync(final ShopifySyncResource resource, final UpdatedPageRetriever<T> updatedPageRetriever,
+			final Function<T, DateTime> updatedAtExtractor, final ToLongFunction<T> idExtractor,
+			final Consumer<T> consumer) {
+		final ShopifySyncCheckpoint previousCheckpoint = checkpointStore.load(shop, resource);
+		final DateTime minimumUpdatedAt = (previousCheckpoint == null) ? null : previousCheckpoint.getUpdatedAt();
+		final DateTime maximumUpdatedAt = DateTime.now(DateTimeZone.UTC).minus(SETTLING_DELAY_IN_MILLISECONDS);
+		if ((minimumUpdatedAt != null) && !maximumUpdatedAt.isAfter(minimumUpdatedAt)) {
+			return 0;
+		}
+
+		ShopifySyncCheckpoint checkpoint = new ShopifySyncCheckpoint(maximumUpdatedAt, ShopifyIds.NO_ID);
+		if ((previousCheckpoint != null) && checkpoint.isBefore(previousCheckpoint.getUpdatedAt(),
+				previousCheckpoint.getId())) {
+			checkpoint = previousCheckpoint;
+		}
+
+		int emittedCount = 0;
+		String sinceId = FIRST_PAGE_SINCE_ID;
+		List<T> page;
+		do {
+			page = updatedPageRetriever.retrieve(minimumUpdatedAt, maximumUpdatedAt, sinceId, PAGE_SIZE);
+			long highestId = ShopifyIds.NO_ID;
+			for (final T entity : page) {
+				final DateTime updatedAt = updatedAtExtractor.apply(entity);
+				final long id = idExtractor.applyAsLong(entity);
+				highestId = Math.max(highestId, id);
+				if ((updatedAt == null) || (previousCheckpoint == null) || previousCheckpoint.isBefore(updatedAt, id)) {
+					consumer.accept(entity);
+					emittedCount++;
+					if ((updatedAt != null) && checkpoint.isBefore(updatedAt, id)) {
+						checkpoint = new ShopifySyncCheckpoint(updatedAt, id);
+					}
+				}
+			}
+			sinceId = ShopifyIds.toString(highestId);
+		} while ((page.size() == PAGE_SIZE) && (sinceId != null));
+
+		checkpointStore.save(shop, resource, checkpoint);
+		LOGGER.info(SYNC_COMPLETED_MESSAGE, emittedCount, resource, shop, checkpoint);
+		return emittedCount;
+	}
+
+	@FunctionalInterface
+	private interface UpdatedPageRetriever<T> {
+
+		List<T> retrieve(DateTime minimumUpdatedAt, DateTime maximumUpdatedAt, String sinceId, int pageSize);
+
+	}
+
+}
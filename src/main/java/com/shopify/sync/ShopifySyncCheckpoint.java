@@ -0,0 +1,60 @@
+package com.shopify.sync;
+
+import org.joda.time.DateTime;
+
+/**
+ * Position of an incremental sync: the <code>updated_at</code> and ID of the
+ * last entity it emitted. Entities are ordered by <code>updated_at</code>
+ * first and ID second, so entities that share a timestamp with the checkpoint
+ * are told apart by their ID.
+ */
+public class ShopifySyncCheckpoint {
+
+	private final DateTime updatedAt;
+	private final long id;
+
+	public ShopifySyncCheckpoint(final DateTime updatedAt, final long id) {
+		this.updatedAt = updatedAt;
+		this.id = id;
+	}
+
+	public DateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * @param updatedAt
+	 * @param id
+	 * @return true if an entity with the given <code>updated_at</code> and ID
+	 *         comes after this checkpoint.
+	 */
+	public boolean isBefore(final DateTime updatedAt, final long id) {
+		final long updatedAtMillis = updatedAt.getMillis();
+		final long checkpointMillis = this.updatedAt.getMillis();
+		return (checkpointMillis < updatedAtMillis) || ((checkpointMillis == updatedAtMillis) && (this.id < id));
+	}
+
+	@Override
+	public boolean equals(final Object object) {
+		if (!(object instanceof ShopifySyncCheckpoint)) {
+			return false;
+		}
+		final ShopifySyncCheckpoint other = (ShopifySyncCheckpoint) object;
+		return (updatedAt.getMillis() == other.updatedAt.getMillis()) && (id == other.id);
+	}
+
+	@Override
+	public int hashCode() {
+		return (31 * Long.hashCode(updatedAt.getMillis())) + Long.hashCode(id);
+	}
+
+	@Override
+	public String toString() {
+		return updatedAt + "/" + id;
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.shopify.sync;
+
+/**
+ * Durable storage for the checkpoints of {@link IncrementalSync}, kept per
+ * shop and per resource.
+ */
+public interface ShopifySyncCheckpointStore {
+
+	/**
+	 * @param shop
+	 * @param resource
+	 * @return the saved {@link ShopifySyncCheckpoint}, or null if the resource
+	 *         of the shop has never been synced.
+	 */
+	ShopifySyncCheckpoint load(String shop, ShopifySyncResource resource);
+
+	void save(String shop, ShopifySyncResource resource, ShopifySyncCheckpoint checkpoint);
+
+}
@@ -0,0 +1,7 @@
+package com.shopify.sync;
+
+public enum ShopifySyncResource {
+
+	ORDERS, PRODUCTS, CUSTOMERS
+
+}
@@ -0,0 +1,50 @@
+package com.shopify.webhooks;
+
+/**
+ * A verified webhook and its payload bound to the model of its topic.
+ *
+ * @param <T>
+ *            type of the payload
+ */
+public final class ShopifyWebhook<T> {
+
+	private final ShopifyWebhookTopic<T> topic;
+	private final String shopDomain;
+	private final String webhookId;
+	private final String apiVersion;
+	private final T payload;
+
+	ShopifyWebhook(final ShopifyWebhookTopic<T> topic, final String shopDomain, final String webhookId,
+			final String apiVersion, final T payload) {
+		this.topic = topic;
+		this.shopDomain = shopDomain;
+		this.webhookId = webhookId;
+		this.apiVersion = apiVersion;
+		this.payload = payload;
+	}
+
+	public ShopifyWebhookTopic<T> getTopic() {
+		return topic;
+	}
+
+	public String getShopDomain() {
+		return shopDomain;
+	}
+
+	/**
+	 * @return the <code>X-Shopify-Webhook-Id</code>, which stays the same when
+	 *         Shopify delivers the webhook again, or null if it was not sent.
+	 */
+	public String getWebhookId() {
+		return webhookId;
+	}
+
+	public String getApiVersion() {
+		return apiVersion;
+	}
+
+	public T getPayload() {
+		return payload;
+	}
+
+}
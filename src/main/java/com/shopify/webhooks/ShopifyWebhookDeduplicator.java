@@ -0,0 +1,214 @@
+package com.shopify.webhooks;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the webhooks and entity versions a {@link ShopifyWebhookReceiver}
+ * has seen recently, so that redeliveries and out of date versions are
+ * dropped before their handlers run.
+ *
+ * Shopify delivers a webhook at least once, reusing its
+ * <code>X-Shopify-Webhook-Id</code>, and does not guarantee the order of
+ * deliveries. The IDs are kept for a time window; the newest
+ * <code>updated_at</code> received for each entity is kept for the same
+ * window. Both are bounded: once more than the maximum number of entries are
+ * kept, the oldest are forgotten before they expire, so a redelivery that
+ * arrives after it has been forgotten is handled again.
+ *
+ * A deduplicator is thread safe and may be shared by several receivers.
+ */
+public class ShopifyWebhookDeduplicator {
+
+	static final long DEFAULT_WINDOW_MILLISECONDS = TimeUnit.HOURS.toMillis(1);
+	static final int DEFAULT_MAXIMUM_ENTRIES = 1_000_000;
+
+	static final String INVALID_WINDOW_MESSAGE = "Deduplication window must be positive.";
+	static final String INVALID_MAXIMUM_ENTRIES_MESSAGE = "Deduplication maximum entries must be at least 1.";
+
+	private final TimeWindow<String> webhookIds;
+	private final TimeWindow<Long> entityVersions;
+
+	public ShopifyWebhookDeduplicator() {
+		this(DEFAULT_WINDOW_MILLISECONDS, TimeUnit.MILLISECONDS, DEFAULT_MAXIMUM_ENTRIES);
+	}
+
+	/**
+	 * @param window
+	 *            how long webhook IDs and entity versions are remembered.
+	 * @param timeUnit
+	 * @param maximumEntries
+	 *            the most webhook IDs, and separately the most entities, that
+	 *            are remembered at once.
+	 */
+	public ShopifyWebhookDeduplicator(final long window, final TimeUnit timeUnit, final int maximumEntries) {
+		this(window, timeUnit, maximumEntries, System::nanoTime);
+	}
+
+	ShopifyWebhookDeduplicator(final long window, final TimeUnit timeUnit, final int maximumEntries,
+			final LongSupplier nanoClock) {
+		if (window <= 0) {
+			throw new IllegalArgumentException(INVALID_WINDOW_MESSAGE);
+		}
+		if (maximumEntries < 1) {
+			throw new IllegalArgumentException(INVALID_MAXIMUM_ENTRIES_MESSAGE);
+		}
+		final long windowNanoseconds = timeUnit.toNanos(window);
+		this.webhookIds = new TimeWindow<>(windowNanoseconds, maximumEntries, nanoClock);
+		this.entityVersions = new TimeWindow<>(windowNanoseconds, maximumEntries, nanoClock);
+	}
+
+	/**
+	 * Records the webhook ID.
+	 *
+	 * @param webhookId
+	 * @return whether the ID was already recorded within the window.
+	 */
+	public boolean isDuplicate(final String webhookId) {
+		return !webhookIds.putIfAbsent(webhookId, webhookId);
+	}
+
+	/**
+	 * Forgets a webhook ID, so that a webhook that could not be accepted is
+	 * handled when Shopify delivers it again.
+	 *
+	 * @param webhookId
+	 */
+	public void forget(final String webhookId) {
+		webhookIds.remove(webhookId);
+	}
+
+	/**
+	 * Records the version of the entity if it is the newest received.
+	 *
+	 * @param entityKey
+	 * @param updatedAtMilliseconds
+	 * @return whether a newer version of the entity was received within the
+	 *         window. Versions with the same <code>updated_at</code> are not
+	 *         stale, since timestamps only have a resolution of one second.
+	 */
+	public boolean isStale(final String entityKey, final long updatedAtMilliseconds) {
+		return entityVersions.putIfGreater(entityKey, updatedAtMilliseconds) > updatedAtMilliseconds;
+	}
+
+	/**
+	 * @param entityKey
+	 * @param updatedAtMilliseconds
+	 * @return whether a newer version of the entity has been received since
+	 *         this one, so handling this one would be redundant.
+	 */
+	public boolean isSuperseded(final String entityKey, final long updatedAtMilliseconds) {
+		final Long newestVersion = entityVersions.get(entityKey);
+		return (newestVersion != null) && (newestVersion > updatedAtMilliseconds);
+	}
+
+	/**
+	 * A bounded map whose entries expire a fixed time after they were last
+	 * written. Entries are evicted in the order they were written, on the
+	 * thread that writes. Overwritten entries count towards the maximum until
+	 * they are evicted, so the map may hold fewer live entries than the
+	 * maximum.
+	 */
+	static class TimeWindow<V extends Comparable<V>> {
+
+		private final long windowNanoseconds;
+		private final int maximumEntries;
+		private final LongSupplier nanoClock;
+		private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+		private final ConcurrentLinkedQueue<Entry<V>> writeOrder = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger writeOrderSize = new AtomicInteger();
+
+		TimeWindow(final long windowNanoseconds, final int maximumEntries, final LongSupplier nanoClock) {
+			this.windowNanoseconds = windowNanoseconds;
+			this.maximumEntries = maximumEntries;
+			this.nanoClock = nanoClock;
+		}
+
+		V get(final String key) {
+			final Entry<V> entry = entries.get(key);
+			return ((entry == null) || entry.isExpired(nanoClock.getAsLong())) ? null : entry.value;
+		}
+
+		/**
+		 * @return whether the key was absent or expired, and is now recorded.
+		 */
+		boolean putIfAbsent(final String key, final V value) {
+			final long now = nanoClock.getAsLong();
+			final Entry<V> newEntry = new Entry<>(key, value, now + windowNanoseconds);
+			final Entry<V> entry = entries.merge(key, newEntry,
+					(existingEntry, ignored) -> existingEntry.isExpired(now) ? newEntry : existingEntry);
+			if (entry != newEntry) {
+				return false;
+			}
+			written(newEntry, now);
+			return true;
+		}
+
+		/**
+		 * @return the value recorded for the key afterwards, which is the
+		 *         larger of the given value and the value that had not
+		 *         expired.
+		 */
+		V putIfGreater(final String key, final V value) {
+			final long now = nanoClock.getAsLong();
+			final Entry<V> newEntry = new Entry<>(key, value, now + windowNanoseconds);
+			final Entry<V> entry = entries.merge(key, newEntry, (existingEntry, ignored) -> {
+				if (existingEntry.isExpired(now) || (existingEntry.value.compareTo(value) < 0)) {
+					return newEntry;
+				}
+				return existingEntry;
+			});
+			if (entry == newEntry) {
+				written(newEntry, now);
+			}
+			return entry.value;
+		}
+
+		void remove(final String key) {
+			entries.remove(key);
+		}
+
+		int size() {
+			return entries.size();
+		}
+
+		private void written(final Entry<V> entry, final long now) {
+			writeOrder.add(entry);
+			int size = writeOrderSize.incrementAndGet();
+			Entry<V> oldestEntry;
+			while (((oldestEntry = writeOrder.peek()) != null)
+					&& ((size > maximumEntries) || oldestEntry.isExpired(now))) {
+				oldestEntry = writeOrder.poll();
+				if (oldestEntry == null) {
+					return;
+				}
+				entries.remove(oldestEntry.key, oldestEntry);
+				size = writeOrderSize.decrementAndGet();
+			}
+		}
+
+	}
+
+	private static class Entry<V> {
+
+		private final String key;
+		private final V value;
+		private final long expiryNanoseconds;
+
+		Entry(final String key, final V value, final long expiryNanoseconds) {
+			this.key = key;
+			this.value = value;
+			this.expiryNanoseconds = expiryNanoseconds;
+		}
+
+		boolean isExpired(final long now) {
+			return (now - expiryNanoseconds) >= 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.shopify.webhooks;
+
+/**
+ * Handles the webhooks of a topic. Handlers run on the threads of a
+ * {@link ShopifyWebhookReceiver}, after the receiver has acknowledged the
+ * webhook, so they may be called concurrently and should not block for long.
+ *
+ * @param <T>
+ *            type of the payload
+ */
+@FunctionalInterface
+public interface ShopifyWebhookHandler<T> {
+
+	void handle(ShopifyWebhook<T> shopifyWebhook) throws Exception;
+
+}
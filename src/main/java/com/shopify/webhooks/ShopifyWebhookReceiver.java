@@ -0,0 +1,407 @@
+package com.shopify.webhooks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.shopify.ShopifyThreadFactory;
+import com.shopify.mappers.ShopifyMappers;
+
+/**
+ * Receives Shopify webhooks from any HTTP server and passes them to the
+ * handler registered for their topic.
+ *
+ * {@link #receive(Function, InputStream)} runs on the server's request thread:
+ * it reads the body once into a buffer the thread reuses, verifies the HMAC
+ * over those raw bytes, binds them directly to the model of the topic with the
+ * SDK's {@link ShopifyMappers} and queues the handler. Handlers run on a fixed
+ * number of threads, each with a bounded queue; when the queue is full the
+ * webhook is answered with {@link ShopifyWebhookStatus#OVERLOADED} so Shopify
+ * delivers it again later, instead of the receiver buffering without limit.
+ * Webhooks about the same entity are always queued on the same thread, so
+ * they are handled one at a time in the order they were received.
+ *
+ * With a {@link ShopifyWebhookDeduplicator}, redeliveries of a webhook are
+ * answered with {@link ShopifyWebhookStatus#DUPLICATE} and versions of an
+ * entity older than one already received for the topic with
+ * {@link ShopifyWebhookStatus#STALE}, without running their handlers. A
+ * queued version is also skipped if a newer one is received before it is
+ * handled.
+ *
+ * A receiver is thread safe. Close it to stop its handler threads once the
+ * queued webhooks are handled.
+ */
+public class ShopifyWebhookReceiver implements Closeable {
+
+	public static final String TOPIC_HEADER = "X-Shopify-Topic";
+	public static final String HMAC_HEADER = "X-Shopify-Hmac-Sha256";
+	public static final String SHOP_DOMAIN_HEADER = "X-Shopify-Shop-Domain";
+	public static final String WEBHOOK_ID_HEADER = "X-Shopify-Webhook-Id";
+	public static final String API_VERSION_HEADER = "X-Shopify-API-Version";
+
+	static final int DEFAULT_HANDLER_THREADS = Runtime.getRuntime().availableProcessors();
+	static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+	static final int DEFAULT_MAXIMUM_PAYLOAD_SIZE = 5 * 1024 * 1024;
+	static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS = 30_000L;
+
+	static final String INVALID_HANDLER_THREADS_MESSAGE = "Webhook handler threads must be at least 1.";
+	static final String INVALID_QUEUE_CAPACITY_MESSAGE = "Webhook queue capacity must be at least the number of handler threads.";
+	static final String INVALID_MAXIMUM_PAYLOAD_SIZE_MESSAGE = "Webhook maximum payload size must be at least 1 byte.";
+
+	/**
+	 * Buffers up to this size are kept by their thread for the next webhook;
+	 * larger bodies use a buffer of their own.
+	 */
+	private static final int RETAINED_BUFFER_SIZE = 256 * 1024;
+	private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+	private static final char ENTITY_KEY_SEPARATOR = ':';
+	private static final String HANDLER_THREAD_NAME = "shopify-webhook-handler-%d";
+	private static final String REJECTED_WEBHOOK_MESSAGE = "Rejected {} webhook {} from shop {}: {}";
+	private static final String HANDLER_FAILED_MESSAGE = "Handler failed for {} webhook {} from shop {}";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShopifyWebhookReceiver.class);
+
+	private final ShopifyWebhookVerifier verifier;
+	private final ShopifyWebhookDeduplicator deduplicator;
+	private final Map<String, Subscription<?>> subscriptions;
+	private final int maximumPayloadSize;
+	private final long shutdownTimeoutMilliseconds;
+	private final ThreadPoolExecutor[] handlerExecutors;
+	private final AtomicInteger nextHandlerExecutor = new AtomicInteger();
+	private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+	private final LongAdder handledCount = new LongAdder();
+	private final LongAdder failedCount = new LongAdder();
+	private final LongAdder supersededCount = new LongAdder();
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	private ShopifyWebhookReceiver(final Builder builder) {
+		this.verifier = builder.verifier;
+		this.deduplicator = builder.deduplicator;
+		this.subscriptions = new HashMap<>(builder.subscriptions);
+		this.maximumPayloadSize = builder.maximumPayloadSize;
+		this.shutdownTimeoutMilliseconds = builder.shutdownTimeoutMilliseconds;
+		this.handlerExecutors = new ThreadPoolExecutor[builder.handlerThreads];
+		final int queueCapacityPerThread = builder.queueCapacity / builder.handlerThreads;
+		final ShopifyThreadFactory handlerThreadFactory = new ShopifyThreadFactory(HANDLER_THREAD_NAME);
+		for (int index = 0; index < handlerExecutors.length; index++) {
+			handlerExecutors[index] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(queueCapacityPerThread), handlerThreadFactory,
+					new ThreadPoolExecutor.AbortPolicy());
+		}
+	}
+
+	/**
+	 * @param headers
+	 *            looks up a request header by name, such as
+	 *            <code>HttpServletRequest::getHeader</code>.
+	 * @param body
+	 *            the raw request body. It is read to the end but not closed.
+	 * @return the outcome, whose HTTP status should be sent back to Shopify.
+	 * @throws IOException
+	 *             when reading the body fails.
+	 */
+	public ShopifyWebhookStatus receive(final Function<String, String> headers, final InputStream body)
+			throws IOException {
+		byte[] buffer = buffers.get();
+		int length = 0;
+		int read;
+		while ((read = body.read(buffer, length, buffer.length - length)) != -1) {
+			length += read;
+			if (length > maximumPayloadSize) {
+				return reject(headers, ShopifyWebhookStatus.PAYLOAD_TOO_LARGE);
+			}
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maximumPayloadSize + 1));
+				if (buffer.length <= RETAINED_BUFFER_SIZE) {
+					buffers.set(buffer);
+				}
+			}
+		}
+		return receive(headers, buffer, length);
+	}
+
+	public ShopifyWebhookStatus receive(final Function<String, String> headers, final byte[] body) {
+		if (body.length > maximumPayloadSize) {
+			return reject(headers, ShopifyWebhookStatus.PAYLOAD_TOO_LARGE);
+		}
+		return receive(headers, body, body.length);
+	}
+
+	public int getQueuedCount() {
+		int queuedCount = 0;
+		for (final ThreadPoolExecutor handlerExecutor : handlerExecutors) {
+			queuedCount += handlerExecutor.getQueue().size();
+		}
+		return queuedCount;
+	}
+
+	/**
+	 * @return the number of webhooks whose handler returned normally.
+	 */
+	public long getHandledCount() {
+		return handledCount.sum();
+	}
+
+	/**
+	 * @return the number of webhooks whose handler threw.
+	 */
+	public long getFailedCount() {
+		return failedCount.sum();
+	}
+
+	/**
+	 * @return the number of queued webhooks that were not handled because a
+	 *         newer version of their entity was received meanwhile.
+	 */
+	public long getSupersededCount() {
+		return supersededCount.sum();
+	}
+
+	/**
+	 * Stops accepting webhooks and waits for the queued ones to be handled, up
+	 * to the shutdown timeout.
+	 */
+	@Override
+	public void close() {
+		for (final ThreadPoolExecutor handlerExecutor : handlerExecutors) {
+			handlerExecutor.shutdown();
+		}
+		final long deadlineNanoseconds = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMilliseconds);
+		try {
+			for (final ThreadPoolExecutor handlerExecutor : handlerExecutors) {
+				if (!handlerExecutor.awaitTermination(deadlineNanoseconds - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+					handlerExecutor.shutdownNow();
+				}
+			}
+		} catch (final InterruptedException e) {
+			for (final ThreadPoolExecutor handlerExecutor : handlerExecutors) {
+				handlerExecutor.shutdownNow();
+			}
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private ShopifyWebhookStatus receive(final Function<String, String> headers, final byte[] body,
+			final int length) {
+		if (!verifier.isValid(body, 0, length, headers.apply(HMAC_HEADER))) {
+			return reject(headers, ShopifyWebhookStatus.UNAUTHORIZED);
+		}
+		final String topic = headers.apply(TOPIC_HEADER);
+		if (topic == null) {
+			return reject(headers, ShopifyWebhookStatus.MALFORMED);
+		}
+		final Subscription<?> subscription = subscriptions.get(topic);
+		if (subscription == null) {
+			return ShopifyWebhookStatus.IGNORED;
+		}
+		final String webhookId = headers.apply(WEBHOOK_ID_HEADER);
+		if ((deduplicator == null) || (webhookId == null)) {
+			return dispatch(subscription, headers, webhookId, body, length);
+		}
+		if (deduplicator.isDuplicate(webhookId)) {
+			return reject(headers, ShopifyWebhookStatus.DUPLICATE);
+		}
+		final ShopifyWebhookStatus status = dispatch(subscription, headers, webhookId, body, length);
+		if ((status == ShopifyWebhookStatus.MALFORMED) || (status == ShopifyWebhookStatus.OVERLOADED)) {
+			deduplicator.forget(webhookId);
+		}
+		return status;
+	}
+
+	private <T> ShopifyWebhookStatus dispatch(final Subscription<T> subscription,
+			final Function<String, String> headers, final String webhookId, final byte[] body, final int length) {
+		final T payload;
+		try {
+			payload = subscription.reader.readValue(body, 0, length);
+		} catch (final IOException e) {
+			return reject(headers, ShopifyWebhookStatus.MALFORMED);
+		}
+		if (payload == null) {
+			return reject(headers, ShopifyWebhookStatus.MALFORMED);
+		}
+
+		final ShopifyWebhookTopic<T> topic = subscription.topic;
+		final String entityId = topic.getEntityId(payload);
+		final DateTime updatedAt = topic.getUpdatedAt(payload);
+		final String entityKey = ((deduplicator == null) || (entityId == null) || (updatedAt == null)) ? null
+				: topic.getName() + ENTITY_KEY_SEPARATOR + entityId;
+		if ((entityKey != null) && deduplicator.isStale(entityKey, updatedAt.getMillis())) {
+			return reject(headers, ShopifyWebhookStatus.STALE);
+		}
+
+		final ShopifyWebhook<T> shopifyWebhook = new ShopifyWebhook<>(topic, headers.apply(SHOP_DOMAIN_HEADER),
+				webhookId, headers.apply(API_VERSION_HEADER), payload);
+		try {
+			getHandlerExecutor(entityId).execute(() -> {
+				if ((entityKey != null) && deduplicator.isSuperseded(entityKey, updatedAt.getMillis())) {
+					supersededCount.increment();
+					return;
+				}
+				handle(subscription.handler, shopifyWebhook);
+			});
+		} catch (final RejectedExecutionException e) {
+			return reject(headers, ShopifyWebhookStatus.OVERLOADED);
+		}
+		return ShopifyWebhookStatus.ACCEPTED;
+	}
+
+	/**
+	 * @param entityId
+	 * @return the executor of the entity, or the next one in turn when there
+	 *         is no entity ID.
+	 */
+	private ThreadPoolExecutor getHandlerExecutor(final String entityId) {
+		final int hash = (entityId == null) ? nextHandlerExecutor.getAndIncrement() : entityId.hashCode();
+		return handlerExecutors[Math.floorMod(hash, handlerExecutors.length)];
+	}
+
+	private <T> void handle(final ShopifyWebhookHandler<T> handler, final ShopifyWebhook<T> shopifyWebhook) {
+		try {
+			handler.handle(shopifyWebhook);
+			handledCount.increment();
+		} catch (final Exception e) {
+			failedCount.increment();
+			LOGGER.error(HANDLER_FAILED_MESSAGE, shopifyWebhook.getTopic(), shopifyWebhook.getWebhookId(),
+					shopifyWebhook.getShopDomain(), e);
+		}
+	}
+
+	private ShopifyWebhookStatus reject(final Function<String, String> headers, final ShopifyWebhookStatus status) {
+		LOGGER.debug(REJECTED_WEBHOOK_MESSAGE, headers.apply(TOPIC_HEADER), headers.apply(WEBHOOK_ID_HEADER),
+				headers.apply(SHOP_DOMAIN_HEADER), status);
+		return status;
+	}
+
+	private static class Subscription<T> {
+
+		private final ShopifyWebhookTopic<T> topic;
+		private final ShopifyWebhookHandler<T> handler;
+		private final ObjectReader reader;
+
+		Subscription(final ShopifyWebhookTopic<T> topic, final ShopifyWebhookHandler<T> handler,
+				final ObjectReader reader) {
+			this.topic = topic;
+			this.handler = handler;
+			this.reader = reader;
+		}
+
+	}
+
+	public static class Builder {
+
+		private ShopifyWebhookVerifier verifier;
+		private ShopifyWebhookDeduplicator deduplicator;
+		private ShopifyMappers shopifyMappers = ShopifyMappers.getDefault();
+		private final Map<String, Subscription<?>> subscriptions = new HashMap<>();
+		private int handlerThreads = DEFAULT_HANDLER_THREADS;
+		private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+		private int maximumPayloadSize = DEFAULT_MAXIMUM_PAYLOAD_SIZE;
+		private long shutdownTimeoutMilliseconds = DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS;
+
+		private Builder() {
+		}
+
+		/**
+		 * @param sharedSecret
+		 *            the app's shared secret that Shopify signs webhooks with.
+		 */
+		public Builder withSharedSecret(final String sharedSecret) {
+			this.verifier = new ShopifyWebhookVerifier(sharedSecret);
+			return this;
+		}
+
+		/**
+		 * Drops redelivered webhooks and out of date versions of entities. By
+		 * default every webhook is handled.
+		 */
+		public Builder withDeduplicator(final ShopifyWebhookDeduplicator deduplicator) {
+			this.deduplicator = deduplicator;
+			return this;
+		}
+
+		/**
+		 * Binds payloads with the mapper of the registry, such as one built
+		 * with a {@link com.shopify.mappers.ShopifyStringPool}. Defaults to
+		 * {@link ShopifyMappers#getDefault()}. Set it before registering
+		 * handlers.
+		 */
+		public Builder withMappers(final ShopifyMappers shopifyMappers) {
+			this.shopifyMappers = shopifyMappers;
+			return this;
+		}
+
+		/**
+		 * Registers the handler of a topic, replacing any handler registered
+		 * for it before.
+		 */
+		public <T> Builder withHandler(final ShopifyWebhookTopic<T> topic, final ShopifyWebhookHandler<T> handler) {
+			subscriptions.put(topic.getName(),
+					new Subscription<>(topic, handler, shopifyMappers.getReader(topic.getPayloadType())));
+			return this;
+		}
+
+		public Builder withHandlerThreads(final int handlerThreads) {
+			if (handlerThreads < 1) {
+				throw new IllegalArgumentException(INVALID_HANDLER_THREADS_MESSAGE);
+			}
+			this.handlerThreads = handlerThreads;
+			return this;
+		}
+
+		/**
+		 * @param queueCapacity
+		 *            the number of accepted webhooks that may wait for a
+		 *            handler thread, divided evenly between the threads.
+		 */
+		public Builder withQueueCapacity(final int queueCapacity) {
+			if (queueCapacity < 1) {
+				throw new IllegalArgumentException(INVALID_QUEUE_CAPACITY_MESSAGE);
+			}
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		public Builder withMaximumPayloadSize(final int maximumPayloadSize) {
+			if (maximumPayloadSize < 1) {
+				throw new IllegalArgumentException(INVALID_MAXIMUM_PAYLOAD_SIZE_MESSAGE);
+			}
+			this.maximumPayloadSize = maximumPayloadSize;
+			return this;
+		}
+
+		public Builder withShutdownTimeout(final long shutdownTimeout, final TimeUnit timeUnit) {
+			this.shutdownTimeoutMilliseconds = timeUnit.toMillis(shutdownTimeout);
+			return this;
+		}
+
+		public ShopifyWebhookReceiver build() {
+			if (verifier == null) {
+				throw new IllegalArgumentException(ShopifyWebhookVerifier.INVALID_SECRET_MESSAGE);
+			}
+			if (queueCapacity < handlerThreads) {
+				throw new IllegalArgumentException(INVALID_QUEUE_CAPACITY_MESSAGE);
+			}
+			return new ShopifyWebhookReceiver(this);
+		}
+
+	}
+
+}
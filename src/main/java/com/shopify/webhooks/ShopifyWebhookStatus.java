@@ -0,0 +1,63 @@
+package com.shopify.webhooks;
+
+/**
+ * The outcome of receiving a webhook and the HTTP status to answer Shopify
+ * with. Shopify delivers a webhook again until it is answered with a 2xx
+ * status.
+ */
+public enum ShopifyWebhookStatus {
+
+	/**
+	 * Verified, bound and queued for its handler.
+	 */
+	ACCEPTED(200),
+
+	/**
+	 * Verified, but no handler is registered for the topic.
+	 */
+	IGNORED(200),
+
+	/**
+	 * Verified, but a webhook with the same <code>X-Shopify-Webhook-Id</code>
+	 * was already accepted.
+	 */
+	DUPLICATE(200),
+
+	/**
+	 * Verified, but a version of the entity with a later
+	 * <code>updated_at</code> was already accepted.
+	 */
+	STALE(200),
+
+	/**
+	 * The HMAC header is missing or does not match the body.
+	 */
+	UNAUTHORIZED(401),
+
+	/**
+	 * The topic header is missing or the body could not be bound to the model
+	 * of the topic.
+	 */
+	MALFORMED(400),
+
+	/**
+	 * The body is larger than the receiver accepts.
+	 */
+	PAYLOAD_TOO_LARGE(413),
+
+	/**
+	 * The handler queue is full. Shopify will deliver the webhook again.
+	 */
+	OVERLOADED(503);
+
+	private final int httpStatus;
+
+	private ShopifyWebhookStatus(final int httpStatus) {
+		this.httpStatus = httpStatus;
+	}
+
+	public int getHttpStatus() {
+		return httpStatus;
+	}
+
+}
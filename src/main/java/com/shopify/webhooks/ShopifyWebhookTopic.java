@@ -0,0 +1,103 @@
+package com.shopify.webhooks;
+
+import java.util.function.Function;
+
+import org.joda.time.DateTime;
+
+import com.shopify.model.ShopifyCustomer;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+
+/**
+ * A webhook topic, as sent in the <code>X-Shopify-Topic</code> header, and the
+ * model its payload is bound to. Topics other than the constants can be
+ * created for any model the SDK mapper can read.
+ *
+ * A topic whose payload has an ID and an <code>updated_at</code> lets a
+ * {@link ShopifyWebhookDeduplicator} drop out of date versions of an entity,
+ * and lets a {@link ShopifyWebhookReceiver} handle the versions of an entity
+ * in the order they were received.
+ *
+ * @param <T>
+ *            type of the payload
+ */
+public final class ShopifyWebhookTopic<T> {
+
+	public static final ShopifyWebhookTopic<ShopifyOrder> ORDERS_CREATE = new ShopifyWebhookTopic<>("orders/create",
+			ShopifyOrder.class, ShopifyOrder::getId, ShopifyOrder::getUpdatedAt);
+	public static final ShopifyWebhookTopic<ShopifyOrder> ORDERS_UPDATED = new ShopifyWebhookTopic<>(
+			"orders/updated", ShopifyOrder.class, ShopifyOrder::getId, ShopifyOrder::getUpdatedAt);
+	public static final ShopifyWebhookTopic<ShopifyOrder> ORDERS_PAID = new ShopifyWebhookTopic<>("orders/paid",
+			ShopifyOrder.class, ShopifyOrder::getId, ShopifyOrder::getUpdatedAt);
+	public static final ShopifyWebhookTopic<ShopifyOrder> ORDERS_CANCELLED = new ShopifyWebhookTopic<>(
+			"orders/cancelled", ShopifyOrder.class, ShopifyOrder::getId, ShopifyOrder::getUpdatedAt);
+	public static final ShopifyWebhookTopic<ShopifyOrder> ORDERS_FULFILLED = new ShopifyWebhookTopic<>(
+			"orders/fulfilled", ShopifyOrder.class, ShopifyOrder::getId, ShopifyOrder::getUpdatedAt);
+	public static final ShopifyWebhookTopic<ShopifyProduct> PRODUCTS_CREATE = new ShopifyWebhookTopic<>(
+			"products/create", ShopifyProduct.class, ShopifyProduct::getId, ShopifyProduct::getUpdatedAt);
+	public static final ShopifyWebhookTopic<ShopifyProduct> PRODUCTS_UPDATE = new ShopifyWebhookTopic<>(
+			"products/update", ShopifyProduct.class, ShopifyProduct::getId, ShopifyProduct::getUpdatedAt);
+	public static final ShopifyWebhookTopic<ShopifyCustomer> CUSTOMERS_CREATE = new ShopifyWebhookTopic<>(
+			"customers/create", ShopifyCustomer.class, ShopifyCustomer::getId, ShopifyCustomer::getUpdatedAt);
+	public static final ShopifyWebhookTopic<ShopifyCustomer> CUSTOMERS_UPDATE = new ShopifyWebhookTopic<>(
+			"customers/update", ShopifyCustomer.class, ShopifyCustomer::getId, ShopifyCustomer::getUpdatedAt);
+
+	private final String name;
+	private final Class<T> payloadType;
+	private final Function<T, String> idExtractor;
+	private final Function<T, DateTime> updatedAtExtractor;
+
+	/**
+	 * Creates a topic whose payloads are not ordered or checked for being out
+	 * of date.
+	 */
+	public ShopifyWebhookTopic(final String name, final Class<T> payloadType) {
+		this(name, payloadType, null, null);
+	}
+
+	/**
+	 * @param name
+	 * @param payloadType
+	 * @param idExtractor
+	 *            returns the ID of the entity a payload is a version of.
+	 * @param updatedAtExtractor
+	 *            returns when that version was made.
+	 */
+	public ShopifyWebhookTopic(final String name, final Class<T> payloadType, final Function<T, String> idExtractor,
+			final Function<T, DateTime> updatedAtExtractor) {
+		this.name = name;
+		this.payloadType = payloadType;
+		this.idExtractor = idExtractor;
+		this.updatedAtExtractor = updatedAtExtractor;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<T> getPayloadType() {
+		return payloadType;
+	}
+
+	/**
+	 * @return the ID of the entity the payload is a version of, or null if the
+	 *         topic has no ID extractor or the payload has no ID.
+	 */
+	String getEntityId(final T payload) {
+		return (idExtractor == null) ? null : idExtractor.apply(payload);
+	}
+
+	/**
+	 * @return the <code>updated_at</code> of the payload, or null if the topic
+	 *         has no extractor for it or the payload has none.
+	 */
+	DateTime getUpdatedAt(final T payload) {
+		return (updatedAtExtractor == null) ? null : updatedAtExtractor.apply(payload);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.shopify.webhooks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Verifies the <code>X-Shopify-Hmac-Sha256</code> header of a webhook, the
+ * Base64 HMAC-SHA256 of the raw body keyed with the app's shared secret.
+ *
+ * Digests are compared in constant time so the comparison does not reveal how
+ * much of a forged signature is right. A {@link Mac} is not thread safe, so
+ * each thread keeps its own, initialized once with the key.
+ */
+public class ShopifyWebhookVerifier {
+
+	static final String HMAC_ALGORITHM = "HmacSHA256";
+	static final String INVALID_SECRET_MESSAGE = "A webhook shared secret is required.";
+
+	private final SecretKeySpec secretKey;
+	private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+	public ShopifyWebhookVerifier(final String sharedSecret) {
+		if ((sharedSecret == null) || sharedSecret.isEmpty()) {
+			throw new IllegalArgumentException(INVALID_SECRET_MESSAGE);
+		}
+		this.secretKey = new SecretKeySpec(sharedSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+	}
+
+	public boolean isValid(final byte[] body, final String hmacHeader) {
+		return isValid(body, 0, body.length, hmacHeader);
+	}
+
+	/**
+	 * @param body
+	 * @param offset
+	 * @param length
+	 * @param hmacHeader
+	 * @return whether the header is the HMAC of the bytes. False when the
+	 *         header is missing or is not Base64.
+	 */
+	public boolean isValid(final byte[] body, final int offset, final int length, final String hmacHeader) {
+		if (hmacHeader == null) {
+			return false;
+		}
+		final byte[] expectedDigest;
+		try {
+			expectedDigest = Base64.getDecoder().decode(hmacHeader.trim());
+		} catch (final IllegalArgumentException e) {
+			return false;
+		}
+		final Mac mac = macs.get();
+		mac.update(body, offset, length);
+		return MessageDigest.isEqual(mac.doFinal(), expectedDigest);
+	}
+
+	/**
+	 * @param body
+	 * @return the Base64 HMAC of the body, as Shopify sends it.
+	 */
+	public String sign(final byte[] body) {
+		return Base64.getEncoder().encodeToString(macs.get().doFinal(body));
+	}
+
+	private Mac newMac() {
+		try {
+			final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+			mac.init(secretKey);
+			return mac;
+		} catch (final GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
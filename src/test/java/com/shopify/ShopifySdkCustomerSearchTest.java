@@ -0,0 +1,159 @@
+package com.shopify;
+
+import static com.github.restdriver.clientdriver.RestClientDriver.giveResponse;
+import static com.github.restdriver.clientdriver.RestClientDriver.onRequestTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.restdriver.clientdriver.ClientDriverRequest.Method;
+import com.github.restdriver.clientdriver.ClientDriverRule;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.model.ShopifyCustomer;
+
+public class ShopifySdkCustomerSearchTest {
+
+	private static final String SOME_QUERY = "country:Canada";
+	private static final String SOME_FAILING_QUERY = "country:Nowhere";
+	private static final String SOME_ACCESS_TOKEN = "09382489782734897289374829374";
+
+	@Rule
+	public ClientDriverRule driver = new ClientDriverRule();
+
+	private final ConcurrentLinkedQueue<Integer> requestedPages = new ConcurrentLinkedQueue<>();
+	private int matchingCustomers;
+
+	private final ShopifySdk shopifySdk = new ShopifySdk(null) {
+
+		@Override
+		public List<ShopifyCustomer> searchCustomer(final String query, final int page, final int pageSize) {
+			requestedPages.add(page);
+			if (SOME_FAILING_QUERY.equals(query)) {
+				throw new ShopifyClientException("Customers could not be searched.", null);
+			}
+			final List<ShopifyCustomer> shopifyCustomers = new ArrayList<>();
+			for (int index = (page - 1) * pageSize; index < Math.min(page * pageSize, matchingCustomers); index++) {
+				final ShopifyCustomer shopifyCustomer = new ShopifyCustomer();
+				shopifyCustomer.setId(String.valueOf(index));
+				shopifyCustomer.setEmail("customer" + index + "@example.com");
+				shopifyCustomers.add(shopifyCustomer);
+			}
+			return shopifyCustomers;
+		}
+	};
+
+	@Test
+	public void givenMoreMatchesThanPageSizeWhenSearchingCustomersThenStreamEveryPageInOrder() {
+		matchingCustomers = 600;
+
+		final List<String> customerIds = shopifySdk.searchCustomers(SOME_QUERY).map(ShopifyCustomer::getId)
+				.collect(Collectors.toList());
+
+		assertEquals(600, customerIds.size());
+		for (int index = 0; index < customerIds.size(); index++) {
+			assertEquals(String.valueOf(index), customerIds.get(index));
+		}
+		assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(requestedPages));
+	}
+
+	@Test
+	public void givenShopifyApiWhenSearchingCustomersThenRequestEachPageWithQueryPageAndLimit() {
+		driver.addExpectation(onRequestTo("/shop").withMethod(Method.GET),
+				giveResponse("{\"shop\":{\"id\":\"1\"}}", MediaType.APPLICATION_JSON).withStatus(200)).anyTimes();
+		expectSearchPage(1, 0, 250);
+		expectSearchPage(2, 250, 251);
+		final ShopifySdk shopifyApiSdk = ShopifySdk.newBuilder().withApiUrl(driver.getBaseUrl())
+				.withAccessToken(SOME_ACCESS_TOKEN).withMaximumRequestRetryTimeout(2, TimeUnit.SECONDS).build();
+
+		final List<String> customerIds = shopifyApiSdk.searchCustomers(SOME_QUERY).map(ShopifyCustomer::getId)
+				.collect(Collectors.toList());
+
+		assertEquals(251, customerIds.size());
+		assertEquals("0", customerIds.get(0));
+		assertEquals("250", customerIds.get(250));
+	}
+
+	@Test
+	public void givenMatchesFillingLastPageWhenSearchingCustomersThenStopAtEmptyPage() {
+		matchingCustomers = 500;
+
+		assertEquals(500, shopifySdk.searchCustomers(SOME_QUERY).count());
+		assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(requestedPages));
+	}
+
+	@Test
+	public void givenProjectionWhenSearchingCustomersThenStreamProjectedValues() {
+		matchingCustomers = 3;
+
+		final List<String> emails = shopifySdk.searchCustomers(SOME_QUERY, ShopifyCustomer::getEmail)
+				.collect(Collectors.toList());
+
+		assertEquals(Arrays.asList("customer0@example.com", "customer1@example.com", "customer2@example.com"),
+				emails);
+	}
+
+	@Test
+	public void givenUnconsumedStreamWhenSearchingCustomersThenRequestNoPage() {
+		matchingCustomers = 600;
+
+		shopifySdk.searchCustomers(SOME_QUERY);
+
+		assertTrue(requestedPages.isEmpty());
+	}
+
+	@Test
+	public void givenFirstPageConsumedWhenSearchingCustomersThenPrefetchNextPage() throws InterruptedException {
+		matchingCustomers = 600;
+
+		final Iterator<ShopifyCustomer> shopifyCustomers = shopifySdk.searchCustomers(SOME_QUERY).iterator();
+
+		assertEquals("0", shopifyCustomers.next().getId());
+
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while ((requestedPages.size() < 2) && (System.nanoTime() < deadline)) {
+			Thread.sleep(10);
+		}
+		assertEquals(Arrays.asList(1, 2), new ArrayList<>(requestedPages));
+	}
+
+	@Test
+	public void givenNoMatchesWhenSearchingCustomersThenStreamNothing() {
+		matchingCustomers = 0;
+
+		assertEquals(Collections.emptyList(), shopifySdk.searchCustomers(SOME_QUERY).collect(Collectors.toList()));
+		assertEquals(Collections.singletonList(1), new ArrayList<>(requestedPages));
+	}
+
+	@Test(expected = ShopifyClientException.class)
+	public void givenFailingPageWhenSearchingCustomersThenThrowItsException() {
+		shopifySdk.searchCustomers(SOME_FAILING_QUERY).count();
+	}
+
+	private void expectSearchPage(final int page, final int firstCustomer, final int lastCustomer) {
+		final List<String> customers = new ArrayList<>();
+		for (int index = firstCustomer; index < lastCustomer; index++) {
+			customers.add("{\"id\":\"" + index + "\"}");
+		}
+		driver.addExpectation(
+				onRequestTo("/customers/search").withHeader(ShopifySdk.ACCESS_TOKEN_HEADER, SOME_ACCESS_TOKEN)
+						.withParam(ShopifySdk.QUERY_QUERY_PARAMETER, SOME_QUERY)
+						.withParam(ShopifySdk.LIMIT_QUERY_PARAMETER, 250)
+						.withParam(ShopifySdk.PAGE_QUERY_PARAMETER, page).withMethod(Method.GET),
+				giveResponse("{\"customers\":[" + String.join(",", customers) + "]}", MediaType.APPLICATION_JSON)
+						.withStatus(200));
+	}
+
+}
@@ -0,0 +1,158 @@
+package com.shopify;
+
+import static com.github.restdriver.clientdriver.RestClientDriver.giveResponse;
+import static com.github.restdriver.clientdriver.RestClientDriver.onRequestTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.restdriver.clientdriver.ClientDriverRequest.Method;
+import com.github.restdriver.clientdriver.ClientDriverRule;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.model.ShopifyCustomer;
+import com.shopify.model.ShopifyGetCustomersRequest;
+
+public class ShopifySdkCustomersByIdsTest {
+
+	private static final String SOME_MISSING_CUSTOMER_ID = "404";
+	private static final String SOME_FAILING_CUSTOMER_ID = "666";
+	private static final String SOME_ACCESS_TOKEN = "09382489782734897289374829374";
+
+	@Rule
+	public ClientDriverRule driver = new ClientDriverRule();
+
+	private final ConcurrentLinkedQueue<ShopifyGetCustomersRequest> requests = new ConcurrentLinkedQueue<>();
+	private CountDownLatch concurrentRequestsLatch = new CountDownLatch(0);
+
+	private final ShopifySdk shopifySdk = new ShopifySdk(null) {
+
+		@Override
+		public List<ShopifyCustomer> getCustomers(final ShopifyGetCustomersRequest shopifyGetCustomersRequest) {
+			requests.add(shopifyGetCustomersRequest);
+			concurrentRequestsLatch.countDown();
+			try {
+				assertTrue(concurrentRequestsLatch.await(5, TimeUnit.SECONDS));
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (shopifyGetCustomersRequest.getIds().contains(SOME_FAILING_CUSTOMER_ID)) {
+				throw new ShopifyClientException("Customers could not be retrieved.", null);
+			}
+			final List<ShopifyCustomer> shopifyCustomers = new ArrayList<>();
+			for (final String customerId : shopifyGetCustomersRequest.getIds()) {
+				if (!SOME_MISSING_CUSTOMER_ID.equals(customerId)) {
+					final ShopifyCustomer shopifyCustomer = new ShopifyCustomer();
+					shopifyCustomer.setId(customerId);
+					shopifyCustomers.add(shopifyCustomer);
+				}
+			}
+			Collections.reverse(shopifyCustomers);
+			return shopifyCustomers;
+		}
+	};
+
+	@Test
+	public void givenMoreIdsThanRequestLimitWhenGettingCustomersByIdsThenGetChunksConcurrently() {
+		concurrentRequestsLatch = new CountDownLatch(3);
+		final List<String> customerIds = new ArrayList<>();
+		for (int index = 0; index < 600; index++) {
+			customerIds.add(String.valueOf(207119551 + index));
+		}
+
+		final Map<String, ShopifyCustomer> shopifyCustomers = shopifySdk.getCustomersByIds(customerIds);
+
+		assertEquals(new ArrayList<>(customerIds), new ArrayList<>(shopifyCustomers.keySet()));
+		for (final Map.Entry<String, ShopifyCustomer> shopifyCustomer : shopifyCustomers.entrySet()) {
+			assertEquals(shopifyCustomer.getKey(), shopifyCustomer.getValue().getId());
+		}
+		assertEquals(3, requests.size());
+		int requestedIds = 0;
+		for (final ShopifyGetCustomersRequest request : requests) {
+			assertTrue(request.getIds().size() <= 250);
+			assertEquals(request.getIds().size(), request.getLimit());
+			requestedIds += request.getIds().size();
+		}
+		assertEquals(600, requestedIds);
+	}
+
+	@Test
+	public void givenShopifyApiWhenGettingCustomersByIdsThenRequestChunksWithIdsAndLimit() {
+		driver.addExpectation(onRequestTo("/shop").withMethod(Method.GET),
+				giveResponse("{\"shop\":{\"id\":\"1\"}}", MediaType.APPLICATION_JSON).withStatus(200)).anyTimes();
+		final List<String> customerIds = new ArrayList<>();
+		for (int index = 1; index <= 251; index++) {
+			customerIds.add(String.valueOf(index));
+		}
+		driver.addExpectation(
+				onRequestTo("/customers").withHeader(ShopifySdk.ACCESS_TOKEN_HEADER, SOME_ACCESS_TOKEN)
+						.withParam(ShopifySdk.IDS_QUERY_PARAMETER, String.join(",", customerIds.subList(0, 250)))
+						.withParam(ShopifySdk.LIMIT_QUERY_PARAMETER, 250).withMethod(Method.GET),
+				giveResponse("{\"customers\":[{\"id\":\"2\"},{\"id\":\"1\"}]}", MediaType.APPLICATION_JSON)
+						.withStatus(200));
+		driver.addExpectation(
+				onRequestTo("/customers").withHeader(ShopifySdk.ACCESS_TOKEN_HEADER, SOME_ACCESS_TOKEN)
+						.withParam(ShopifySdk.IDS_QUERY_PARAMETER, "251")
+						.withParam(ShopifySdk.LIMIT_QUERY_PARAMETER, 1).withMethod(Method.GET),
+				giveResponse("{\"customers\":[{\"id\":\"251\"}]}", MediaType.APPLICATION_JSON).withStatus(200));
+		final ShopifySdk shopifyApiSdk = ShopifySdk.newBuilder().withApiUrl(driver.getBaseUrl())
+				.withAccessToken(SOME_ACCESS_TOKEN).withMaximumRequestRetryTimeout(2, TimeUnit.SECONDS).build();
+
+		final Map<String, ShopifyCustomer> shopifyCustomers = shopifyApiSdk.getCustomersByIds(customerIds);
+
+		assertEquals(Arrays.asList("1", "2", "251"), new ArrayList<>(shopifyCustomers.keySet()));
+		assertEquals("251", shopifyCustomers.get("251").getId());
+	}
+
+	@Test
+	public void givenLongIdsWhenGettingCustomersByIdsThenKeepEachQueryWithinUrlLengthLimit() {
+		final List<String> customerIds = new ArrayList<>();
+		for (int index = 0; index < 200; index++) {
+			customerIds.add(String.format("%040d", index));
+		}
+
+		final Map<String, ShopifyCustomer> shopifyCustomers = shopifySdk.getCustomersByIds(customerIds);
+
+		assertEquals(200, shopifyCustomers.size());
+		assertEquals(3, requests.size());
+		for (final ShopifyGetCustomersRequest request : requests) {
+			assertTrue(String.join(",", request.getIds()).length() <= 4000);
+		}
+	}
+
+	@Test
+	public void givenDuplicateAndMissingIdsWhenGettingCustomersByIdsThenRequestEachIdOnceAndLeaveOutMissingOnes() {
+		final Map<String, ShopifyCustomer> shopifyCustomers = shopifySdk
+				.getCustomersByIds(Arrays.asList("207119551", SOME_MISSING_CUSTOMER_ID, "207119552", "207119551"));
+
+		assertEquals(Arrays.asList("207119551", "207119552"), new ArrayList<>(shopifyCustomers.keySet()));
+		assertEquals(1, requests.size());
+		assertEquals(Arrays.asList("207119551", SOME_MISSING_CUSTOMER_ID, "207119552"), requests.peek().getIds());
+	}
+
+	@Test
+	public void givenNoIdsWhenGettingCustomersByIdsThenMakeNoRequest() {
+		final Map<String, ShopifyCustomer> shopifyCustomers = shopifySdk.getCustomersByIds(Collections.emptyList());
+
+		assertTrue(shopifyCustomers.isEmpty());
+		assertTrue(requests.isEmpty());
+	}
+
+	@Test(expected = ShopifyClientException.class)
+	public void givenFailingChunkWhenGettingCustomersByIdsThenThrowItsException() {
+		shopifySdk.getCustomersByIds(Arrays.asList("207119551", SOME_FAILING_CUSTOMER_ID));
+	}
+
+}
@@ -0,0 +1,189 @@
+package com.shopify;
+
+import static com.github.restdriver.clientdriver.RestClientDriver.giveResponse;
+import static com.github.restdriver.clientdriver.RestClientDriver.onRequestTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.restdriver.clientdriver.ClientDriverRequest.Method;
+import com.github.restdriver.clientdriver.ClientDriverRule;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.model.Metafield;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyOrderDetails;
+import com.shopify.model.ShopifyOrderDetailsPart;
+import com.shopify.model.ShopifyOrderRisk;
+import com.shopify.model.ShopifyTransaction;
+import com.shopify.ratelimit.ShopifyRateLimiter;
+
+public class ShopifySdkOrderDetailsTest {
+
+	private static final String SOME_ORDER_ID = "450789469";
+	private static final String SOME_FAILING_ORDER_ID = "666";
+	private static final String SOME_ACCESS_TOKEN = "09382489782734897289374829374";
+	private static final String SOME_CALL_LIMIT = "4/40";
+
+	@Rule
+	public ClientDriverRule driver = new ClientDriverRule();
+
+	private final ConcurrentLinkedQueue<String> calls = new ConcurrentLinkedQueue<>();
+	private CountDownLatch concurrentCallsLatch = new CountDownLatch(0);
+
+	private final ShopifySdk shopifySdk = new ShopifySdk(null) {
+
+		@Override
+		public ShopifyOrder getOrder(final String orderId) {
+			awaitConcurrentCalls("order", orderId);
+			if (SOME_FAILING_ORDER_ID.equals(orderId)) {
+				throw new ShopifyClientException("Order could not be retrieved.", null);
+			}
+			final ShopifyOrder shopifyOrder = new ShopifyOrder();
+			shopifyOrder.setId(orderId);
+			return shopifyOrder;
+		}
+
+		@Override
+		public List<ShopifyTransaction> getOrderTransactions(final String orderId) {
+			awaitConcurrentCalls("transactions", orderId);
+			final ShopifyTransaction shopifyTransaction = new ShopifyTransaction();
+			shopifyTransaction.setOrderId(orderId);
+			return Collections.singletonList(shopifyTransaction);
+		}
+
+		@Override
+		public List<ShopifyOrderRisk> getOrderRisks(final String orderId) {
+			awaitConcurrentCalls("risks", orderId);
+			final ShopifyOrderRisk shopifyOrderRisk = new ShopifyOrderRisk();
+			shopifyOrderRisk.setOrderId(orderId);
+			return Collections.singletonList(shopifyOrderRisk);
+		}
+
+		@Override
+		public List<Metafield> getOrderMetafields(final String orderId) {
+			awaitConcurrentCalls("metafields", orderId);
+			final Metafield metafield = new Metafield();
+			metafield.setOwnerId(orderId);
+			return Collections.singletonList(metafield);
+		}
+	};
+
+	@Test
+	public void givenNoPartsWhenGettingOrderDetailsThenGetOrderAndAllPartsConcurrently() {
+		concurrentCallsLatch = new CountDownLatch(4);
+
+		final ShopifyOrderDetails shopifyOrderDetails = shopifySdk.getOrderDetails(SOME_ORDER_ID);
+
+		assertEquals(SOME_ORDER_ID, shopifyOrderDetails.getOrder().getId());
+		assertEquals(SOME_ORDER_ID, shopifyOrderDetails.getOrder().getMetafields().get(0).getOwnerId());
+		assertEquals(SOME_ORDER_ID, shopifyOrderDetails.getTransactions().get(0).getOrderId());
+		assertEquals(SOME_ORDER_ID, shopifyOrderDetails.getRisks().get(0).getOrderId());
+		assertEquals(0, concurrentCallsLatch.getCount());
+	}
+
+	@Test
+	public void givenShopifyApiWhenGettingOrderDetailsThenRequestOrderAndPartsAndLearnCallLimit() {
+		driver.addExpectation(onRequestTo("/shop").withMethod(Method.GET),
+				giveResponse("{\"shop\":{\"id\":\"1\"}}", MediaType.APPLICATION_JSON).withStatus(200)).anyTimes();
+		final String orderPath = "/orders/" + SOME_ORDER_ID;
+		expectCall(orderPath, "{\"order\":{\"id\":\"" + SOME_ORDER_ID + "\"}}");
+		expectCall(orderPath + "/transactions",
+				"{\"transactions\":[{\"order_id\":\"" + SOME_ORDER_ID + "\",\"kind\":\"sale\"}]}");
+		expectCall(orderPath + "/risks", "{\"risks\":[{\"id\":\"2\",\"order_id\":\"" + SOME_ORDER_ID + "\"}]}");
+		expectCall(orderPath + "/metafields",
+				"{\"metafields\":[{\"id\":\"3\",\"owner_id\":\"" + SOME_ORDER_ID + "\"}]}");
+		final ShopifySdk shopifyApiSdk = ShopifySdk.newBuilder().withApiUrl(driver.getBaseUrl())
+				.withAccessToken(SOME_ACCESS_TOKEN).withMaximumRequestRetryTimeout(2, TimeUnit.SECONDS).build();
+
+		final ShopifyOrderDetails shopifyOrderDetails = shopifyApiSdk.getOrderDetails(SOME_ORDER_ID);
+
+		assertEquals(SOME_ORDER_ID, shopifyOrderDetails.getOrder().getId());
+		assertEquals("sale", shopifyOrderDetails.getTransactions().get(0).getKind());
+		assertEquals("2", shopifyOrderDetails.getRisks().get(0).getId());
+		assertEquals("3", shopifyOrderDetails.getOrder().getMetafields().get(0).getId());
+		assertEquals(40, shopifyApiSdk.getRateLimiter().getBucketSize());
+		assertTrue(shopifyApiSdk.getRateLimiter().getAvailableCalls() < 40);
+	}
+
+	@Test
+	public void givenSomePartsWhenGettingOrderDetailsThenGetOnlyThoseParts() {
+		final ShopifyOrderDetails shopifyOrderDetails = shopifySdk.getOrderDetails(SOME_ORDER_ID,
+				ShopifyOrderDetailsPart.RISKS);
+
+		assertEquals(2, calls.size());
+		assertTrue(calls.contains("order:" + SOME_ORDER_ID));
+		assertTrue(calls.contains("risks:" + SOME_ORDER_ID));
+		assertTrue(shopifyOrderDetails.getTransactions().isEmpty());
+		assertEquals(1, shopifyOrderDetails.getRisks().size());
+		assertTrue(shopifyOrderDetails.getOrder().getMetafields().isEmpty());
+	}
+
+	@Test
+	public void givenManyOrderIdsWhenGettingOrderDetailsThenReturnDetailsOfEachOrderInOrder() {
+		final List<String> orderIds = new ArrayList<>();
+		for (int index = 0; index < 25; index++) {
+			orderIds.add(String.valueOf(1000 + index));
+		}
+		orderIds.add("1000");
+
+		final Map<String, ShopifyOrderDetails> shopifyOrderDetails = shopifySdk.getOrderDetails(orderIds,
+				ShopifyOrderDetailsPart.TRANSACTIONS);
+
+		assertEquals(25, shopifyOrderDetails.size());
+		assertEquals(orderIds.subList(0, 25), new ArrayList<>(shopifyOrderDetails.keySet()));
+		for (final Map.Entry<String, ShopifyOrderDetails> orderDetails : shopifyOrderDetails.entrySet()) {
+			assertEquals(orderDetails.getKey(), orderDetails.getValue().getOrder().getId());
+			assertEquals(orderDetails.getKey(), orderDetails.getValue().getTransactions().get(0).getOrderId());
+		}
+		assertEquals(50, calls.size());
+	}
+
+	@Test
+	public void givenOneRequestFailsWhenGettingOrderDetailsThenThrowItsException() {
+		try {
+			shopifySdk.getOrderDetails(Arrays.asList(SOME_ORDER_ID, SOME_FAILING_ORDER_ID));
+		} catch (final ShopifyClientException e) {
+			assertEquals("Order could not be retrieved.", e.getMessage());
+			return;
+		}
+		throw new AssertionError("Expected ShopifyClientException");
+	}
+
+	@Test
+	public void givenSdkWhenGettingRateLimiterThenReturnOneLimiterForAllCalls() {
+		assertSame(shopifySdk.getRateLimiter(), shopifySdk.getRateLimiter());
+	}
+
+	private void expectCall(final String path, final String responseBody) {
+		driver.addExpectation(
+				onRequestTo(path).withHeader(ShopifySdk.ACCESS_TOKEN_HEADER, SOME_ACCESS_TOKEN).withMethod(Method.GET),
+				giveResponse(responseBody, MediaType.APPLICATION_JSON).withStatus(200)
+						.withHeader(ShopifyRateLimiter.CALL_LIMIT_HEADER, SOME_CALL_LIMIT));
+	}
+
+	private void awaitConcurrentCalls(final String call, final String orderId) {
+		calls.add(call + ":" + orderId);
+		concurrentCallsLatch.countDown();
+		try {
+			concurrentCallsLatch.await(5, TimeUnit.SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.math.BigDecimal;
 import java.net.ConnectException;
@@ -20,6 +21,7 @@ import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
 import org.apache.commons.lang3.StringUtils;
@@ -40,6 +42,7 @@ import com.github.restdriver.clientdriver.capture.JsonBodyCapture;
 import com.github.restdriver.clientdriver.capture.StringBodyCapture;
 import com.shopify.exceptions.ShopifyClientException;
 import com.shopify.exceptions.ShopifyErrorResponseException;
+import com.shopify.exceptions.ShopifyRetryException;
 import com.shopify.mappers.ShopifySdkObjectMapper;
 import com.shopify.model.Count;
 import com.shopify.model.Image;
@@ -527,12 +530,45 @@ public class ShopifySdkTest {
 		final ShopifyOrder actualShopifyOrder = shopifySdk.closeOrder(someOrderId);
 
 		assertEquals(
-				"{\"number\":0,\"total_weight\":0,\"taxes_included\":false,\"buyer_accepts_marketing\":false,\"line_items\":[],\"fulfillments\":[],\"billing_address\":{},\"shipping_address\":{},\"customer\":{\"accepts_marketing\":false,\"orders_count\":0},\"shipping_lines\":[],\"tax_lines\":[],\"note_attributes\":[],\"refunds\":[],\"metafields\":[]}",
+				"{\"number\":0,\"total_weight\":0,\"taxes_included\":false,\"buyer_accepts_marketing\":false}",
 				actualRequestBody.getContent());
 		assertNotNull(actualShopifyOrder);
 		assertEquals(someOrderId, actualShopifyOrder.getId());
 	}
 
+	@Test
+	public void givenBusyResponsesUntilRetryTimeoutWhenClosingOrderThenCloseLastResponse() {
+		final String someOrderId = "1234";
+
+		final String expectedPath = new StringBuilder().append(FORWARD_SLASH).append(ShopifySdk.ORDERS)
+				.append(FORWARD_SLASH).append(someOrderId).append(FORWARD_SLASH).append(ShopifySdk.CLOSE).toString();
+		driver.addExpectation(
+				onRequestTo(expectedPath).withHeader(ShopifySdk.ACCESS_TOKEN_HEADER, accessToken)
+						.withMethod(Method.POST),
+				giveResponse("{\"errors\":\"Exceeded 2 calls per second for api client.\"}",
+						MediaType.APPLICATION_JSON).withStatus(429))
+				.anyTimes();
+		shopifySdk = ShopifySdk.newBuilder().withApiUrl(driver.getBaseUrl()).withAccessToken(accessToken)
+				.withMinimumRequestRetryRandomDelay(1, TimeUnit.SECONDS)
+				.withMaximumRequestRetryRandomDelay(2, TimeUnit.SECONDS)
+				.withMaximumRequestRetryTimeout(2, TimeUnit.SECONDS).build();
+
+		try {
+			shopifySdk.closeOrder(someOrderId);
+			fail();
+		} catch (final ShopifyClientException e) {
+			final Response lastResponse = (Response) ((ShopifyRetryException) e.getCause()).getLastAttempt()
+					.getResult();
+			assertEquals(429, lastResponse.getStatus());
+			try {
+				lastResponse.readEntity(String.class);
+				fail();
+			} catch (final IllegalStateException closedException) {
+				assertNotNull(closedException.getMessage());
+			}
+		}
+	}
+
 	@Test
 	public void givenSomeOrderIdAndReasonWhenCancelingOrderThenCancelAndReturnOrder() throws JsonProcessingException {
 		final String someOrderId = "1234";
@@ -3229,6 +3265,97 @@ public class ShopifySdkTest {
 		}
 	}
 
+	@Test
+	public void givenNumericIdsAndStoreWithSomeProductsWhenRetrievingProductsThenReturnShopifyProductsIndexedByNumericId()
+			throws JsonProcessingException {
+		final ShopifyProductsRoot pageShopifyProductsRoot = new ShopifyProductsRoot();
+		final ShopifyProduct shopifyProduct = new ShopifyProduct();
+		shopifyProduct.setId("632910392");
+		pageShopifyProductsRoot.setProducts(Arrays.asList(shopifyProduct));
+		final String expectedPath = new StringBuilder().append(FORWARD_SLASH).append(ShopifySdk.PRODUCTS).toString();
+		driver.addExpectation(
+				onRequestTo(expectedPath).withHeader(ShopifySdk.ACCESS_TOKEN_HEADER, accessToken)
+						.withParam(ShopifySdk.LIMIT_QUERY_PARAMETER, 50).withParam(ShopifySdk.PAGE_QUERY_PARAMETER, 1)
+						.withMethod(Method.GET),
+				giveResponse(getJsonString(ShopifyProductsRoot.class, pageShopifyProductsRoot),
+						MediaType.APPLICATION_JSON).withStatus(Status.OK.getStatusCode()));
+		addProductsPageDriverExpectation(2, 50, 0);
+
+		shopifySdk = ShopifySdk.newBuilder().withApiUrl(driver.getBaseUrl()).withAccessToken(accessToken)
+				.withMaximumRequestRetryTimeout(2, TimeUnit.SECONDS).withNumericIds(true).build();
+		final ShopifyProducts actualShopifyProducts = shopifySdk.getProducts();
+
+		assertTrue(actualShopifyProducts.hasNumericIds());
+		assertEquals(1, actualShopifyProducts.size());
+		assertEquals("632910392", actualShopifyProducts.get(632910392L).getId());
+	}
+
+	@Test
+	public void givenStoreWith55ProductsWhenVisitingEachProductThenVisit55Products() throws JsonProcessingException {
+		addProductsPageDriverExpectation(1, 50, 50);
+		addProductsPageDriverExpectation(2, 50, 5);
+		addProductsPageDriverExpectation(3, 50, 0);
+
+		final List<ShopifyProduct> actualShopifyProducts = new ArrayList<>();
+		shopifySdk.forEachProduct(actualShopifyProducts::add);
+
+		assertEquals(55, actualShopifyProducts.size());
+		for (final ShopifyProduct actualShopifyProduct : actualShopifyProducts) {
+			assertNotNull(actualShopifyProduct.getId());
+		}
+	}
+
+	@Test
+	public void givenSomeUpdatedWindowAndSinceIdWhenRetrievingUpdatedProductsThenRetrieveProductsInWindow()
+			throws JsonProcessingException {
+		final ShopifyProductsRoot shopifyProductsRoot = new ShopifyProductsRoot();
+		final ShopifyProduct shopifyProduct = new ShopifyProduct();
+		shopifyProduct.setId("632910392");
+		shopifyProduct.setUpdatedAt(SOME_DATE_TIME);
+		shopifyProductsRoot.setProducts(Arrays.asList(shopifyProduct));
+		final String expectedPath = new StringBuilder().append(FORWARD_SLASH).append(ShopifySdk.PRODUCTS).toString();
+		final DateTime maximumUpdatedAt = SOME_DATE_TIME.plusDays(1);
+		driver.addExpectation(
+				onRequestTo(expectedPath).withHeader(ShopifySdk.ACCESS_TOKEN_HEADER, accessToken)
+						.withParam(ShopifySdk.LIMIT_QUERY_PARAMETER, 250)
+						.withParam(ShopifySdk.UPDATED_AT_MIN_QUERY_PARAMETER, SOME_DATE_TIME.toString())
+						.withParam(ShopifySdk.UPDATED_AT_MAX_QUERY_PARAMETER, maximumUpdatedAt.toString())
+						.withParam(ShopifySdk.SINCE_ID_QUERY_PARAMETER, "632910391").withMethod(Method.GET),
+				giveResponse(getJsonString(ShopifyProductsRoot.class, shopifyProductsRoot), MediaType.APPLICATION_JSON)
+						.withStatus(Status.OK.getStatusCode()));
+
+		final List<ShopifyProduct> actualShopifyProducts = shopifySdk.getUpdatedProducts(SOME_DATE_TIME,
+				maximumUpdatedAt, "632910391", 250);
+
+		assertEquals(1, actualShopifyProducts.size());
+		assertEquals("632910392", actualShopifyProducts.get(0).getId());
+		assertEquals(SOME_DATE_TIME.getMillis(), actualShopifyProducts.get(0).getUpdatedAt().getMillis());
+	}
+
+	@Test
+	public void givenNoMinimumUpdatedAtOrSinceIdWhenRetrievingUpdatedOrdersThenRetrieveOrdersOfAnyStatusUpToMaximumFromLowestId()
+			throws JsonProcessingException {
+		final ShopifyOrdersRoot shopifyOrdersRoot = new ShopifyOrdersRoot();
+		final ShopifyOrder shopifyOrder = new ShopifyOrder();
+		shopifyOrder.setId("450789469");
+		shopifyOrdersRoot.setOrders(Arrays.asList(shopifyOrder));
+		final String expectedPath = new StringBuilder().append(FORWARD_SLASH).append(ShopifySdk.ORDERS).toString();
+		driver.addExpectation(
+				onRequestTo(expectedPath).withHeader(ShopifySdk.ACCESS_TOKEN_HEADER, accessToken)
+						.withParam(ShopifySdk.STATUS_QUERY_PARAMETER, ShopifySdk.ANY_STATUSES)
+						.withParam(ShopifySdk.LIMIT_QUERY_PARAMETER, 250)
+						.withParam(ShopifySdk.UPDATED_AT_MAX_QUERY_PARAMETER, SOME_DATE_TIME.toString())
+						.withParam(ShopifySdk.SINCE_ID_QUERY_PARAMETER, ShopifySdk.LOWEST_SINCE_ID)
+						.withMethod(Method.GET),
+				giveResponse(getJsonString(ShopifyOrdersRoot.class, shopifyOrdersRoot), MediaType.APPLICATION_JSON)
+						.withStatus(Status.OK.getStatusCode()));
+
+		final List<ShopifyOrder> actualShopifyOrders = shopifySdk.getUpdatedOrders(null, SOME_DATE_TIME, null, 250);
+
+		assertEquals(1, actualShopifyOrders.size());
+		assertEquals("450789469", actualShopifyOrders.get(0).getId());
+	}
+
 	private void addProductsPageDriverExpectation(final int page, final int pageLimit, final int pageSize)
 			throws JsonProcessingException {
 		final ShopifyProductsRoot pageShopifyProductsRoot = new ShopifyProductsRoot();
@@ -0,0 +1,168 @@
+package com.shopify.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs a fixed set of benchmarks over the model mapper, the request builders
+ * and calls to the simulator, and compares them with a committed baseline.
+ * Exits with status 1 when a benchmark's throughput drops, or its allocation
+ * per operation rises, by more than the tolerance. Benchmarks missing from the
+ * baseline are skipped with a warning instead of failing the run, so the gate
+ * passes until a baseline has been recorded.
+ *
+ * Run it with <code>mvn verify -Pperformance</code>. Baselines depend on the
+ * machine, so record them on the machine that runs the gate with
+ * <code>-Dshopify.performance.updateBaseline=true</code> and commit the file.
+ */
+public class PerformanceRegressionGate {
+
+	static final String DEFAULT_BASELINE = "src/test/resources/performance-baseline.properties";
+	static final String THROUGHPUT_SUFFIX = ".throughput";
+	static final String ALLOCATION_SUFFIX = ".allocation";
+	static final double DEFAULT_THROUGHPUT_TOLERANCE = 0.15;
+	static final double DEFAULT_ALLOCATION_TOLERANCE = 0.10;
+
+	/**
+	 * Allocation per operation is measured from sampled counters, so small
+	 * values vary by a few bytes between runs.
+	 */
+	static final double ALLOCATION_SLACK_IN_BYTES = 64;
+
+	static final String THROUGHPUT_REGRESSION_MESSAGE = "%s throughput fell from %.1f to %.1f ops/s, more than %.0f%%.";
+	static final String ALLOCATION_REGRESSION_MESSAGE = "%s allocation rose from %.1f to %.1f bytes/op, more than %.0f%%.";
+	static final String MISSING_BASELINE_MESSAGE = "%s has no baseline; record one with -Dshopify.performance.updateBaseline=true.";
+	static final String EMPTY_BASELINE_MESSAGE = "%s has no recorded benchmarks, so none were compared; record a baseline with -Dshopify.performance.updateBaseline=true and commit it.";
+
+	private static final String ALLOCATION_RESULT = "\u00b7gc.alloc.rate.norm";
+	private static final String BENCHMARK_PACKAGE = PerformanceRegressionGate.class.getPackage().getName() + ".";
+	private static final String[] BENCHMARKS = { ShopifyModelAllocationBenchmark.class.getSimpleName(),
+			ProductCreationSerializationBenchmark.class.getSimpleName() + ".streamed",
+			RequestBuilderBenchmark.class.getSimpleName(), SimulatorCallBenchmark.class.getSimpleName() };
+	private static final String BASELINE_COMMENT = "Throughput in ops/s and allocation in bytes/op per benchmark, recorded by PerformanceRegressionGate";
+
+	public static void main(final String[] args) throws IOException, RunnerException {
+		final Path baselinePath = Paths.get((args.length > 0) ? args[0] : DEFAULT_BASELINE);
+		final double throughputTolerance = Double.parseDouble(System.getProperty(
+				"shopify.performance.throughputTolerance", String.valueOf(DEFAULT_THROUGHPUT_TOLERANCE)));
+		final double allocationTolerance = Double.parseDouble(System.getProperty(
+				"shopify.performance.allocationTolerance", String.valueOf(DEFAULT_ALLOCATION_TOLERANCE)));
+
+		if (Boolean.getBoolean("shopify.performance.updateBaseline")) {
+			try (final OutputStream outputStream = Files.newOutputStream(baselinePath)) {
+				measure().store(outputStream, BASELINE_COMMENT);
+			}
+			System.out.println("Recorded baseline in " + baselinePath);
+			return;
+		}
+
+		final Properties baseline = new Properties();
+		if (Files.exists(baselinePath)) {
+			try (final InputStream inputStream = Files.newInputStream(baselinePath)) {
+				baseline.load(inputStream);
+			}
+		}
+		final Properties measurements = measure();
+		final List<String> warnings = new ArrayList<>();
+		final String baselineWarning = checkBaseline(baseline, baselinePath);
+		if (baselineWarning != null) {
+			warnings.add(baselineWarning);
+		}
+		final List<String> regressions = compare(baseline, measurements, throughputTolerance, allocationTolerance,
+				warnings);
+		warnings.forEach(System.out::println);
+		regressions.forEach(System.err::println);
+		if (!regressions.isEmpty()) {
+			System.exit(1);
+		}
+		System.out.println("No performance regressions against " + baselinePath);
+	}
+
+	/**
+	 * @return a warning when the baseline has no entries to compare with, or
+	 *         null when it has.
+	 */
+	static String checkBaseline(final Properties baseline, final Path baselinePath) {
+		return baseline.isEmpty() ? String.format(EMPTY_BASELINE_MESSAGE, baselinePath) : null;
+	}
+
+	/**
+	 * @param warnings
+	 *            receives a message for each measured benchmark that has no
+	 *            baseline.
+	 * @return a message for each regression beyond the tolerances.
+	 */
+	static List<String> compare(final Properties baseline, final Properties measurements,
+			final double throughputTolerance, final double allocationTolerance, final List<String> warnings) {
+		final List<String> regressions = new ArrayList<>();
+		for (final String key : new TreeSet<>(measurements.stringPropertyNames())) {
+			final double measured = Double.parseDouble(measurements.getProperty(key));
+			final String baselineValue = baseline.getProperty(key);
+			if (baselineValue == null) {
+				warnings.add(String.format(MISSING_BASELINE_MESSAGE, key));
+				continue;
+			}
+			final double expected = Double.parseDouble(baselineValue);
+			if (key.endsWith(THROUGHPUT_SUFFIX)) {
+				if (measured < (expected * (1 - throughputTolerance))) {
+					regressions.add(String.format(THROUGHPUT_REGRESSION_MESSAGE, toBenchmark(key), expected, measured,
+							throughputTolerance * 100));
+				}
+			} else if (measured > ((expected * (1 + allocationTolerance)) + ALLOCATION_SLACK_IN_BYTES)) {
+				regressions.add(String.format(ALLOCATION_REGRESSION_MESSAGE, toBenchmark(key), expected, measured,
+						allocationTolerance * 100));
+			}
+		}
+		return regressions;
+	}
+
+	private static Properties measure() throws RunnerException {
+		final ChainedOptionsBuilder optionsBuilder = new OptionsBuilder().mode(Mode.Throughput)
+				.timeUnit(TimeUnit.SECONDS).warmupIterations(5).warmupTime(TimeValue.seconds(1))
+				.measurementIterations(5).measurementTime(TimeValue.seconds(1)).forks(1).shouldFailOnError(true)
+				.addProfiler(GCProfiler.class);
+		for (final String benchmark : BENCHMARKS) {
+			optionsBuilder.include(BENCHMARK_PACKAGE + benchmark);
+		}
+		final Collection<RunResult> runResults = new Runner(optionsBuilder.build()).run();
+
+		final Properties measurements = new Properties();
+		for (final RunResult runResult : runResults) {
+			final String benchmark = runResult.getParams().getBenchmark().substring(BENCHMARK_PACKAGE.length());
+			measurements.setProperty(benchmark + THROUGHPUT_SUFFIX,
+					String.valueOf(runResult.getPrimaryResult().getScore()));
+			final Map<String, Result> secondaryResults = runResult.getSecondaryResults();
+			final Result allocationResult = secondaryResults.get(ALLOCATION_RESULT);
+			if (allocationResult != null) {
+				measurements.setProperty(benchmark + ALLOCATION_SUFFIX, String.valueOf(allocationResult.getScore()));
+			}
+		}
+		return measurements;
+	}
+
+	private static String toBenchmark(final String key) {
+		return key.substring(0, key.lastIndexOf('.'));
+	}
+
+}
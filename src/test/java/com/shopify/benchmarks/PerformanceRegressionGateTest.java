@@ -0,0 +1,95 @@
+package com.shopify.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PerformanceRegressionGateTest {
+
+	private static final String THROUGHPUT_KEY = "RequestBuilderBenchmark.buildVariantUpdateRequest.throughput";
+	private static final String ALLOCATION_KEY = "RequestBuilderBenchmark.buildVariantUpdateRequest.allocation";
+
+	private final Properties baseline = new Properties();
+	private final Properties measurements = new Properties();
+	private final List<String> warnings = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		baseline.setProperty(THROUGHPUT_KEY, "1000000");
+		baseline.setProperty(ALLOCATION_KEY, "1000");
+	}
+
+	@Test
+	public void givenEmptyBaselineWhenCheckingThenReturnWarning() {
+		final Path baselinePath = Paths.get(PerformanceRegressionGate.DEFAULT_BASELINE);
+
+		assertEquals(String.format(PerformanceRegressionGate.EMPTY_BASELINE_MESSAGE, baselinePath),
+				PerformanceRegressionGate.checkBaseline(new Properties(), baselinePath));
+		assertNull(PerformanceRegressionGate.checkBaseline(baseline, baselinePath));
+	}
+
+	@Test
+	public void givenResultsWithinToleranceWhenComparingThenReturnNoRegressions() {
+		measurements.setProperty(THROUGHPUT_KEY, "900000");
+		measurements.setProperty(ALLOCATION_KEY, "1150");
+
+		assertTrue(compare().isEmpty());
+		assertTrue(warnings.isEmpty());
+	}
+
+	@Test
+	public void givenThroughputDropBeyondToleranceWhenComparingThenReturnRegression() {
+		measurements.setProperty(THROUGHPUT_KEY, "800000");
+		measurements.setProperty(ALLOCATION_KEY, "1000");
+
+		final List<String> regressions = compare();
+
+		assertEquals(1, regressions.size());
+		assertEquals(String.format(PerformanceRegressionGate.THROUGHPUT_REGRESSION_MESSAGE,
+				"RequestBuilderBenchmark.buildVariantUpdateRequest", 1000000.0, 800000.0, 15.0), regressions.get(0));
+	}
+
+	@Test
+	public void givenAllocationRiseBeyondToleranceAndSlackWhenComparingThenReturnRegression() {
+		measurements.setProperty(THROUGHPUT_KEY, "1200000");
+		measurements.setProperty(ALLOCATION_KEY, "1200");
+
+		final List<String> regressions = compare();
+
+		assertEquals(1, regressions.size());
+		assertTrue(regressions.get(0).contains("allocation rose from 1000.0 to 1200.0"));
+	}
+
+	@Test
+	public void givenSmallAllocationRiseWithinSlackWhenComparingThenReturnNoRegressions() {
+		baseline.setProperty(ALLOCATION_KEY, "24");
+		measurements.setProperty(ALLOCATION_KEY, "80");
+
+		assertTrue(compare().isEmpty());
+	}
+
+	@Test
+	public void givenBenchmarkWithoutBaselineWhenComparingThenWarnWithoutRegression() {
+		measurements.setProperty("SimulatorCallBenchmark.getProduct.throughput", "5000");
+
+		assertTrue(compare().isEmpty());
+		assertEquals(1, warnings.size());
+		assertTrue(warnings.get(0).startsWith("SimulatorCallBenchmark.getProduct.throughput has no baseline"));
+	}
+
+	private List<String> compare() {
+		return PerformanceRegressionGate.compare(baseline, measurements,
+				PerformanceRegressionGate.DEFAULT_THROUGHPUT_TOLERANCE,
+				PerformanceRegressionGate.DEFAULT_ALLOCATION_TOLERANCE, warnings);
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.shopify.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopify.mappers.ShopifyJsonStreamingOutput;
+import com.shopify.mappers.ShopifySdkObjectMapper;
+import com.shopify.model.Image;
+import com.shopify.model.ImageAltTextCreationRequest;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyProductRoot;
+import com.shopify.model.ShopifyVariant;
+
+/**
+ * Compares buffering a product creation payload of 100 variants and 20 images
+ * before sending it, as the client did for the default entity processing, to
+ * streaming it to the connection with {@link ShopifyJsonStreamingOutput}. The
+ * connection is a stream that discards what it receives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductCreationSerializationBenchmark {
+
+	private static final int VARIANT_COUNT = 100;
+	private static final int IMAGE_COUNT = 20;
+	private static final OutputStream CONNECTION = new OutputStream() {
+
+		@Override
+		public void write(final int b) {
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+		}
+
+	};
+
+	private final ObjectMapper mapper = ShopifySdkObjectMapper.buildMapper();
+	private ShopifyProductRoot shopifyProductRoot;
+
+	@Setup
+	public void setUp() {
+		final ShopifyProduct shopifyProduct = new ShopifyProduct();
+		shopifyProduct.setTitle("Organic Cotton Hoodie");
+		shopifyProduct.setBodyHtml("<p>Soft, warm and made from organic cotton.</p>");
+		shopifyProduct.setVendor("Acme Apparel");
+		for (int index = 0; index < VARIANT_COUNT; index++) {
+			final ShopifyVariant shopifyVariant = new ShopifyVariant();
+			shopifyVariant.setTitle("Size " + index);
+			shopifyVariant.setSku("HOODIE-" + index);
+			shopifyVariant.setBarcode(String.valueOf(4006381333931L + index));
+			shopifyVariant.setPrice(BigDecimal.valueOf(4999, 2));
+			shopifyVariant.setOption1("Size " + index);
+			shopifyProduct.getVariants().add(shopifyVariant);
+		}
+		for (int index = 0; index < IMAGE_COUNT; index++) {
+			final Image image = new Image();
+			image.setPosition(index + 1);
+			image.setSource("https://cdn.example.com/images/hoodie-" + index + ".jpg");
+			image.setMetafields(ImageAltTextCreationRequest.newBuilder()
+					.withImageAltText("Organic Cotton Hoodie " + index).build());
+			shopifyProduct.getImages().add(image);
+		}
+		shopifyProductRoot = new ShopifyProductRoot();
+		shopifyProductRoot.setProduct(shopifyProduct);
+	}
+
+	@Benchmark
+	public void buffered() throws IOException {
+		final byte[] entity = mapper.writeValueAsBytes(shopifyProductRoot);
+		CONNECTION.write(entity, 0, entity.length);
+	}
+
+	@Benchmark
+	public void streamed() throws IOException {
+		new ShopifyJsonStreamingOutput(mapper, shopifyProductRoot).write(CONNECTION);
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ProductCreationSerializationBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.shopify.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.shopify.model.ShopifyProductCreationRequest;
+import com.shopify.model.ShopifyVariant;
+import com.shopify.model.ShopifyVariantCreationRequest;
+import com.shopify.model.ShopifyVariantUpdateRequest;
+
+/**
+ * Measures the step builders that turn caller input into request models: a
+ * product of 20 variants and 5 images, and a variant price update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBuilderBenchmark {
+
+	private static final int VARIANT_COUNT = 20;
+	private static final int IMAGE_COUNT = 5;
+	private static final Set<String> TAGS = new HashSet<>(Arrays.asList("organic", "hoodie", "winter"));
+	private static final List<String> OPTION_NAMES = Arrays.asList("Size", "Color");
+
+	private final List<String> imageSources = new ArrayList<>(IMAGE_COUNT);
+	private ShopifyVariant shopifyVariant;
+
+	@Setup
+	public void setUp() {
+		for (int index = 0; index < IMAGE_COUNT; index++) {
+			imageSources.add("https://cdn.example.com/images/hoodie-" + index + ".jpg");
+		}
+		shopifyVariant = new ShopifyVariant();
+		shopifyVariant.setId("1");
+		shopifyVariant.setProductId("2");
+		shopifyVariant.setSku("HOODIE-1");
+		shopifyVariant.setPrice(BigDecimal.valueOf(4999, 2));
+		shopifyVariant.setOption1("M");
+		shopifyVariant.setInventoryItemId("3");
+	}
+
+	@Benchmark
+	public ShopifyProductCreationRequest buildProductCreationRequest() {
+		final List<ShopifyVariantCreationRequest> shopifyVariantCreationRequests = new ArrayList<>(VARIANT_COUNT);
+		for (int index = 0; index < VARIANT_COUNT; index++) {
+			shopifyVariantCreationRequests.add(ShopifyVariantCreationRequest.newBuilder()
+					.withPrice(BigDecimal.valueOf(4999, 2)).noCompareAtPrice().withSku("HOODIE-" + index)
+					.withBarcode(String.valueOf(4006381333931L + index)).withWeight(BigDecimal.valueOf(450))
+					.withAvailable(10).withFirstOption("Size " + index).withSecondOption("Black").noThirdOption()
+					.withImageSource(imageSources.get(index % IMAGE_COUNT)).withDefaultInventoryManagement()
+					.withDefaultInventoryPolicy().withDefaultFulfillmentService().withRequiresShippingDefault()
+					.withTaxableDefault().build());
+		}
+		return ShopifyProductCreationRequest.newBuilder().withTitle("Organic Cotton Hoodie")
+				.withMetafieldsGlobalTitleTag("Organic Cotton Hoodie").withProductType("Hoodie")
+				.withBodyHtml("<p>Soft, warm and made from organic cotton.</p>")
+				.withMetafieldsGlobalDescriptionTag("Organic cotton hoodie").withVendor("Acme Apparel").withTags(TAGS)
+				.withSortedOptionNames(OPTION_NAMES).withImageSources(imageSources)
+				.withVariantCreationRequests(shopifyVariantCreationRequests).withPublished(true).build();
+	}
+
+	@Benchmark
+	public ShopifyVariantUpdateRequest buildVariantUpdateRequest() {
+		return ShopifyVariantUpdateRequest.newBuilder().withCurrentShopifyVariant(shopifyVariant)
+				.withPrice(BigDecimal.valueOf(3999, 2)).withSameCompareAtPrice().withSameSku().withSameBarcode()
+				.withSameWeight().withAvailable(10).withSameFirstOption().withSameSecondOption().withSameThirdOption()
+				.noImage().withSameInventoryManagement().withSameInventoryPolicy().withSameFulfillmentService()
+				.withSameRequiresShipping().withSameTaxable().withSameInventoryItemId().build();
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RequestBuilderBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
@@ -0,0 +1,207 @@
+package com.shopify.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopify.mappers.ShopifySdkObjectMapper;
+import com.shopify.model.Image;
+import com.shopify.model.Option;
+import com.shopify.model.ShopifyAddress;
+import com.shopify.model.ShopifyCustomer;
+import com.shopify.model.ShopifyLineItem;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyOrdersRoot;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyProductsRoot;
+import com.shopify.model.ShopifyVariant;
+
+/**
+ * Measures time and allocation for deserializing full pages of orders and
+ * products. Run with the GC profiler (see {@link #main(String[])}) and compare
+ * <code>gc.alloc.rate.norm</code> to see the bytes allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShopifyModelAllocationBenchmark {
+
+	static final int PAGE_SIZE = 250;
+	private static final int LINE_ITEMS_PER_ORDER = 3;
+	private static final int VARIANTS_PER_PRODUCT = 4;
+
+	private ObjectMapper objectMapper;
+	private byte[] ordersPage;
+	private byte[] productsPage;
+
+	@Setup
+	public void setUp() throws Exception {
+		objectMapper = ShopifySdkObjectMapper.buildMapper();
+
+		final ShopifyOrdersRoot shopifyOrdersRoot = new ShopifyOrdersRoot();
+		shopifyOrdersRoot.setOrders(buildOrders(PAGE_SIZE));
+		ordersPage = objectMapper.writeValueAsBytes(shopifyOrdersRoot);
+
+		final ShopifyProductsRoot shopifyProductsRoot = new ShopifyProductsRoot();
+		shopifyProductsRoot.setProducts(buildProducts(PAGE_SIZE));
+		productsPage = objectMapper.writeValueAsBytes(shopifyProductsRoot);
+	}
+
+	@Benchmark
+	public ShopifyOrdersRoot deserializeOrdersPage() throws Exception {
+		return objectMapper.readValue(ordersPage, ShopifyOrdersRoot.class);
+	}
+
+	@Benchmark
+	public ShopifyProductsRoot deserializeProductsPage() throws Exception {
+		return objectMapper.readValue(productsPage, ShopifyProductsRoot.class);
+	}
+
+	@Benchmark
+	public ShopifyOrder constructEmptyOrder() {
+		return new ShopifyOrder();
+	}
+
+	@Benchmark
+	public ShopifyProduct constructEmptyProduct() {
+		return new ShopifyProduct();
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ShopifyModelAllocationBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+	static List<ShopifyOrder> buildOrders(final int count) {
+		final List<ShopifyOrder> shopifyOrders = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final ShopifyOrder shopifyOrder = new ShopifyOrder();
+			shopifyOrder.setId(String.valueOf(450789469L + i));
+			shopifyOrder.setEmail("customer" + i + "@example.com");
+			shopifyOrder.setCreatedAt(new DateTime(1539880464000L + i));
+			shopifyOrder.setUpdatedAt(new DateTime(1540232715000L + i));
+			shopifyOrder.setProcessedAt(new DateTime(1539880343000L + i));
+			shopifyOrder.setName("#" + (1000 + i));
+			shopifyOrder.setFinancialStatus("paid");
+			shopifyOrder.setFulfillmentStatus("fulfilled");
+			shopifyOrder.setSourceName("web");
+			shopifyOrder.setProcessingMethod("direct");
+			shopifyOrder.setTotalPrice(new BigDecimal("135.00"));
+			shopifyOrder.setSubtotalPrice(new BigDecimal("120.00"));
+			shopifyOrder.setTotalTax(new BigDecimal("15.00"));
+
+			final List<ShopifyLineItem> shopifyLineItems = new ArrayList<>(LINE_ITEMS_PER_ORDER);
+			for (int j = 0; j < LINE_ITEMS_PER_ORDER; j++) {
+				final ShopifyLineItem shopifyLineItem = new ShopifyLineItem();
+				shopifyLineItem.setId(String.valueOf(866550311L + (i * LINE_ITEMS_PER_ORDER) + j));
+				shopifyLineItem.setVariantId(String.valueOf(808950810L + j));
+				shopifyLineItem.setTitle("Cool Shoes " + j);
+				shopifyLineItem.setQuantity(1);
+				shopifyLineItem.setPrice(new BigDecimal("40.00"));
+				shopifyLineItem.setSku("SKU-" + j);
+				shopifyLineItem.setVendor("Some Vendor");
+				shopifyLineItem.setFulfillmentService("manual");
+				shopifyLineItems.add(shopifyLineItem);
+			}
+			shopifyOrder.setLineItems(shopifyLineItems);
+			shopifyOrder.setBillingAddress(buildAddress());
+			shopifyOrder.setShippingAddress(buildAddress());
+
+			final ShopifyCustomer shopifyCustomer = new ShopifyCustomer();
+			shopifyCustomer.setId(String.valueOf(207119551L + i));
+			shopifyCustomer.setEmail(shopifyOrder.getEmail());
+			shopifyOrder.setCustomer(shopifyCustomer);
+
+			shopifyOrder.setFulfillments(new ArrayList<>());
+			shopifyOrder.setShippingLines(new ArrayList<>());
+			shopifyOrder.setTaxLines(new ArrayList<>());
+			shopifyOrder.setNoteAttributes(new ArrayList<>());
+			shopifyOrder.setRefunds(new ArrayList<>());
+			shopifyOrders.add(shopifyOrder);
+		}
+		return shopifyOrders;
+	}
+
+	static List<ShopifyProduct> buildProducts(final int count) {
+		final List<ShopifyProduct> shopifyProducts = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final ShopifyProduct shopifyProduct = new ShopifyProduct();
+			shopifyProduct.setId(String.valueOf(632910392L + i));
+			shopifyProduct.setTitle("Some Product " + i);
+			shopifyProduct.setVendor("Some Vendor");
+			shopifyProduct.setProductType("Shoes");
+			shopifyProduct.setBodyHtml("<p>It&#39;s the small iPod with a big idea.</p>");
+			shopifyProduct.setTags(new HashSet<>(Arrays.asList("Emotive", "Flash Memory", "MP3", "Music")));
+
+			final Option option = new Option();
+			option.setName("Size");
+			option.setPosition(1);
+			option.setValues(Arrays.asList("S", "M", "L", "XL"));
+			shopifyProduct.setOptions(Collections.singletonList(option));
+
+			final Image image = new Image();
+			image.setId(String.valueOf(850703190L + i));
+			image.setPosition(1);
+			image.setSource("https://cdn.shopify.com/s/files/1/0006/9093/3842/products/" + i + ".jpg");
+			shopifyProduct.setImages(Collections.singletonList(image));
+
+			final List<ShopifyVariant> shopifyVariants = new ArrayList<>(VARIANTS_PER_PRODUCT);
+			for (int j = 0; j < VARIANTS_PER_PRODUCT; j++) {
+				final ShopifyVariant shopifyVariant = new ShopifyVariant();
+				final long variantId = 808950810L + (i * VARIANTS_PER_PRODUCT) + j;
+				shopifyVariant.setId(String.valueOf(variantId));
+				shopifyVariant.setProductId(shopifyProduct.getId());
+				shopifyVariant.setTitle(option.getValues().get(j));
+				shopifyVariant.setSku("SKU-" + variantId);
+				shopifyVariant.setBarcode(String.valueOf(1234567890000L + variantId));
+				shopifyVariant.setPrice(new BigDecimal("199.00"));
+				shopifyVariant.setPosition(j + 1);
+				shopifyVariant.setOption1(option.getValues().get(j));
+				shopifyVariant.setInventoryManagement("shopify");
+				shopifyVariant.setFulfillmentService("manual");
+				shopifyVariant.setInventoryItemId(String.valueOf(39072856L + variantId));
+				shopifyVariants.add(shopifyVariant);
+			}
+			shopifyProduct.setVariants(shopifyVariants);
+			shopifyProducts.add(shopifyProduct);
+		}
+		return shopifyProducts;
+	}
+
+	private static ShopifyAddress buildAddress() {
+		final ShopifyAddress shopifyAddress = new ShopifyAddress();
+		shopifyAddress.setFirstName("Bob");
+		shopifyAddress.setLastname("Norman");
+		shopifyAddress.setAddress1("Chestnut Street 92");
+		shopifyAddress.setCity("Louisville");
+		shopifyAddress.setProvince("Kentucky");
+		shopifyAddress.setCountry("United States");
+		shopifyAddress.setZip("40202");
+		return shopifyAddress;
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.shopify.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyProducts;
+import com.shopify.model.ShopifyVariant;
+
+/**
+ * Measures building the SKU index of {@link ShopifyProducts} and compares an
+ * indexed SKU lookup to the linear scan over {@link ShopifyProducts#getVariants()}
+ * that callers had to do before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShopifyProductsIndexBenchmark {
+
+	@Param({ "1000", "25000" })
+	private int productCount;
+
+	private List<ShopifyProduct> products;
+	private ShopifyProducts indexedProducts;
+	private String lastSku;
+
+	@Setup
+	public void setUp() {
+		products = ShopifyModelAllocationBenchmark.buildProducts(productCount);
+		indexedProducts = ShopifyProducts.withNumericIds(products);
+		final List<ShopifyVariant> lastVariants = products.get(productCount - 1).getVariants();
+		lastSku = lastVariants.get(lastVariants.size() - 1).getSku();
+		indexedProducts.getVariantBySku(lastSku);
+	}
+
+	@Benchmark
+	public ShopifyVariant buildSkuIndex() {
+		return ShopifyProducts.withNumericIds(products).getVariantBySku(lastSku);
+	}
+
+	@Benchmark
+	public ShopifyVariant lookupSkuIndexed() {
+		return indexedProducts.getVariantBySku(lastSku);
+	}
+
+	@Benchmark
+	public ShopifyVariant lookupSkuLinearScan() {
+		for (final ShopifyVariant shopifyVariant : indexedProducts.getVariants()) {
+			if (lastSku.equals(shopifyVariant.getSku())) {
+				return shopifyVariant;
+			}
+		}
+		return null;
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ShopifyProductsIndexBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
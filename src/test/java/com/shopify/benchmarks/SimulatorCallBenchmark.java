@@ -0,0 +1,89 @@
+package com.shopify.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.shopify.ShopifySdk;
+import com.shopify.model.ShopifyInventoryLevel;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyVariant;
+import com.shopify.simulator.ShopifySimulator;
+
+/**
+ * Measures whole SDK calls over a loopback connection to a
+ * {@link ShopifySimulator} without rate limits or added latency, so the time
+ * is spent in the SDK, the HTTP client and the local server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulatorCallBenchmark {
+
+	private static final int ORDERS_PAGE_SIZE = 50;
+
+	private ShopifySimulator shopifySimulator;
+	private ShopifySdk shopifySdk;
+	private String productId;
+	private String inventoryItemId;
+	private String locationId;
+
+	@Setup
+	public void setUp() throws IOException {
+		shopifySimulator = ShopifySimulator.newBuilder().withoutRateLimit().withProducts(100, 3).withOrders(500)
+				.start();
+		shopifySdk = ShopifySdk.newBuilder().withApiUrl(shopifySimulator.getApiUrl())
+				.withAccessToken(ShopifySimulator.ACCESS_TOKEN).build();
+		final ShopifyProduct shopifyProduct = shopifySdk.getProducts(1, 1).get(0);
+		final ShopifyVariant shopifyVariant = shopifyProduct.getVariants().get(0);
+		productId = shopifyProduct.getId();
+		inventoryItemId = shopifyVariant.getInventoryItemId();
+		locationId = shopifySdk.getLocations().get(0).getId();
+	}
+
+	@TearDown
+	public void tearDown() {
+		shopifySimulator.close();
+	}
+
+	@Benchmark
+	public ShopifyProduct getProduct() {
+		return shopifySdk.getProduct(productId);
+	}
+
+	@Benchmark
+	public List<ShopifyOrder> getOrdersPage() {
+		return shopifySdk.getOrders(1, ORDERS_PAGE_SIZE);
+	}
+
+	@Benchmark
+	public ShopifyInventoryLevel updateInventoryLevel() {
+		return shopifySdk.updateInventoryLevel(inventoryItemId, locationId, 10);
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SimulatorCallBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
@@ -0,0 +1,311 @@
+package com.shopify.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import com.shopify.ShopifySdk;
+import com.shopify.model.ShopifyLocation;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyVariant;
+import com.shopify.model.ShopifyVariantUpdateRequest;
+import com.shopify.ratelimit.ShopifyRateLimiter;
+import com.shopify.simulator.LatencyDistribution;
+import com.shopify.simulator.ShopifySimulator;
+
+/**
+ * Drives {@link ShopifySdk} through whole workloads against a
+ * {@link ShopifySimulator}, where the micro benchmarks only time one step of a
+ * call:
+ * <ul>
+ * <li>a full catalog pull with {@link ShopifySdk#getProducts()}</li>
+ * <li>an export of 10,000 orders over a creation date range</li>
+ * <li>50,000 inventory level updates from 8 threads</li>
+ * <li>variant updates in bursts larger than the rate limit bucket</li>
+ * </ul>
+ * Each workload reports calls and requests per second, p50 and p99 call
+ * latency, the retries the simulator caused with 429, 423 and 5xx responses,
+ * and the bytes allocated per call by the calling thread.
+ *
+ * The simulator leaks 200 calls per second from a bucket of 80 so runs finish
+ * in minutes while bursts still hit the limit. Set
+ * <code>-Dshopify.benchmark.scale=0.1</code> to shrink every workload, and
+ * <code>-Dshopify.benchmark.leakRate</code> to change the rate limit. The SDK
+ * is told the simulator's leak rate, since it differs from Shopify's.
+ */
+public class SimulatorThroughputBenchmark {
+
+	private static final double SCALE = Double.parseDouble(System.getProperty("shopify.benchmark.scale", "1"));
+	private static final double LEAK_RATE_PER_SECOND = Double
+			.parseDouble(System.getProperty("shopify.benchmark.leakRate", "200"));
+	private static final int BUCKET_SIZE = 80;
+	private static final int CATALOG_PRODUCTS = scale(10_000);
+	private static final int CATALOG_PULLS = 3;
+	private static final int EXPORT_ORDERS = scale(10_000);
+	private static final int EXPORT_PAGE_SIZE = 250;
+	private static final int INVENTORY_UPDATES = scale(50_000);
+	private static final int INVENTORY_THREADS = 8;
+	private static final int VARIANT_BURSTS = Math.max(1, scale(20));
+	private static final int VARIANT_BURST_SIZE = 200;
+	private static final int VARIANT_THREADS = 50;
+	private static final long VARIANT_BURST_PAUSE_MILLISECONDS = 2_000;
+	private static final String RESULT_HEADER_FORMAT = "%-24s %8s %9s %10s %10s %9s %9s %8s %8s %12s%n";
+	private static final String RESULT_FORMAT = "%-24s %8d %9d %10.1f %10.1f %9.2f %9.2f %8d %8d %12d%n";
+
+	private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	public static void main(final String[] args) throws Exception {
+		final List<Result> results = new ArrayList<>();
+		results.add(run("catalog pull", simulator().withProducts(CATALOG_PRODUCTS, 3).withOrders(0),
+				SimulatorThroughputBenchmark::pullCatalog));
+		results.add(run("order export", simulator().withProducts(500, 3).withOrders(EXPORT_ORDERS),
+				SimulatorThroughputBenchmark::exportOrders));
+		results.add(run("inventory updates", simulator().withProducts(1_000, 3).withOrders(0),
+				SimulatorThroughputBenchmark::updateInventoryLevels));
+		results.add(run("bursty variant updates", simulator().withProducts(1_000, 3).withOrders(0),
+				SimulatorThroughputBenchmark::updateVariantsInBursts));
+
+		System.out.printf(RESULT_HEADER_FORMAT, "workload", "calls", "requests", "calls/s", "requests/s", "p50 ms",
+				"p99 ms", "retries", "failures", "bytes/call");
+		results.forEach(Result::print);
+	}
+
+	private static void pullCatalog(final ShopifySdk shopifySdk, final Recorder recorder) throws Exception {
+		for (int pull = 0; pull < CATALOG_PULLS; pull++) {
+			recorder.record(shopifySdk::getProducts);
+		}
+	}
+
+	private static void exportOrders(final ShopifySdk shopifySdk, final Recorder recorder) throws Exception {
+		final DateTime maximumCreationDate = DateTime.now(DateTimeZone.UTC);
+		final DateTime minimumCreationDate = maximumCreationDate.minusDays(91);
+		List<ShopifyOrder> shopifyOrders;
+		int page = 1;
+		do {
+			final int currentPage = page++;
+			shopifyOrders = recorder.record(() -> shopifySdk.getOrders(minimumCreationDate, maximumCreationDate,
+					currentPage, EXPORT_PAGE_SIZE));
+		} while (!shopifyOrders.isEmpty());
+	}
+
+	private static void updateInventoryLevels(final ShopifySdk shopifySdk, final Recorder recorder)
+			throws Exception {
+		final List<ShopifyVariant> shopifyVariants = getVariants(shopifySdk);
+		final List<ShopifyLocation> shopifyLocations = shopifySdk.getLocations();
+		recorder.reset();
+
+		final List<Callable<Object>> updates = new ArrayList<>(INVENTORY_UPDATES);
+		for (int index = 0; index < INVENTORY_UPDATES; index++) {
+			final String inventoryItemId = shopifyVariants.get(index % shopifyVariants.size()).getInventoryItemId();
+			final String locationId = shopifyLocations.get(index % shopifyLocations.size()).getId();
+			final long quantity = index % 100;
+			updates.add(() -> shopifySdk.updateInventoryLevel(inventoryItemId, locationId, quantity));
+		}
+		recorder.recordConcurrently(INVENTORY_THREADS, updates);
+	}
+
+	private static void updateVariantsInBursts(final ShopifySdk shopifySdk, final Recorder recorder)
+			throws Exception {
+		final List<ShopifyVariant> shopifyVariants = getVariants(shopifySdk);
+		recorder.reset();
+
+		for (int burst = 0; burst < VARIANT_BURSTS; burst++) {
+			final List<Callable<Object>> updates = new ArrayList<>(VARIANT_BURST_SIZE);
+			for (int index = 0; index < VARIANT_BURST_SIZE; index++) {
+				final ShopifyVariant shopifyVariant = shopifyVariants
+						.get(((burst * VARIANT_BURST_SIZE) + index) % shopifyVariants.size());
+				final BigDecimal price = BigDecimal.valueOf(1000 + burst, 2);
+				updates.add(() -> shopifySdk.updateVariant(buildVariantUpdateRequest(shopifyVariant, price)));
+			}
+			recorder.recordConcurrently(VARIANT_THREADS, updates);
+			TimeUnit.MILLISECONDS.sleep(VARIANT_BURST_PAUSE_MILLISECONDS);
+		}
+	}
+
+	private static ShopifyVariantUpdateRequest buildVariantUpdateRequest(final ShopifyVariant shopifyVariant,
+			final BigDecimal price) {
+		return ShopifyVariantUpdateRequest.newBuilder().withCurrentShopifyVariant(shopifyVariant).withPrice(price)
+				.withSameCompareAtPrice().withSameSku().withSameBarcode().withSameWeight().withAvailable(10)
+				.withSameFirstOption().withSameSecondOption().withSameThirdOption().noImage()
+				.withSameInventoryManagement().withSameInventoryPolicy().withSameFulfillmentService()
+				.withSameRequiresShipping().withSameTaxable().withSameInventoryItemId().build();
+	}
+
+	private static List<ShopifyVariant> getVariants(final ShopifySdk shopifySdk) {
+		final List<ShopifyVariant> shopifyVariants = new ArrayList<>();
+		for (final ShopifyProduct shopifyProduct : shopifySdk.getProducts(1, 250)) {
+			shopifyVariants.addAll(shopifyProduct.getVariants());
+		}
+		return shopifyVariants;
+	}
+
+	private static Result run(final String name, final ShopifySimulator.Builder simulatorBuilder,
+			final Workload workload) throws Exception {
+		try (final ShopifySimulator shopifySimulator = simulatorBuilder.start()) {
+			final ShopifySdk shopifySdk = ShopifySdk.newBuilder().withApiUrl(shopifySimulator.getApiUrl())
+					.withAccessToken(ShopifySimulator.ACCESS_TOKEN)
+					.withMinimumRequestRetryRandomDelay(1, TimeUnit.SECONDS)
+					.withMaximumRequestRetryRandomDelay(2, TimeUnit.SECONDS)
+					.withMaximumRequestRetryTimeout(5, TimeUnit.MINUTES)
+					.withRateLimiter(new ShopifyRateLimiter(LEAK_RATE_PER_SECOND)).build();
+			shopifySdk.getProductCount();
+
+			final Recorder recorder = new Recorder(shopifySimulator);
+			recorder.reset();
+			workload.run(shopifySdk, recorder);
+			return recorder.toResult(name);
+		}
+	}
+
+	private static ShopifySimulator.Builder simulator() {
+		return ShopifySimulator.newBuilder().withRateLimit(BUCKET_SIZE, LEAK_RATE_PER_SECOND)
+				.withLatency(LatencyDistribution.logNormal(25, 0.4)).withCustomers(0).withLocations(4)
+				.withHandlerThreads(64);
+	}
+
+	private static int scale(final int count) {
+		return (int) Math.round(count * SCALE);
+	}
+
+	@FunctionalInterface
+	private interface Workload {
+
+		void run(ShopifySdk shopifySdk, Recorder recorder) throws Exception;
+
+	}
+
+	/**
+	 * Times calls and counts what they allocate on the calling thread. The
+	 * SDK makes its requests on the calling thread, so this covers building
+	 * the request, writing it, and reading and binding the response.
+	 */
+	private static class Recorder {
+
+		private final ShopifySimulator shopifySimulator;
+		private final ConcurrentLinkedQueue<Long> latenciesInNanoseconds = new ConcurrentLinkedQueue<>();
+		private final LongAdder allocatedBytes = new LongAdder();
+		private final AtomicLong failures = new AtomicLong();
+		private long startNanoseconds;
+
+		Recorder(final ShopifySimulator shopifySimulator) {
+			this.shopifySimulator = shopifySimulator;
+		}
+
+		/**
+		 * Discards calls made so far, such as those that set up the workload.
+		 */
+		void reset() {
+			latenciesInNanoseconds.clear();
+			allocatedBytes.reset();
+			failures.set(0);
+			shopifySimulator.resetStatistics();
+			startNanoseconds = System.nanoTime();
+		}
+
+		<T> T record(final Callable<T> call) throws Exception {
+			final long threadId = Thread.currentThread().getId();
+			final long startAllocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+			final long callStartNanoseconds = System.nanoTime();
+			try {
+				return call.call();
+			} catch (final RuntimeException e) {
+				failures.incrementAndGet();
+				throw e;
+			} finally {
+				latenciesInNanoseconds.add(System.nanoTime() - callStartNanoseconds);
+				allocatedBytes.add(THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - startAllocatedBytes);
+			}
+		}
+
+		/**
+		 * Runs the calls on a pool of threads and waits for all of them. Failed
+		 * calls are counted rather than stopping the workload.
+		 */
+		void recordConcurrently(final int threads, final List<? extends Callable<?>> calls) throws Exception {
+			final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+			try {
+				final List<Future<?>> futures = new ArrayList<>(calls.size());
+				for (final Callable<?> call : calls) {
+					futures.add(executorService.submit(() -> {
+						try {
+							return record(call);
+						} catch (final RuntimeException e) {
+							return null;
+						}
+					}));
+				}
+				for (final Future<?> future : futures) {
+					future.get();
+				}
+			} finally {
+				executorService.shutdownNow();
+			}
+		}
+
+		Result toResult(final String name) {
+			final long elapsedNanoseconds = System.nanoTime() - startNanoseconds;
+			final long[] latencies = latenciesInNanoseconds.stream().mapToLong(Long::longValue).toArray();
+			Arrays.sort(latencies);
+			final long retries = shopifySimulator.getRateLimitedCount() + shopifySimulator.getServerErrorCount()
+					+ shopifySimulator.getLockedCount();
+			return new Result(name, latencies, shopifySimulator.getRequestCount(), retries, failures.get(),
+					allocatedBytes.sum(), elapsedNanoseconds);
+		}
+
+	}
+
+	private static class Result {
+
+		private final String name;
+		private final long[] sortedLatenciesInNanoseconds;
+		private final long requests;
+		private final long retries;
+		private final long failures;
+		private final long allocatedBytes;
+		private final long elapsedNanoseconds;
+
+		Result(final String name, final long[] sortedLatenciesInNanoseconds, final long requests, final long retries,
+				final long failures, final long allocatedBytes, final long elapsedNanoseconds) {
+			this.name = name;
+			this.sortedLatenciesInNanoseconds = sortedLatenciesInNanoseconds;
+			this.requests = requests;
+			this.retries = retries;
+			this.failures = failures;
+			this.allocatedBytes = allocatedBytes;
+			this.elapsedNanoseconds = elapsedNanoseconds;
+		}
+
+		void print() {
+			final int calls = sortedLatenciesInNanoseconds.length;
+			final double elapsedSeconds = elapsedNanoseconds / 1e9;
+			System.out.printf(RESULT_FORMAT, name, calls, requests, calls / elapsedSeconds, requests / elapsedSeconds,
+					percentileInMilliseconds(0.50), percentileInMilliseconds(0.99), retries, failures,
+					(calls == 0) ? 0 : allocatedBytes / calls);
+		}
+
+		private double percentileInMilliseconds(final double percentile) {
+			if (sortedLatenciesInNanoseconds.length == 0) {
+				return 0;
+			}
+			final int index = (int) Math.ceil(percentile * sortedLatenciesInNanoseconds.length) - 1;
+			return sortedLatenciesInNanoseconds[Math.max(0, index)] / 1e6;
+		}
+
+	}
+
+}
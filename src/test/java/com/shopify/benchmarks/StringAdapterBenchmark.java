@@ -0,0 +1,145 @@
+package com.shopify.benchmarks;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.shopify.model.adapters.EscapedStringAdapter;
+import com.shopify.model.adapters.TagsAdapter;
+
+/**
+ * Compares {@link EscapedStringAdapter} and {@link TagsAdapter} to the
+ * unescape-everything and regex split implementations they replaced, on
+ * titles, vendors and tag strings shaped like those of a product feed: most
+ * strings have no entity and products carry a few to a couple of dozen tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringAdapterBenchmark {
+
+	private static final String TAG_DELIMITTER = ", ";
+	private static final String[] TITLES = { "Classic Crew Neck T-Shirt", "Organic Cotton Hoodie",
+			"Salt &amp; Pepper Grinder Set", "Stainless Steel Water Bottle 750ml", "Men's Slim Fit Chinos",
+			"Leather Weekender Bag", "Bamboo Cutting Board", "Rock &amp; Roll Vinyl Collection",
+			"Waterproof Hiking Boots", "Wireless Charging Pad" };
+	private static final String[] VENDORS = { "Acme Apparel", "Northwind", "Barnes &amp; Co", "Green Valley",
+			"Summit Outdoor" };
+	private static final String[] TAGS = { "sale", "new-arrival", "summer", "cotton", "bestseller", "gift",
+			"eco-friendly", "men", "women", "unisex", "outdoor", "kitchen", "limited-edition", "clearance", "size-s",
+			"size-m", "size-l", "color-black", "color-white", "color-navy", "free-shipping", "bundle", "vip" };
+
+	private final EscapedStringAdapter escapedStringAdapter = new EscapedStringAdapter();
+	private final TagsAdapter tagsAdapter = new TagsAdapter();
+	private String[] strings;
+	private String[] tagStrings;
+	private Set<String>[] tagSets;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		strings = new String[TITLES.length + VENDORS.length];
+		System.arraycopy(TITLES, 0, strings, 0, TITLES.length);
+		System.arraycopy(VENDORS, 0, strings, TITLES.length, VENDORS.length);
+
+		tagStrings = new String[10];
+		tagSets = new Set[tagStrings.length];
+		for (int productIndex = 0; productIndex < tagStrings.length; productIndex++) {
+			final int tagCount = 2 + ((productIndex * 7) % (TAGS.length - 2));
+			final StringBuilder tagStringBuilder = new StringBuilder();
+			for (int tagIndex = 0; tagIndex < tagCount; tagIndex++) {
+				if (tagIndex > 0) {
+					tagStringBuilder.append(TAG_DELIMITTER);
+				}
+				tagStringBuilder.append(TAGS[(productIndex + tagIndex) % TAGS.length]);
+			}
+			tagStrings[productIndex] = tagStringBuilder.toString();
+			tagSets[productIndex] = new HashSet<>(Arrays.asList(tagStrings[productIndex].split(TAG_DELIMITTER)));
+		}
+	}
+
+	@Benchmark
+	public void unescapeAll(final Blackhole blackhole) {
+		for (final String string : strings) {
+			blackhole.consume(StringEscapeUtils.unescapeHtml4(string));
+		}
+	}
+
+	@Benchmark
+	public void unescapeWithAdapter(final Blackhole blackhole) throws Exception {
+		for (final String string : strings) {
+			blackhole.consume(escapedStringAdapter.unmarshal(string));
+		}
+	}
+
+	@Benchmark
+	public void unmarshalTagsWithRegexSplit(final Blackhole blackhole) {
+		for (final String tagString : tagStrings) {
+			blackhole.consume(new HashSet<>(Arrays.asList(tagString.split(TAG_DELIMITTER))));
+		}
+	}
+
+	@Benchmark
+	public void unmarshalTagsWithAdapter(final Blackhole blackhole) throws Exception {
+		for (final String tagString : tagStrings) {
+			blackhole.consume(tagsAdapter.unmarshal(tagString));
+		}
+	}
+
+	@Benchmark
+	public void marshalTagsWithStringBuilder(final Blackhole blackhole) {
+		for (final Set<String> tagSet : tagSets) {
+			final StringBuilder tagStringBuilder = new StringBuilder();
+			final Iterator<String> tagIterator = tagSet.iterator();
+			while (tagIterator.hasNext()) {
+				tagStringBuilder.append(tagIterator.next());
+				if (tagIterator.hasNext()) {
+					tagStringBuilder.append(TAG_DELIMITTER);
+				}
+			}
+			blackhole.consume(tagStringBuilder.toString());
+		}
+	}
+
+	@Benchmark
+	public void marshalTagsWithAdapter(final Blackhole blackhole) throws Exception {
+		for (final Set<String> tagSet : tagSets) {
+			blackhole.consume(tagsAdapter.marshal(tagSet));
+		}
+	}
+
+	@Benchmark
+	public void roundTripTagsWithAdapter(final Blackhole blackhole) throws Exception {
+		for (final String tagString : tagStrings) {
+			blackhole.consume(tagsAdapter.marshal(tagsAdapter.unmarshal(tagString)));
+		}
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(StringAdapterBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.shopify.benchmarks;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.shopify.model.adapters.ShopifyTimestamps;
+
+/**
+ * Compares {@link ShopifyTimestamps} to the general ISO-8601 parsers of Joda
+ * and <code>java.time</code> on the timestamp forms Shopify sends and the form
+ * the SDK writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimestampParsingBenchmark {
+
+	@Param({ "2018-10-22T14:25:15-04:00", "2018-10-22T18:25:15.123Z" })
+	private String timestamp;
+
+	@Benchmark
+	public DateTime jodaParse() {
+		return DateTime.parse(timestamp);
+	}
+
+	@Benchmark
+	public DateTime shopifyTimestampsToDateTime() {
+		return ShopifyTimestamps.toDateTime(timestamp);
+	}
+
+	@Benchmark
+	public OffsetDateTime javaTimeParse() {
+		return OffsetDateTime.parse(timestamp);
+	}
+
+	@Benchmark
+	public OffsetDateTime shopifyTimestampsToOffsetDateTime() {
+		return ShopifyTimestamps.toOffsetDateTime(timestamp);
+	}
+
+	@Benchmark
+	public long shopifyTimestampsToEpochMillis() {
+		return ShopifyTimestamps.toEpochMillis(timestamp);
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(TimestampParsingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
@@ -0,0 +1,223 @@
+package com.shopify.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopify.mappers.ShopifyMappers;
+import com.shopify.model.ShopifyLineItem;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.webhooks.ShopifyWebhookReceiver;
+import com.shopify.webhooks.ShopifyWebhookStatus;
+import com.shopify.webhooks.ShopifyWebhookTopic;
+import com.shopify.webhooks.ShopifyWebhookVerifier;
+
+/**
+ * Sends signed <code>orders/create</code>, <code>orders/updated</code> and
+ * <code>products/update</code> webhooks to a {@link ShopifyWebhookReceiver}
+ * from many threads, as an HTTP server's request threads would, and reports
+ * for each workload:
+ * <ul>
+ * <li>webhooks received and handled per second</li>
+ * <li>p50 and p99 time to receive a webhook, which covers reading the body,
+ * verifying the HMAC, binding the model and queueing the handler</li>
+ * <li>webhooks answered with 503 because the handler queue was full; they are
+ * sent again after a pause, as Shopify would</li>
+ * <li>bytes allocated per webhook by the receiving thread</li>
+ * </ul>
+ * The handlers of the first workload return at once, so it measures the
+ * receiver itself; those of the second take a millisecond each, as handlers
+ * that write to a database would, so the queue fills and load is shed.
+ *
+ * Set <code>-Dshopify.benchmark.scale=0.1</code> to shrink every workload.
+ */
+public class WebhookReceiverLoadBenchmark {
+
+	private static final double SCALE = Double.parseDouble(System.getProperty("shopify.benchmark.scale", "1"));
+	private static final int WEBHOOKS = (int) Math.round(200_000 * SCALE);
+	private static final int DISTINCT_PAYLOADS = 300;
+	private static final int SENDER_THREADS = 32;
+	private static final int HANDLER_THREADS = 8;
+	private static final int QUEUE_CAPACITY = 2_000;
+	private static final long SLOW_HANDLER_NANOSECONDS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long REDELIVERY_PAUSE_MILLISECONDS = 5;
+	private static final String SHARED_SECRET = "benchmark-shared-secret";
+	private static final String SHOP_DOMAIN = "benchmark.myshopify.com";
+	private static final String RESULT_HEADER_FORMAT = "%-16s %9s %12s %11s %9s %9s %10s %12s%n";
+	private static final String RESULT_FORMAT = "%-16s %9d %12.1f %11.1f %9.3f %9.3f %10d %12d%n";
+
+	private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	public static void main(final String[] args) throws Exception {
+		final List<Delivery> deliveries = buildDeliveries();
+		final List<Result> results = new ArrayList<>();
+		results.add(run("fast handlers", deliveries, 0));
+		results.add(run("slow handlers", deliveries, SLOW_HANDLER_NANOSECONDS));
+
+		System.out.printf(RESULT_HEADER_FORMAT, "workload", "webhooks", "received/s", "handled/s", "p50 ms",
+				"p99 ms", "overloaded", "bytes/recv");
+		results.forEach(Result::print);
+	}
+
+	private static Result run(final String name, final List<Delivery> deliveries, final long handlerNanoseconds)
+			throws Exception {
+		final LongAdder lineItems = new LongAdder();
+		final ShopifyWebhookReceiver shopifyWebhookReceiver = ShopifyWebhookReceiver.newBuilder()
+				.withSharedSecret(SHARED_SECRET).withHandlerThreads(HANDLER_THREADS).withQueueCapacity(QUEUE_CAPACITY)
+				.withHandler(ShopifyWebhookTopic.ORDERS_CREATE, shopifyWebhook -> {
+					handleOrder(shopifyWebhook.getPayload(), lineItems, handlerNanoseconds);
+				}).withHandler(ShopifyWebhookTopic.ORDERS_UPDATED, shopifyWebhook -> {
+					handleOrder(shopifyWebhook.getPayload(), lineItems, handlerNanoseconds);
+				}).withHandler(ShopifyWebhookTopic.PRODUCTS_UPDATE, shopifyWebhook -> {
+					lineItems.add(shopifyWebhook.getPayload().getVariants().size());
+					pause(handlerNanoseconds);
+				}).build();
+
+		final long[] latenciesInNanoseconds = new long[WEBHOOKS];
+		final LongAdder overloaded = new LongAdder();
+		final LongAdder allocatedBytes = new LongAdder();
+		final ExecutorService senders = Executors.newFixedThreadPool(SENDER_THREADS);
+		final long startNanoseconds = System.nanoTime();
+		try {
+			final List<Future<?>> futures = new ArrayList<>(SENDER_THREADS);
+			for (int sender = 0; sender < SENDER_THREADS; sender++) {
+				final int firstWebhook = sender;
+				futures.add(senders.submit(() -> {
+					final long threadId = Thread.currentThread().getId();
+					for (int webhook = firstWebhook; webhook < WEBHOOKS; webhook += SENDER_THREADS) {
+						final Delivery delivery = deliveries.get(webhook % deliveries.size());
+						ShopifyWebhookStatus status;
+						do {
+							final long startAllocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+							final long receiveStartNanoseconds = System.nanoTime();
+							status = shopifyWebhookReceiver.receive(delivery.headers::get, delivery.body);
+							latenciesInNanoseconds[webhook] = System.nanoTime() - receiveStartNanoseconds;
+							allocatedBytes.add(THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - startAllocatedBytes);
+							if (status == ShopifyWebhookStatus.OVERLOADED) {
+								overloaded.increment();
+								TimeUnit.MILLISECONDS.sleep(REDELIVERY_PAUSE_MILLISECONDS);
+							}
+						} while (status == ShopifyWebhookStatus.OVERLOADED);
+						if (status != ShopifyWebhookStatus.ACCEPTED) {
+							throw new IllegalStateException("Webhook was not accepted: " + status);
+						}
+					}
+					return null;
+				}));
+			}
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			senders.shutdownNow();
+		}
+		final long receivedNanoseconds = System.nanoTime() - startNanoseconds;
+		shopifyWebhookReceiver.close();
+		final long handledNanoseconds = System.nanoTime() - startNanoseconds;
+
+		Arrays.sort(latenciesInNanoseconds);
+		final long receives = WEBHOOKS + overloaded.sum();
+		return new Result(name, latenciesInNanoseconds, shopifyWebhookReceiver.getHandledCount(), receivedNanoseconds,
+				handledNanoseconds, overloaded.sum(), allocatedBytes.sum() / receives);
+	}
+
+	private static void handleOrder(final ShopifyOrder shopifyOrder, final LongAdder lineItems,
+			final long handlerNanoseconds) {
+		for (final ShopifyLineItem shopifyLineItem : shopifyOrder.getLineItems()) {
+			lineItems.add(shopifyLineItem.getQuantity());
+		}
+		pause(handlerNanoseconds);
+	}
+
+	private static void pause(final long nanoseconds) {
+		if (nanoseconds > 0) {
+			LockSupport.parkNanos(nanoseconds);
+		}
+	}
+
+	private static List<Delivery> buildDeliveries() throws Exception {
+		final ObjectMapper objectMapper = ShopifyMappers.getDefault().getMapper();
+		final ShopifyWebhookVerifier shopifyWebhookVerifier = new ShopifyWebhookVerifier(SHARED_SECRET);
+		final List<ShopifyOrder> shopifyOrders = ShopifyModelAllocationBenchmark.buildOrders(DISTINCT_PAYLOADS);
+		final List<ShopifyProduct> shopifyProducts = ShopifyModelAllocationBenchmark
+				.buildProducts(DISTINCT_PAYLOADS);
+
+		final List<Delivery> deliveries = new ArrayList<>(DISTINCT_PAYLOADS * 3);
+		for (int index = 0; index < DISTINCT_PAYLOADS; index++) {
+			final byte[] order = objectMapper.writeValueAsBytes(shopifyOrders.get(index));
+			final byte[] product = objectMapper.writeValueAsBytes(shopifyProducts.get(index));
+			deliveries.add(new Delivery(ShopifyWebhookTopic.ORDERS_CREATE, order, shopifyWebhookVerifier, index));
+			deliveries.add(new Delivery(ShopifyWebhookTopic.ORDERS_UPDATED, order, shopifyWebhookVerifier, index));
+			deliveries.add(new Delivery(ShopifyWebhookTopic.PRODUCTS_UPDATE, product, shopifyWebhookVerifier, index));
+		}
+		return deliveries;
+	}
+
+	private static class Delivery {
+
+		private final Map<String, String> headers = new HashMap<>();
+		private final byte[] body;
+
+		Delivery(final ShopifyWebhookTopic<?> topic, final byte[] body,
+				final ShopifyWebhookVerifier shopifyWebhookVerifier, final int index) {
+			this.body = body;
+			headers.put(ShopifyWebhookReceiver.TOPIC_HEADER, topic.getName());
+			headers.put(ShopifyWebhookReceiver.HMAC_HEADER, shopifyWebhookVerifier.sign(body));
+			headers.put(ShopifyWebhookReceiver.SHOP_DOMAIN_HEADER, SHOP_DOMAIN);
+			headers.put(ShopifyWebhookReceiver.WEBHOOK_ID_HEADER, topic.getName() + "-" + index);
+		}
+
+	}
+
+	private static class Result {
+
+		private final String name;
+		private final long[] sortedLatenciesInNanoseconds;
+		private final long handled;
+		private final long receivedNanoseconds;
+		private final long handledNanoseconds;
+		private final long overloaded;
+		private final long bytesPerReceive;
+
+		Result(final String name, final long[] sortedLatenciesInNanoseconds, final long handled,
+				final long receivedNanoseconds, final long handledNanoseconds, final long overloaded,
+				final long bytesPerReceive) {
+			this.name = name;
+			this.sortedLatenciesInNanoseconds = sortedLatenciesInNanoseconds;
+			this.handled = handled;
+			this.receivedNanoseconds = receivedNanoseconds;
+			this.handledNanoseconds = handledNanoseconds;
+			this.overloaded = overloaded;
+			this.bytesPerReceive = bytesPerReceive;
+		}
+
+		void print() {
+			final int webhooks = sortedLatenciesInNanoseconds.length;
+			System.out.printf(RESULT_FORMAT, name, webhooks, webhooks / (receivedNanoseconds / 1e9),
+					handled / (handledNanoseconds / 1e9), percentileInMilliseconds(0.50),
+					percentileInMilliseconds(0.99), overloaded, bytesPerReceive);
+		}
+
+		private double percentileInMilliseconds(final double percentile) {
+			if (sortedLatenciesInNanoseconds.length == 0) {
+				return 0;
+			}
+			final int index = (int) Math.ceil(percentile * sortedLatenciesInNanoseconds.length) - 1;
+			return sortedLatenciesInNanoseconds[Math.max(0, index)] / 1e6;
+		}
+
+	}
+
+}
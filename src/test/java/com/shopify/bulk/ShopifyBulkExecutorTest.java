@@ -0,0 +1,347 @@
+package com.shopify.bulk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.shopify.ShopifySdk;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.exceptions.ShopifyRetryException;
+import com.shopify.ratelimit.ShopifyRateLimiter;
+import com.shopify.retry.ShopifyRetryPolicy;
+
+public class ShopifyBulkExecutorTest {
+
+	private final ShopifyRateLimiter rateLimiter = new ShopifyRateLimiter(0.001);
+	private final ShopifySdk shopifySdk = new ShopifySdk(null) {
+
+		@Override
+		public ShopifyRateLimiter getRateLimiter() {
+			return rateLimiter;
+		}
+	};
+
+	private final Map<String, AtomicInteger> attemptsByItem = new ConcurrentHashMap<>();
+	private final AtomicInteger inFlightCount = new AtomicInteger();
+	private final AtomicInteger maximumInFlightCount = new AtomicInteger();
+	private CountDownLatch concurrentItemsLatch = new CountDownLatch(0);
+	private CountDownLatch releaseLatch = new CountDownLatch(0);
+
+	private ShopifyBulkExecutor<String, String> shopifyBulkExecutor;
+
+	@After
+	public void tearDown() {
+		releaseLatch = new CountDownLatch(0);
+		if (shopifyBulkExecutor != null) {
+			shopifyBulkExecutor.close();
+		}
+	}
+
+	@Test
+	public void givenItemsWhenExecutingAllThenApplyMutationConcurrentlyAndReportSuccesses() {
+		concurrentItemsLatch = new CountDownLatch(3);
+		shopifyBulkExecutor = buildExecutor(3, 3);
+
+		final ShopifyBulkReport<String> report = shopifyBulkExecutor
+				.executeAll(IntStream.range(0, 9).mapToObj(String::valueOf));
+
+		assertEquals(9, report.getSubmittedCount());
+		assertEquals(9, report.getSucceededCount());
+		assertEquals(0, report.getFailedCount());
+		assertEquals(0, report.getPendingCount());
+		assertEquals(3, maximumInFlightCount.get());
+		assertTrue(report.getFailures().isEmpty());
+		assertTrue(report.toString().startsWith("9 submitted, 9 succeeded, 0 failed, 0 cancelled, 0 pending"));
+	}
+
+	@Test
+	public void givenRetriableFailureWhenSubmittingThenRetryAndReturnResult() throws Exception {
+		shopifyBulkExecutor = buildExecutor(2, 3);
+
+		final CompletableFuture<String> result = shopifyBulkExecutor.submit("fail-once");
+
+		assertEquals("done:fail-once", result.get(5, TimeUnit.SECONDS));
+		assertEquals(2, attemptsByItem.get("fail-once").get());
+		assertEquals(1, shopifyBulkExecutor.getReport().getRetriedCount());
+	}
+
+	@Test
+	public void givenPermanentFailureWhenExecutingAllThenReportFailedItemWithoutRetry() {
+		shopifyBulkExecutor = buildExecutor(2, 3);
+
+		final ShopifyBulkReport<String> report = shopifyBulkExecutor.executeAll(Stream.of("1", "invalid", "2"));
+
+		assertEquals(2, report.getSucceededCount());
+		assertEquals(1, report.getFailedCount());
+		assertEquals(1, report.getFailures().size());
+		final ShopifyBulkFailure<String> failure = report.getFailures().get(0);
+		assertEquals("invalid", failure.getItem());
+		assertEquals(1, failure.getAttempts());
+		assertTrue(failure.getException() instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void givenRetryClassifierWhenFailingThenUseItInsteadOfDefault() {
+		shopifyBulkExecutor = ShopifyBulkExecutor.newBuilder(shopifySdk, this::mutate).withMaximumAttempts(3)
+				.withRetryDelay(1, TimeUnit.MILLISECONDS)
+				.withRetryClassifier(throwable -> throwable instanceof IllegalArgumentException).build();
+
+		final ShopifyBulkReport<String> report = shopifyBulkExecutor.executeAll(Stream.of("invalid"));
+
+		assertEquals(3, report.getFailures().get(0).getAttempts());
+		assertEquals(2, report.getRetriedCount());
+	}
+
+	@Test
+	public void givenKeyWhenSubmittingThenAttemptItemsOfSameKeyInOrder() {
+		final List<String> attempted = new ArrayList<>();
+		shopifyBulkExecutor = ShopifyBulkExecutor.<String, String>newBuilder(shopifySdk, (sdk, item) -> {
+			synchronized (attempted) {
+				attempted.add(item);
+			}
+			return mutate(sdk, item);
+		}).withKey(item -> item.charAt(0)).withMaximumConcurrency(4).build();
+
+		shopifyBulkExecutor.executeAll(Stream.of("a1", "b1", "a2", "b2", "a3", "b3"));
+
+		assertEquals(Arrays.asList("a1", "a2", "a3"),
+				attempted.stream().filter(item -> item.startsWith("a")).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void givenCancelledFutureOfRunningItemWhenItHasKeyThenStartNextItemOfKeyOnceItStops() throws Exception {
+		releaseLatch = new CountDownLatch(1);
+		shopifyBulkExecutor = ShopifyBulkExecutor.newBuilder(shopifySdk, this::mutate).withKey(item -> item.charAt(0))
+				.withMaximumConcurrency(2).build();
+		final CompletableFuture<String> firstResult = shopifyBulkExecutor.submit("a1");
+		final CompletableFuture<String> secondResult = shopifyBulkExecutor.submit("a2");
+		while (inFlightCount.get() == 0) {
+			Thread.sleep(1);
+		}
+
+		firstResult.cancel(false);
+		Thread.sleep(100);
+		final AtomicInteger secondAttemptsWhileFirstRuns = attemptsByItem.get("a2");
+		releaseLatch.countDown();
+
+		assertEquals("done:a2", secondResult.get(5, TimeUnit.SECONDS));
+		assertNull(secondAttemptsWhileFirstRuns);
+		assertEquals(1, maximumInFlightCount.get());
+	}
+
+	@Test
+	public void givenCancelledExecutorWhenItemsAreQueuedThenSkipThem() throws Exception {
+		releaseLatch = new CountDownLatch(1);
+		shopifyBulkExecutor = buildExecutor(1, 1);
+		final List<CompletableFuture<String>> results = shopifyBulkExecutor.submitAll(Stream.of("1", "2", "3"));
+		while (inFlightCount.get() == 0) {
+			Thread.sleep(1);
+		}
+
+		shopifyBulkExecutor.cancel();
+		releaseLatch.countDown();
+
+		assertEquals("done:1", results.get(0).get(5, TimeUnit.SECONDS));
+		CompletableFuture.allOf(results.get(1), results.get(2)).handle((result, throwable) -> null).get(5,
+				TimeUnit.SECONDS);
+		assertTrue(results.get(1).isCancelled());
+		assertTrue(results.get(2).isCancelled());
+		shopifyBulkExecutor.close();
+		final ShopifyBulkReport<String> report = shopifyBulkExecutor.getReport();
+		assertEquals(1, report.getSucceededCount());
+		assertEquals(2, report.getCancelledCount());
+		assertTrue(shopifyBulkExecutor.isCancelled());
+	}
+
+	@Test
+	public void givenCancelledFutureWhenItsItemIsQueuedThenSkipIt() throws Exception {
+		releaseLatch = new CountDownLatch(1);
+		shopifyBulkExecutor = buildExecutor(1, 1);
+		final CompletableFuture<String> firstResult = shopifyBulkExecutor.submit("1");
+		final CompletableFuture<String> secondResult = shopifyBulkExecutor.submit("2");
+		final CompletableFuture<String> thirdResult = shopifyBulkExecutor.submit("3");
+
+		secondResult.cancel(false);
+		releaseLatch.countDown();
+
+		assertEquals("done:1", firstResult.get(5, TimeUnit.SECONDS));
+		assertEquals("done:3", thirdResult.get(5, TimeUnit.SECONDS));
+		assertNull(attemptsByItem.get("2"));
+	}
+
+	@Test
+	public void givenRateLimiterWithoutAvailableCallsWhenItemIsInFlightThenWaitToStartNextItem() throws Exception {
+		rateLimiter.release("40/40");
+		releaseLatch = new CountDownLatch(1);
+		shopifyBulkExecutor = buildExecutor(4, 1);
+
+		final List<CompletableFuture<String>> results = shopifyBulkExecutor.submitAll(Stream.of("1", "2", "3"));
+		Thread.sleep(200);
+		final int inFlightWithoutAvailableCalls = inFlightCount.get();
+		rateLimiter.release("0/40");
+		releaseLatch.countDown();
+
+		for (final CompletableFuture<String> result : results) {
+			result.get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(1, inFlightWithoutAvailableCalls);
+	}
+
+	@Test
+	public void givenFailedFutureWhenGettingResultThenThrowExceptionOfLastAttempt() throws Exception {
+		shopifyBulkExecutor = buildExecutor(1, 2);
+
+		final CompletableFuture<String> result = shopifyBulkExecutor.submit("unreachable");
+
+		try {
+			result.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (final ExecutionException e) {
+			assertSame(shopifyBulkExecutor.getReport().getFailures().get(0).getException(), e.getCause());
+		}
+		assertEquals(2, attemptsByItem.get("unreachable").get());
+	}
+
+	@Test
+	public void givenTimedOutItemWhenUsingDefaultRetryClassifierThenFailWithoutRetry() {
+		shopifyBulkExecutor = buildExecutor(1, 3);
+
+		final ShopifyBulkReport<String> report = shopifyBulkExecutor.executeAll(Stream.of("timeout"));
+
+		assertEquals(1, report.getFailedCount());
+		assertEquals(0, report.getRetriedCount());
+		assertEquals(1, attemptsByItem.get("timeout").get());
+	}
+
+	@Test
+	public void givenItemsOfSameKeyWhenClosingThenFinishAllOfThem() throws Exception {
+		releaseLatch = new CountDownLatch(1);
+		final List<CompletableFuture<String>> results;
+		try (final ShopifyBulkExecutor<String, String> keyedBulkExecutor = ShopifyBulkExecutor
+				.newBuilder(shopifySdk, this::mutate).withKey(item -> item.charAt(0)).build()) {
+			results = keyedBulkExecutor.submitAll(Stream.of("a1", "a2", "a3"));
+			releaseLatch.countDown();
+		}
+
+		assertEquals("done:a1", results.get(0).getNow(null));
+		assertEquals("done:a2", results.get(1).getNow(null));
+		assertEquals("done:a3", results.get(2).getNow(null));
+	}
+
+	@Test
+	public void givenItemsOfSameKeyWhenClosingTimesOutThenRejectItemsNotStarted() throws Exception {
+		releaseLatch = new CountDownLatch(1);
+		final ShopifyBulkExecutor<String, String> keyedBulkExecutor = ShopifyBulkExecutor
+				.newBuilder(shopifySdk, this::mutate).withKey(item -> item.charAt(0))
+				.withShutdownTimeout(10, TimeUnit.MILLISECONDS).build();
+		final List<CompletableFuture<String>> results = keyedBulkExecutor.submitAll(Stream.of("a1", "a2", "a3"));
+		while (inFlightCount.get() == 0) {
+			Thread.sleep(1);
+		}
+
+		keyedBulkExecutor.close();
+
+		for (final CompletableFuture<String> result : results.subList(1, 3)) {
+			try {
+				result.get(5, TimeUnit.SECONDS);
+				fail();
+			} catch (final ExecutionException e) {
+				assertTrue(e.getCause() instanceof RejectedExecutionException);
+			}
+		}
+		assertNull(attemptsByItem.get("a2"));
+		assertEquals(2, keyedBulkExecutor.getReport().getCancelledCount());
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void givenClosedExecutorWhenSubmittingThenThrowRejectedExecutionException() {
+		shopifyBulkExecutor = buildExecutor(1, 1);
+		shopifyBulkExecutor.close();
+
+		shopifyBulkExecutor.submit("1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenNoShopifySdkWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyBulkExecutor.newBuilder(null, this::mutate).build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenNoMutationWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyBulkExecutor.<String, String>newBuilder(shopifySdk, null).build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroMaximumConcurrencyWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyBulkExecutor.newBuilder(shopifySdk, this::mutate).withMaximumConcurrency(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroMaximumAttemptsWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyBulkExecutor.newBuilder(shopifySdk, this::mutate).withMaximumAttempts(0);
+	}
+
+	private ShopifyBulkExecutor<String, String> buildExecutor(final int maximumConcurrency,
+			final int maximumAttempts) {
+		return ShopifyBulkExecutor.newBuilder(shopifySdk, this::mutate).withMaximumConcurrency(maximumConcurrency)
+				.withMaximumAttempts(maximumAttempts).withRetryDelay(1, TimeUnit.MILLISECONDS).build();
+	}
+
+	private String mutate(final ShopifySdk sdk, final String item) {
+		final int attempt = attemptsByItem.computeIfAbsent(item, key -> new AtomicInteger()).incrementAndGet();
+		maximumInFlightCount.accumulateAndGet(inFlightCount.incrementAndGet(), Math::max);
+		try {
+			concurrentItemsLatch.countDown();
+			concurrentItemsLatch.await(5, TimeUnit.SECONDS);
+			releaseLatch.await(5, TimeUnit.SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			inFlightCount.decrementAndGet();
+		}
+		if ("invalid".equals(item)) {
+			throw new IllegalArgumentException("Item is invalid.");
+		}
+		if ("unreachable".equals(item) || ("fail-once".equals(item) && (attempt == 1))) {
+			throw buildRetryTimeoutException(new ConnectException("Connection refused"));
+		}
+		if ("timeout".equals(item)) {
+			throw buildRetryTimeoutException(new SocketTimeoutException("Read timed out"));
+		}
+		return "done:" + item;
+	}
+
+	private static ShopifyClientException buildRetryTimeoutException(final Exception lastException) {
+		try {
+			ShopifyRetryPolicy.newBuilder().build().call(() -> {
+				throw lastException;
+			});
+		} catch (final ShopifyRetryException e) {
+			return new ShopifyClientException("Request retry has failed.", e);
+		}
+		throw new IllegalStateException();
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.shopify.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.BinaryOperator;
+
+import org.junit.Test;
+
+public class HashIndexTest {
+
+	private static final BinaryOperator<String[]> KEEP_FIRST = (first, second) -> first;
+
+	@Test
+	public void givenSomeValuesWhenAddingThenExpectValuesToBeRetrievableByExtractedKey() {
+		final HashIndex<String, String[]> hashIndex = new HashIndex<>(2, value -> value[0], KEEP_FIRST);
+		final String[] someValue = { "SKU-1", "808950810" };
+		final String[] someOtherValue = { "SKU-2", "808950811" };
+
+		hashIndex.add(someValue);
+		hashIndex.add(someOtherValue);
+
+		assertEquals(2, hashIndex.size());
+		assertSame(someValue, hashIndex.get("SKU-1"));
+		assertSame(someOtherValue, hashIndex.get("SKU-2"));
+		assertTrue(hashIndex.containsKey("SKU-1"));
+		assertFalse(hashIndex.containsKey("SKU-3"));
+		assertNull(hashIndex.get(null));
+	}
+
+	@Test
+	public void givenValueWithNullKeyWhenAddingThenExpectValueToBeSkipped() {
+		final HashIndex<String, String[]> hashIndex = new HashIndex<>(1, value -> value[0], KEEP_FIRST);
+
+		hashIndex.add(new String[] { null, "808950810" });
+
+		assertTrue(hashIndex.isEmpty());
+	}
+
+	@Test
+	public void givenValuesWithSameKeyWhenAddingThenExpectCollisionResolverToPickValue() {
+		final HashIndex<String, String[]> hashIndex = new HashIndex<>(1, value -> value[0],
+				BinaryOperator.minBy((first, second) -> first[1].compareTo(second[1])));
+		final String[] someValue = { "SKU-1", "808950811" };
+		final String[] someLowerValue = { "SKU-1", "808950810" };
+
+		hashIndex.add(someValue);
+		hashIndex.add(someLowerValue);
+
+		assertEquals(1, hashIndex.size());
+		assertSame(someLowerValue, hashIndex.get("SKU-1"));
+	}
+
+	@Test
+	public void givenMoreValuesThanExpectedSizeWhenAddingThenExpectIndexToGrow() {
+		final HashIndex<String, String[]> hashIndex = new HashIndex<>(1, value -> value[0], KEEP_FIRST);
+
+		for (int i = 0; i < 1000; i++) {
+			hashIndex.add(new String[] { "SKU-" + i });
+		}
+
+		assertEquals(1000, hashIndex.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals("SKU-" + i, hashIndex.get("SKU-" + i)[0]);
+		}
+	}
+
+}
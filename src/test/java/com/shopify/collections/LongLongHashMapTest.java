@@ -0,0 +1,75 @@
+package com.shopify.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class LongLongHashMapTest {
+
+	@Test
+	public void givenSomeValuesWhenPuttingThenExpectValuesToBeRetrievableByKey() {
+		final LongLongHashMap longLongHashMap = new LongLongHashMap();
+
+		longLongHashMap.put(632910392L, 0L);
+		longLongHashMap.put(921728736L, 4096L);
+
+		assertEquals(2, longLongHashMap.size());
+		assertEquals(0L, longLongHashMap.get(632910392L, -1L));
+		assertEquals(4096L, longLongHashMap.get(921728736L, -1L));
+		assertEquals(-1L, longLongHashMap.get(1L, -1L));
+		assertEquals(-1L, longLongHashMap.get(0L, -1L));
+		assertTrue(longLongHashMap.containsKey(632910392L));
+		assertFalse(longLongHashMap.containsKey(1L));
+	}
+
+	@Test
+	public void givenExistingKeyWhenPuttingThenExpectValueToBeReplaced() {
+		final LongLongHashMap longLongHashMap = new LongLongHashMap();
+		longLongHashMap.put(42L, 1L);
+
+		longLongHashMap.put(42L, 2L);
+
+		assertEquals(1, longLongHashMap.size());
+		assertEquals(2L, longLongHashMap.get(42L, -1L));
+	}
+
+	@Test
+	public void givenMoreValuesThanExpectedSizeWhenPuttingThenExpectMapToGrow() {
+		final LongLongHashMap longLongHashMap = new LongLongHashMap(1);
+
+		for (long key = 1; key <= 1000; key++) {
+			longLongHashMap.put(key, key * 10);
+		}
+
+		assertEquals(1000, longLongHashMap.size());
+		for (long key = 1; key <= 1000; key++) {
+			assertEquals(key * 10, longLongHashMap.get(key, -1L));
+		}
+		final long[] keys = longLongHashMap.keys();
+		final long[] values = longLongHashMap.values();
+		Arrays.sort(keys);
+		Arrays.sort(values);
+		assertEquals(1L, keys[0]);
+		assertEquals(10000L, values[999]);
+	}
+
+	@Test
+	public void givenEmptyMapWhenRetrievingKeysAndValuesThenReturnEmptyArrays() {
+		final LongLongHashMap longLongHashMap = new LongLongHashMap();
+
+		assertTrue(longLongHashMap.isEmpty());
+		assertArrayEquals(new long[0], longLongHashMap.keys());
+		assertArrayEquals(new long[0], longLongHashMap.values());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenReservedKeyWhenPuttingThenExpectIllegalArgumentException() {
+		new LongLongHashMap().put(0L, 1L);
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.shopify.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class LongObjectHashMapTest {
+
+	@Test
+	public void givenSomeValuesWhenPuttingThenExpectValuesToBeRetrievableByKey() {
+		final LongObjectHashMap<String> longObjectHashMap = new LongObjectHashMap<>();
+
+		assertNull(longObjectHashMap.put(632910392L, "product-1"));
+		assertNull(longObjectHashMap.put(921728736L, "product-2"));
+
+		assertEquals(2, longObjectHashMap.size());
+		assertEquals("product-1", longObjectHashMap.get(632910392L));
+		assertEquals("product-2", longObjectHashMap.get(921728736L));
+		assertTrue(longObjectHashMap.containsKey(632910392L));
+		assertFalse(longObjectHashMap.containsKey(1L));
+		assertNull(longObjectHashMap.get(1L));
+	}
+
+	@Test
+	public void givenExistingKeyWhenPuttingThenExpectValueToBeReplaced() {
+		final LongObjectHashMap<String> longObjectHashMap = new LongObjectHashMap<>();
+		longObjectHashMap.put(42L, "first");
+
+		assertEquals("first", longObjectHashMap.put(42L, "second"));
+
+		assertEquals(1, longObjectHashMap.size());
+		assertEquals("second", longObjectHashMap.get(42L));
+	}
+
+	@Test
+	public void givenManyMoreValuesThanExpectedSizeWhenPuttingThenExpectAllValuesToBeRetrievable() {
+		final LongObjectHashMap<Long> longObjectHashMap = new LongObjectHashMap<>(2);
+		for (long key = 1; key <= 10000; key++) {
+			longObjectHashMap.put(key * 1024, key);
+		}
+
+		assertEquals(10000, longObjectHashMap.size());
+		for (long key = 1; key <= 10000; key++) {
+			assertEquals(Long.valueOf(key), longObjectHashMap.get(key * 1024));
+		}
+		assertEquals(10000, longObjectHashMap.values().size());
+		assertEquals(10000, longObjectHashMap.keys().length);
+	}
+
+	@Test
+	public void givenSomeValuesWhenRetrievingKeysAndValuesThenExpectEveryMapping() {
+		final LongObjectHashMap<String> longObjectHashMap = new LongObjectHashMap<>();
+		longObjectHashMap.put(3L, "c");
+		longObjectHashMap.put(1L, "a");
+		longObjectHashMap.put(2L, "b");
+
+		final Set<Long> actualKeys = new HashSet<>();
+		for (final long key : longObjectHashMap.keys()) {
+			actualKeys.add(key);
+		}
+		assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L)), actualKeys);
+		assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), new HashSet<>(longObjectHashMap.values()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenReservedKeyWhenPuttingThenExpectIllegalArgumentException() {
+		new LongObjectHashMap<String>().put(0L, "value");
+	}
+
+	@Test
+	public void givenReservedKeyWhenRetrievingThenReturnNull() {
+		final LongObjectHashMap<String> longObjectHashMap = new LongObjectHashMap<>();
+
+		assertNull(longObjectHashMap.get(0L));
+		assertFalse(longObjectHashMap.containsKey(0L));
+		assertTrue(longObjectHashMap.isEmpty());
+	}
+
+}
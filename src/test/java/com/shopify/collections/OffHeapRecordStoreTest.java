@@ -0,0 +1,57 @@
+package com.shopify.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OffHeapRecordStoreTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void givenDirectStoreWhenAppendingRecordsThenExpectRecordsToBeReadableByAddress() throws IOException {
+		try (final OffHeapRecordStore offHeapRecordStore = OffHeapRecordStore.direct(24)) {
+			final byte[] someRecord = "some-record".getBytes(StandardCharsets.UTF_8);
+			final byte[] someOtherRecord = "other-record".getBytes(StandardCharsets.UTF_8);
+
+			final long someAddress = offHeapRecordStore.append(someRecord, someRecord.length);
+			final long someOtherAddress = offHeapRecordStore.append(someOtherRecord, someOtherRecord.length);
+
+			assertNotEquals(someAddress / 24, someOtherAddress / 24);
+			assertArrayEquals(someRecord, offHeapRecordStore.read(someAddress));
+			assertArrayEquals(someOtherRecord, offHeapRecordStore.read(someOtherAddress));
+			assertEquals(someRecord.length + someOtherRecord.length + 8, offHeapRecordStore.sizeInBytes());
+		}
+	}
+
+	@Test
+	public void givenMappedStoreWhenAppendingRecordsThenExpectRecordsToBeWrittenToFile() throws IOException {
+		final Path file = temporaryFolder.newFile().toPath();
+		try (final OffHeapRecordStore offHeapRecordStore = OffHeapRecordStore.mapped(file, 1024)) {
+			final byte[] someRecord = "some-record".getBytes(StandardCharsets.UTF_8);
+
+			final long someAddress = offHeapRecordStore.append(someRecord, 4);
+
+			assertArrayEquals("some".getBytes(StandardCharsets.UTF_8), offHeapRecordStore.read(someAddress));
+			assertEquals(1024, Files.size(file));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenRecordLargerThanSegmentWhenAppendingThenExpectIllegalArgumentException() throws IOException {
+		try (final OffHeapRecordStore offHeapRecordStore = OffHeapRecordStore.direct(16)) {
+			offHeapRecordStore.append(new byte[16], 16);
+		}
+	}
+
+}
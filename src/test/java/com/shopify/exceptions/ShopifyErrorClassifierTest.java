@@ -0,0 +1,173 @@
+package com.shopify.exceptions;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Response;
+
+import org.junit.Test;
+
+import com.shopify.retry.ShopifyRetryPolicy;
+
+public class ShopifyErrorClassifierTest {
+
+	@Test
+	public void givenBusyStatusCodesWhenClassifyingThenReturnRetriable() {
+		final List<ShopifyErrorCode> shopifyErrorCodes = ShopifyErrorCodeFactory.create("{\"errors\": \"Busy\"}");
+
+		assertTrue(ShopifyErrorClassifier.isRetriable(429, shopifyErrorCodes));
+		assertTrue(ShopifyErrorClassifier.isRetriable(423, shopifyErrorCodes));
+		assertTrue(ShopifyErrorClassifier.isRetriable(500, shopifyErrorCodes));
+		assertTrue(ShopifyErrorClassifier.isRetriable(503, shopifyErrorCodes));
+	}
+
+	@Test
+	public void givenClientErrorStatusCodesWhenClassifyingThenReturnNotRetriable() {
+		final List<ShopifyErrorCode> shopifyErrorCodes = ShopifyErrorCodeFactory
+				.create("{\"errors\": \"Not Found\"}");
+
+		assertFalse(ShopifyErrorClassifier.isRetriable(400, shopifyErrorCodes));
+		assertFalse(ShopifyErrorClassifier.isRetriable(404, shopifyErrorCodes));
+	}
+
+	@Test
+	public void givenUnprocessableEntityThatCouldNotBeSavedWhenClassifyingThenReturnRetriable() {
+		final List<ShopifyErrorCode> shopifyErrorCodes = ShopifyErrorCodeFactory
+				.create("{\"errors\": {\"base\": [\"Fulfillment could not successfully be saved\"]}}");
+
+		assertTrue(ShopifyErrorClassifier.isRetriable(422, shopifyErrorCodes));
+	}
+
+	@Test
+	public void givenUnprocessableEntityWithInvalidFieldsWhenClassifyingThenReturnNotRetriable() {
+		assertFalse(ShopifyErrorClassifier.isRetriable(422, ShopifyErrorCodeFactory
+				.create("{\"errors\": {\"shipping_address\": [\"zip is not valid for united states\"]}}")));
+		assertFalse(ShopifyErrorClassifier.isRetriable(422,
+				ShopifyErrorCodeFactory.create("{\"errors\": {\"line_items\": [\"is invalid\"]}}")));
+		assertFalse(ShopifyErrorClassifier.isRetriable(422, Collections.emptyList()));
+	}
+
+	@Test
+	public void givenWrappedClientExceptionOfRetryTimeoutWhenClassifyingThenReturnRetriable() {
+		final ShopifyClientException shopifyClientException = new ShopifyClientException("Request retry has failed.",
+				buildRetryException(new ConnectException("Connection refused")));
+
+		assertTrue(ShopifyErrorClassifier.isRetriable(new CompletionException(shopifyClientException)));
+	}
+
+	@Test
+	public void givenClientExceptionWithoutRetryTimeoutWhenClassifyingThenReturnNotRetriable() {
+		assertFalse(ShopifyErrorClassifier.isRetriable(new ShopifyClientException("Request retry has failed.", null)));
+		assertFalse(ShopifyErrorClassifier.isRetriable(
+				new ShopifyClientException("Unable to generate token.", new IllegalStateException("401"))));
+		assertFalse(ShopifyErrorClassifier.isRetriable(new ShopifyClientException(new IOException("Unmappable."))));
+	}
+
+	@Test
+	public void givenClientExceptionOfInterruptedRetryWhenClassifyingThenReturnNotRetriable() {
+		final ShopifyRetryPolicy<Object> shopifyRetryPolicy = ShopifyRetryPolicy.newBuilder()
+				.withRandomDelay(1, 1, TimeUnit.SECONDS).withTimeout(1, TimeUnit.MINUTES).build();
+		Thread.currentThread().interrupt();
+		try {
+			shopifyRetryPolicy.call(() -> {
+				throw new ConnectException("Connection refused");
+			});
+			fail();
+		} catch (final ShopifyRetryException e) {
+			assertFalse(ShopifyErrorClassifier
+					.isRetriable(new ShopifyClientException("Request retry has failed.", e)));
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	@Test
+	public void givenBusyStatusCodesWhenClassifyingProcessingThenReturnUnprocessed() {
+		final List<ShopifyErrorCode> shopifyErrorCodes = ShopifyErrorCodeFactory.create("{\"errors\": \"Busy\"}");
+
+		assertTrue(ShopifyErrorClassifier.isUnprocessed(429, shopifyErrorCodes));
+		assertTrue(ShopifyErrorClassifier.isUnprocessed(423, shopifyErrorCodes));
+		assertTrue(ShopifyErrorClassifier.isUnprocessed(422, ShopifyErrorCodeFactory
+				.create("{\"errors\": {\"base\": [\"Refund could not successfully be saved\"]}}")));
+	}
+
+	@Test
+	public void givenServerErrorAndInvalidStatusCodesWhenClassifyingProcessingThenReturnNotUnprocessed() {
+		final List<ShopifyErrorCode> shopifyErrorCodes = ShopifyErrorCodeFactory.create("{\"errors\": \"Error\"}");
+
+		assertFalse(ShopifyErrorClassifier.isUnprocessed(500, shopifyErrorCodes));
+		assertFalse(ShopifyErrorClassifier.isUnprocessed(503, shopifyErrorCodes));
+		assertFalse(ShopifyErrorClassifier.isUnprocessed(422,
+				ShopifyErrorCodeFactory.create("{\"errors\": {\"line_items\": [\"is invalid\"]}}")));
+	}
+
+	@Test
+	public void givenRetryTimeoutOfConnectionWhenClassifyingProcessingThenReturnUnprocessed() {
+		assertTrue(ShopifyErrorClassifier.isUnprocessed(new CompletionException(new ShopifyClientException(
+				"Request retry has failed.", buildRetryException(new ConnectException("Connection refused"))))));
+		assertTrue(ShopifyErrorClassifier.isUnprocessed(new ShopifyClientException("Request retry has failed.",
+				buildRetryException(new IOException(new UnknownHostException("some-shop.myshopify.com"))))));
+	}
+
+	@Test
+	public void givenRetryTimeoutOfReadWhenClassifyingProcessingThenReturnNotUnprocessed() {
+		final ShopifyClientException shopifyClientException = new ShopifyClientException("Request retry has failed.",
+				buildRetryException(new SocketTimeoutException("Read timed out")));
+
+		assertTrue(ShopifyErrorClassifier.isRetriable(shopifyClientException));
+		assertFalse(ShopifyErrorClassifier.isUnprocessed(shopifyClientException));
+	}
+
+	@Test
+	public void givenRetryTimeoutOfResponsesWhenClassifyingProcessingThenReturnUnprocessedOnlyForBusyResponses() {
+		assertTrue(ShopifyErrorClassifier.isUnprocessed(new ShopifyClientException("Request retry has failed.",
+				buildRetryException(Response.status(429).build()))));
+		assertFalse(ShopifyErrorClassifier.isUnprocessed(new ShopifyClientException("Request retry has failed.",
+				buildRetryException(Response.status(503).build()))));
+	}
+
+	@Test
+	public void givenOtherExceptionWhenClassifyingProcessingThenReturnNotUnprocessed() {
+		assertFalse(
+				ShopifyErrorClassifier.isUnprocessed(new ShopifyClientException("Request retry has failed.", null)));
+		assertFalse(ShopifyErrorClassifier.isUnprocessed(new IllegalStateException()));
+	}
+
+	@Test
+	public void givenOtherExceptionWhenClassifyingThenReturnNotRetriable() {
+		assertFalse(ShopifyErrorClassifier.isRetriable(new IllegalStateException()));
+		assertFalse(ShopifyErrorClassifier.isRetriable(new CompletionException(new IllegalStateException())));
+	}
+
+	private static ShopifyRetryException buildRetryException(final Response lastResponse) {
+		try {
+			ShopifyRetryPolicy.<Response>newBuilder().retryIfResult(response -> true).build()
+					.call(() -> lastResponse);
+		} catch (final ShopifyRetryException e) {
+			return e;
+		}
+		throw new IllegalStateException();
+	}
+
+	private static ShopifyRetryException buildRetryException(final Exception lastException) {
+		try {
+			ShopifyRetryPolicy.newBuilder().build().call(() -> {
+				throw lastException;
+			});
+		} catch (final ShopifyRetryException e) {
+			return e;
+		}
+		throw new IllegalStateException();
+	}
+
+}
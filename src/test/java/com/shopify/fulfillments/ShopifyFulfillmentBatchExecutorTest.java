@@ -0,0 +1,271 @@
+package com.shopify.fulfillments;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.shopify.ShopifySdk;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.exceptions.ShopifyRetryException;
+import com.shopify.model.ShopifyFulfillment;
+import com.shopify.model.ShopifyFulfillmentCreationRequest;
+import com.shopify.model.ShopifyFulfillmentUpdateRequest;
+import com.shopify.retry.ShopifyRetryPolicy;
+
+public class ShopifyFulfillmentBatchExecutorTest {
+
+	private static final String SOME_ORDER_ID = "450789469";
+	private static final String OTHER_ORDER_ID = "450789470";
+
+	private final ConcurrentLinkedQueue<String> calls = new ConcurrentLinkedQueue<>();
+	private final Map<String, AtomicInteger> runningCallsByOrder = new ConcurrentHashMap<>();
+	private final Map<String, List<RuntimeException>> failuresByTrackingNumber = new ConcurrentHashMap<>();
+	private volatile boolean overlappingCallsOfOrder;
+	private CountDownLatch concurrentOrdersLatch = new CountDownLatch(0);
+
+	private final ShopifySdk shopifySdk = new ShopifySdk(null) {
+
+		@Override
+		public ShopifyFulfillment createFulfillment(
+				final ShopifyFulfillmentCreationRequest shopifyFulfillmentCreationRequest) {
+			return call("create", shopifyFulfillmentCreationRequest.getRequest());
+		}
+
+		@Override
+		public ShopifyFulfillment updateFulfillment(
+				final ShopifyFulfillmentUpdateRequest shopifyFulfillmentUpdateRequest) {
+			return call("update", shopifyFulfillmentUpdateRequest.getRequest());
+		}
+	};
+
+	private final ShopifyFulfillmentBatchExecutor shopifyFulfillmentBatchExecutor = ShopifyFulfillmentBatchExecutor
+			.newBuilder().withShopifySdk(shopifySdk).withConcurrentOrders(4).withMaximumAttempts(3)
+			.withRetryDelay(1, TimeUnit.MILLISECONDS).build();
+
+	@After
+	public void tearDown() {
+		shopifyFulfillmentBatchExecutor.close();
+	}
+
+	@Test
+	public void givenRequestsOfSeveralOrdersWhenCreatingAllThenMakeOrdersConcurrentlyAndEachOrderInSequence()
+			throws Exception {
+		concurrentOrdersLatch = new CountDownLatch(2);
+		final List<ShopifyFulfillmentCreationRequest> requests = new ArrayList<>();
+		for (int index = 0; index < 5; index++) {
+			requests.add(buildCreationRequest(SOME_ORDER_ID, "some-" + index));
+			requests.add(buildCreationRequest(OTHER_ORDER_ID, "other-" + index));
+		}
+
+		final List<CompletableFuture<ShopifyFulfillment>> results = shopifyFulfillmentBatchExecutor
+				.createAll(requests.stream());
+
+		for (int index = 0; index < requests.size(); index++) {
+			assertEquals(requests.get(index).getRequest().getTrackingNumber(),
+					results.get(index).get(5, TimeUnit.SECONDS).getTrackingNumber());
+		}
+		assertFalse(overlappingCallsOfOrder);
+		final List<String> someOrderCalls = new ArrayList<>();
+		for (final String call : calls) {
+			if (call.contains(":some-")) {
+				someOrderCalls.add(call);
+			}
+		}
+		assertEquals(Arrays.asList("create:some-0", "create:some-1", "create:some-2", "create:some-3",
+				"create:some-4"), someOrderCalls);
+		assertEquals(10, shopifyFulfillmentBatchExecutor.getSucceededCount());
+	}
+
+	@Test
+	public void givenUnprocessedFailureWhenCreatingThenRetryBeforeNextRequestOfOrder() throws Exception {
+		failuresByTrackingNumber.put("some-0",
+				new ArrayList<>(Collections.singletonList(buildRetryTimeoutException(new ConnectException()))));
+
+		final CompletableFuture<ShopifyFulfillment> firstResult = shopifyFulfillmentBatchExecutor
+				.create(buildCreationRequest(SOME_ORDER_ID, "some-0"));
+		final CompletableFuture<ShopifyFulfillment> secondResult = shopifyFulfillmentBatchExecutor
+				.create(buildCreationRequest(SOME_ORDER_ID, "some-1"));
+
+		assertEquals("some-0", firstResult.get(5, TimeUnit.SECONDS).getTrackingNumber());
+		assertEquals("some-1", secondResult.get(5, TimeUnit.SECONDS).getTrackingNumber());
+		assertEquals(Arrays.asList("create:some-0", "create:some-0", "create:some-1"), new ArrayList<>(calls));
+		assertEquals(1, shopifyFulfillmentBatchExecutor.getRetriedCount());
+		assertEquals(2, shopifyFulfillmentBatchExecutor.getSucceededCount());
+	}
+
+	@Test
+	public void givenPermanentFailureWhenCreatingThenFailWithoutRetryAndMakeNextRequestOfOrder()
+			throws Exception {
+		final IllegalStateException permanentFailure = new IllegalStateException("Line items are invalid.");
+		failuresByTrackingNumber.put("some-0", new ArrayList<>(Collections.singletonList(permanentFailure)));
+
+		final CompletableFuture<ShopifyFulfillment> firstResult = shopifyFulfillmentBatchExecutor
+				.create(buildCreationRequest(SOME_ORDER_ID, "some-0"));
+		final CompletableFuture<ShopifyFulfillment> secondResult = shopifyFulfillmentBatchExecutor
+				.create(buildCreationRequest(SOME_ORDER_ID, "some-1"));
+
+		assertEquals("some-1", secondResult.get(5, TimeUnit.SECONDS).getTrackingNumber());
+		try {
+			firstResult.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (final ExecutionException e) {
+			assertSame(permanentFailure, e.getCause());
+		}
+		assertEquals(Arrays.asList("create:some-0", "create:some-1"), new ArrayList<>(calls));
+		assertEquals(0, shopifyFulfillmentBatchExecutor.getRetriedCount());
+		assertEquals(1, shopifyFulfillmentBatchExecutor.getFailedCount());
+	}
+
+	@Test
+	public void givenUnprocessedFailureOnEveryAttemptWhenCreatingThenFailAfterMaximumAttempts() throws Exception {
+		final ShopifyClientException lastFailure = buildRetryTimeoutException(new ConnectException());
+		failuresByTrackingNumber.put("some-0",
+				new ArrayList<>(Arrays.asList(buildRetryTimeoutException(new ConnectException()),
+						buildRetryTimeoutException(new ConnectException()), lastFailure,
+						buildRetryTimeoutException(new ConnectException()))));
+
+		final CompletableFuture<ShopifyFulfillment> result = shopifyFulfillmentBatchExecutor
+				.create(buildCreationRequest(SOME_ORDER_ID, "some-0"));
+
+		try {
+			result.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (final ExecutionException e) {
+			assertSame(lastFailure, e.getCause());
+		}
+		assertEquals(3, calls.size());
+		assertEquals(2, shopifyFulfillmentBatchExecutor.getRetriedCount());
+	}
+
+	@Test
+	public void givenTimedOutCreationWhenCreatingThenFailWithoutRetry() throws Exception {
+		final ShopifyClientException timedOutCreation = buildRetryTimeoutException(
+				new SocketTimeoutException("Read timed out"));
+		failuresByTrackingNumber.put("some-0", new ArrayList<>(Collections.singletonList(timedOutCreation)));
+
+		final CompletableFuture<ShopifyFulfillment> result = shopifyFulfillmentBatchExecutor
+				.create(buildCreationRequest(SOME_ORDER_ID, "some-0"));
+
+		try {
+			result.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (final ExecutionException e) {
+			assertSame(timedOutCreation, e.getCause());
+		}
+		assertEquals(Collections.singletonList("create:some-0"), new ArrayList<>(calls));
+		assertEquals(0, shopifyFulfillmentBatchExecutor.getRetriedCount());
+		assertEquals(1, shopifyFulfillmentBatchExecutor.getFailedCount());
+	}
+
+	@Test
+	public void givenTimedOutUpdateWhenUpdatingThenRetry() throws Exception {
+		failuresByTrackingNumber.put("some-0", new ArrayList<>(
+				Collections.singletonList(buildRetryTimeoutException(new SocketTimeoutException("Read timed out")))));
+
+		final CompletableFuture<ShopifyFulfillment> result = shopifyFulfillmentBatchExecutor
+				.update(buildUpdateRequest(SOME_ORDER_ID, "some-0"));
+
+		assertEquals("some-0", result.get(5, TimeUnit.SECONDS).getTrackingNumber());
+		assertEquals(Arrays.asList("update:some-0", "update:some-0"), new ArrayList<>(calls));
+		assertEquals(1, shopifyFulfillmentBatchExecutor.getRetriedCount());
+	}
+
+	@Test
+	public void givenUpdateRequestsWhenUpdatingAllThenUpdateFulfillments() throws Exception {
+		final List<CompletableFuture<ShopifyFulfillment>> results = shopifyFulfillmentBatchExecutor
+				.updateAll(Stream.of(buildUpdateRequest(SOME_ORDER_ID, "some-0")));
+
+		assertEquals("some-0", results.get(0).get(5, TimeUnit.SECONDS).getTrackingNumber());
+		assertEquals(Collections.singletonList("update:some-0"), new ArrayList<>(calls));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenNoShopifySdkWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyFulfillmentBatchExecutor.newBuilder().build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroConcurrentOrdersWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyFulfillmentBatchExecutor.newBuilder().withConcurrentOrders(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroMaximumAttemptsWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyFulfillmentBatchExecutor.newBuilder().withMaximumAttempts(0);
+	}
+
+	private ShopifyFulfillment call(final String operation, final ShopifyFulfillment shopifyFulfillment) {
+		final AtomicInteger runningCalls = runningCallsByOrder.computeIfAbsent(shopifyFulfillment.getOrderId(),
+				orderId -> new AtomicInteger());
+		if (runningCalls.incrementAndGet() > 1) {
+			overlappingCallsOfOrder = true;
+		}
+		try {
+			calls.add(operation + ":" + shopifyFulfillment.getTrackingNumber());
+			concurrentOrdersLatch.countDown();
+			assertTrue(concurrentOrdersLatch.await(5, TimeUnit.SECONDS));
+			final List<RuntimeException> failures = failuresByTrackingNumber
+					.get(shopifyFulfillment.getTrackingNumber());
+			if ((failures != null) && !failures.isEmpty()) {
+				throw failures.remove(0);
+			}
+			return shopifyFulfillment;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} finally {
+			runningCalls.decrementAndGet();
+		}
+	}
+
+	private static ShopifyFulfillmentCreationRequest buildCreationRequest(final String orderId,
+			final String trackingNumber) {
+		return ShopifyFulfillmentCreationRequest.newBuilder().withOrderId(orderId).withTrackingCompany("UPS")
+				.withTrackingNumber(trackingNumber).withNotifyCustomer(false).withLineItems(Collections.emptyList())
+				.withLocationId("905684977").withTrackingUrls(Collections.emptyList()).build();
+	}
+
+	private static ShopifyFulfillmentUpdateRequest buildUpdateRequest(final String orderId,
+			final String trackingNumber) {
+		final ShopifyFulfillment currentShopifyFulfillment = new ShopifyFulfillment();
+		currentShopifyFulfillment.setId("255858046");
+		currentShopifyFulfillment.setOrderId(orderId);
+		return ShopifyFulfillmentUpdateRequest.newBuilder().withCurrentShopifyFulfillment(currentShopifyFulfillment)
+				.withTrackingCompany("UPS").withTrackingNumber(trackingNumber).withNotifyCustomer(false)
+				.withLineItems(Collections.emptyList()).withLocationId("905684977")
+				.withTrackingUrls(Collections.emptyList()).build();
+	}
+
+	private static ShopifyClientException buildRetryTimeoutException(final Exception lastException) {
+		try {
+			ShopifyRetryPolicy.newBuilder().build().call(() -> {
+				throw lastException;
+			});
+		} catch (final ShopifyRetryException e) {
+			return new ShopifyClientException("Request retry has failed.", e);
+		}
+		throw new IllegalStateException();
+	}
+
+}
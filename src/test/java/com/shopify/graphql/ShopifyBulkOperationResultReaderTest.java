@@ -0,0 +1,112 @@
+package com.shopify.graphql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.shopify.model.ShopifyLineItem;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+
+public class ShopifyBulkOperationResultReaderTest {
+
+	private static final String SOME_PRODUCT = "{'id':'gid://shopify/Product/632910392','title':'IPod Nano - 8GB',"
+			+ "'tags':['Emotive'],'updated_at':'2017-03-14T12:00:00Z'}";
+	private static final String OTHER_PRODUCT = "{'id':'gid://shopify/Product/921728736','title':'IPod Touch 8GB',"
+			+ "'tags':[]}";
+
+	@Test
+	public void givenProductsFollowedByTheirVariantsWhenReadingProductsThenStitchVariantsUnderTheirProduct() {
+		final List<ShopifyProduct> shopifyProducts = new ArrayList<>();
+
+		final int productCount = ShopifyBulkOperationResultReader.readProducts(
+				jsonl(SOME_PRODUCT, variant("808950810", "632910392"), variant("49148385", "632910392"),
+						OTHER_PRODUCT, variant("447654529", "921728736")),
+				shopifyProducts::add);
+
+		assertEquals(2, productCount);
+		assertEquals(2, shopifyProducts.size());
+		assertEquals("632910392", shopifyProducts.get(0).getId());
+		assertEquals(2, shopifyProducts.get(0).getVariants().size());
+		assertEquals("808950810", shopifyProducts.get(0).getVariants().get(0).getId());
+		assertEquals("632910392", shopifyProducts.get(0).getVariants().get(0).getProductId());
+		assertEquals(new BigDecimal("199.00"), shopifyProducts.get(0).getVariants().get(0).getPrice());
+		assertEquals("49148385", shopifyProducts.get(0).getVariants().get(1).getId());
+		assertEquals("921728736", shopifyProducts.get(1).getId());
+		assertEquals(1, shopifyProducts.get(1).getVariants().size());
+		assertEquals("921728736", shopifyProducts.get(1).getVariants().get(0).getProductId());
+	}
+
+	@Test
+	public void givenProductWithoutVariantsWhenReadingProductsThenEmitItWithNoVariants() {
+		final List<ShopifyProduct> shopifyProducts = new ArrayList<>();
+
+		ShopifyBulkOperationResultReader.readProducts(jsonl(OTHER_PRODUCT), shopifyProducts::add);
+
+		assertEquals(1, shopifyProducts.size());
+		assertTrue(shopifyProducts.get(0).getVariants().isEmpty());
+	}
+
+	@Test
+	public void givenEmptyResultWhenReadingProductsThenReadNothing() {
+		final List<ShopifyProduct> shopifyProducts = new ArrayList<>();
+
+		assertEquals(0, ShopifyBulkOperationResultReader.readProducts(jsonl(), shopifyProducts::add));
+		assertTrue(shopifyProducts.isEmpty());
+	}
+
+	@Test
+	public void givenOrdersFollowedByTheirLineItemsWhenReadingOrdersThenStitchLineItemsUnderTheirOrder() {
+		final List<ShopifyOrder> shopifyOrders = new ArrayList<>();
+
+		final int orderCount = ShopifyBulkOperationResultReader.readOrders(jsonl(
+				"{'id':'gid://shopify/Order/450789469','name':'#1001','tags':['vip'],'currency':'USD',"
+						+ "'financial_status':'PAID','total_price':{'shopMoney':{'amount':'409.94'}}}",
+				"{'id':'gid://shopify/LineItem/466157049','title':'IPod Nano - 8GB','quantity':1,"
+						+ "'sku':'IPOD2008GREEN','variant':{'legacyResourceId':'39072856'},"
+						+ "'product':{'legacyResourceId':'632910392'},'price':{'shopMoney':{'amount':'199.00'}},"
+						+ "'total_discount':{'shopMoney':{'amount':'0.00'}},"
+						+ "'__parentId':'gid://shopify/Order/450789469'}",
+				"{'id':'gid://shopify/Order/450789470','name':'#1002','tags':[]}"), shopifyOrders::add);
+
+		assertEquals(2, orderCount);
+		final ShopifyOrder shopifyOrder = shopifyOrders.get(0);
+		assertEquals("450789469", shopifyOrder.getId());
+		assertEquals("paid", shopifyOrder.getFinancialStatus());
+		assertEquals(new BigDecimal("409.94"), shopifyOrder.getTotalPrice());
+		assertEquals(1, shopifyOrder.getLineItems().size());
+		final ShopifyLineItem shopifyLineItem = shopifyOrder.getLineItems().get(0);
+		assertEquals("466157049", shopifyLineItem.getId());
+		assertEquals("39072856", shopifyLineItem.getVariantId());
+		assertEquals("632910392", shopifyLineItem.getProductId());
+		assertEquals(new BigDecimal("199.00"), shopifyLineItem.getPrice());
+		assertEquals(1, shopifyLineItem.getQuantity());
+		assertTrue(shopifyOrders.get(1).getLineItems().isEmpty());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void givenChildOfEarlierParentWhenReadingProductsThenThrowIllegalStateException() {
+		ShopifyBulkOperationResultReader.readProducts(
+				jsonl(SOME_PRODUCT, OTHER_PRODUCT, variant("808950810", "632910392")), shopifyProduct -> {
+				});
+	}
+
+	private static String variant(final String variantId, final String productId) {
+		return "{'id':'gid://shopify/ProductVariant/" + variantId + "','title':'Pink','price':'199.00',"
+				+ "'inventory_policy':'DENY','selectedOptions':[{'value':'Pink'}],"
+				+ "'__parentId':'gid://shopify/Product/" + productId + "'}";
+	}
+
+	private static InputStream jsonl(final String... lines) {
+		return new ByteArrayInputStream(String.join("\n", lines).replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+	}
+
+}
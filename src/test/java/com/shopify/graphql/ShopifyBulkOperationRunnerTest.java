@@ -0,0 +1,160 @@
+package com.shopify.graphql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shopify.ShopifySdk;
+import com.shopify.exceptions.ShopifyBulkOperationException;
+import com.shopify.exceptions.ShopifyGraphQlException;
+import com.shopify.mappers.ShopifyMappers;
+import com.shopify.model.ShopifyBulkOperation;
+import com.shopify.model.ShopifyGraphQlRequest;
+import com.shopify.model.ShopifyGraphQlResponse;
+import com.shopify.model.ShopifyProduct;
+
+public class ShopifyBulkOperationRunnerTest {
+
+	private static final String SOME_BULK_OPERATION_ID = "gid://shopify/BulkOperation/720918";
+	private static final String SOME_URL = "https://storage.googleapis.com/shopify/bulk-720918.jsonl";
+
+	private final List<ShopifyGraphQlRequest> shopifyGraphQlRequests = new ArrayList<>();
+	private final LinkedList<String> responses = new LinkedList<>();
+	private final List<String> openedUrls = new ArrayList<>();
+
+	private ShopifySdk shopifySdk;
+	private ShopifyBulkOperationRunner shopifyBulkOperationRunner;
+
+	@Before
+	public void setUp() {
+		shopifySdk = new ShopifySdk(null) {
+
+			@Override
+			public ShopifyGraphQlResponse postGraphQl(final ShopifyGraphQlRequest shopifyGraphQlRequest) {
+				shopifyGraphQlRequests.add(shopifyGraphQlRequest);
+				return readResponse(responses.removeFirst());
+			}
+
+			@Override
+			public InputStream openBulkOperationResult(final String url) {
+				openedUrls.add(url);
+				return new ByteArrayInputStream(("{\"id\":\"gid://shopify/Product/632910392\",\"title\":\"IPod\"}\n"
+						+ "{\"id\":\"gid://shopify/ProductVariant/808950810\",\"price\":\"199.00\","
+						+ "\"__parentId\":\"gid://shopify/Product/632910392\"}").getBytes(StandardCharsets.UTF_8));
+			}
+		};
+		shopifyBulkOperationRunner = new ShopifyBulkOperationRunner(new ShopifyGraphQlClient(shopifySdk), 1, 4, 1000);
+	}
+
+	@Test
+	public void givenBulkOperationThatCompletesWhenExportingProductsThenSubmitPollAndReadResult() {
+		responses.add(submitted());
+		responses.add(polled("RUNNING", null));
+		responses.add(polled("RUNNING", null));
+		responses.add(polled("COMPLETED", SOME_URL));
+		final List<ShopifyProduct> shopifyProducts = new ArrayList<>();
+
+		final int productCount = shopifyBulkOperationRunner.exportProducts(shopifyProducts::add);
+
+		assertEquals(1, productCount);
+		assertEquals("632910392", shopifyProducts.get(0).getId());
+		assertEquals("808950810", shopifyProducts.get(0).getVariants().get(0).getId());
+		assertEquals(4, shopifyGraphQlRequests.size());
+		assertEquals(ShopifyBulkOperationRunner.SUBMIT_MUTATION, shopifyGraphQlRequests.get(0).getQuery());
+		assertEquals(ShopifyBulkOperationRunner.PRODUCTS_QUERY,
+				shopifyGraphQlRequests.get(0).getVariables().get(ShopifyBulkOperationRunner.QUERY_VARIABLE));
+		assertEquals(ShopifyBulkOperationRunner.POLL_QUERY, shopifyGraphQlRequests.get(1).getQuery());
+		assertEquals(SOME_BULK_OPERATION_ID,
+				shopifyGraphQlRequests.get(1).getVariables().get(ShopifyBulkOperationRunner.ID_VARIABLE));
+		assertEquals(1, openedUrls.size());
+		assertEquals(SOME_URL, openedUrls.get(0));
+	}
+
+	@Test
+	public void givenBulkOperationWithNoObjectsWhenExportingProductsThenReadNothing() {
+		responses.add(submitted());
+		responses.add(polled("COMPLETED", null));
+
+		assertEquals(0, shopifyBulkOperationRunner.exportProducts(shopifyProduct -> {
+		}));
+		assertTrue(openedUrls.isEmpty());
+	}
+
+	@Test
+	public void givenBulkOperationThatFailsWhenRunningThenThrowShopifyBulkOperationException() {
+		responses.add(submitted());
+		responses.add("{ 'data': { 'node': { 'id': '" + SOME_BULK_OPERATION_ID + "', 'status': 'FAILED', "
+				+ "'errorCode': 'INTERNAL_SERVER_ERROR', 'objectCount': '0' } } }");
+
+		try {
+			shopifyBulkOperationRunner.run(ShopifyBulkOperationRunner.ORDERS_QUERY);
+		} catch (final ShopifyBulkOperationException e) {
+			assertEquals("FAILED", e.getBulkOperation().getStatus());
+			assertEquals("INTERNAL_SERVER_ERROR", e.getBulkOperation().getErrorCode());
+			return;
+		}
+		throw new AssertionError("Expected ShopifyBulkOperationException");
+	}
+
+	@Test(expected = ShopifyBulkOperationException.class)
+	public void givenBulkOperationStillRunningAfterTimeoutWhenRunningThenThrowShopifyBulkOperationException() {
+		shopifyBulkOperationRunner = new ShopifyBulkOperationRunner(new ShopifyGraphQlClient(shopifySdk), 5, 5, 0);
+		responses.add(submitted());
+		responses.add(polled("RUNNING", null));
+
+		shopifyBulkOperationRunner.run(ShopifyBulkOperationRunner.ORDERS_QUERY);
+	}
+
+	@Test(expected = ShopifyGraphQlException.class)
+	public void givenAnotherBulkOperationRunningWhenSubmittingThenThrowShopifyGraphQlException() {
+		responses.add("{ 'data': { 'bulkOperationRunQuery': { 'bulkOperation': null, 'userErrors': [ { "
+				+ "'field': null, 'message': 'A bulk query operation for this app and shop is already in progress' "
+				+ "} ] } } }");
+
+		shopifyBulkOperationRunner.submit(ShopifyBulkOperationRunner.ORDERS_QUERY);
+	}
+
+	@Test
+	public void givenFinishedStatusesWhenCheckingBulkOperationThenOnlyTerminalStatusesAreFinished() {
+		final ShopifyBulkOperation bulkOperation = new ShopifyBulkOperation();
+		for (final String status : new String[] { "CREATED", "RUNNING", "CANCELING" }) {
+			bulkOperation.setStatus(status);
+			assertTrue(!bulkOperation.isFinished());
+		}
+		for (final String status : new String[] { "COMPLETED", "CANCELED", "FAILED", "EXPIRED" }) {
+			bulkOperation.setStatus(status);
+			assertTrue(bulkOperation.isFinished());
+		}
+	}
+
+	private static String submitted() {
+		return "{ 'data': { 'bulkOperationRunQuery': { 'bulkOperation': { 'id': '" + SOME_BULK_OPERATION_ID
+				+ "', 'status': 'CREATED', 'objectCount': '0' }, 'userErrors': [] } } }";
+	}
+
+	private static String polled(final String status, final String url) {
+		return "{ 'data': { 'node': { 'id': '" + SOME_BULK_OPERATION_ID + "', 'status': '" + status + "', "
+				+ "'objectCount': '1', 'url': " + ((url == null) ? "null" : "'" + url + "'")
+				+ ", 'createdAt': '2020-03-01T12:00:00Z' } } }";
+	}
+
+	private static ShopifyGraphQlResponse readResponse(final String response) {
+		try {
+			return ShopifyMappers.getDefault().getReader(ShopifyGraphQlResponse.class)
+					.readValue(response.replace('\'', '"'));
+		} catch (final IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,318 @@
+package com.shopify.graphql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shopify.ShopifySdk;
+import com.shopify.exceptions.ShopifyGraphQlException;
+import com.shopify.mappers.ShopifyMappers;
+import com.shopify.model.InventoryPolicy;
+import com.shopify.model.Metafield;
+import com.shopify.model.MetafieldValueType;
+import com.shopify.model.OrderRiskRecommendation;
+import com.shopify.model.ShopifyGraphQlRequest;
+import com.shopify.model.ShopifyGraphQlResponse;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyOrderDetails;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyProductDetails;
+import com.shopify.model.ShopifyVariant;
+
+public class ShopifyGraphQlClientTest {
+
+	private static final String SOME_PRODUCT_ID = "632910392";
+	private static final String SOME_VARIANT_ID = "808950810";
+	private static final String OTHER_VARIANT_ID = "49148385";
+	private static final String SOME_ORDER_ID = "450789469";
+	private static final String SOME_REST_METAFIELD_ID = "9999";
+
+	private static final String COST_EXTENSIONS = "'extensions': { 'cost': { 'requestedQueryCost': 300, "
+			+ "'actualQueryCost': 12, 'throttleStatus': { 'maximumAvailable': 1000.0, "
+			+ "'currentlyAvailable': 988, 'restoreRate': 50.0 } } }";
+	private static final String THROTTLED_RESPONSE = "{ 'errors': [ { 'message': 'Throttled', "
+			+ "'extensions': { 'code': 'THROTTLED' } } ], " + COST_EXTENSIONS + " }";
+	private static final String SOME_METAFIELD = "{ 'node': { 'id': '721389482', 'namespace': 'inventory', "
+			+ "'key': 'warehouse', 'value': '25', 'value_type': 'INTEGER', "
+			+ "'created_at': '2018-01-01T12:00:00Z', 'updated_at': '2018-01-02T12:00:00Z' } }";
+	private static final String JSON_METAFIELD = "{ 'node': { 'id': '721389483', 'namespace': 'inventory', "
+			+ "'key': 'bins', 'value': '[1,2]', 'value_type': 'JSON_STRING' } }";
+
+	private final List<ShopifyGraphQlRequest> shopifyGraphQlRequests = new ArrayList<>();
+	private final LinkedList<String> responses = new LinkedList<>();
+	private final List<String> restMetafieldOwnerIds = new ArrayList<>();
+
+	private ShopifyGraphQlClient shopifyGraphQlClient;
+
+	@Before
+	public void setUp() {
+		final ShopifySdk shopifySdk = new ShopifySdk(null) {
+
+			@Override
+			public ShopifyGraphQlResponse postGraphQl(final ShopifyGraphQlRequest shopifyGraphQlRequest) {
+				shopifyGraphQlRequests.add(shopifyGraphQlRequest);
+				return readResponse(responses.removeFirst());
+			}
+
+			@Override
+			public List<Metafield> getProductMetafields(final String productId) {
+				return getRestMetafields(productId);
+			}
+
+			@Override
+			public List<Metafield> getVariantMetafields(final String variantId) {
+				return getRestMetafields(variantId);
+			}
+
+			@Override
+			public List<Metafield> getOrderMetafields(final String orderId) {
+				return getRestMetafields(orderId);
+			}
+		};
+		shopifyGraphQlClient = new ShopifyGraphQlClient(shopifySdk);
+	}
+
+	@Test
+	public void givenProductWhenGettingProductDetailsThenBindProductVariantsAndMetafieldsFromOneQuery() {
+		responses.add(productResponse(false, false, variant(SOME_VARIANT_ID, false, SOME_METAFIELD, JSON_METAFIELD),
+				variant(OTHER_VARIANT_ID, false)));
+
+		final ShopifyProductDetails shopifyProductDetails = shopifyGraphQlClient.getProductDetails(SOME_PRODUCT_ID);
+
+		assertEquals(1, shopifyGraphQlRequests.size());
+		final ShopifyGraphQlRequest shopifyGraphQlRequest = shopifyGraphQlRequests.get(0);
+		assertEquals(ShopifyGraphQlClient.PRODUCT_DETAILS_QUERY, shopifyGraphQlRequest.getQuery());
+		assertEquals("gid://shopify/Product/632910392", shopifyGraphQlRequest.getVariables().get("id"));
+
+		final ShopifyProduct shopifyProduct = shopifyProductDetails.getProduct();
+		assertEquals(SOME_PRODUCT_ID, shopifyProduct.getId());
+		assertEquals("IPod Nano - 8GB", shopifyProduct.getTitle());
+		assertEquals("<p>The small iPod.</p>", shopifyProduct.getBodyHtml());
+		assertEquals("Cult Products", shopifyProduct.getProductType());
+		assertEquals(Arrays.asList("Emotive", "Flash Memory"), new ArrayList<>(shopifyProduct.getTags()));
+		assertEquals(2, shopifyProduct.getVariants().size());
+
+		final ShopifyVariant shopifyVariant = shopifyProduct.getVariants().get(0);
+		assertEquals(SOME_VARIANT_ID, shopifyVariant.getId());
+		assertEquals(SOME_PRODUCT_ID, shopifyVariant.getProductId());
+		assertEquals(new BigDecimal("199.00"), shopifyVariant.getPrice());
+		assertEquals("IPOD2008PINK", shopifyVariant.getSku());
+		assertEquals(Long.valueOf(10), shopifyVariant.getInventoryQuantity());
+		assertEquals(InventoryPolicy.CONTINUE, shopifyVariant.getInventoryPolicy());
+		assertEquals("Pink", shopifyVariant.getOption1());
+		assertEquals("8GB", shopifyVariant.getOption2());
+		assertNull(shopifyVariant.getOption3());
+		assertEquals("39072856", shopifyVariant.getInventoryItemId());
+
+		assertEquals(1, shopifyProductDetails.getMetafields().size());
+		assertEquals(SOME_PRODUCT_ID, shopifyProductDetails.getMetafields().get(0).getOwnerId());
+		assertEquals("product", shopifyProductDetails.getMetafields().get(0).getOwnerResource());
+
+		final List<Metafield> variantMetafields = shopifyProductDetails.getVariantMetafields(SOME_VARIANT_ID);
+		assertEquals(2, variantMetafields.size());
+		assertEquals("721389482", variantMetafields.get(0).getId());
+		assertEquals("warehouse", variantMetafields.get(0).getKey());
+		assertEquals(MetafieldValueType.INTEGER, variantMetafields.get(0).getValueType());
+		assertEquals(SOME_VARIANT_ID, variantMetafields.get(0).getOwnerId());
+		assertEquals("variant", variantMetafields.get(0).getOwnerResource());
+		assertNull(variantMetafields.get(1).getValueType());
+		assertTrue(shopifyProductDetails.getVariantMetafields(OTHER_VARIANT_ID).isEmpty());
+		assertTrue(restMetafieldOwnerIds.isEmpty());
+	}
+
+	@Test
+	public void givenMoreVariantsThanOnePageWhenGettingProductDetailsThenQueryNextPageAfterCursor() {
+		responses.add(productResponse(false, true, variant(SOME_VARIANT_ID, false)));
+		responses.add("{ 'data': { 'product': { 'variants': " + variantConnection(false, variant(OTHER_VARIANT_ID, false))
+				+ " } }, " + COST_EXTENSIONS + " }");
+
+		final ShopifyProductDetails shopifyProductDetails = shopifyGraphQlClient.getProductDetails(SOME_PRODUCT_ID);
+
+		assertEquals(2, shopifyGraphQlRequests.size());
+		final ShopifyGraphQlRequest nextPageRequest = shopifyGraphQlRequests.get(1);
+		assertEquals(ShopifyGraphQlClient.PRODUCT_VARIANTS_QUERY, nextPageRequest.getQuery());
+		assertEquals("cursor-" + SOME_VARIANT_ID, nextPageRequest.getVariables().get("after"));
+		assertEquals(2, shopifyProductDetails.getProduct().getVariants().size());
+		assertEquals(OTHER_VARIANT_ID, shopifyProductDetails.getProduct().getVariants().get(1).getId());
+		assertEquals(2, shopifyProductDetails.getVariantMetafields().size());
+	}
+
+	@Test
+	public void givenMoreMetafieldsThanOnePageWhenGettingProductDetailsThenGetThoseMetafieldsThroughRest() {
+		responses.add(productResponse(true, false, variant(SOME_VARIANT_ID, true, SOME_METAFIELD),
+				variant(OTHER_VARIANT_ID, false, SOME_METAFIELD)));
+
+		final ShopifyProductDetails shopifyProductDetails = shopifyGraphQlClient.getProductDetails(SOME_PRODUCT_ID);
+
+		assertEquals(Arrays.asList(SOME_PRODUCT_ID, SOME_VARIANT_ID), restMetafieldOwnerIds);
+		assertEquals(SOME_REST_METAFIELD_ID, shopifyProductDetails.getMetafields().get(0).getId());
+		assertEquals(SOME_REST_METAFIELD_ID, shopifyProductDetails.getVariantMetafields(SOME_VARIANT_ID).get(0).getId());
+		assertEquals("721389482", shopifyProductDetails.getVariantMetafields(OTHER_VARIANT_ID).get(0).getId());
+	}
+
+	@Test
+	public void givenNoSuchProductWhenGettingProductDetailsThenReturnNull() {
+		responses.add("{ 'data': { 'product': null }, " + COST_EXTENSIONS + " }");
+
+		assertNull(shopifyGraphQlClient.getProductDetails(SOME_PRODUCT_ID));
+	}
+
+	@Test
+	public void givenOrderWhenGettingOrderDetailsThenBindOrderTransactionsRisksAndMetafieldsFromOneQuery() {
+		responses.add("{ 'data': { 'order': { 'id': '450789469', 'name': '#1001', 'email': 'bob.norman@hostmail.com', "
+				+ "'tags': [ 'imported', 'vip' ], 'created_at': '2018-03-01T12:00:00Z', 'currency': 'USD', "
+				+ "'financial_status': 'PARTIALLY_REFUNDED', 'taxes_included': false, 'total_weight': 300, "
+				+ "'total_price': { 'shopMoney': { 'amount': '409.94' } }, "
+				+ "'subtotal_price': { 'shopMoney': { 'amount': '398.00' } }, "
+				+ "'total_tax': { 'shopMoney': { 'amount': '11.94' } }, "
+				+ "'total_discounts': { 'shopMoney': { 'amount': '0.0' } }, "
+				+ "'transactions': [ { 'id': 'gid://shopify/OrderTransaction/389404469', 'kind': 'AUTHORIZATION', "
+				+ "'gateway': 'bogus', 'parentTransaction': null, "
+				+ "'amount': { 'shopMoney': { 'amount': '409.94', 'currencyCode': 'USD' } } }, "
+				+ "{ 'id': 'gid://shopify/OrderTransaction/801038806', 'kind': 'CAPTURE', 'gateway': 'bogus', "
+				+ "'parentTransaction': { 'id': 'gid://shopify/OrderTransaction/389404469' }, "
+				+ "'amount': { 'shopMoney': { 'amount': '250.94', 'currencyCode': 'USD' } } } ], "
+				+ "'risks': [ { 'display': true, 'level': 'HIGH', 'message': 'Card verification failed' }, "
+				+ "{ 'display': false, 'level': 'LOW', 'message': 'Shipping matches billing' } ], "
+				+ "'metafields': { 'pageInfo': { 'hasNextPage': false }, 'edges': [ " + SOME_METAFIELD + " ] } } }, "
+				+ COST_EXTENSIONS + " }");
+
+		final ShopifyOrderDetails shopifyOrderDetails = shopifyGraphQlClient.getOrderDetails(SOME_ORDER_ID);
+
+		assertEquals(1, shopifyGraphQlRequests.size());
+		assertEquals("gid://shopify/Order/450789469", shopifyGraphQlRequests.get(0).getVariables().get("id"));
+
+		final ShopifyOrder shopifyOrder = shopifyOrderDetails.getOrder();
+		assertEquals(SOME_ORDER_ID, shopifyOrder.getId());
+		assertEquals("#1001", shopifyOrder.getName());
+		assertEquals("imported, vip", shopifyOrder.getTags());
+		assertEquals("partially_refunded", shopifyOrder.getFinancialStatus());
+		assertEquals("USD", shopifyOrder.getCurrency().getCurrencyCode());
+		assertEquals(new BigDecimal("409.94"), shopifyOrder.getTotalPrice());
+		assertEquals(new BigDecimal("398.00"), shopifyOrder.getSubtotalPrice());
+		assertEquals(new BigDecimal("11.94"), shopifyOrder.getTotalTax());
+		assertEquals(1, shopifyOrder.getMetafields().size());
+		assertEquals("order", shopifyOrder.getMetafields().get(0).getOwnerResource());
+
+		assertEquals(2, shopifyOrderDetails.getTransactions().size());
+		assertEquals("authorization", shopifyOrderDetails.getTransactions().get(0).getKind());
+		assertEquals(SOME_ORDER_ID, shopifyOrderDetails.getTransactions().get(0).getOrderId());
+		assertNull(shopifyOrderDetails.getTransactions().get(0).getParentId());
+		assertEquals("389404469", shopifyOrderDetails.getTransactions().get(1).getParentId());
+		assertEquals(new BigDecimal("250.94"), shopifyOrderDetails.getTransactions().get(1).getAmount());
+		assertEquals("USD", shopifyOrderDetails.getTransactions().get(1).getCurrency().getCurrencyCode());
+
+		assertEquals(2, shopifyOrderDetails.getRisks().size());
+		assertEquals(OrderRiskRecommendation.CANCEL, shopifyOrderDetails.getRisks().get(0).getRecommendation());
+		assertEquals("Card verification failed", shopifyOrderDetails.getRisks().get(0).getMessage());
+		assertEquals(SOME_ORDER_ID, shopifyOrderDetails.getRisks().get(0).getOrderId());
+		assertEquals(OrderRiskRecommendation.ACCEPT, shopifyOrderDetails.getRisks().get(1).getRecommendation());
+		assertTrue(restMetafieldOwnerIds.isEmpty());
+	}
+
+	@Test
+	public void givenThrottledResponseWhenQueryingThenSendQueryAgainAndReturnData() {
+		responses.add(THROTTLED_RESPONSE);
+		responses.add("{ 'data': { 'shop': { 'name': 'Apple Computers' } }, " + COST_EXTENSIONS + " }");
+
+		assertEquals("Apple Computers",
+				shopifyGraphQlClient.query("{ shop { name } }", Collections.emptyMap()).path("shop").path("name")
+						.asText());
+		assertEquals(2, shopifyGraphQlRequests.size());
+		assertEquals(988.0, shopifyGraphQlClient.getThrottle().getCurrentlyAvailable(), 1.0);
+	}
+
+	@Test
+	public void givenQueryStillThrottledAfterMaximumAttemptsWhenQueryingThenThrowShopifyGraphQlException() {
+		for (int attempt = 0; attempt < ShopifyGraphQlClient.MAXIMUM_THROTTLED_ATTEMPTS; attempt++) {
+			responses.add(THROTTLED_RESPONSE);
+		}
+
+		try {
+			shopifyGraphQlClient.query("{ shop { name } }", Collections.emptyMap());
+		} catch (final ShopifyGraphQlException e) {
+			assertEquals(ShopifyGraphQlClient.THROTTLED, e.getErrors().get(0).getCode());
+			assertEquals(ShopifyGraphQlClient.MAXIMUM_THROTTLED_ATTEMPTS, shopifyGraphQlRequests.size());
+			return;
+		}
+		throw new AssertionError("Expected ShopifyGraphQlException");
+	}
+
+	@Test(expected = ShopifyGraphQlException.class)
+	public void givenResponseWithErrorsWhenQueryingThenThrowShopifyGraphQlException() {
+		responses.add("{ 'errors': [ { 'message': 'Field nope does not exist on type Shop' } ] }");
+
+		shopifyGraphQlClient.query("{ shop { nope } }", Collections.emptyMap());
+	}
+
+	@Test
+	public void givenQuerySentBeforeWhenQueryingAgainThenReserveItsRequestedCost() {
+		final ShopifyGraphQlThrottle shopifyGraphQlThrottle = shopifyGraphQlClient.getThrottle();
+		responses.add("{ 'data': { }, " + COST_EXTENSIONS + " }");
+		responses.add("{ 'data': { } }");
+
+		shopifyGraphQlClient.query("{ shop { name } }", Collections.emptyMap());
+		shopifyGraphQlClient.query("{ shop { name } }", Collections.emptyMap());
+
+		assertEquals(688.0, shopifyGraphQlThrottle.getCurrentlyAvailable(), 1.0);
+	}
+
+	private List<Metafield> getRestMetafields(final String ownerId) {
+		restMetafieldOwnerIds.add(ownerId);
+		final Metafield metafield = new Metafield();
+		metafield.setId(SOME_REST_METAFIELD_ID);
+		metafield.setOwnerId(ownerId);
+		return Collections.singletonList(metafield);
+	}
+
+	private static String productResponse(final boolean hasMoreMetafields, final boolean hasMoreVariants,
+			final String... variants) {
+		return "{ 'data': { 'product': { 'id': '632910392', 'title': 'IPod Nano - 8GB', "
+				+ "'product_type': 'Cult Products', 'body_html': '<p>The small iPod.</p>', "
+				+ "'vendor': 'Apple', 'tags': [ 'Emotive', 'Flash Memory' ], "
+				+ "'created_at': '2017-03-13T12:00:00Z', 'updated_at': '2017-03-14T12:00:00Z', 'metafields': "
+				+ metafieldConnection(hasMoreMetafields, SOME_METAFIELD) + ", 'variants': "
+				+ variantConnection(hasMoreVariants, variants) + " } }, " + COST_EXTENSIONS + " }";
+	}
+
+	private static String variantConnection(final boolean hasNextPage, final String... variants) {
+		return "{ 'pageInfo': { 'hasNextPage': " + hasNextPage + " }, 'edges': [ " + String.join(", ", variants)
+				+ " ] }";
+	}
+
+	private static String variant(final String variantId, final boolean hasMoreMetafields,
+			final String... metafields) {
+		return "{ 'cursor': 'cursor-" + variantId + "', 'node': { 'id': '" + variantId + "', 'title': 'Pink', "
+				+ "'price': '199.00', 'compare_at_price': null, 'sku': 'IPOD2008PINK', 'barcode': '1234_pink', "
+				+ "'position': 1, 'inventory_quantity': 10, 'inventory_policy': 'CONTINUE', 'taxable': true, "
+				+ "'selectedOptions': [ { 'value': 'Pink' }, { 'value': '8GB' } ], "
+				+ "'inventoryItem': { 'legacyResourceId': '39072856' }, 'metafields': "
+				+ metafieldConnection(hasMoreMetafields, metafields) + " } }";
+	}
+
+	private static String metafieldConnection(final boolean hasNextPage, final String... metafields) {
+		return "{ 'pageInfo': { 'hasNextPage': " + hasNextPage + " }, 'edges': [ " + String.join(", ", metafields)
+				+ " ] }";
+	}
+
+	private static ShopifyGraphQlResponse readResponse(final String response) {
+		try {
+			return ShopifyMappers.getDefault().getReader(ShopifyGraphQlResponse.class)
+					.readValue(response.replace('\'', '"'));
+		} catch (final IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.shopify.graphql;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class ShopifyGraphQlThrottleTest {
+
+	private final AtomicLong nanoClock = new AtomicLong();
+	private final ShopifyGraphQlThrottle shopifyGraphQlThrottle = new ShopifyGraphQlThrottle(nanoClock::get);
+
+	@Test
+	public void givenEnoughPointsWhenReservingThenDoNotWait() {
+		assertEquals(0, shopifyGraphQlThrottle.reserve(400));
+		assertEquals(0, shopifyGraphQlThrottle.reserve(600));
+		assertEquals(0.0, shopifyGraphQlThrottle.getCurrentlyAvailable(), 0.0);
+	}
+
+	@Test
+	public void givenTooFewPointsWhenReservingThenWaitForThemToBeRestored() {
+		shopifyGraphQlThrottle.reserve(1000);
+
+		assertEquals(TimeUnit.SECONDS.toNanos(2), shopifyGraphQlThrottle.reserve(100));
+		assertEquals(TimeUnit.SECONDS.toNanos(4), shopifyGraphQlThrottle.reserve(100));
+	}
+
+	@Test
+	public void givenTimePassedWhenReservingThenRestorePointsUpToMaximum() {
+		shopifyGraphQlThrottle.reserve(1000);
+		nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+		assertEquals(100.0, shopifyGraphQlThrottle.getCurrentlyAvailable(), 0.0001);
+
+		nanoClock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+		assertEquals(1000.0, shopifyGraphQlThrottle.getCurrentlyAvailable(), 0.0001);
+	}
+
+	@Test
+	public void givenCostAboveMaximumWhenReservingThenReserveMaximum() {
+		assertEquals(0, shopifyGraphQlThrottle.reserve(5000));
+		assertEquals(0.0, shopifyGraphQlThrottle.getCurrentlyAvailable(), 0.0);
+	}
+
+	@Test
+	public void givenThrottleStatusWhenUpdatingThenUseReportedState() {
+		final ObjectNode throttleStatus = JsonNodeFactory.instance.objectNode();
+		throttleStatus.put(ShopifyGraphQlThrottle.MAXIMUM_AVAILABLE, 2000.0);
+		throttleStatus.put(ShopifyGraphQlThrottle.CURRENTLY_AVAILABLE, 50.0);
+		throttleStatus.put(ShopifyGraphQlThrottle.RESTORE_RATE, 100.0);
+
+		shopifyGraphQlThrottle.update(throttleStatus);
+
+		assertEquals(50.0, shopifyGraphQlThrottle.getCurrentlyAvailable(), 0.0);
+		assertEquals(TimeUnit.SECONDS.toNanos(1), shopifyGraphQlThrottle.reserve(150));
+	}
+
+	@Test
+	public void givenReservationsPendingWhenUpdatingWithHigherPointsThenKeepReservations() {
+		shopifyGraphQlThrottle.reserve(1000);
+		shopifyGraphQlThrottle.reserve(200);
+		final ObjectNode throttleStatus = JsonNodeFactory.instance.objectNode();
+		throttleStatus.put(ShopifyGraphQlThrottle.CURRENTLY_AVAILABLE, 500.0);
+
+		shopifyGraphQlThrottle.update(throttleStatus);
+
+		assertEquals(-200.0, shopifyGraphQlThrottle.getCurrentlyAvailable(), 0.0);
+	}
+
+	@Test
+	public void givenNoThrottleStatusWhenUpdatingThenKeepTrackedState() {
+		shopifyGraphQlThrottle.reserve(300);
+
+		shopifyGraphQlThrottle.update(null);
+
+		assertEquals(700.0, shopifyGraphQlThrottle.getCurrentlyAvailable(), 0.0);
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.shopify.mappers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyProductRoot;
+import com.shopify.model.ShopifyVariant;
+
+public class ShopifyJsonStreamingOutputTest {
+
+	private final ObjectMapper mapper = ShopifySdkObjectMapper.buildMapper();
+
+	@Test
+	public void givenSomeProductWhenWritingThenWriteSameJsonAsMapper() throws Exception {
+		final ShopifyProductRoot shopifyProductRoot = buildShopifyProductRoot();
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		new ShopifyJsonStreamingOutput(mapper, shopifyProductRoot).write(outputStream);
+
+		assertEquals(mapper.writeValueAsString(shopifyProductRoot),
+				new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void givenSomeProductWhenWritingTwiceThenWriteSameJsonTwice() throws Exception {
+		final ShopifyJsonStreamingOutput shopifyJsonStreamingOutput = new ShopifyJsonStreamingOutput(mapper,
+				buildShopifyProductRoot());
+		final ByteArrayOutputStream firstOutputStream = new ByteArrayOutputStream();
+		final ByteArrayOutputStream secondOutputStream = new ByteArrayOutputStream();
+
+		shopifyJsonStreamingOutput.write(firstOutputStream);
+		shopifyJsonStreamingOutput.write(secondOutputStream);
+
+		assertEquals(firstOutputStream.toString("UTF-8"), secondOutputStream.toString("UTF-8"));
+	}
+
+	@Test
+	public void givenSomeProductWhenWritingThenLeaveOutputStreamOpen() throws Exception {
+		final CloseTrackingOutputStream outputStream = new CloseTrackingOutputStream();
+
+		new ShopifyJsonStreamingOutput(mapper, buildShopifyProductRoot()).write(outputStream);
+
+		assertFalse(outputStream.closed);
+	}
+
+	private static ShopifyProductRoot buildShopifyProductRoot() {
+		final ShopifyProduct shopifyProduct = new ShopifyProduct();
+		shopifyProduct.setTitle("Salt & Pepper Grinder");
+		for (int index = 0; index < 3; index++) {
+			final ShopifyVariant shopifyVariant = new ShopifyVariant();
+			shopifyVariant.setSku("SKU-" + index);
+			shopifyProduct.getVariants().add(shopifyVariant);
+		}
+		final ShopifyProductRoot shopifyProductRoot = new ShopifyProductRoot();
+		shopifyProductRoot.setProduct(shopifyProduct);
+		return shopifyProductRoot;
+	}
+
+	private static class CloseTrackingOutputStream extends ByteArrayOutputStream {
+
+		private boolean closed;
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+
+	}
+
+}
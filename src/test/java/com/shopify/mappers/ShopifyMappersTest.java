@@ -0,0 +1,56 @@
+package com.shopify.mappers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopify.model.ShopifyErrorsRoot;
+import com.shopify.model.ShopifyGiftCardRoot;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyProductRoot;
+
+public class ShopifyMappersTest {
+
+	@Test
+	public void givenDefaultRegistryWhenGettingItTwiceThenReturnSameMapper() {
+		assertSame(ShopifyMappers.getDefault(), ShopifyMappers.getDefault());
+		assertSame(ShopifyMappers.getDefault().getMapper(), ShopifyMappers.getDefault().getMapper());
+	}
+
+	@Test
+	public void givenSomeTypeWhenGettingReaderAndWriterTwiceThenReturnSameInstances() {
+		final ShopifyMappers shopifyMappers = new ShopifyMappers(ShopifySdkObjectMapper.buildMapper());
+
+		assertSame(shopifyMappers.getReader(ShopifyErrorsRoot.class),
+				shopifyMappers.getReader(ShopifyErrorsRoot.class));
+		assertSame(shopifyMappers.getReader(ShopifyGiftCardRoot.class),
+				shopifyMappers.getReader(ShopifyGiftCardRoot.class));
+		assertSame(shopifyMappers.getWriter(ShopifyProductRoot.class),
+				shopifyMappers.getWriter(ShopifyProductRoot.class));
+		assertNotSame(shopifyMappers.getReader(ShopifyErrorsRoot.class),
+				shopifyMappers.getReader(ShopifyProductRoot.class));
+	}
+
+	@Test
+	public void givenSomeProductRootWhenWritingAndReadingThenRoundTrip() throws Exception {
+		final ShopifyMappers shopifyMappers = ShopifyMappers.getDefault();
+		final ObjectMapper mapper = ShopifySdkObjectMapper.buildMapper();
+		final ShopifyProduct shopifyProduct = new ShopifyProduct();
+		shopifyProduct.setId("123");
+		shopifyProduct.setTitle("Hoodie");
+		final ShopifyProductRoot shopifyProductRoot = new ShopifyProductRoot();
+		shopifyProductRoot.setProduct(shopifyProduct);
+
+		final String json = shopifyMappers.getWriter(ShopifyProductRoot.class).writeValueAsString(shopifyProductRoot);
+		final ShopifyProductRoot actualShopifyProductRoot = shopifyMappers.getReader(ShopifyProductRoot.class)
+				.readValue(json);
+
+		assertEquals(mapper.writeValueAsString(shopifyProductRoot), json);
+		assertEquals("123", actualShopifyProductRoot.getProduct().getId());
+		assertEquals("Hoodie", actualShopifyProductRoot.getProduct().getTitle());
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.shopify.mappers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyTransaction;
+
+public class ShopifyStringPoolTest {
+
+	private static final String ORDER_JSON = "{\"id\":\"%s\",\"name\":\"#%s\",\"financial_status\":\"paid\","
+			+ "\"fulfillment_status\":\"fulfilled\",\"source_name\":\"web\",\"processing_method\":\"direct\","
+			+ "\"line_items\":[{\"id\":\"1\",\"vendor\":\"Acme &amp; Co\"}]}";
+
+	@Test
+	public void givenEqualStringsWhenCanonicalizingThenReturnFirstInstance() {
+		final ShopifyStringPool shopifyStringPool = ShopifyStringPool.withDefaultFields();
+		final String first = new String("paid");
+		final String second = new String("paid");
+
+		assertSame(first, shopifyStringPool.canonicalize(first));
+		assertSame(first, shopifyStringPool.canonicalize(second));
+	}
+
+	@Test
+	public void givenLongStringWhenCanonicalizingThenReturnItUnpooled() {
+		final ShopifyStringPool shopifyStringPool = ShopifyStringPool.withDefaultFields();
+		final char[] characters = new char[ShopifyStringPool.MAXIMUM_STRING_LENGTH + 1];
+		Arrays.fill(characters, 'a');
+		final String first = new String(characters);
+		final String second = new String(characters);
+
+		shopifyStringPool.canonicalize(first);
+
+		assertSame(second, shopifyStringPool.canonicalize(second));
+	}
+
+	@Test
+	public void givenMoreStringsThanBucketSizeWhenCanonicalizingThenLatestIsPooled() {
+		final ShopifyStringPool shopifyStringPool = new ShopifyStringPool(ShopifyStringPool.BUCKET_SIZE,
+				Collections.emptyMap());
+		final String[] statuses = { "pending", "authorized", "partially_paid", "paid", "refunded" };
+		for (int index = 0; index < ShopifyStringPool.BUCKET_SIZE; index++) {
+			shopifyStringPool.canonicalize(statuses[index]);
+		}
+		for (int index = 0; index < ShopifyStringPool.BUCKET_SIZE; index++) {
+			assertSame(statuses[index], shopifyStringPool.canonicalize(new String(statuses[index])));
+		}
+
+		final String refunded = statuses[ShopifyStringPool.BUCKET_SIZE];
+		shopifyStringPool.canonicalize(refunded);
+
+		assertSame(refunded, shopifyStringPool.canonicalize(new String(refunded)));
+	}
+
+	@Test
+	public void givenCapacityWhenCreatingPoolThenRoundUpToPowerOfTwo() {
+		assertEquals(8, new ShopifyStringPool(5, Collections.emptyMap()).getCapacity());
+		assertEquals(ShopifyStringPool.BUCKET_SIZE, new ShopifyStringPool(1, Collections.emptyMap()).getCapacity());
+		assertEquals(ShopifyStringPool.DEFAULT_CAPACITY, ShopifyStringPool.withDefaultFields().getCapacity());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroCapacityWhenCreatingPoolThenThrowIllegalArgumentException() {
+		new ShopifyStringPool(0, Collections.emptyMap());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenUnknownFieldWhenCreatingPoolThenThrowIllegalArgumentException() {
+		new ShopifyStringPool(16, Collections.singletonMap(ShopifyOrder.class, Arrays.asList("status")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenNonStringFieldWhenCreatingPoolThenThrowIllegalArgumentException() {
+		new ShopifyStringPool(16, Collections.singletonMap(ShopifyTransaction.class, Arrays.asList("currency")));
+	}
+
+	@Test
+	public void givenMapperWithStringPoolWhenReadingOrdersThenPooledFieldsShareInstances() throws Exception {
+		final ObjectMapper mapper = ShopifySdkObjectMapper.buildMapper(ShopifyStringPool.withDefaultFields());
+
+		final ShopifyOrder firstOrder = mapper.readValue(String.format(ORDER_JSON, 1, 1001), ShopifyOrder.class);
+		final ShopifyOrder secondOrder = mapper.readValue(String.format(ORDER_JSON, 2, 1002), ShopifyOrder.class);
+
+		assertEquals("paid", secondOrder.getFinancialStatus());
+		assertSame(firstOrder.getFinancialStatus(), secondOrder.getFinancialStatus());
+		assertSame(firstOrder.getFulfillmentStatus(), secondOrder.getFulfillmentStatus());
+		assertSame(firstOrder.getSourceName(), secondOrder.getSourceName());
+		assertSame(firstOrder.getProcessingMethod(), secondOrder.getProcessingMethod());
+		assertSame(firstOrder.getLineItems().get(0).getVendor(), secondOrder.getLineItems().get(0).getVendor());
+		assertNotSame(firstOrder.getId(), secondOrder.getId());
+	}
+
+	@Test
+	public void givenMapperWithoutStringPoolWhenReadingOrdersThenFieldsAreNotShared() throws Exception {
+		final ObjectMapper mapper = ShopifySdkObjectMapper.buildMapper();
+
+		final ShopifyOrder firstOrder = mapper.readValue(String.format(ORDER_JSON, 1, 1001), ShopifyOrder.class);
+		final ShopifyOrder secondOrder = mapper.readValue(String.format(ORDER_JSON, 2, 1002), ShopifyOrder.class);
+
+		assertEquals(firstOrder.getFinancialStatus(), secondOrder.getFinancialStatus());
+		assertNotSame(firstOrder.getFinancialStatus(), secondOrder.getFinancialStatus());
+	}
+
+	@Test
+	public void givenMapperWithStringPoolWhenReadingEscapedFieldThenKeepAdapter() throws Exception {
+		final ShopifyStringPool shopifyStringPool = new ShopifyStringPool(16,
+				Collections.singletonMap(ShopifyProduct.class, Arrays.asList("vendor")));
+		final ObjectMapper mapper = ShopifySdkObjectMapper.buildMapper(shopifyStringPool);
+
+		final ShopifyProduct firstProduct = mapper.readValue("{\"id\":\"1\",\"vendor\":\"Acme &amp; Co\"}",
+				ShopifyProduct.class);
+		final ShopifyProduct secondProduct = mapper.readValue("{\"id\":\"2\",\"vendor\":\"Acme &amp; Co\"}",
+				ShopifyProduct.class);
+
+		assertEquals("Acme & Co", secondProduct.getVendor());
+		assertSame(firstProduct.getVendor(), secondProduct.getVendor());
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.shopify.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OffHeapShopifyProductsTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void givenSomeStoredProductsWhenRetrievingByIdThenReturnDecodedProducts() throws IOException {
+		try (final OffHeapShopifyProducts offHeapShopifyProducts = OffHeapShopifyProducts.direct()) {
+			final ShopifyProduct someProduct = ShopifyProductsTest.buildShopifyProduct("632910392", "808950810",
+					"808950811");
+			someProduct.setTitle("IPod Nano - 8GB");
+			offHeapShopifyProducts.add(someProduct);
+			offHeapShopifyProducts.add(ShopifyProductsTest.buildShopifyProduct("921728736", "39072856"));
+
+			assertEquals(2, offHeapShopifyProducts.size());
+			assertEquals("IPod Nano - 8GB", offHeapShopifyProducts.get(632910392L).getTitle());
+			assertEquals("921728736", offHeapShopifyProducts.get("921728736").getId());
+			assertTrue(offHeapShopifyProducts.containsKey("632910392"));
+			assertFalse(offHeapShopifyProducts.containsKey(1L));
+			assertNull(offHeapShopifyProducts.get(1L));
+			assertEquals(2, offHeapShopifyProducts.values().size());
+			assertEquals(3, offHeapShopifyProducts.getVariants().size());
+			assertTrue(offHeapShopifyProducts.sizeInBytes() > 0);
+		}
+	}
+
+	@Test
+	public void givenSomeStoredProductsWhenRetrievingVariantsBySecondaryKeysThenReturnDecodedVariants()
+			throws IOException {
+		try (final OffHeapShopifyProducts offHeapShopifyProducts = OffHeapShopifyProducts
+				.mapped(temporaryFolder.newFile().toPath())) {
+			final ShopifyProduct someProduct = ShopifyProductsTest.buildShopifyProduct("632910392", "808950810",
+					"808950811");
+			final ShopifyVariant someVariant = someProduct.getVariants().get(1);
+			someVariant.setSku("IPOD2008BLACK");
+			someVariant.setBarcode("1234_black");
+			someVariant.setInventoryItemId("39072857");
+			offHeapShopifyProducts.add(someProduct);
+
+			assertEquals("808950811", offHeapShopifyProducts.getVariant(808950811L).getId());
+			assertEquals("808950810", offHeapShopifyProducts.getVariant("808950810").getId());
+			assertEquals("808950811", offHeapShopifyProducts.getVariantBySku("IPOD2008BLACK").getId());
+			assertEquals("808950811", offHeapShopifyProducts.getVariantByBarcode("1234_black").getId());
+			assertEquals("808950811", offHeapShopifyProducts.getVariantByInventoryItemId(39072857L).getId());
+			assertEquals("808950811", offHeapShopifyProducts.getVariantByInventoryItemId("39072857").getId());
+			assertNull(offHeapShopifyProducts.getVariant(1L));
+			assertNull(offHeapShopifyProducts.getVariantBySku("UNKNOWN"));
+			assertNull(offHeapShopifyProducts.getVariantBySku(null));
+		}
+	}
+
+	@Test
+	public void givenVariantsSharingSkuWhenRetrievingVariantBySkuThenReturnVariantWithLowestId() throws IOException {
+		try (final OffHeapShopifyProducts offHeapShopifyProducts = OffHeapShopifyProducts.direct()) {
+			final ShopifyProduct someProduct = ShopifyProductsTest.buildShopifyProduct("632910392", "808950811");
+			final ShopifyProduct someOtherProduct = ShopifyProductsTest.buildShopifyProduct("921728736", "808950810");
+			someProduct.getVariants().get(0).setSku("IPOD2008PINK");
+			someOtherProduct.getVariants().get(0).setSku("IPOD2008PINK");
+			offHeapShopifyProducts.add(someProduct);
+			offHeapShopifyProducts.add(someOtherProduct);
+
+			assertEquals("808950810", offHeapShopifyProducts.getVariantBySku("IPOD2008PINK").getId());
+		}
+	}
+
+	@Test
+	public void givenStoredProductWhenAddingNewVersionThenReturnNewVersion() throws IOException {
+		try (final OffHeapShopifyProducts offHeapShopifyProducts = OffHeapShopifyProducts.direct()) {
+			final ShopifyProduct someProduct = ShopifyProductsTest.buildShopifyProduct("632910392", "808950810",
+					"808950811");
+			someProduct.getVariants().get(0).setSku("IPOD2008PINK");
+			offHeapShopifyProducts.add(someProduct);
+			someProduct.getVariants().get(0).setSku("IPOD2008RED");
+			someProduct.getVariants().get(1).setSku("IPOD2008PINK");
+
+			offHeapShopifyProducts.add(someProduct);
+
+			assertEquals(1, offHeapShopifyProducts.size());
+			assertEquals("808950810", offHeapShopifyProducts.getVariantBySku("IPOD2008RED").getId());
+			assertEquals("808950811", offHeapShopifyProducts.getVariantBySku("IPOD2008PINK").getId());
+		}
+	}
+
+	@Test
+	public void givenSomeStoredProductsWhenVisitingEachProductThenVisitEveryProduct() throws IOException {
+		try (final OffHeapShopifyProducts offHeapShopifyProducts = OffHeapShopifyProducts.direct()) {
+			offHeapShopifyProducts.add(ShopifyProductsTest.buildShopifyProduct("632910392"));
+			offHeapShopifyProducts.add(ShopifyProductsTest.buildShopifyProduct("921728736"));
+			final List<ShopifyProduct> visitedProducts = new ArrayList<>();
+
+			offHeapShopifyProducts.forEachProduct(visitedProducts::add);
+
+			assertEquals(2, visitedProducts.size());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenProductWithoutNumericIdWhenAddingThenExpectIllegalArgumentException() throws IOException {
+		try (final OffHeapShopifyProducts offHeapShopifyProducts = OffHeapShopifyProducts.direct()) {
+			offHeapShopifyProducts.add(ShopifyProductsTest.buildShopifyProduct("not-numeric"));
+		}
+	}
+
+}
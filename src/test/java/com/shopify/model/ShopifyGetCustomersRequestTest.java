@@ -23,6 +23,8 @@ public class ShopifyGetCustomersRequestTest {
                 .withIds(ids)
                 .withCreatedAtMin(minimumCreationDate)
                 .withCreatedAtMax(maximumCreationDate)
+                .withUpdatedAtMin(minimumCreationDate)
+                .withUpdatedAtMax(maximumCreationDate)
                 .build();
         assertEquals(1, shopifyGetCustomersRequest.getPage());
         assertEquals(50, shopifyGetCustomersRequest.getLimit());
@@ -30,5 +32,7 @@ public class ShopifyGetCustomersRequestTest {
         assertEquals("some-id", shopifyGetCustomersRequest.getIds().get(0));
         assertEquals(minimumCreationDate, shopifyGetCustomersRequest.getCreatedAtMin());
         assertEquals(maximumCreationDate, shopifyGetCustomersRequest.getCreatedAtMax());
+        assertEquals(minimumCreationDate, shopifyGetCustomersRequest.getUpdatedAtMin());
+        assertEquals(maximumCreationDate, shopifyGetCustomersRequest.getUpdatedAtMax());
     }
 }
@@ -0,0 +1,32 @@
+package com.shopify.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class ShopifyIdsTest {
+
+	@Test
+	public void givenSomeNumericIdWhenConvertingToLongThenReturnNumericId() {
+		assertEquals(632910392L, ShopifyIds.toLong("632910392"));
+		assertEquals(Long.MAX_VALUE, ShopifyIds.toLong(String.valueOf(Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void givenSomeInvalidIdWhenConvertingToLongThenReturnNoId() {
+		assertEquals(ShopifyIds.NO_ID, ShopifyIds.toLong(null));
+		assertEquals(ShopifyIds.NO_ID, ShopifyIds.toLong(""));
+		assertEquals(ShopifyIds.NO_ID, ShopifyIds.toLong("-5"));
+		assertEquals(ShopifyIds.NO_ID, ShopifyIds.toLong("12a4"));
+		assertEquals(ShopifyIds.NO_ID, ShopifyIds.toLong("9223372036854775808"));
+		assertEquals(ShopifyIds.NO_ID, ShopifyIds.toLong("99999999999999999999"));
+	}
+
+	@Test
+	public void givenSomeNumericIdWhenConvertingToStringThenReturnStringId() {
+		assertEquals("632910392", ShopifyIds.toString(632910392L));
+		assertNull(ShopifyIds.toString(ShopifyIds.NO_ID));
+	}
+
+}
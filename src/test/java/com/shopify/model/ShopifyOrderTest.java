@@ -1,6 +1,9 @@
 package com.shopify.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
 import java.util.Collections;
@@ -123,4 +126,25 @@ public class ShopifyOrderTest {
 
 	}
 
+	@Test
+	public void givenNewShopifyOrderWhenRetrievingNestedValuesThenExpectEmptyMutableValues() {
+		final ShopifyOrder shopifyOrder = new ShopifyOrder();
+
+		assertTrue(shopifyOrder.getLineItems().isEmpty());
+		assertTrue(shopifyOrder.getFulfillments().isEmpty());
+		assertTrue(shopifyOrder.getShippingLines().isEmpty());
+		assertTrue(shopifyOrder.getTaxLines().isEmpty());
+		assertTrue(shopifyOrder.getNoteAttributes().isEmpty());
+		assertTrue(shopifyOrder.getRefunds().isEmpty());
+		assertTrue(shopifyOrder.getMetafields().isEmpty());
+		assertNotNull(shopifyOrder.getBillingAddress());
+		assertNotNull(shopifyOrder.getShippingAddress());
+		assertNotNull(shopifyOrder.getCustomer());
+
+		final ShopifyLineItem shopifyLineItem = new ShopifyLineItem();
+		shopifyOrder.getLineItems().add(shopifyLineItem);
+		assertSame(shopifyLineItem, shopifyOrder.getLineItems().get(0));
+		assertSame(shopifyOrder.getBillingAddress(), shopifyOrder.getBillingAddress());
+	}
+
 }
@@ -1,6 +1,8 @@
 package com.shopify.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
@@ -22,6 +24,21 @@ public class ShopifyProductTest {
 		assertEquals(Arrays.asList("Viscosity", "Size", "Flavor"), actualSortedOptionNames);
 	}
 
+	@Test
+	public void givenNewShopifyProductWhenRetrievingCollectionsThenExpectEmptyMutableCollections() {
+		final ShopifyProduct shopifyProduct = new ShopifyProduct();
+
+		assertTrue(shopifyProduct.getTags().isEmpty());
+		assertTrue(shopifyProduct.getOptions().isEmpty());
+		assertTrue(shopifyProduct.getImages().isEmpty());
+		assertTrue(shopifyProduct.getVariants().isEmpty());
+		assertTrue(shopifyProduct.getSortedOptionNames().isEmpty());
+
+		final ShopifyVariant shopifyVariant = new ShopifyVariant();
+		shopifyProduct.getVariants().add(shopifyVariant);
+		assertSame(shopifyVariant, shopifyProduct.getVariants().get(0));
+	}
+
 	private Option buildOption(final int position, final String name) {
 		final Option option = new Option();
 		option.setPosition(position);
@@ -0,0 +1,131 @@
+package com.shopify.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ShopifyProductsTest {
+
+	private static final ShopifyProduct SOME_PRODUCT = buildShopifyProduct("632910392", "808950810", "808950811");
+	private static final ShopifyProduct SOME_OTHER_PRODUCT = buildShopifyProduct("921728736", "39072856");
+	private static final List<ShopifyProduct> SOME_PRODUCTS = Arrays.asList(SOME_PRODUCT, SOME_OTHER_PRODUCT);
+
+	@Test
+	public void givenSomeProductsWhenRetrievingByIdThenReturnProducts() {
+		final ShopifyProducts shopifyProducts = new ShopifyProducts(SOME_PRODUCTS);
+
+		assertFalse(shopifyProducts.hasNumericIds());
+		assertEquals(2, shopifyProducts.size());
+		assertSame(SOME_PRODUCT, shopifyProducts.get("632910392"));
+		assertSame(SOME_OTHER_PRODUCT, shopifyProducts.get(921728736L));
+		assertTrue(shopifyProducts.containsKey("632910392"));
+		assertTrue(shopifyProducts.containsKey(921728736L));
+		assertNull(shopifyProducts.get("1"));
+		assertEquals(3, shopifyProducts.getVariants().size());
+	}
+
+	@Test
+	public void givenSomeProductsWithNumericIdsWhenRetrievingByIdThenReturnProducts() {
+		final ShopifyProducts shopifyProducts = ShopifyProducts.withNumericIds(SOME_PRODUCTS);
+
+		assertTrue(shopifyProducts.hasNumericIds());
+		assertEquals(2, shopifyProducts.size());
+		assertSame(SOME_PRODUCT, shopifyProducts.get(632910392L));
+		assertSame(SOME_OTHER_PRODUCT, shopifyProducts.get("921728736"));
+		assertTrue(shopifyProducts.containsKey(632910392L));
+		assertTrue(shopifyProducts.containsKey("921728736"));
+		assertFalse(shopifyProducts.containsKey("not-numeric"));
+		assertNull(shopifyProducts.get(1L));
+		assertEquals(2, shopifyProducts.values().size());
+		assertEquals(3, shopifyProducts.getVariants().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenSomeProductWithoutNumericIdWhenIndexingByNumericIdThenExpectIllegalArgumentException() {
+		ShopifyProducts.withNumericIds(Arrays.asList(buildShopifyProduct("not-numeric")));
+	}
+
+	@Test
+	public void givenSomeProductsWhenRetrievingVariantsBySecondaryKeysThenReturnVariants() {
+		final ShopifyProduct someProduct = buildShopifyProduct("632910392", "808950810", "808950811");
+		final ShopifyVariant someVariant = someProduct.getVariants().get(0);
+		someVariant.setSku("IPOD2008PINK");
+		someVariant.setBarcode("1234_pink");
+		someVariant.setInventoryItemId("39072856");
+		final ShopifyProducts shopifyProducts = new ShopifyProducts(Arrays.asList(someProduct));
+
+		assertSame(someVariant, shopifyProducts.getVariant("808950810"));
+		assertSame(someVariant, shopifyProducts.getVariant(808950810L));
+		assertSame(someVariant, shopifyProducts.getVariantBySku("IPOD2008PINK"));
+		assertSame(someVariant, shopifyProducts.getVariantByBarcode("1234_pink"));
+		assertSame(someVariant, shopifyProducts.getVariantByInventoryItemId("39072856"));
+		assertSame(someVariant, shopifyProducts.getVariantByInventoryItemId(39072856L));
+		assertSame(someProduct.getVariants().get(1), shopifyProducts.getVariant("808950811"));
+		assertNull(shopifyProducts.getVariant("1"));
+		assertNull(shopifyProducts.getVariantBySku("UNKNOWN"));
+		assertNull(shopifyProducts.getVariantBySku(null));
+	}
+
+	@Test
+	public void givenSomeProductsWithNumericIdsWhenRetrievingVariantsBySecondaryKeysThenReturnVariants() {
+		final ShopifyProduct someProduct = buildShopifyProduct("632910392", "808950810", "808950811");
+		final ShopifyVariant someVariant = someProduct.getVariants().get(1);
+		someVariant.setSku("IPOD2008BLACK");
+		someVariant.setInventoryItemId("39072857");
+		final ShopifyProducts shopifyProducts = ShopifyProducts.withNumericIds(Arrays.asList(someProduct));
+
+		assertSame(someVariant, shopifyProducts.getVariant(808950811L));
+		assertSame(someVariant, shopifyProducts.getVariant("808950811"));
+		assertSame(someVariant, shopifyProducts.getVariantBySku("IPOD2008BLACK"));
+		assertSame(someVariant, shopifyProducts.getVariantByInventoryItemId(39072857L));
+		assertSame(someVariant, shopifyProducts.getVariantByInventoryItemId("39072857"));
+		assertNull(shopifyProducts.getVariant("not-numeric"));
+		assertNull(shopifyProducts.getVariantByInventoryItemId(39072856L));
+	}
+
+	@Test
+	public void givenVariantsSharingSkuWhenRetrievingVariantBySkuThenReturnVariantWithLowestId() {
+		final ShopifyProduct someProduct = buildShopifyProduct("632910392", "808950811");
+		final ShopifyProduct someOtherProduct = buildShopifyProduct("921728736", "808950810");
+		someProduct.getVariants().get(0).setSku("IPOD2008PINK");
+		someOtherProduct.getVariants().get(0).setSku("IPOD2008PINK");
+		final ShopifyProducts shopifyProducts = new ShopifyProducts(Arrays.asList(someProduct, someOtherProduct));
+
+		assertSame(someOtherProduct.getVariants().get(0), shopifyProducts.getVariantBySku("IPOD2008PINK"));
+	}
+
+	@Test
+	public void givenIndexedVariantWithChangedSkuWhenClearingVariantIndexesThenRetrieveVariantByNewSku() {
+		final ShopifyProduct someProduct = buildShopifyProduct("632910392", "808950810");
+		final ShopifyVariant someVariant = someProduct.getVariants().get(0);
+		someVariant.setSku("IPOD2008PINK");
+		final ShopifyProducts shopifyProducts = new ShopifyProducts(Arrays.asList(someProduct));
+		assertSame(someVariant, shopifyProducts.getVariantBySku("IPOD2008PINK"));
+
+		someVariant.setSku("IPOD2008RED");
+		shopifyProducts.clearVariantIndexes();
+
+		assertSame(someVariant, shopifyProducts.getVariantBySku("IPOD2008RED"));
+		assertNull(shopifyProducts.getVariantBySku("IPOD2008PINK"));
+	}
+
+	static ShopifyProduct buildShopifyProduct(final String productId, final String... variantIds) {
+		final ShopifyProduct shopifyProduct = new ShopifyProduct();
+		shopifyProduct.setId(productId);
+		for (final String variantId : variantIds) {
+			final ShopifyVariant shopifyVariant = new ShopifyVariant();
+			shopifyVariant.setId(variantId);
+			shopifyVariant.setProductId(productId);
+			shopifyProduct.getVariants().add(shopifyVariant);
+		}
+		return shopifyProduct;
+	}
+
+}
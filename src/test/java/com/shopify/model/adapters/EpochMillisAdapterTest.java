@@ -0,0 +1,40 @@
+package com.shopify.model.adapters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class EpochMillisAdapterTest {
+
+	private static final long EPOCH_MILLIS = 1540232715000L;
+
+	private EpochMillisAdapter epochMillisAdapter;
+
+	@Before
+	public void setUp() {
+		epochMillisAdapter = new EpochMillisAdapter();
+	}
+
+	@Test
+	public void givenSomeEpochMillisWhenMarshallingThenReturnUtcTimestamp() throws Exception {
+		assertEquals("2018-10-22T18:25:15Z", epochMillisAdapter.marshal(EPOCH_MILLIS));
+	}
+
+	@Test
+	public void givenNullEpochMillisWhenMarshallingThenReturnNullString() throws Exception {
+		assertNull(epochMillisAdapter.marshal(null));
+	}
+
+	@Test
+	public void givenEmptyTimestampWhenUnmarshallingThenReturnNullEpochMillis() throws Exception {
+		assertNull(epochMillisAdapter.unmarshal(" "));
+	}
+
+	@Test
+	public void givenSomeTimestampWhenUnmarshallingThenReturnEpochMillis() throws Exception {
+		assertEquals(Long.valueOf(EPOCH_MILLIS), epochMillisAdapter.unmarshal("2018-10-22T14:25:15-04:00"));
+	}
+
+}
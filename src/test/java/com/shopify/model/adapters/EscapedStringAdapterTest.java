@@ -1,6 +1,8 @@
 package com.shopify.model.adapters;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -28,4 +30,15 @@ public class EscapedStringAdapterTest {
 	public void giveSomeEscapedStringWhenUnmarshallingThenReturnUnescapedString() throws Exception {
 		assertEquals(UNESCAPED_STRING, escapedStringAdapter.unmarshal(ESCAPED_STRING));
 	}
+
+	@Test
+	public void giveStringWithoutEntitiesWhenUnmarshallingThenReturnSameString() throws Exception {
+		final String string = "I love this product";
+		assertSame(string, escapedStringAdapter.unmarshal(string));
+	}
+
+	@Test
+	public void giveNullWhenUnmarshallingThenReturnNull() throws Exception {
+		assertNull(escapedStringAdapter.unmarshal(null));
+	}
 }
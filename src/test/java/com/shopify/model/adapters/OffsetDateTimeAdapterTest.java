@@ -0,0 +1,42 @@
+package com.shopify.model.adapters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.OffsetDateTime;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class OffsetDateTimeAdapterTest {
+
+	private OffsetDateTimeAdapter offsetDateTimeAdapter;
+
+	@Before
+	public void setUp() {
+		offsetDateTimeAdapter = new OffsetDateTimeAdapter();
+	}
+
+	@Test
+	public void givenSomeOffsetDateTimeWhenMarshallingThenReturnTimestamp() throws Exception {
+		final OffsetDateTime offsetDateTime = OffsetDateTime.parse("2018-10-22T14:25:15-04:00");
+		assertEquals("2018-10-22T14:25:15-04:00", offsetDateTimeAdapter.marshal(offsetDateTime));
+	}
+
+	@Test
+	public void givenNullOffsetDateTimeWhenMarshallingThenReturnNullString() throws Exception {
+		assertNull(offsetDateTimeAdapter.marshal(null));
+	}
+
+	@Test
+	public void givenEmptyTimestampWhenUnmarshallingThenReturnNullOffsetDateTime() throws Exception {
+		assertNull(offsetDateTimeAdapter.unmarshal(""));
+	}
+
+	@Test
+	public void givenSomeTimestampWhenUnmarshallingThenReturnOffsetDateTime() throws Exception {
+		final OffsetDateTime actualOffsetDateTime = offsetDateTimeAdapter.unmarshal("2018-10-22T14:25:15-04:00");
+		assertEquals(OffsetDateTime.parse("2018-10-22T14:25:15-04:00"), actualOffsetDateTime);
+	}
+
+}
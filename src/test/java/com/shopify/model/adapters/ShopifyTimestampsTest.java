@@ -0,0 +1,58 @@
+package com.shopify.model.adapters;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.OffsetDateTime;
+
+import org.joda.time.DateTime;
+import org.joda.time.IllegalFieldValueException;
+import org.junit.Test;
+
+public class ShopifyTimestampsTest {
+
+	private static final String[] TIMESTAMPS = { "2018-10-22T14:25:15-04:00", "2018-10-22T14:25:15+05:30",
+			"2018-10-22T14:25:15+00:00", "2018-10-22T18:25:15Z", "2018-10-22T18:25:15.123Z", "2018-10-22T18:25:15.1Z",
+			"2018-10-22T18:25:15.123456789-04:00", "2016-02-29T23:59:59+14:00", "1969-12-31T23:59:59.999Z" };
+
+	@Test
+	public void givenShopifyTimestampsWhenConvertingToDateTimeThenReturnSameDateTimeAsJoda() {
+		for (final String timestamp : TIMESTAMPS) {
+			final DateTime expectedDateTime = DateTime.parse(timestamp);
+			final DateTime actualDateTime = ShopifyTimestamps.toDateTime(timestamp);
+			assertEquals(timestamp, expectedDateTime, actualDateTime);
+			assertEquals(timestamp, expectedDateTime.toString(), actualDateTime.toString());
+		}
+	}
+
+	@Test
+	public void givenShopifyTimestampsWhenConvertingToEpochMillisThenReturnMillisOfJoda() {
+		for (final String timestamp : TIMESTAMPS) {
+			assertEquals(timestamp, DateTime.parse(timestamp).getMillis(), ShopifyTimestamps.toEpochMillis(timestamp));
+		}
+	}
+
+	@Test
+	public void givenShopifyTimestampWhenConvertingToOffsetDateTimeThenReturnSameInstantAndOffset() {
+		final OffsetDateTime actualOffsetDateTime = ShopifyTimestamps.toOffsetDateTime("2018-10-22T14:25:15-04:00");
+		assertEquals(OffsetDateTime.parse("2018-10-22T14:25:15-04:00"), actualOffsetDateTime);
+	}
+
+	@Test
+	public void givenOtherIsoTimestampsWhenConvertingToDateTimeThenFallBackToJoda() {
+		for (final String timestamp : new String[] { "2018-10-22", "2018-10-22T14:25", "2018-10-22T14:25:15",
+				"2018-10-22T14:25:15,5-04:00" }) {
+			assertEquals(timestamp, DateTime.parse(timestamp), ShopifyTimestamps.toDateTime(timestamp));
+		}
+	}
+
+	@Test(expected = IllegalFieldValueException.class)
+	public void givenInvalidMonthWhenConvertingToDateTimeThenThrowSameExceptionAsJoda() {
+		ShopifyTimestamps.toDateTime("2018-13-22T14:25:15-04:00");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenMalformedTimestampWhenConvertingToEpochMillisThenThrowIllegalArgumentException() {
+		ShopifyTimestamps.toEpochMillis("2018-10-22T14:25:15-04:0x");
+	}
+
+}
@@ -2,12 +2,17 @@ package com.shopify.model.adapters;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -56,4 +61,46 @@ public class TagsAdapterTest {
 		assertTrue(tagsAdapter.unmarshal("").isEmpty());
 	}
 
+	@Test
+	public void givenSomeStringWhenUnmarshallingAndMarshallingThenReturnSameString() throws Exception {
+		final String tags = "tag3, tag1, tag2";
+		assertSame(tags, tagsAdapter.marshal(tagsAdapter.unmarshal(tags)));
+	}
+
+	@Test
+	public void givenSomeStringWhenUnmarshallingThenKeepTagOrder() throws Exception {
+		assertEquals(Arrays.asList("tag3", "tag1", "tag2"), new ArrayList<>(tagsAdapter.unmarshal("tag3, tag1, tag2")));
+	}
+
+	@Test
+	public void givenStringsWithDuplicateAndEmptyTagsWhenUnmarshallingThenReturnSameTagsAsSplitting() throws Exception {
+		for (final String tags : Arrays.asList("tag1, tag1, tag2", "tag1, , tag2", ", tag1", "tag1, tag2, ", "tag1, ,",
+				"tag1,tag2", ", ")) {
+			assertEquals(tags, new HashSet<>(Arrays.asList(tags.split(", "))), tagsAdapter.unmarshal(tags));
+		}
+	}
+
+	@Test
+	public void givenStringWithDuplicateTagsWhenUnmarshallingAndMarshallingThenReturnDistinctTags() throws Exception {
+		assertEquals("tag1, tag2", tagsAdapter.marshal(tagsAdapter.unmarshal("tag1, tag2, tag1")));
+	}
+
+	@Test
+	public void givenStringWithManyTagsWhenUnmarshallingThenReturnAllTags() throws Exception {
+		final Set<String> expectedTags = IntStream.range(0, 100).mapToObj(index -> "tag" + index)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+		final String tags = tagsAdapter.marshal(expectedTags);
+
+		final Set<String> actualTags = tagsAdapter.unmarshal(tags);
+
+		assertEquals(expectedTags, actualTags);
+		assertTrue(actualTags.contains("tag99"));
+		assertSame(tags, tagsAdapter.marshal(actualTags));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void givenUnmarshalledTagsWhenAddingTagThenThrowUnsupportedOperationException() throws Exception {
+		tagsAdapter.unmarshal(TAGS_STRING).add("tag4");
+	}
+
 }
@@ -0,0 +1,145 @@
+package com.shopify.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.shopify.ShopifySdk;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.simulator.ShopifySimulator;
+
+public class ShopifyRateLimiterTest {
+
+	private final AtomicLong nanoClock = new AtomicLong();
+	private final ShopifyRateLimiter shopifyRateLimiter = new ShopifyRateLimiter(0, nanoClock::get);
+
+	@Test
+	public void givenNoResponseReportedBucketWhenReservingThenDoNotWait() {
+		for (int call = 0; call < 100; call++) {
+			assertEquals(0, shopifyRateLimiter.reserve());
+		}
+		assertEquals(Integer.MAX_VALUE, shopifyRateLimiter.getAvailableCalls());
+	}
+
+	@Test
+	public void givenBucketReportedWhenReleasingThenLearnBucketSizeAndLevel() {
+		shopifyRateLimiter.reserve();
+
+		shopifyRateLimiter.release("32/40");
+
+		assertEquals(40, shopifyRateLimiter.getBucketSize());
+		assertEquals(8, shopifyRateLimiter.getAvailableCalls());
+	}
+
+	@Test
+	public void givenFullBucketWhenReservingThenWaitForLeakAtShopifyRateForBucketSize() {
+		shopifyRateLimiter.reserve();
+		shopifyRateLimiter.release("40/40");
+
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(500), shopifyRateLimiter.reserve());
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), shopifyRateLimiter.reserve());
+	}
+
+	@Test
+	public void givenPlusBucketWhenReservingThenLeakTwentyCallsPerSecond() {
+		shopifyRateLimiter.reserve();
+		shopifyRateLimiter.release("400/400");
+
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(50), shopifyRateLimiter.reserve());
+	}
+
+	@Test
+	public void givenTimePassedWhenCheckingAvailableCallsThenLeakBucket() {
+		shopifyRateLimiter.reserve();
+		shopifyRateLimiter.release("40/40");
+
+		nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+
+		assertEquals(6, shopifyRateLimiter.getAvailableCalls());
+		nanoClock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+		assertEquals(40, shopifyRateLimiter.getAvailableCalls());
+	}
+
+	@Test
+	public void givenUnansweredCallsWhenReleasingThenCountThemInBucket() {
+		shopifyRateLimiter.reserve();
+		shopifyRateLimiter.release("10/40");
+		shopifyRateLimiter.reserve();
+		shopifyRateLimiter.reserve();
+		shopifyRateLimiter.reserve();
+
+		shopifyRateLimiter.release("11/40");
+
+		assertEquals(27, shopifyRateLimiter.getAvailableCalls());
+	}
+
+	@Test
+	public void givenMissingOrMalformedHeaderWhenReleasingThenKeepBucket() {
+		shopifyRateLimiter.reserve();
+		shopifyRateLimiter.release("20/40");
+		shopifyRateLimiter.reserve();
+		shopifyRateLimiter.release(null);
+		shopifyRateLimiter.reserve();
+		shopifyRateLimiter.release("not a limit");
+
+		assertEquals(18, shopifyRateLimiter.getAvailableCalls());
+	}
+
+	@Test
+	public void givenFixedLeakRateWhenReservingThenWaitForThatRate() {
+		final ShopifyRateLimiter fixedShopifyRateLimiter = new ShopifyRateLimiter(10, nanoClock::get);
+		fixedShopifyRateLimiter.reserve();
+		fixedShopifyRateLimiter.release("40/40");
+
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(100), fixedShopifyRateLimiter.reserve());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroLeakRateWhenCreatingRateLimiterThenThrowIllegalArgumentException() {
+		new ShopifyRateLimiter(0);
+	}
+
+	@Test
+	public void givenSdkInterruptedWhileWaitingForBucketWhenCallingThenReleaseCall() {
+		final ShopifyRateLimiter fullShopifyRateLimiter = new ShopifyRateLimiter(1);
+		fullShopifyRateLimiter.reserve();
+		fullShopifyRateLimiter.release("40/40");
+		final ShopifySdk shopifySdk = ShopifySdk.newBuilder().withApiUrl("http://localhost")
+				.withAccessToken(ShopifySimulator.ACCESS_TOKEN).withRateLimiter(fullShopifyRateLimiter).build();
+
+		Thread.currentThread().interrupt();
+		try {
+			shopifySdk.getProductCount();
+			fail();
+		} catch (final ShopifyClientException e) {
+			assertTrue(Thread.interrupted());
+		}
+		fullShopifyRateLimiter.reserve();
+		fullShopifyRateLimiter.release("0/40");
+
+		assertEquals(40, fullShopifyRateLimiter.getAvailableCalls());
+	}
+
+	@Test
+	public void givenSdkWithRateLimiterWhenCallingFasterThanBucketLeaksThenNoCallIsRateLimited() throws Exception {
+		try (final ShopifySimulator shopifySimulator = ShopifySimulator.newBuilder().withRateLimit(3, 20)
+				.withProducts(1, 1).withOrders(0).start()) {
+			final ShopifySdk shopifySdk = ShopifySdk.newBuilder().withApiUrl(shopifySimulator.getApiUrl())
+					.withAccessToken(ShopifySimulator.ACCESS_TOKEN).withRateLimiter(new ShopifyRateLimiter(20))
+					.build();
+
+			for (int call = 0; call < 10; call++) {
+				shopifySdk.getProductCount();
+			}
+
+			assertEquals(0, shopifySimulator.getRateLimitedCount());
+			assertEquals(3, shopifySdk.getRateLimiter().getBucketSize());
+		}
+	}
+
+}
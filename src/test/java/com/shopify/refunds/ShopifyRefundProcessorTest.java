@@ -0,0 +1,270 @@
+package com.shopify.refunds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.shopify.ShopifySdk;
+import com.shopify.exceptions.ShopifyClientException;
+import com.shopify.exceptions.ShopifyRetryException;
+import com.shopify.model.ShopifyRefund;
+import com.shopify.model.ShopifyRefundCreationRequest;
+import com.shopify.model.ShopifyTransaction;
+import com.shopify.retry.ShopifyRetryPolicy;
+
+public class ShopifyRefundProcessorTest {
+
+	private final ConcurrentLinkedQueue<String> calls = new ConcurrentLinkedQueue<>();
+	private final Map<String, List<RuntimeException>> failuresByCall = new ConcurrentHashMap<>();
+	private final Map<String, CountDownLatch> latchesToAwaitByCall = new ConcurrentHashMap<>();
+	private final Map<String, CountDownLatch> latchesToCountDownByCall = new ConcurrentHashMap<>();
+
+	private final ShopifySdk shopifySdk = new ShopifySdk(null) {
+
+		@Override
+		public ShopifyRefund calculateRefund(final ShopifyRefundCreationRequest shopifyRefundCreationRequest) {
+			final String orderId = shopifyRefundCreationRequest.getRequest().getOrderId();
+			call("calculate:" + orderId + ":" + shopifyRefundCreationRequest.getRequest().getNote());
+			final ShopifyTransaction shopifyTransaction = new ShopifyTransaction();
+			shopifyTransaction.setKind("suggested_refund");
+			final ShopifyRefund calculatedShopifyRefund = new ShopifyRefund();
+			calculatedShopifyRefund.setOrderId(orderId);
+			calculatedShopifyRefund.setNote(shopifyRefundCreationRequest.getRequest().getNote());
+			calculatedShopifyRefund.setTransactions(Collections.singletonList(shopifyTransaction));
+			return calculatedShopifyRefund;
+		}
+
+		@Override
+		public ShopifyRefund createRefund(final String orderId, final ShopifyRefund calculatedShopifyRefund) {
+			call("create:" + orderId + ":" + calculatedShopifyRefund.getNote());
+			final ShopifyRefund shopifyRefund = new ShopifyRefund();
+			shopifyRefund.setId("refund-" + calculatedShopifyRefund.getNote());
+			shopifyRefund.setOrderId(orderId);
+			return shopifyRefund;
+		}
+	};
+
+	private ShopifyRefundProcessor shopifyRefundProcessor = buildProcessor(4);
+
+	@After
+	public void tearDown() {
+		shopifyRefundProcessor.close();
+	}
+
+	@Test
+	public void givenRefundsOfSeveralOrdersWhenProcessingAllThenCalculateAndCreateEachRefund() {
+		final List<ShopifyRefundOutcome> outcomes = shopifyRefundProcessor
+				.processAll(Stream.of(buildRequest("1001", "a"), buildRequest("1002", "b"), buildRequest("1003", "c")));
+
+		assertEquals(3, outcomes.size());
+		for (int index = 0; index < outcomes.size(); index++) {
+			final ShopifyRefundOutcome outcome = outcomes.get(index);
+			assertTrue(outcome.isRefunded());
+			assertEquals(ShopifyRefundOutcome.Status.REFUNDED, outcome.getStatus());
+			assertEquals("refund-" + "abc".charAt(index), outcome.getRefund().getId());
+			assertEquals(String.valueOf(1001 + index), outcome.getRequest().getRequest().getOrderId());
+			assertEquals(String.valueOf("abc".charAt(index)), outcome.getCalculatedRefund().getNote());
+			assertEquals(1, outcome.getCalculationAttempts());
+			assertEquals(1, outcome.getCreationAttempts());
+			assertNull(outcome.getException());
+		}
+		assertEquals(6, calls.size());
+		assertEquals(0, shopifyRefundProcessor.getPendingCount());
+	}
+
+	@Test
+	public void givenOneThreadWhenProcessingAllThenCreateEachCalculatedRefundBeforeNextCalculation() {
+		shopifyRefundProcessor.close();
+		shopifyRefundProcessor = buildProcessor(1);
+
+		shopifyRefundProcessor
+				.processAll(Stream.of(buildRequest("1001", "a"), buildRequest("1002", "b"), buildRequest("1003", "c")));
+
+		assertEquals(Arrays.asList("calculate:1001:a", "create:1001:a", "calculate:1002:b", "create:1002:b",
+				"calculate:1003:c", "create:1003:c"), new ArrayList<>(calls));
+	}
+
+	@Test
+	public void givenTwoThreadsWhenProcessingAllThenCalculateNextRefundWhileCreatingEarlierOne() {
+		shopifyRefundProcessor.close();
+		shopifyRefundProcessor = buildProcessor(2);
+		final CountDownLatch creationStarted = new CountDownLatch(1);
+		final CountDownLatch calculationStarted = new CountDownLatch(1);
+		latchesToCountDownByCall.put("create:1001:a", creationStarted);
+		latchesToAwaitByCall.put("create:1001:a", calculationStarted);
+		latchesToCountDownByCall.put("calculate:1002:b", calculationStarted);
+		latchesToAwaitByCall.put("calculate:1002:b", creationStarted);
+
+		final List<ShopifyRefundOutcome> outcomes = shopifyRefundProcessor
+				.processAll(Stream.of(buildRequest("1001", "a"), buildRequest("1002", "b")));
+
+		assertTrue(outcomes.get(0).isRefunded());
+		assertTrue(outcomes.get(1).isRefunded());
+	}
+
+	@Test
+	public void givenUnsentCreationWhenProcessingThenRetryCreationWithCalculatedRefund() throws Exception {
+		failuresByCall.put("create:1001:a",
+				new ArrayList<>(Collections.singletonList(buildRetryTimeoutException(new ConnectException()))));
+
+		final ShopifyRefundOutcome outcome = shopifyRefundProcessor.submit(buildRequest("1001", "a")).get(5,
+				TimeUnit.SECONDS);
+
+		assertTrue(outcome.isRefunded());
+		assertEquals(1, outcome.getCalculationAttempts());
+		assertEquals(2, outcome.getCreationAttempts());
+		assertEquals(Arrays.asList("calculate:1001:a", "create:1001:a", "create:1001:a"), new ArrayList<>(calls));
+	}
+
+	@Test
+	public void givenPermanentCalculationFailureWhenProcessingThenReportItAndRefundNextOfSameOrder() {
+		final IllegalStateException permanentFailure = new IllegalStateException("Refund exceeds order total.");
+		failuresByCall.put("calculate:1001:a", new ArrayList<>(Collections.singletonList(permanentFailure)));
+
+		final List<ShopifyRefundOutcome> outcomes = shopifyRefundProcessor
+				.processAll(Stream.of(buildRequest("1001", "a"), buildRequest("1001", "b")));
+
+		assertEquals(ShopifyRefundOutcome.Status.CALCULATION_FAILED, outcomes.get(0).getStatus());
+		assertSame(permanentFailure, outcomes.get(0).getException());
+		assertNull(outcomes.get(0).getCalculatedRefund());
+		assertNull(outcomes.get(0).getRefund());
+		assertEquals(0, outcomes.get(0).getCreationAttempts());
+		assertTrue(outcomes.get(1).isRefunded());
+		assertEquals(Arrays.asList("calculate:1001:a", "calculate:1001:b", "create:1001:b"), new ArrayList<>(calls));
+	}
+
+	@Test
+	public void givenUnsentCreationOnEveryAttemptWhenProcessingThenReportCreationFailure() {
+		failuresByCall.put("create:1001:a",
+				new ArrayList<>(Arrays.asList(buildRetryTimeoutException(new ConnectException()),
+						buildRetryTimeoutException(new ConnectException()),
+						buildRetryTimeoutException(new ConnectException()))));
+
+		final ShopifyRefundOutcome outcome = shopifyRefundProcessor.processAll(Stream.of(buildRequest("1001", "a")))
+				.get(0);
+
+		assertEquals(ShopifyRefundOutcome.Status.CREATION_FAILED, outcome.getStatus());
+		assertEquals(3, outcome.getCreationAttempts());
+		assertEquals(1, outcome.getCalculationAttempts());
+		assertTrue(outcome.getException() instanceof ShopifyClientException);
+		assertEquals("1001", outcome.getCalculatedRefund().getOrderId());
+	}
+
+	@Test
+	public void givenTimedOutCreationWhenProcessingThenReportCreationFailureWithoutRetry() {
+		final ShopifyClientException timedOutCreation = buildRetryTimeoutException(
+				new SocketTimeoutException("Read timed out"));
+		failuresByCall.put("calculate:1001:a", new ArrayList<>(
+				Collections.singletonList(buildRetryTimeoutException(new SocketTimeoutException("Read timed out")))));
+		failuresByCall.put("create:1001:a", new ArrayList<>(Collections.singletonList(timedOutCreation)));
+
+		final ShopifyRefundOutcome outcome = shopifyRefundProcessor.processAll(Stream.of(buildRequest("1001", "a")))
+				.get(0);
+
+		assertEquals(ShopifyRefundOutcome.Status.CREATION_FAILED, outcome.getStatus());
+		assertSame(timedOutCreation, outcome.getException());
+		assertEquals(2, outcome.getCalculationAttempts());
+		assertEquals(1, outcome.getCreationAttempts());
+		assertEquals(Arrays.asList("calculate:1001:a", "calculate:1001:a", "create:1001:a"), new ArrayList<>(calls));
+	}
+
+	@Test
+	public void givenRefundsOfSameOrderWhenProcessingAllThenCalculateEachAfterPreviousIsCreated() {
+		final List<ShopifyRefundOutcome> outcomes = shopifyRefundProcessor.processAll(
+				Stream.of(buildRequest("1001", "a"), buildRequest("1001", "b"), buildRequest("1001", "c")));
+
+		assertEquals(3, outcomes.size());
+		assertEquals(Arrays.asList("calculate:1001:a", "create:1001:a", "calculate:1001:b", "create:1001:b",
+				"calculate:1001:c", "create:1001:c"), new ArrayList<>(calls));
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void givenClosedProcessorWhenSubmittingThenThrowRejectedExecutionException() {
+		shopifyRefundProcessor.close();
+
+		shopifyRefundProcessor.submit(buildRequest("1001", "a"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenNoShopifySdkWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyRefundProcessor.newBuilder().build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroConcurrentRequestsWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyRefundProcessor.newBuilder().withConcurrentRequests(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroMaximumAttemptsWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyRefundProcessor.newBuilder().withMaximumAttempts(0);
+	}
+
+	private ShopifyRefundProcessor buildProcessor(final int concurrentRequests) {
+		return ShopifyRefundProcessor.newBuilder().withShopifySdk(shopifySdk)
+				.withConcurrentRequests(concurrentRequests).withMaximumAttempts(3)
+				.withRetryDelay(1, TimeUnit.MILLISECONDS).build();
+	}
+
+	private void call(final String call) {
+		calls.add(call);
+		final CountDownLatch latchToCountDown = latchesToCountDownByCall.get(call);
+		if (latchToCountDown != null) {
+			latchToCountDown.countDown();
+		}
+		final CountDownLatch latchToAwait = latchesToAwaitByCall.get(call);
+		if (latchToAwait != null) {
+			try {
+				if (!latchToAwait.await(5, TimeUnit.SECONDS)) {
+					throw new IllegalStateException("Steps did not overlap.");
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+		final List<RuntimeException> failures = failuresByCall.get(call);
+		if ((failures != null) && !failures.isEmpty()) {
+			throw failures.remove(0);
+		}
+	}
+
+	private static ShopifyRefundCreationRequest buildRequest(final String orderId, final String note) {
+		final ShopifyRefund shopifyRefund = new ShopifyRefund();
+		shopifyRefund.setOrderId(orderId);
+		shopifyRefund.setNote(note);
+		final ShopifyRefundCreationRequest shopifyRefundCreationRequest = new ShopifyRefundCreationRequest();
+		shopifyRefundCreationRequest.setRequest(shopifyRefund);
+		return shopifyRefundCreationRequest;
+	}
+
+	private static ShopifyClientException buildRetryTimeoutException(final Exception lastException) {
+		try {
+			ShopifyRetryPolicy.newBuilder().build().call(() -> {
+				throw lastException;
+			});
+		} catch (final ShopifyRetryException e) {
+			return new ShopifyClientException("Request retry has failed.", e);
+		}
+		throw new IllegalStateException();
+	}
+
+}
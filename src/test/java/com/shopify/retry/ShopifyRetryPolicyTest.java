@@ -0,0 +1,154 @@
+package com.shopify.retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.shopify.exceptions.ShopifyRetryException;
+
+public class ShopifyRetryPolicyTest {
+
+	private final List<String> events = new ArrayList<>();
+	private final ShopifyRetryListener<String> recordingListener = new ShopifyRetryListener<String>() {
+
+		@Override
+		public void onAttemptStarted(final int attemptNumber) {
+			events.add("started " + attemptNumber);
+		}
+
+		@Override
+		public void onAttemptFinished(final ShopifyRetryAttempt<String> attempt) {
+			events.add("finished " + attempt.getAttemptNumber() + " "
+					+ (attempt.hasResult() ? attempt.getResult() : attempt.getException().getMessage()));
+		}
+
+		@Override
+		public void onWaiting(final ShopifyRetryAttempt<String> attempt, final long delayMilliseconds) {
+			events.add("waiting " + delayMilliseconds);
+		}
+
+	};
+
+	@After
+	public void tearDown() {
+		Thread.interrupted();
+	}
+
+	@Test
+	public void givenSuccessfulCallWhenCallingThenReturnResultAfterOneAttempt() throws Exception {
+		final ShopifyRetryPolicy<String> shopifyRetryPolicy = ShopifyRetryPolicy.<String>newBuilder()
+				.withRandomDelay(1, 1, TimeUnit.MILLISECONDS).withTimeout(1, TimeUnit.SECONDS).build();
+
+		assertEquals("ok", shopifyRetryPolicy.call(() -> "ok", recordingListener));
+
+		assertEquals(2, events.size());
+		assertEquals("started 1", events.get(0));
+		assertEquals("finished 1 ok", events.get(1));
+	}
+
+	@Test
+	public void givenFailingThenSuccessfulCallWhenCallingThenRetryAndNotifyEachStep() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		final ShopifyRetryPolicy<String> shopifyRetryPolicy = ShopifyRetryPolicy.<String>newBuilder()
+				.withRandomDelay(2, 2, TimeUnit.MILLISECONDS).withTimeout(1, TimeUnit.SECONDS)
+				.retryIfResult("retry"::equals).build();
+
+		final String result = shopifyRetryPolicy.call(() -> {
+			switch (calls.incrementAndGet()) {
+			case 1:
+				throw new IllegalStateException("broken");
+			case 2:
+				return "retry";
+			default:
+				return "ok";
+			}
+		}, recordingListener);
+
+		assertEquals("ok", result);
+		assertEquals(3, calls.get());
+		assertEquals("started 1", events.get(0));
+		assertEquals("finished 1 broken", events.get(1));
+		assertEquals("waiting 2", events.get(2));
+		assertEquals("started 2", events.get(3));
+		assertEquals("finished 2 retry", events.get(4));
+		assertEquals("waiting 2", events.get(5));
+		assertEquals("started 3", events.get(6));
+		assertEquals("finished 3 ok", events.get(7));
+		assertEquals(8, events.size());
+	}
+
+	@Test
+	public void givenCallThatKeepsFailingWhenTimeoutPassesThenThrowRetryExceptionWithLastAttempt() {
+		final ShopifyRetryPolicy<String> shopifyRetryPolicy = ShopifyRetryPolicy.<String>newBuilder()
+				.withRandomDelay(5, 10, TimeUnit.MILLISECONDS).withTimeout(50, TimeUnit.MILLISECONDS).build();
+		final IllegalStateException exception = new IllegalStateException("broken");
+
+		try {
+			shopifyRetryPolicy.call(() -> {
+				throw exception;
+			}, recordingListener);
+			fail();
+		} catch (final ShopifyRetryException e) {
+			assertTrue(e.getLastAttempt().getAttemptNumber() > 1);
+			assertTrue(e.getLastAttempt().getDelaySinceFirstAttemptMilliseconds() >= 50);
+			assertSame(exception, e.getCause());
+			assertSame(exception, e.getLastAttempt().getException());
+		}
+		events.stream().filter(event -> event.startsWith("waiting")).forEach(event -> {
+			final long delay = Long.parseLong(event.substring("waiting ".length()));
+			assertTrue(event, (delay >= 5) && (delay <= 10));
+		});
+	}
+
+	@Test
+	public void givenDefaultTimeoutWhenCallFailsThenMakeOneAttempt() {
+		final AtomicInteger calls = new AtomicInteger();
+		final ShopifyRetryPolicy<String> shopifyRetryPolicy = ShopifyRetryPolicy.<String>newBuilder()
+				.retryIfResult(result -> true).build();
+
+		try {
+			shopifyRetryPolicy.call(() -> String.valueOf(calls.incrementAndGet()));
+			fail();
+		} catch (final ShopifyRetryException e) {
+			assertEquals("1", e.getLastAttempt().getResult());
+			assertEquals(1, calls.get());
+		}
+	}
+
+	@Test
+	public void givenInterruptedThreadWhenWaitingThenThrowRetryExceptionAndKeepInterrupt() {
+		final ShopifyRetryPolicy<String> shopifyRetryPolicy = ShopifyRetryPolicy.<String>newBuilder()
+				.withRandomDelay(1, 2, TimeUnit.SECONDS).withTimeout(1, TimeUnit.MINUTES).build();
+
+		try {
+			shopifyRetryPolicy.call(() -> {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("broken");
+			});
+			fail();
+		} catch (final ShopifyRetryException e) {
+			assertTrue(e.getCause() instanceof InterruptedException);
+			assertTrue(Thread.currentThread().isInterrupted());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenMinimumDelayLargerThanMaximumDelayWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyRetryPolicy.newBuilder().withRandomDelay(2, 1, TimeUnit.SECONDS);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenNegativeTimeoutWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifyRetryPolicy.newBuilder().withTimeout(-1, TimeUnit.SECONDS);
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.shopify.simulator;
+
+import java.util.Random;
+
+/**
+ * Latency the simulator adds before it answers a call.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+	long nextLatencyInMilliseconds(Random random);
+
+	static LatencyDistribution none() {
+		return random -> 0;
+	}
+
+	static LatencyDistribution fixed(final long latencyInMilliseconds) {
+		return random -> latencyInMilliseconds;
+	}
+
+	static LatencyDistribution uniform(final long minimumInMilliseconds, final long maximumInMilliseconds) {
+		return random -> minimumInMilliseconds
+				+ (long) (random.nextDouble() * ((maximumInMilliseconds - minimumInMilliseconds) + 1));
+	}
+
+	/**
+	 * Long tailed latency, as seen from real API calls: most calls take about
+	 * the median and a few take several times longer.
+	 *
+	 * @param medianInMilliseconds
+	 * @param sigma
+	 *            spread of the underlying normal distribution, around 0.5 for a
+	 *            p99 of three times the median.
+	 * @return {@link LatencyDistribution}
+	 */
+	static LatencyDistribution logNormal(final long medianInMilliseconds, final double sigma) {
+		return random -> Math.round(medianInMilliseconds * Math.exp(sigma * random.nextGaussian()));
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.shopify.simulator;
+
+/**
+ * Shopify's REST rate limit: every call adds one to a bucket that leaks at a
+ * fixed rate, and a call that would overflow the bucket is rejected.
+ */
+class LeakyBucket {
+
+	private final int size;
+	private final double leakRatePerSecond;
+	private double level;
+	private long lastLeakNanoseconds;
+
+	LeakyBucket(final int size, final double leakRatePerSecond) {
+		this.size = size;
+		this.leakRatePerSecond = leakRatePerSecond;
+		this.lastLeakNanoseconds = System.nanoTime();
+	}
+
+	/**
+	 * @return the number of calls in the bucket including this one, or -1 when
+	 *         the bucket is full and the call is rejected.
+	 */
+	synchronized int tryAcquire() {
+		leak();
+		if ((level + 1) > size) {
+			return -1;
+		}
+		level++;
+		return (int) Math.ceil(level);
+	}
+
+	synchronized int getLevel() {
+		leak();
+		return (int) Math.ceil(level);
+	}
+
+	int getSize() {
+		return size;
+	}
+
+	double getLeakRatePerSecond() {
+		return leakRatePerSecond;
+	}
+
+	private void leak() {
+		final long nowNanoseconds = System.nanoTime();
+		level = Math.max(0, level - (((nowNanoseconds - lastLeakNanoseconds) / 1_000_000_000.0) * leakRatePerSecond));
+		lastLeakNanoseconds = nowNanoseconds;
+	}
+
+}
@@ -0,0 +1,637 @@
+package com.shopify.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.shopify.mappers.ShopifyMappers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server that answers the Admin REST calls the SDK makes, for
+ * integration tests and benchmarks that need real connections without a real
+ * shop. It keeps Shopify's leaky bucket rate limit, reporting the bucket on
+ * every response in <code>X-Shopify-Shop-Api-Call-Limit</code> and rejecting
+ * calls with 429 when it is full, and can add latency, 5xx and 423 responses
+ * to exercise retries.
+ *
+ * <pre>
+ * try (final ShopifySimulator shopifySimulator = ShopifySimulator.newBuilder().withProducts(1000, 3)
+ * 		.withOrders(5000).start()) {
+ * 	final ShopifySdk shopifySdk = ShopifySdk.newBuilder().withApiUrl(shopifySimulator.getApiUrl())
+ * 			.withAccessToken(ShopifySimulator.ACCESS_TOKEN).build();
+ * 	...
+ * }
+ * </pre>
+ *
+ * Any non-blank access token is accepted.
+ */
+public class ShopifySimulator implements Closeable {
+
+	public static final String ACCESS_TOKEN = "simulated-access-token";
+	public static final String ACCESS_TOKEN_HEADER = "X-Shopify-Access-Token";
+	public static final String CALL_LIMIT_HEADER = "X-Shopify-Shop-Api-Call-Limit";
+	public static final String RETRY_AFTER_HEADER = "Retry-After";
+	public static final int DEFAULT_BUCKET_SIZE = 40;
+	public static final double DEFAULT_LEAK_RATE_PER_SECOND = 2;
+
+	static final int TOO_MANY_REQUESTS_STATUS_CODE = 429;
+	static final int LOCKED_STATUS_CODE = 423;
+	static final String RATE_LIMITED_MESSAGE = "Exceeded %s calls per second for api client. Reduce request rates to resume uninterrupted service.";
+
+	private static final String ADMIN_PATH = "/admin";
+	private static final String JSON_EXTENSION = ".json";
+	private static final String CONTENT_TYPE_HEADER = "Content-Type";
+	private static final String APPLICATION_JSON = "application/json; charset=utf-8";
+	private static final String ERRORS = "errors";
+	private static final String NOT_FOUND_MESSAGE = "Not Found";
+	private static final String UNAUTHORIZED_MESSAGE = "[API] Invalid API key or access token (unrecognized login or wrong password)";
+	private static final int[] SERVER_ERROR_STATUS_CODES = { 500, 502, 503, 504 };
+	private static final int OK_STATUS_CODE = 200;
+	private static final int CREATED_STATUS_CODE = 201;
+	private static final int UNAUTHORIZED_STATUS_CODE = 401;
+	private static final int NOT_FOUND_STATUS_CODE = 404;
+	private static final int METHOD_NOT_ALLOWED_STATUS_CODE = 405;
+	private static final int UNPROCESSABLE_ENTITY_STATUS_CODE = 422;
+
+	private final ObjectMapper mapper = ShopifyMappers.getDefault().getMapper();
+	private final ShopifySimulatorStore store;
+	private final LeakyBucket leakyBucket;
+	private final LatencyDistribution latencyDistribution;
+	private final double serverErrorRate;
+	private final double lockedRate;
+	private final HttpServer httpServer;
+	private final ExecutorService executorService;
+	private final Queue<Integer> forcedStatusCodes = new ConcurrentLinkedQueue<>();
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong rateLimitedCount = new AtomicLong();
+	private final AtomicLong serverErrorCount = new AtomicLong();
+	private final AtomicLong lockedCount = new AtomicLong();
+	private final AtomicLong servedCount = new AtomicLong();
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	private ShopifySimulator(final Builder builder) throws IOException {
+		this.store = ShopifySimulatorStore.generate(builder.productCount, builder.variantsPerProduct,
+				builder.orderCount, builder.customerCount, builder.locationCount, builder.seed);
+		this.leakyBucket = new LeakyBucket(builder.bucketSize, builder.leakRatePerSecond);
+		this.latencyDistribution = builder.latencyDistribution;
+		this.serverErrorRate = builder.serverErrorRate;
+		this.lockedRate = builder.lockedRate;
+		this.executorService = Executors.newFixedThreadPool(builder.handlerThreads);
+		this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		this.httpServer.setExecutor(executorService);
+		this.httpServer.createContext("/", this::handle);
+		this.httpServer.start();
+	}
+
+	/**
+	 * @return the URL to pass to <code>ShopifySdk.Builder.withApiUrl</code>.
+	 */
+	public String getApiUrl() {
+		return "http://" + httpServer.getAddress().getHostString() + ":" + httpServer.getAddress().getPort()
+				+ ADMIN_PATH;
+	}
+
+	/**
+	 * Rejects the next calls with the given status, ahead of any random
+	 * failures, for example to test that 422 or 423 responses are retried.
+	 */
+	public void failNextRequests(final int status, final int count) {
+		for (int index = 0; index < count; index++) {
+			forcedStatusCodes.add(status);
+		}
+	}
+
+	public int getProductCount() {
+		return store.getProductCount();
+	}
+
+	public int getBucketLevel() {
+		return leakyBucket.getLevel();
+	}
+
+	public int getBucketSize() {
+		return leakyBucket.getSize();
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	public long getRateLimitedCount() {
+		return rateLimitedCount.get();
+	}
+
+	public long getServerErrorCount() {
+		return serverErrorCount.get();
+	}
+
+	public long getLockedCount() {
+		return lockedCount.get();
+	}
+
+	public long getServedCount() {
+		return servedCount.get();
+	}
+
+	public void resetStatistics() {
+		requestCount.set(0);
+		rateLimitedCount.set(0);
+		serverErrorCount.set(0);
+		lockedCount.set(0);
+		servedCount.set(0);
+	}
+
+	@Override
+	public void close() {
+		httpServer.stop(0);
+		executorService.shutdownNow();
+	}
+
+	private void handle(final HttpExchange exchange) throws IOException {
+		try {
+			requestCount.incrementAndGet();
+			final Random random = ThreadLocalRandom.current();
+			final long latencyInMilliseconds = latencyDistribution.nextLatencyInMilliseconds(random);
+			if (latencyInMilliseconds > 0) {
+				TimeUnit.MILLISECONDS.sleep(latencyInMilliseconds);
+			}
+
+			final String[] segments = toSegments(exchange.getRequestURI().getPath());
+			final boolean oauth = (segments.length > 0) && "oauth".equals(segments[0]);
+			final String accessToken = exchange.getRequestHeaders().getFirst(ACCESS_TOKEN_HEADER);
+			if (!oauth && ((accessToken == null) || accessToken.trim().isEmpty())) {
+				sendError(exchange, UNAUTHORIZED_STATUS_CODE, UNAUTHORIZED_MESSAGE);
+				return;
+			}
+
+			final int callCount = leakyBucket.tryAcquire();
+			if (callCount < 0) {
+				rateLimitedCount.incrementAndGet();
+				exchange.getResponseHeaders().set(CALL_LIMIT_HEADER, leakyBucket.getSize() + "/" + leakyBucket.getSize());
+				exchange.getResponseHeaders().set(RETRY_AFTER_HEADER, String.valueOf(1 / leakyBucket.getLeakRatePerSecond()));
+				sendError(exchange, TOO_MANY_REQUESTS_STATUS_CODE,
+						String.format(RATE_LIMITED_MESSAGE, formatRate(leakyBucket.getLeakRatePerSecond())));
+				return;
+			}
+			exchange.getResponseHeaders().set(CALL_LIMIT_HEADER, callCount + "/" + leakyBucket.getSize());
+
+			final int failureStatus = nextFailureStatus(random);
+			if (failureStatus != 0) {
+				if (failureStatus == LOCKED_STATUS_CODE) {
+					lockedCount.incrementAndGet();
+				} else if (failureStatus >= 500) {
+					serverErrorCount.incrementAndGet();
+				}
+				sendError(exchange, failureStatus, (failureStatus == UNPROCESSABLE_ENTITY_STATUS_CODE)
+						? "Product could not successfully be saved"
+						: "Simulated failure");
+				return;
+			}
+
+			final Map<String, String> parameters = toParameters(exchange.getRequestURI().getRawQuery());
+			final ObjectNode body = readBody(exchange.getRequestBody());
+			final SimulatedResponse simulatedResponse = route(exchange.getRequestMethod(), segments, parameters,
+					body);
+			servedCount.incrementAndGet();
+			send(exchange, simulatedResponse.status, simulatedResponse.body);
+		} catch (final ShopifySimulatorException e) {
+			if (e.getField() == null) {
+				sendError(exchange, e.getStatus(), (e.getStatus() == NOT_FOUND_STATUS_CODE) ? NOT_FOUND_MESSAGE
+						: String.valueOf(e.getMessage()));
+			} else {
+				final ObjectNode errors = mapper.createObjectNode();
+				errors.putObject(ERRORS).putArray(e.getField()).add(e.getMessage());
+				send(exchange, e.getStatus(), errors);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			sendError(exchange, SERVER_ERROR_STATUS_CODES[0], e.toString());
+		} catch (final RuntimeException e) {
+			sendError(exchange, SERVER_ERROR_STATUS_CODES[0], e.toString());
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private int nextFailureStatus(final Random random) {
+		final Integer forcedStatusCode = forcedStatusCodes.poll();
+		if (forcedStatusCode != null) {
+			return forcedStatusCode;
+		}
+		final double draw = random.nextDouble();
+		if (draw < serverErrorRate) {
+			return SERVER_ERROR_STATUS_CODES[random.nextInt(SERVER_ERROR_STATUS_CODES.length)];
+		}
+		if (draw < (serverErrorRate + lockedRate)) {
+			return LOCKED_STATUS_CODE;
+		}
+		return 0;
+	}
+
+	private SimulatedResponse route(final String method, final String[] segments, final Map<String, String> parameters,
+			final ObjectNode body) {
+		if (segments.length == 0) {
+			throw new ShopifySimulatorException(NOT_FOUND_STATUS_CODE);
+		}
+		final String resource = segments[0];
+		final String id = (segments.length > 1) ? segments[1] : null;
+		final String action = (segments.length > 2) ? segments[2] : null;
+		switch (resource) {
+		case "shop":
+			return ok(method, "GET", root("shop", shop()));
+		case "oauth":
+			if ("access_token".equals(id)) {
+				return ok(method, "POST", mapper.createObjectNode().put("access_token", ACCESS_TOKEN));
+			}
+			return ok(method, "DELETE", mapper.createObjectNode());
+		case "products":
+			return routeProducts(method, id, action, parameters, body);
+		case "variants":
+			return routeVariants(method, toId(id), action, body);
+		case "orders":
+			return routeOrders(method, segments, parameters, body);
+		case "customers":
+			return routeCustomers(method, id, parameters, body);
+		case "locations":
+			return ok(method, "GET", root("locations", store.getLocations()));
+		case "inventory_levels":
+			final ObjectNode inventoryLevelNode = body.has("inventory_level") ? child(body, "inventory_level") : body;
+			return ok(method, "POST", root("inventory_level", store.setInventoryLevel(inventoryLevelNode)));
+		case "gift_cards":
+			return created(method, root("gift_card", store.createGiftCard(child(body, "gift_card"))));
+		case "recurring_application_charges":
+			if (id == null) {
+				return created(method, root("recurring_application_charge",
+						store.createRecurringApplicationCharge(child(body, "recurring_application_charge"))));
+			}
+			if ("activate".equals(action)) {
+				return ok(method, "POST", root("recurring_application_charge",
+						store.activateRecurringApplicationCharge(toId(id))));
+			}
+			return ok(method, "GET", root("recurring_application_charge",
+					store.getRecurringApplicationCharge(toId(id))));
+		default:
+			throw new ShopifySimulatorException(NOT_FOUND_STATUS_CODE);
+		}
+	}
+
+	private SimulatedResponse routeProducts(final String method, final String id, final String action,
+			final Map<String, String> parameters, final ObjectNode body) {
+		if (id == null) {
+			if ("POST".equals(method)) {
+				return created(method, root("product", store.createProduct(child(body, "product"))));
+			}
+			return ok(method, "GET", root("products", store.getProducts(parameters)));
+		}
+		if ("count".equals(id)) {
+			return ok(method, "GET", mapper.createObjectNode().put("count", store.getProductCount()));
+		}
+		final long productId = toId(id);
+		if ("images".equals(action)) {
+			return ok(method, "POST", root("image", store.createImage(productId, child(body, "image"))));
+		}
+		if ("metafields".equals(action)) {
+			return routeMetafields(method, "product", productId, body);
+		}
+		switch (method) {
+		case "GET":
+			return ok(method, "GET", root("product", requireFound(store.getProduct(productId))));
+		case "PUT":
+			return ok(method, "PUT", root("product", store.updateProduct(productId, child(body, "product"))));
+		case "DELETE":
+			store.deleteProduct(productId);
+			return ok(method, "DELETE", mapper.createObjectNode());
+		default:
+			throw new ShopifySimulatorException(METHOD_NOT_ALLOWED_STATUS_CODE);
+		}
+	}
+
+	private SimulatedResponse routeVariants(final String method, final long variantId, final String action,
+			final ObjectNode body) {
+		if ("metafields".equals(action)) {
+			return routeMetafields(method, "variant", variantId, body);
+		}
+		if ("PUT".equals(method)) {
+			return ok(method, "PUT", root("variant", store.updateVariant(variantId, child(body, "variant"))));
+		}
+		return ok(method, "GET", root("variant", store.getVariant(variantId)));
+	}
+
+	private SimulatedResponse routeOrders(final String method, final String[] segments,
+			final Map<String, String> parameters, final ObjectNode body) {
+		if (segments.length == 1) {
+			if ("POST".equals(method)) {
+				return created(method, root("order", store.createOrder(child(body, "order"))));
+			}
+			return ok(method, "GET", root("orders", store.getOrders(parameters)));
+		}
+		final long orderId = toId(segments[1]);
+		if (segments.length == 2) {
+			if ("PUT".equals(method)) {
+				return ok(method, "PUT", root("order", store.updateOrder(orderId, child(body, "order"))));
+			}
+			return ok(method, "GET", root("order", store.getOrder(orderId)));
+		}
+		final String action = segments[2];
+		switch (action) {
+		case "transactions":
+			return ok(method, "GET", root("transactions", store.getTransactions(orderId)));
+		case "risks":
+			return ok(method, "GET", root("risks", store.getRisks(orderId)));
+		case "metafields":
+			return routeMetafields(method, "order", orderId, body);
+		case "close":
+			return ok(method, "POST", root("order", store.closeOrder(orderId)));
+		case "cancel":
+			return ok(method, "POST", root("order", store.cancelOrder(orderId, body.path("reason").asText(null))));
+		case "fulfillments":
+			if (segments.length == 3) {
+				return created(method,
+						root("fulfillment", store.createFulfillment(orderId, child(body, "fulfillment"))));
+			}
+			if ((segments.length > 4) && "cancel".equals(segments[4])) {
+				return ok(method, "POST", root("fulfillment", store.cancelFulfillment(orderId, segments[3])));
+			}
+			return ok(method, "PUT",
+					root("fulfillment", store.updateFulfillment(orderId, segments[3], child(body, "fulfillment"))));
+		case "refunds":
+			if ((segments.length > 3) && "calculate".equals(segments[3])) {
+				return ok(method, "POST", root("refund", store.calculateRefund(orderId, child(body, "refund"))));
+			}
+			return created(method, root("refund", store.createRefund(orderId, child(body, "refund"))));
+		default:
+			throw new ShopifySimulatorException(NOT_FOUND_STATUS_CODE);
+		}
+	}
+
+	private SimulatedResponse routeCustomers(final String method, final String id,
+			final Map<String, String> parameters, final ObjectNode body) {
+		if (id == null) {
+			return ok(method, "GET", root("customers", store.getCustomers(parameters)));
+		}
+		if ("search".equals(id)) {
+			return ok(method, "GET", root("customers", store.searchCustomers(parameters)));
+		}
+		final long customerId = toId(id);
+		if ("PUT".equals(method)) {
+			return ok(method, "PUT", root("customer", store.updateCustomer(customerId, child(body, "customer"))));
+		}
+		return ok(method, "GET", root("customer", store.getCustomer(customerId)));
+	}
+
+	private SimulatedResponse routeMetafields(final String method, final String ownerResource, final long ownerId,
+			final ObjectNode body) {
+		if ("POST".equals(method)) {
+			return created(method,
+					root("metafield", store.createMetafield(ownerResource, ownerId, child(body, "metafield"))));
+		}
+		return ok(method, "GET", root("metafields", store.getMetafields(ownerResource, ownerId)));
+	}
+
+	private ObjectNode shop() {
+		return mapper.createObjectNode().put("id", "1").put("name", "Simulated Shop");
+	}
+
+	private ObjectNode root(final String name, final Object value) {
+		final ObjectNode rootNode = mapper.createObjectNode();
+		rootNode.set(name, mapper.valueToTree(value));
+		return rootNode;
+	}
+
+	private ObjectNode readBody(final InputStream inputStream) throws IOException {
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[8192];
+		int read;
+		while ((read = inputStream.read(buffer)) != -1) {
+			byteArrayOutputStream.write(buffer, 0, read);
+		}
+		if (byteArrayOutputStream.size() == 0) {
+			return mapper.createObjectNode();
+		}
+		final JsonNode node = mapper.readTree(byteArrayOutputStream.toByteArray());
+		if (!node.isObject()) {
+			throw new ShopifySimulatorException(400);
+		}
+		return (ObjectNode) node;
+	}
+
+	private void sendError(final HttpExchange exchange, final int status, final String message) throws IOException {
+		send(exchange, status, mapper.createObjectNode().put(ERRORS, message));
+	}
+
+	private void send(final HttpExchange exchange, final int status, final JsonNode body) throws IOException {
+		final byte[] bytes = mapper.writeValueAsBytes(body);
+		exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, APPLICATION_JSON);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (final OutputStream outputStream = exchange.getResponseBody()) {
+			outputStream.write(bytes);
+		}
+	}
+
+	private static ObjectNode child(final ObjectNode body, final String name) {
+		final JsonNode node = body.get(name);
+		if ((node == null) || !node.isObject()) {
+			throw new ShopifySimulatorException(UNPROCESSABLE_ENTITY_STATUS_CODE, name, "is required");
+		}
+		return (ObjectNode) node;
+	}
+
+	private static <T> T requireFound(final T value) {
+		if (value == null) {
+			throw new ShopifySimulatorException(NOT_FOUND_STATUS_CODE);
+		}
+		return value;
+	}
+
+	private static SimulatedResponse ok(final String method, final String expectedMethod, final JsonNode body) {
+		if (!expectedMethod.equals(method)) {
+			throw new ShopifySimulatorException(METHOD_NOT_ALLOWED_STATUS_CODE);
+		}
+		return new SimulatedResponse(OK_STATUS_CODE, body);
+	}
+
+	private static SimulatedResponse created(final String method, final JsonNode body) {
+		if (!"POST".equals(method)) {
+			throw new ShopifySimulatorException(METHOD_NOT_ALLOWED_STATUS_CODE);
+		}
+		return new SimulatedResponse(CREATED_STATUS_CODE, body);
+	}
+
+	private static long toId(final String id) {
+		try {
+			return Long.parseLong(id);
+		} catch (final NumberFormatException e) {
+			throw new ShopifySimulatorException(NOT_FOUND_STATUS_CODE);
+		}
+	}
+
+	/**
+	 * Drops the <code>/admin</code> prefix and any <code>.json</code> suffix,
+	 * which the SDK sends for some resources and not others.
+	 */
+	private static String[] toSegments(final String path) {
+		String resourcePath = path.startsWith(ADMIN_PATH) ? path.substring(ADMIN_PATH.length()) : path;
+		if (resourcePath.endsWith(JSON_EXTENSION)) {
+			resourcePath = resourcePath.substring(0, resourcePath.length() - JSON_EXTENSION.length());
+		}
+		return Arrays.stream(resourcePath.split("/")).filter(segment -> !segment.isEmpty()).toArray(String[]::new);
+	}
+
+	private static Map<String, String> toParameters(final String rawQuery) throws UnsupportedEncodingException {
+		if ((rawQuery == null) || rawQuery.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		final Map<String, String> parameters = new HashMap<>();
+		for (final String parameter : rawQuery.split("&")) {
+			final int separator = parameter.indexOf('=');
+			final String name = (separator < 0) ? parameter : parameter.substring(0, separator);
+			final String value = (separator < 0) ? "" : parameter.substring(separator + 1);
+			parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8.name()),
+					URLDecoder.decode(value, StandardCharsets.UTF_8.name()));
+		}
+		return parameters;
+	}
+
+	private static String formatRate(final double rate) {
+		return (rate == Math.rint(rate)) ? String.valueOf((long) rate) : String.valueOf(rate);
+	}
+
+	private static class SimulatedResponse {
+
+		private final int status;
+		private final JsonNode body;
+
+		SimulatedResponse(final int status, final JsonNode body) {
+			this.status = status;
+			this.body = body;
+		}
+
+	}
+
+	public static class Builder {
+
+		private int bucketSize = DEFAULT_BUCKET_SIZE;
+		private double leakRatePerSecond = DEFAULT_LEAK_RATE_PER_SECOND;
+		private LatencyDistribution latencyDistribution = LatencyDistribution.none();
+		private double serverErrorRate;
+		private double lockedRate;
+		private int productCount = 100;
+		private int variantsPerProduct = 3;
+		private int orderCount = 250;
+		private int customerCount = 100;
+		private int locationCount = 2;
+		private long seed = 42;
+		private int handlerThreads = 16;
+
+		private Builder() {
+		}
+
+		/**
+		 * Shopify Plus shops have a bucket of 80 that leaks 4 calls per
+		 * second; other shops have 40 and 2.
+		 */
+		public Builder withRateLimit(final int bucketSize, final double leakRatePerSecond) {
+			if ((bucketSize < 1) || (leakRatePerSecond <= 0)) {
+				throw new IllegalArgumentException("Bucket size and leak rate must be positive.");
+			}
+			this.bucketSize = bucketSize;
+			this.leakRatePerSecond = leakRatePerSecond;
+			return this;
+		}
+
+		/**
+		 * Effectively disables rate limiting, for tests that measure the SDK
+		 * rather than its behavior under the limit.
+		 */
+		public Builder withoutRateLimit() {
+			return withRateLimit(Integer.MAX_VALUE, Double.MAX_VALUE);
+		}
+
+		public Builder withLatency(final LatencyDistribution latencyDistribution) {
+			this.latencyDistribution = latencyDistribution;
+			return this;
+		}
+
+		/**
+		 * @param serverErrorRate
+		 *            fraction of calls answered with 500, 502, 503 or 504.
+		 * @param lockedRate
+		 *            fraction of calls answered with 423.
+		 */
+		public Builder withFailureRates(final double serverErrorRate, final double lockedRate) {
+			if ((serverErrorRate < 0) || (lockedRate < 0) || ((serverErrorRate + lockedRate) > 1)) {
+				throw new IllegalArgumentException("Failure rates must be between 0 and 1.");
+			}
+			this.serverErrorRate = serverErrorRate;
+			this.lockedRate = lockedRate;
+			return this;
+		}
+
+		public Builder withProducts(final int productCount, final int variantsPerProduct) {
+			this.productCount = productCount;
+			this.variantsPerProduct = variantsPerProduct;
+			return this;
+		}
+
+		public Builder withOrders(final int orderCount) {
+			this.orderCount = orderCount;
+			return this;
+		}
+
+		public Builder withCustomers(final int customerCount) {
+			this.customerCount = customerCount;
+			return this;
+		}
+
+		public Builder withLocations(final int locationCount) {
+			this.locationCount = locationCount;
+			return this;
+		}
+
+		/**
+		 * The same seed and counts always generate the same catalog.
+		 */
+		public Builder withSeed(final long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		public Builder withHandlerThreads(final int handlerThreads) {
+			this.handlerThreads = handlerThreads;
+			return this;
+		}
+
+		public ShopifySimulator start() throws IOException {
+			return new ShopifySimulator(this);
+		}
+
+	}
+
+}
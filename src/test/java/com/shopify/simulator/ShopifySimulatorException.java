@@ -0,0 +1,38 @@
+package com.shopify.simulator;
+
+/**
+ * Ends a simulated call with an error status and, for validation errors, a
+ * Shopify style <code>errors</code> body.
+ */
+class ShopifySimulatorException extends RuntimeException {
+
+	private static final long serialVersionUID = 4516329746618216743L;
+
+	private final int status;
+	private final String field;
+
+	ShopifySimulatorException(final int status) {
+		this(status, null, null);
+	}
+
+	ShopifySimulatorException(final int status, final Throwable cause) {
+		super(cause);
+		this.status = status;
+		this.field = null;
+	}
+
+	ShopifySimulatorException(final int status, final String field, final String message) {
+		super(message);
+		this.status = status;
+		this.field = field;
+	}
+
+	int getStatus() {
+		return status;
+	}
+
+	String getField() {
+		return field;
+	}
+
+}
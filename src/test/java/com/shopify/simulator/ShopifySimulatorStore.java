@@ -0,0 +1,791 @@
+package com.shopify.simulator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.shopify.mappers.ShopifyMappers;
+import com.shopify.model.Image;
+import com.shopify.model.Metafield;
+import com.shopify.model.ShopifyCustomer;
+import com.shopify.model.ShopifyFulfillment;
+import com.shopify.model.ShopifyGiftCard;
+import com.shopify.model.ShopifyInventoryLevel;
+import com.shopify.model.ShopifyLineItem;
+import com.shopify.model.ShopifyLocation;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyOrderRisk;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyRecurringApplicationCharge;
+import com.shopify.model.ShopifyRefund;
+import com.shopify.model.ShopifyRefundLineItem;
+import com.shopify.model.ShopifyTransaction;
+import com.shopify.model.ShopifyVariant;
+import com.shopify.model.adapters.ShopifyTimestamps;
+
+/**
+ * In-memory shop behind the {@link ShopifySimulator}. Stored entities are
+ * never changed in place: updates build a new copy and replace the old one, so
+ * a response can be serialized while another call updates the same entity.
+ */
+class ShopifySimulatorStore {
+
+	static final int DEFAULT_LIMIT = 50;
+	static final int MAXIMUM_LIMIT = 250;
+
+	private static final String[] ADJECTIVES = { "Classic", "Organic", "Vintage", "Slim Fit", "Waterproof",
+			"Handmade", "Lightweight", "Premium", "Recycled", "Wireless" };
+	private static final String[] NOUNS = { "T-Shirt", "Hoodie", "Water Bottle", "Backpack", "Sneakers", "Mug",
+			"Cutting Board", "Headphones", "Jacket", "Candle" };
+	private static final String[] VENDORS = { "Acme Apparel", "Northwind", "Barnes & Co", "Green Valley",
+			"Summit Outdoor" };
+	private static final String[] TAGS = { "sale", "new-arrival", "summer", "bestseller", "gift", "eco-friendly",
+			"limited-edition", "clearance", "free-shipping", "vip" };
+	private static final String[] SIZES = { "XS", "S", "M", "L", "XL", "XXL" };
+	private static final String[] FIRST_NAMES = { "Ada", "Grace", "Alan", "Edsger", "Barbara", "Donald", "Frances",
+			"Ken", "Radia", "Tim" };
+	private static final String[] LAST_NAMES = { "Lovelace", "Hopper", "Turing", "Dijkstra", "Liskov", "Knuth",
+			"Allen", "Thompson", "Perlman", "Berners-Lee" };
+	private static final String[] FINANCIAL_STATUSES = { "paid", "paid", "paid", "paid", "pending", "authorized",
+			"partially_refunded", "refunded" };
+	private static final String[] SOURCE_NAMES = { "web", "web", "web", "pos", "shopify_draft_order" };
+	private static final Currency CURRENCY = Currency.getInstance("USD");
+	private static final String GATEWAY = "shopify_payments";
+	private static final int HISTORY_IN_DAYS = 90;
+
+	private final ObjectMapper mapper = ShopifyMappers.getDefault().getMapper();
+	private final AtomicLong nextId = new AtomicLong(1000);
+	private final ConcurrentSkipListMap<Long, ShopifyProduct> products = new ConcurrentSkipListMap<>();
+	private final Map<Long, Long> variantIdToProductId = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListMap<Long, ShopifyOrder> orders = new ConcurrentSkipListMap<>();
+	private final Map<Long, List<ShopifyTransaction>> orderIdToTransactions = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListMap<Long, ShopifyCustomer> customers = new ConcurrentSkipListMap<>();
+	private final List<ShopifyLocation> locations = new ArrayList<>();
+	private final Map<String, ShopifyInventoryLevel> inventoryLevels = new ConcurrentHashMap<>();
+	private final Map<String, List<Metafield>> ownerToMetafields = new ConcurrentHashMap<>();
+	private final Map<Long, ShopifyRecurringApplicationCharge> recurringApplicationCharges = new ConcurrentHashMap<>();
+
+	/**
+	 * Generates a shop whose entities only depend on the seed and counts.
+	 */
+	static ShopifySimulatorStore generate(final int productCount, final int variantsPerProduct, final int orderCount,
+			final int customerCount, final int locationCount, final long seed) {
+		final ShopifySimulatorStore store = new ShopifySimulatorStore();
+		final Random random = new Random(seed);
+		final DateTime now = DateTime.now(DateTimeZone.UTC);
+
+		for (int index = 0; index < locationCount; index++) {
+			final ShopifyLocation shopifyLocation = new ShopifyLocation();
+			shopifyLocation.setId(store.newId());
+			shopifyLocation.setName("Warehouse " + (index + 1));
+			shopifyLocation.setCountryCode("US");
+			store.locations.add(shopifyLocation);
+		}
+
+		final List<ShopifyVariant> allVariants = new ArrayList<>(productCount * variantsPerProduct);
+		for (int index = 0; index < productCount; index++) {
+			final ShopifyProduct shopifyProduct = store.generateProduct(random, now, variantsPerProduct);
+			store.putProduct(shopifyProduct);
+			allVariants.addAll(shopifyProduct.getVariants());
+		}
+
+		for (int index = 0; index < customerCount; index++) {
+			final ShopifyCustomer shopifyCustomer = new ShopifyCustomer();
+			shopifyCustomer.setId(store.newId());
+			shopifyCustomer.setFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+			shopifyCustomer.setLastname(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+			shopifyCustomer.setEmail("customer" + shopifyCustomer.getId() + "@example.com");
+			shopifyCustomer.setState("enabled");
+			shopifyCustomer.setAcceptsMarketing(random.nextBoolean());
+			final DateTime createdAt = randomPast(random, now);
+			shopifyCustomer.setCreatedAt(createdAt);
+			shopifyCustomer.setUpdatedAt(randomBetween(random, createdAt, now));
+			store.customers.put(Long.valueOf(shopifyCustomer.getId()), shopifyCustomer);
+		}
+
+		final List<ShopifyCustomer> allCustomers = new ArrayList<>(store.customers.values());
+		for (int index = 0; index < orderCount; index++) {
+			final ShopifyOrder shopifyOrder = store.generateOrder(random, now, index, allVariants, allCustomers);
+			store.orders.put(Long.valueOf(shopifyOrder.getId()), shopifyOrder);
+		}
+		return store;
+	}
+
+	List<ShopifyLocation> getLocations() {
+		return Collections.unmodifiableList(locations);
+	}
+
+	ShopifyProduct getProduct(final long productId) {
+		return products.get(productId);
+	}
+
+	int getProductCount() {
+		return products.size();
+	}
+
+	List<ShopifyProduct> getProducts(final Map<String, String> parameters) {
+		return page(products.values(), parameters, ShopifyProduct::getId, ShopifyProduct::getCreatedAt,
+				ShopifyProduct::getUpdatedAt, shopifyProduct -> true);
+	}
+
+	synchronized ShopifyProduct createProduct(final ObjectNode productNode) {
+		final ShopifyProduct shopifyProduct = toValue(productNode, ShopifyProduct.class);
+		final DateTime now = DateTime.now(DateTimeZone.UTC);
+		shopifyProduct.setId(newId());
+		shopifyProduct.setCreatedAt(now);
+		shopifyProduct.setUpdatedAt(now);
+		assignChildIds(shopifyProduct);
+		putProduct(shopifyProduct);
+		return shopifyProduct;
+	}
+
+	synchronized ShopifyProduct updateProduct(final long productId, final ObjectNode productNode) {
+		final ShopifyProduct shopifyProduct = merge(requireProduct(productId), productNode, ShopifyProduct.class);
+		shopifyProduct.setUpdatedAt(DateTime.now(DateTimeZone.UTC));
+		assignChildIds(shopifyProduct);
+		putProduct(shopifyProduct);
+		return shopifyProduct;
+	}
+
+	synchronized void deleteProduct(final long productId) {
+		final ShopifyProduct shopifyProduct = requireProduct(productId);
+		products.remove(productId);
+		shopifyProduct.getVariants().forEach(variant -> variantIdToProductId.remove(Long.valueOf(variant.getId())));
+	}
+
+	synchronized Image createImage(final long productId, final ObjectNode imageNode) {
+		final ShopifyProduct shopifyProduct = copy(requireProduct(productId), ShopifyProduct.class);
+		final Image image = toValue(imageNode, Image.class);
+		image.setId(newId());
+		image.setProductId(shopifyProduct.getId());
+		if (image.getPosition() == 0) {
+			image.setPosition(shopifyProduct.getImages().size() + 1);
+		}
+		shopifyProduct.getImages().add(image);
+		for (final ShopifyVariant shopifyVariant : shopifyProduct.getVariants()) {
+			if (image.getVariantIds().contains(shopifyVariant.getId())) {
+				shopifyVariant.setImageId(image.getId());
+			}
+		}
+		shopifyProduct.setUpdatedAt(DateTime.now(DateTimeZone.UTC));
+		putProduct(shopifyProduct);
+		return image;
+	}
+
+	ShopifyVariant getVariant(final long variantId) {
+		final Long productId = variantIdToProductId.get(variantId);
+		final ShopifyProduct shopifyProduct = (productId == null) ? null : products.get(productId);
+		if (shopifyProduct != null) {
+			for (final ShopifyVariant shopifyVariant : shopifyProduct.getVariants()) {
+				if (String.valueOf(variantId).equals(shopifyVariant.getId())) {
+					return shopifyVariant;
+				}
+			}
+		}
+		throw new ShopifySimulatorException(404);
+	}
+
+	synchronized ShopifyVariant updateVariant(final long variantId, final ObjectNode variantNode) {
+		final ShopifyVariant shopifyVariant = merge(getVariant(variantId), variantNode, ShopifyVariant.class);
+		final ShopifyProduct shopifyProduct = copy(requireProduct(Long.valueOf(shopifyVariant.getProductId())),
+				ShopifyProduct.class);
+		shopifyProduct.getVariants().replaceAll(
+				existingVariant -> existingVariant.getId().equals(shopifyVariant.getId()) ? shopifyVariant
+						: existingVariant);
+		shopifyProduct.setUpdatedAt(DateTime.now(DateTimeZone.UTC));
+		putProduct(shopifyProduct);
+		return shopifyVariant;
+	}
+
+	ShopifyOrder getOrder(final long orderId) {
+		final ShopifyOrder shopifyOrder = orders.get(orderId);
+		if (shopifyOrder == null) {
+			throw new ShopifySimulatorException(404);
+		}
+		return shopifyOrder;
+	}
+
+	List<ShopifyOrder> getOrders(final Map<String, String> parameters) {
+		final String status = parameters.getOrDefault("status", "open");
+		return page(orders.values(), parameters, ShopifyOrder::getId, ShopifyOrder::getCreatedAt,
+				ShopifyOrder::getUpdatedAt, shopifyOrder -> hasStatus(shopifyOrder, status));
+	}
+
+	synchronized ShopifyOrder createOrder(final ObjectNode orderNode) {
+		final ShopifyOrder shopifyOrder = toValue(orderNode, ShopifyOrder.class);
+		final DateTime now = DateTime.now(DateTimeZone.UTC);
+		shopifyOrder.setId(newId());
+		shopifyOrder.setNumber(orders.size() + 1);
+		shopifyOrder.setName("#" + (1000 + shopifyOrder.getNumber()));
+		shopifyOrder.setCreatedAt(now);
+		shopifyOrder.setUpdatedAt(now);
+		shopifyOrder.setProcessedAt(now);
+		if (shopifyOrder.getFinancialStatus() == null) {
+			shopifyOrder.setFinancialStatus("paid");
+		}
+		BigDecimal totalPrice = BigDecimal.ZERO;
+		for (final ShopifyLineItem shopifyLineItem : shopifyOrder.getLineItems()) {
+			shopifyLineItem.setId(newId());
+			shopifyLineItem.setFulfillableQuantity(shopifyLineItem.getQuantity());
+			if (shopifyLineItem.getPrice() != null) {
+				totalPrice = totalPrice.add(shopifyLineItem.getPrice().multiply(
+						BigDecimal.valueOf(shopifyLineItem.getQuantity())));
+			}
+		}
+		if (shopifyOrder.getTotalPrice() == null) {
+			shopifyOrder.setTotalPrice(totalPrice);
+		}
+		orders.put(Long.valueOf(shopifyOrder.getId()), shopifyOrder);
+		addTransaction(shopifyOrder, "sale", shopifyOrder.getTotalPrice());
+		return shopifyOrder;
+	}
+
+	synchronized ShopifyOrder updateOrder(final long orderId, final ObjectNode orderNode) {
+		final ShopifyOrder shopifyOrder = merge(getOrder(orderId), orderNode, ShopifyOrder.class);
+		shopifyOrder.setUpdatedAt(DateTime.now(DateTimeZone.UTC));
+		orders.put(orderId, shopifyOrder);
+		return shopifyOrder;
+	}
+
+	synchronized ShopifyOrder closeOrder(final long orderId) {
+		final ShopifyOrder shopifyOrder = copy(getOrder(orderId), ShopifyOrder.class);
+		final DateTime now = DateTime.now(DateTimeZone.UTC);
+		shopifyOrder.setClosedAt(now);
+		shopifyOrder.setUpdatedAt(now);
+		orders.put(orderId, shopifyOrder);
+		return shopifyOrder;
+	}
+
+	synchronized ShopifyOrder cancelOrder(final long orderId, final String reason) {
+		final ShopifyOrder shopifyOrder = copy(getOrder(orderId), ShopifyOrder.class);
+		if (shopifyOrder.getCancelledAt() != null) {
+			throw new ShopifySimulatorException(422, "order", "has already been cancelled");
+		}
+		final DateTime now = DateTime.now(DateTimeZone.UTC);
+		shopifyOrder.setCancelledAt(now);
+		shopifyOrder.setCancelReason(reason);
+		shopifyOrder.setUpdatedAt(now);
+		orders.put(orderId, shopifyOrder);
+		return shopifyOrder;
+	}
+
+	List<ShopifyTransaction> getTransactions(final long orderId) {
+		getOrder(orderId);
+		return orderIdToTransactions.getOrDefault(orderId, Collections.emptyList());
+	}
+
+	List<ShopifyOrderRisk> getRisks(final long orderId) {
+		final ShopifyOrder shopifyOrder = getOrder(orderId);
+		final ShopifyOrderRisk shopifyOrderRisk = new ShopifyOrderRisk();
+		shopifyOrderRisk.setId(String.valueOf(orderId + 1));
+		shopifyOrderRisk.setOrderId(shopifyOrder.getId());
+		shopifyOrderRisk.setSource("External");
+		shopifyOrderRisk.setScore(BigDecimal.ZERO);
+		shopifyOrderRisk.setMessage("This order came from an anonymous proxy");
+		return Collections.singletonList(shopifyOrderRisk);
+	}
+
+	synchronized ShopifyFulfillment createFulfillment(final long orderId, final ObjectNode fulfillmentNode) {
+		final ShopifyOrder shopifyOrder = copy(getOrder(orderId), ShopifyOrder.class);
+		final ShopifyFulfillment shopifyFulfillment = toValue(fulfillmentNode, ShopifyFulfillment.class);
+		final DateTime now = DateTime.now(DateTimeZone.UTC);
+		shopifyFulfillment.setId(newId());
+		shopifyFulfillment.setOrderId(shopifyOrder.getId());
+		shopifyFulfillment.setStatus("success");
+		shopifyFulfillment.setCreatedAt(now);
+		shopifyFulfillment.setUpdatedAt(now);
+		shopifyOrder.getFulfillments().add(shopifyFulfillment);
+		shopifyOrder.setFulfillmentStatus("fulfilled");
+		shopifyOrder.setUpdatedAt(now);
+		orders.put(orderId, shopifyOrder);
+		return shopifyFulfillment;
+	}
+
+	synchronized ShopifyFulfillment updateFulfillment(final long orderId, final String fulfillmentId,
+			final ObjectNode fulfillmentNode) {
+		return replaceFulfillment(orderId, fulfillmentId,
+				existingFulfillment -> merge(existingFulfillment, fulfillmentNode, ShopifyFulfillment.class));
+	}
+
+	synchronized ShopifyFulfillment cancelFulfillment(final long orderId, final String fulfillmentId) {
+		return replaceFulfillment(orderId, fulfillmentId, existingFulfillment -> {
+			final ShopifyFulfillment shopifyFulfillment = copy(existingFulfillment, ShopifyFulfillment.class);
+			shopifyFulfillment.setStatus("cancelled");
+			return shopifyFulfillment;
+		});
+	}
+
+	/**
+	 * Suggests refunding the requested line items at their price and, if no
+	 * line items are requested, the full order amount.
+	 */
+	ShopifyRefund calculateRefund(final long orderId, final ObjectNode refundNode) {
+		final ShopifyOrder shopifyOrder = getOrder(orderId);
+		final ShopifyRefund shopifyRefund = toValue(refundNode, ShopifyRefund.class);
+		shopifyRefund.setOrderId(shopifyOrder.getId());
+		shopifyRefund.setCurrency(CURRENCY);
+
+		BigDecimal amount = BigDecimal.ZERO;
+		for (final ShopifyRefundLineItem shopifyRefundLineItem : refundLineItems(shopifyRefund)) {
+			final ShopifyLineItem shopifyLineItem = shopifyOrder.getLineItems().stream()
+					.filter(lineItem -> lineItem.getId().equals(shopifyRefundLineItem.getLineItemId())).findFirst()
+					.orElseThrow(() -> new ShopifySimulatorException(422, "line_item_id", "is invalid"));
+			final BigDecimal subtotal = shopifyLineItem.getPrice()
+					.multiply(BigDecimal.valueOf(shopifyRefundLineItem.getQuantity()));
+			shopifyRefundLineItem.setLineItem(shopifyLineItem);
+			shopifyRefundLineItem.setSubtotal(subtotal);
+			shopifyRefundLineItem.setTotalTax(BigDecimal.ZERO);
+			amount = amount.add(subtotal);
+		}
+		if (refundLineItems(shopifyRefund).isEmpty()) {
+			amount = shopifyOrder.getTotalPrice();
+		}
+
+		final ShopifyTransaction shopifyTransaction = new ShopifyTransaction();
+		shopifyTransaction.setOrderId(shopifyOrder.getId());
+		shopifyTransaction.setKind("suggested_refund");
+		shopifyTransaction.setGateway(GATEWAY);
+		shopifyTransaction.setAmount(amount);
+		shopifyTransaction.setMaximumRefundable(shopifyOrder.getTotalPrice());
+		shopifyTransaction.setCurrency(CURRENCY);
+		shopifyRefund.setTransactions(new ArrayList<>(Collections.singletonList(shopifyTransaction)));
+		return shopifyRefund;
+	}
+
+	synchronized ShopifyRefund createRefund(final long orderId, final ObjectNode refundNode) {
+		final ShopifyOrder shopifyOrder = copy(getOrder(orderId), ShopifyOrder.class);
+		final ShopifyRefund shopifyRefund = toValue(refundNode, ShopifyRefund.class);
+		final DateTime now = DateTime.now(DateTimeZone.UTC);
+		shopifyRefund.setId(newId());
+		shopifyRefund.setOrderId(shopifyOrder.getId());
+		shopifyRefund.setCreatedAt(now);
+		shopifyRefund.setProcessedAt(now);
+		for (final ShopifyRefundLineItem shopifyRefundLineItem : refundLineItems(shopifyRefund)) {
+			shopifyRefundLineItem.setId(newId());
+		}
+		BigDecimal refundedAmount = BigDecimal.ZERO;
+		if (shopifyRefund.getTransactions() == null) {
+			shopifyRefund.setTransactions(new ArrayList<>());
+		}
+		for (final ShopifyTransaction shopifyTransaction : shopifyRefund.getTransactions()) {
+			shopifyTransaction.setOrderId(shopifyOrder.getId());
+			addTransaction(shopifyOrder, "refund", shopifyTransaction.getAmount());
+			if (shopifyTransaction.getAmount() != null) {
+				refundedAmount = refundedAmount.add(shopifyTransaction.getAmount());
+			}
+		}
+		shopifyOrder.getRefunds().add(shopifyRefund);
+		shopifyOrder.setFinancialStatus(
+				refundedAmount.compareTo(shopifyOrder.getTotalPrice()) >= 0 ? "refunded" : "partially_refunded");
+		shopifyOrder.setUpdatedAt(now);
+		orders.put(orderId, shopifyOrder);
+		return shopifyRefund;
+	}
+
+	ShopifyCustomer getCustomer(final long customerId) {
+		final ShopifyCustomer shopifyCustomer = customers.get(customerId);
+		if (shopifyCustomer == null) {
+			throw new ShopifySimulatorException(404);
+		}
+		return shopifyCustomer;
+	}
+
+	List<ShopifyCustomer> getCustomers(final Map<String, String> parameters) {
+		return page(customers.values(), parameters, ShopifyCustomer::getId, ShopifyCustomer::getCreatedAt,
+				ShopifyCustomer::getUpdatedAt, shopifyCustomer -> true);
+	}
+
+	/**
+	 * Matches <code>field:value</code> terms against email, first and last
+	 * name, and other terms against any of them.
+	 */
+	List<ShopifyCustomer> searchCustomers(final Map<String, String> parameters) {
+		final String query = parameters.getOrDefault("query", "").toLowerCase(Locale.ENGLISH);
+		final Predicate<ShopifyCustomer> matcher = shopifyCustomer -> Arrays.stream(query.split("\\s+"))
+				.allMatch(term -> matches(shopifyCustomer, term));
+		final Map<String, String> pageParameters = new ConcurrentHashMap<>(parameters);
+		pageParameters.remove("query");
+		return page(customers.values(), pageParameters, ShopifyCustomer::getId, ShopifyCustomer::getCreatedAt,
+				ShopifyCustomer::getUpdatedAt, matcher);
+	}
+
+	synchronized ShopifyCustomer updateCustomer(final long customerId, final ObjectNode customerNode) {
+		final ShopifyCustomer shopifyCustomer = merge(getCustomer(customerId), customerNode, ShopifyCustomer.class);
+		shopifyCustomer.setUpdatedAt(DateTime.now(DateTimeZone.UTC));
+		customers.put(customerId, shopifyCustomer);
+		return shopifyCustomer;
+	}
+
+	ShopifyInventoryLevel setInventoryLevel(final ObjectNode inventoryLevelNode) {
+		final ShopifyInventoryLevel shopifyInventoryLevel = toValue(inventoryLevelNode, ShopifyInventoryLevel.class);
+		if ((shopifyInventoryLevel.getInventoryItemId() == null) || (shopifyInventoryLevel.getLocationId() == null)) {
+			throw new ShopifySimulatorException(422, "inventory_item_id", "can't be blank");
+		}
+		inventoryLevels.put(shopifyInventoryLevel.getInventoryItemId() + ":" + shopifyInventoryLevel.getLocationId(),
+				shopifyInventoryLevel);
+		return shopifyInventoryLevel;
+	}
+
+	List<Metafield> getMetafields(final String ownerResource, final long ownerId) {
+		return ownerToMetafields.getOrDefault(ownerResource + ":" + ownerId, Collections.emptyList());
+	}
+
+	Metafield createMetafield(final String ownerResource, final long ownerId, final ObjectNode metafieldNode) {
+		final Metafield metafield = toValue(metafieldNode, Metafield.class);
+		final DateTime now = DateTime.now(DateTimeZone.UTC);
+		metafield.setId(newId());
+		metafield.setOwnerId(String.valueOf(ownerId));
+		metafield.setOwnerResource(ownerResource);
+		metafield.setCreatedAt(now);
+		metafield.setUpdatedAt(now);
+		ownerToMetafields.computeIfAbsent(ownerResource + ":" + ownerId,
+				owner -> Collections.synchronizedList(new ArrayList<>())).add(metafield);
+		return metafield;
+	}
+
+	ShopifyGiftCard createGiftCard(final ObjectNode giftCardNode) {
+		final ShopifyGiftCard shopifyGiftCard = toValue(giftCardNode, ShopifyGiftCard.class);
+		final DateTime now = DateTime.now(DateTimeZone.UTC);
+		shopifyGiftCard.setId(newId());
+		shopifyGiftCard.setCreatedAt(now);
+		shopifyGiftCard.setUpdatedAt(now);
+		shopifyGiftCard.setBalance(shopifyGiftCard.getInitialValue());
+		if (shopifyGiftCard.getCode() == null) {
+			shopifyGiftCard.setCode(String.format("SIM%013d", Long.valueOf(shopifyGiftCard.getId())));
+		}
+		shopifyGiftCard.setLastCharacters(
+				shopifyGiftCard.getCode().substring(Math.max(0, shopifyGiftCard.getCode().length() - 4)));
+		return shopifyGiftCard;
+	}
+
+	ShopifyRecurringApplicationCharge createRecurringApplicationCharge(final ObjectNode chargeNode) {
+		final ShopifyRecurringApplicationCharge charge = toValue(chargeNode, ShopifyRecurringApplicationCharge.class);
+		charge.setId(newId());
+		charge.setStatus("pending");
+		charge.setConfirmationUrl("https://simulated.myshopify.com/admin/charges/" + charge.getId() + "/confirm");
+		recurringApplicationCharges.put(Long.valueOf(charge.getId()), charge);
+		return charge;
+	}
+
+	ShopifyRecurringApplicationCharge getRecurringApplicationCharge(final long chargeId) {
+		final ShopifyRecurringApplicationCharge charge = recurringApplicationCharges.get(chargeId);
+		if (charge == null) {
+			throw new ShopifySimulatorException(404);
+		}
+		return charge;
+	}
+
+	synchronized ShopifyRecurringApplicationCharge activateRecurringApplicationCharge(final long chargeId) {
+		final ShopifyRecurringApplicationCharge charge = copy(getRecurringApplicationCharge(chargeId),
+				ShopifyRecurringApplicationCharge.class);
+		charge.setStatus("active");
+		recurringApplicationCharges.put(chargeId, charge);
+		return charge;
+	}
+
+	private ShopifyProduct generateProduct(final Random random, final DateTime now, final int variantCount) {
+		final ShopifyProduct shopifyProduct = new ShopifyProduct();
+		shopifyProduct.setId(newId());
+		shopifyProduct.setTitle(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+				+ NOUNS[random.nextInt(NOUNS.length)]);
+		shopifyProduct.setVendor(VENDORS[random.nextInt(VENDORS.length)]);
+		shopifyProduct.setProductType(NOUNS[random.nextInt(NOUNS.length)]);
+		shopifyProduct.setBodyHtml("<p>" + shopifyProduct.getTitle() + " by " + shopifyProduct.getVendor() + ".</p>");
+		final Set<String> tags = new LinkedHashSet<>();
+		for (int index = random.nextInt(4); index >= 0; index--) {
+			tags.add(TAGS[random.nextInt(TAGS.length)]);
+		}
+		shopifyProduct.setTags(tags);
+		final DateTime createdAt = randomPast(random, now);
+		shopifyProduct.setCreatedAt(createdAt);
+		shopifyProduct.setUpdatedAt(randomBetween(random, createdAt, now));
+
+		final BigDecimal price = BigDecimal.valueOf(500 + random.nextInt(20000), 2);
+		for (int index = 0; index < variantCount; index++) {
+			final ShopifyVariant shopifyVariant = new ShopifyVariant();
+			shopifyVariant.setId(newId());
+			shopifyVariant.setProductId(shopifyProduct.getId());
+			shopifyVariant.setPosition(index + 1);
+			shopifyVariant.setOption1(SIZES[index % SIZES.length] + ((index < SIZES.length) ? "" : " " + index));
+			shopifyVariant.setTitle(shopifyVariant.getOption1());
+			shopifyVariant.setSku("SKU-" + shopifyVariant.getId());
+			shopifyVariant.setBarcode(String.valueOf(400000000000L + Long.valueOf(shopifyVariant.getId())));
+			shopifyVariant.setPrice(price);
+			shopifyVariant.setInventoryItemId(newId());
+			shopifyVariant.setInventoryQuantity(Long.valueOf(random.nextInt(100)));
+			shopifyVariant.setInventoryManagement("shopify");
+			shopifyVariant.setFulfillmentService("manual");
+			shopifyVariant.setRequiresShipping(true);
+			shopifyVariant.setTaxable(true);
+			shopifyProduct.getVariants().add(shopifyVariant);
+		}
+
+		final Image image = new Image();
+		image.setId(newId());
+		image.setProductId(shopifyProduct.getId());
+		image.setPosition(1);
+		image.setSource("https://cdn.example.com/products/" + shopifyProduct.getId() + ".jpg");
+		shopifyProduct.getImages().add(image);
+		return shopifyProduct;
+	}
+
+	private ShopifyOrder generateOrder(final Random random, final DateTime now, final int index,
+			final List<ShopifyVariant> allVariants, final List<ShopifyCustomer> allCustomers) {
+		final ShopifyOrder shopifyOrder = new ShopifyOrder();
+		shopifyOrder.setId(newId());
+		shopifyOrder.setNumber(index + 1);
+		shopifyOrder.setOrderNumber(String.valueOf(1001 + index));
+		shopifyOrder.setName("#" + shopifyOrder.getOrderNumber());
+		final DateTime createdAt = randomPast(random, now);
+		shopifyOrder.setCreatedAt(createdAt);
+		shopifyOrder.setProcessedAt(createdAt);
+		shopifyOrder.setUpdatedAt(randomBetween(random, createdAt, now));
+		shopifyOrder.setCurrency(CURRENCY);
+		shopifyOrder.setFinancialStatus(FINANCIAL_STATUSES[random.nextInt(FINANCIAL_STATUSES.length)]);
+		shopifyOrder.setSourceName(SOURCE_NAMES[random.nextInt(SOURCE_NAMES.length)]);
+		shopifyOrder.setProcessingMethod("direct");
+		if (!allCustomers.isEmpty()) {
+			final ShopifyCustomer shopifyCustomer = allCustomers.get(random.nextInt(allCustomers.size()));
+			shopifyOrder.setCustomer(shopifyCustomer);
+			shopifyOrder.setEmail(shopifyCustomer.getEmail());
+		}
+
+		BigDecimal totalPrice = BigDecimal.ZERO;
+		final int lineItemCount = allVariants.isEmpty() ? 0 : 1 + random.nextInt(5);
+		for (int lineItemIndex = 0; lineItemIndex < lineItemCount; lineItemIndex++) {
+			final ShopifyVariant shopifyVariant = allVariants.get(random.nextInt(allVariants.size()));
+			final ShopifyLineItem shopifyLineItem = new ShopifyLineItem();
+			shopifyLineItem.setId(newId());
+			shopifyLineItem.setVariantId(shopifyVariant.getId());
+			shopifyLineItem.setProductId(shopifyVariant.getProductId());
+			shopifyLineItem.setTitle(products.get(Long.valueOf(shopifyVariant.getProductId())).getTitle());
+			shopifyLineItem.setVariantTitle(shopifyVariant.getTitle());
+			shopifyLineItem.setSku(shopifyVariant.getSku());
+			shopifyLineItem.setVendor(products.get(Long.valueOf(shopifyVariant.getProductId())).getVendor());
+			shopifyLineItem.setQuantity(1 + random.nextInt(3));
+			shopifyLineItem.setPrice(shopifyVariant.getPrice());
+			shopifyLineItem.setFulfillmentService("manual");
+			shopifyLineItem.setRequiresShipping(true);
+			shopifyLineItem.setFulfillableQuantity(shopifyLineItem.getQuantity());
+			shopifyOrder.getLineItems().add(shopifyLineItem);
+			totalPrice = totalPrice.add(shopifyVariant.getPrice().multiply(
+					BigDecimal.valueOf(shopifyLineItem.getQuantity())));
+		}
+		shopifyOrder.setSubtotalPrice(totalPrice);
+		shopifyOrder.setTotalPrice(totalPrice);
+
+		if (random.nextInt(10) < 6) {
+			shopifyOrder.setFulfillmentStatus("fulfilled");
+			if (random.nextBoolean()) {
+				shopifyOrder.setClosedAt(shopifyOrder.getUpdatedAt());
+			}
+		} else if (random.nextInt(20) == 0) {
+			shopifyOrder.setCancelledAt(shopifyOrder.getUpdatedAt());
+			shopifyOrder.setCancelReason("customer");
+		}
+		addTransaction(shopifyOrder, "sale", totalPrice);
+		return shopifyOrder;
+	}
+
+	private static List<ShopifyRefundLineItem> refundLineItems(final ShopifyRefund shopifyRefund) {
+		if (shopifyRefund.getRefundLineItems() == null) {
+			shopifyRefund.setRefundLineItems(new ArrayList<>());
+		}
+		return shopifyRefund.getRefundLineItems();
+	}
+
+	private void addTransaction(final ShopifyOrder shopifyOrder, final String kind, final BigDecimal amount) {
+		final ShopifyTransaction shopifyTransaction = new ShopifyTransaction();
+		shopifyTransaction.setOrderId(shopifyOrder.getId());
+		shopifyTransaction.setKind(kind);
+		shopifyTransaction.setGateway(GATEWAY);
+		shopifyTransaction.setAmount(amount);
+		shopifyTransaction.setCurrency(CURRENCY);
+		orderIdToTransactions.computeIfAbsent(Long.valueOf(shopifyOrder.getId()),
+				orderId -> Collections.synchronizedList(new ArrayList<>())).add(shopifyTransaction);
+	}
+
+	private ShopifyFulfillment replaceFulfillment(final long orderId, final String fulfillmentId,
+			final java.util.function.UnaryOperator<ShopifyFulfillment> replacer) {
+		final ShopifyOrder shopifyOrder = copy(getOrder(orderId), ShopifyOrder.class);
+		final List<ShopifyFulfillment> shopifyFulfillments = shopifyOrder.getFulfillments();
+		for (int index = 0; index < shopifyFulfillments.size(); index++) {
+			if (fulfillmentId.equals(shopifyFulfillments.get(index).getId())) {
+				final ShopifyFulfillment shopifyFulfillment = replacer.apply(shopifyFulfillments.get(index));
+				shopifyFulfillment.setUpdatedAt(DateTime.now(DateTimeZone.UTC));
+				shopifyFulfillments.set(index, shopifyFulfillment);
+				orders.put(orderId, shopifyOrder);
+				return shopifyFulfillment;
+			}
+		}
+		throw new ShopifySimulatorException(404);
+	}
+
+	private void putProduct(final ShopifyProduct shopifyProduct) {
+		final Long productId = Long.valueOf(shopifyProduct.getId());
+		final ShopifyProduct previousProduct = products.put(productId, shopifyProduct);
+		if (previousProduct != null) {
+			previousProduct.getVariants()
+					.forEach(variant -> variantIdToProductId.remove(Long.valueOf(variant.getId())));
+		}
+		shopifyProduct.getVariants().forEach(variant -> variantIdToProductId.put(Long.valueOf(variant.getId()),
+				productId));
+	}
+
+	private ShopifyProduct requireProduct(final long productId) {
+		final ShopifyProduct shopifyProduct = products.get(productId);
+		if (shopifyProduct == null) {
+			throw new ShopifySimulatorException(404);
+		}
+		return shopifyProduct;
+	}
+
+	private void assignChildIds(final ShopifyProduct shopifyProduct) {
+		final List<ShopifyVariant> shopifyVariants = shopifyProduct.getVariants();
+		for (int index = 0; index < shopifyVariants.size(); index++) {
+			final ShopifyVariant shopifyVariant = shopifyVariants.get(index);
+			if (shopifyVariant.getId() == null) {
+				shopifyVariant.setId(newId());
+				shopifyVariant.setInventoryItemId(newId());
+			}
+			if (shopifyVariant.getPosition() == 0) {
+				shopifyVariant.setPosition(index + 1);
+			}
+			shopifyVariant.setProductId(shopifyProduct.getId());
+		}
+		final List<Image> images = shopifyProduct.getImages();
+		for (int index = 0; index < images.size(); index++) {
+			final Image image = images.get(index);
+			if (image.getId() == null) {
+				image.setId(newId());
+			}
+			if (image.getPosition() == 0) {
+				image.setPosition(index + 1);
+			}
+			image.setProductId(shopifyProduct.getId());
+		}
+	}
+
+	/**
+	 * Applies Shopify's list filters and paging: <code>ids</code>,
+	 * <code>since_id</code>, created and updated windows, <code>limit</code>
+	 * and <code>page</code>, in ascending ID order.
+	 */
+	private <T> List<T> page(final Collection<T> entities, final Map<String, String> parameters,
+			final java.util.function.Function<T, String> idExtractor,
+			final java.util.function.Function<T, DateTime> createdAtExtractor,
+			final java.util.function.Function<T, DateTime> updatedAtExtractor, final Predicate<T> filter) {
+		final int limit = Math.min(Integer.parseInt(parameters.getOrDefault("limit", String.valueOf(DEFAULT_LIMIT))),
+				MAXIMUM_LIMIT);
+		final int page = Math.max(1, Integer.parseInt(parameters.getOrDefault("page", "1")));
+		final long sinceId = Long.parseLong(parameters.getOrDefault("since_id", "0"));
+		final Set<String> ids = parameters.containsKey("ids")
+				? new HashSet<>(Arrays.asList(parameters.get("ids").split(",")))
+				: null;
+		final long createdAtMin = parseTimestamp(parameters.get("created_at_min"), Long.MIN_VALUE);
+		final long createdAtMax = parseTimestamp(parameters.get("created_at_max"), Long.MAX_VALUE);
+		final long updatedAtMin = parseTimestamp(parameters.get("updated_at_min"), Long.MIN_VALUE);
+		final long updatedAtMax = parseTimestamp(parameters.get("updated_at_max"), Long.MAX_VALUE);
+
+		return entities.stream().filter(entity -> Long.parseLong(idExtractor.apply(entity)) > sinceId)
+				.filter(entity -> (ids == null) || ids.contains(idExtractor.apply(entity)))
+				.filter(entity -> isWithin(createdAtExtractor.apply(entity), createdAtMin, createdAtMax))
+				.filter(entity -> isWithin(updatedAtExtractor.apply(entity), updatedAtMin, updatedAtMax))
+				.filter(filter).skip((long) (page - 1) * limit).limit(limit).collect(Collectors.toList());
+	}
+
+	private static boolean isWithin(final DateTime timestamp, final long minimum, final long maximum) {
+		if (timestamp == null) {
+			return (minimum == Long.MIN_VALUE) && (maximum == Long.MAX_VALUE);
+		}
+		return (timestamp.getMillis() >= minimum) && (timestamp.getMillis() <= maximum);
+	}
+
+	private static long parseTimestamp(final String timestamp, final long defaultValue) {
+		return (timestamp == null) ? defaultValue : ShopifyTimestamps.toEpochMillis(timestamp);
+	}
+
+	private static boolean hasStatus(final ShopifyOrder shopifyOrder, final String status) {
+		switch (status) {
+		case "any":
+			return true;
+		case "closed":
+			return shopifyOrder.getClosedAt() != null;
+		case "cancelled":
+			return shopifyOrder.getCancelledAt() != null;
+		default:
+			return (shopifyOrder.getClosedAt() == null) && (shopifyOrder.getCancelledAt() == null);
+		}
+	}
+
+	private static boolean matches(final ShopifyCustomer shopifyCustomer, final String term) {
+		if (term.isEmpty()) {
+			return true;
+		}
+		final int separator = term.indexOf(':');
+		final String field = (separator < 0) ? null : term.substring(0, separator);
+		final String value = (separator < 0) ? term : term.substring(separator + 1);
+		final boolean anyField = field == null;
+		return ((anyField || "email".equals(field)) && contains(shopifyCustomer.getEmail(), value))
+				|| ((anyField || "first_name".equals(field)) && contains(shopifyCustomer.getFirstName(), value))
+				|| ((anyField || "last_name".equals(field)) && contains(shopifyCustomer.getLastname(), value));
+	}
+
+	private static boolean contains(final String fieldValue, final String value) {
+		return (fieldValue != null) && fieldValue.toLowerCase(Locale.ENGLISH).contains(value);
+	}
+
+	private static DateTime randomPast(final Random random, final DateTime now) {
+		return now.minusMinutes(random.nextInt(HISTORY_IN_DAYS * 24 * 60)).withMillisOfSecond(0);
+	}
+
+	private static DateTime randomBetween(final Random random, final DateTime start, final DateTime end) {
+		final long rangeInMinutes = Math.max(1, (end.getMillis() - start.getMillis()) / 60_000);
+		return start.plusMinutes(random.nextInt((int) Math.min(rangeInMinutes, Integer.MAX_VALUE)));
+	}
+
+	private String newId() {
+		return String.valueOf(nextId.incrementAndGet());
+	}
+
+	private <T> T merge(final T existing, final ObjectNode changes, final Class<T> type) {
+		final ObjectNode node = mapper.valueToTree(existing);
+		node.setAll(changes);
+		return toValue(node, type);
+	}
+
+	private <T> T copy(final T existing, final Class<T> type) {
+		return toValue(mapper.valueToTree(existing), type);
+	}
+
+	private <T> T toValue(final JsonNode node, final Class<T> type) {
+		try {
+			return mapper.treeToValue(node, type);
+		} catch (final JsonProcessingException e) {
+			throw new ShopifySimulatorException(400, e);
+		}
+	}
+
+}
@@ -0,0 +1,247 @@
+package com.shopify.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopify.mappers.ShopifyMappers;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyProductRoot;
+import com.shopify.model.ShopifyProductsRoot;
+
+public class ShopifySimulatorTest {
+
+	private final ObjectMapper mapper = ShopifyMappers.getDefault().getMapper();
+	private ShopifySimulator shopifySimulator;
+
+	@After
+	public void tearDown() {
+		if (shopifySimulator != null) {
+			shopifySimulator.close();
+		}
+	}
+
+	@Test
+	public void givenSomeCallsWhenCallingThenReturnCallLimitHeader() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withProducts(5, 2).withOrders(5).start();
+
+		final HttpURLConnection firstConnection = call("GET", "/shop.json", null);
+		final HttpURLConnection secondConnection = call("GET", "/shop.json", null);
+
+		assertEquals(200, firstConnection.getResponseCode());
+		assertEquals("1/40", firstConnection.getHeaderField(ShopifySimulator.CALL_LIMIT_HEADER));
+		assertEquals("2/40", secondConnection.getHeaderField(ShopifySimulator.CALL_LIMIT_HEADER));
+		assertEquals("Simulated Shop", read(firstConnection).path("shop").path("name").asText());
+	}
+
+	@Test
+	public void givenFullBucketWhenCallingThenReturnTooManyRequests() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withRateLimit(3, 0.001).withProducts(1, 1).start();
+
+		for (int index = 0; index < 3; index++) {
+			assertEquals(200, call("GET", "/products/count.json", null).getResponseCode());
+		}
+		final HttpURLConnection rejectedConnection = call("GET", "/products/count.json", null);
+
+		assertEquals(429, rejectedConnection.getResponseCode());
+		assertEquals("3/3", rejectedConnection.getHeaderField(ShopifySimulator.CALL_LIMIT_HEADER));
+		assertNotNull(rejectedConnection.getHeaderField(ShopifySimulator.RETRY_AFTER_HEADER));
+		assertTrue(readError(rejectedConnection).path("errors").asText().startsWith("Exceeded"));
+		assertEquals(4, shopifySimulator.getRequestCount());
+		assertEquals(1, shopifySimulator.getRateLimitedCount());
+		assertEquals(3, shopifySimulator.getServedCount());
+	}
+
+	@Test
+	public void givenBucketLeaksWhenWaitingThenAcceptCallsAgain() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withRateLimit(1, 20).withProducts(1, 1).start();
+
+		assertEquals(200, call("GET", "/shop.json", null).getResponseCode());
+		Thread.sleep(100);
+
+		assertEquals(200, call("GET", "/shop.json", null).getResponseCode());
+	}
+
+	@Test
+	public void givenNoAccessTokenWhenCallingThenReturnUnauthorized() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withProducts(1, 1).start();
+		final HttpURLConnection connection = (HttpURLConnection) new URL(shopifySimulator.getApiUrl() + "/shop")
+				.openConnection();
+
+		assertEquals(401, connection.getResponseCode());
+	}
+
+	@Test
+	public void givenForcedFailuresWhenCallingThenReturnThemInOrder() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withProducts(1, 1).start();
+		shopifySimulator.failNextRequests(423, 1);
+		shopifySimulator.failNextRequests(503, 1);
+
+		assertEquals(423, call("GET", "/shop", null).getResponseCode());
+		assertEquals(503, call("GET", "/shop", null).getResponseCode());
+		assertEquals(200, call("GET", "/shop", null).getResponseCode());
+		assertEquals(1, shopifySimulator.getLockedCount());
+		assertEquals(1, shopifySimulator.getServerErrorCount());
+	}
+
+	@Test
+	public void givenFailureRateOfOneWhenCallingThenReturnServerErrors() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withFailureRates(1, 0).withProducts(1, 1).start();
+
+		final int status = call("GET", "/shop", null).getResponseCode();
+
+		assertTrue(String.valueOf(status), (status >= 500) && (status < 600));
+	}
+
+	@Test
+	public void givenLatencyWhenCallingThenDelayResponse() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withLatency(LatencyDistribution.fixed(50))
+				.withProducts(1, 1).start();
+		final long startNanoseconds = System.nanoTime();
+
+		call("GET", "/shop", null).getResponseCode();
+
+		assertTrue((System.nanoTime() - startNanoseconds) >= 50_000_000L);
+	}
+
+	@Test
+	public void givenCatalogWhenPagingProductsThenReturnEachProductOnce() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withoutRateLimit().withProducts(120, 2).start();
+
+		int productCount = 0;
+		String lastId = null;
+		for (int page = 1; page <= 3; page++) {
+			final ShopifyProductsRoot shopifyProductsRoot = mapper.treeToValue(
+					read(call("GET", "/products?limit=50&page=" + page, null)), ShopifyProductsRoot.class);
+			for (final ShopifyProduct shopifyProduct : shopifyProductsRoot.getProducts()) {
+				assertEquals(2, shopifyProduct.getVariants().size());
+				if (lastId != null) {
+					assertTrue(Long.parseLong(shopifyProduct.getId()) > Long.parseLong(lastId));
+				}
+				lastId = shopifyProduct.getId();
+				productCount++;
+			}
+		}
+
+		assertEquals(120, productCount);
+	}
+
+	@Test
+	public void givenSameSeedWhenGeneratingThenReturnSameCatalog() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withoutRateLimit().withProducts(3, 1).start();
+		final JsonNode firstProducts = read(call("GET", "/products", null)).path("products");
+		shopifySimulator.close();
+		shopifySimulator = ShopifySimulator.newBuilder().withoutRateLimit().withProducts(3, 1).start();
+
+		final JsonNode secondProducts = read(call("GET", "/products", null)).path("products");
+
+		assertEquals(firstProducts.get(0).path("title"), secondProducts.get(0).path("title"));
+		assertEquals(firstProducts.get(2).path("variants").get(0).path("price"),
+				secondProducts.get(2).path("variants").get(0).path("price"));
+	}
+
+	@Test
+	public void givenNewProductWhenCreatingThenAssignIdsAndReturnItOnGet() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withoutRateLimit().withProducts(1, 1).start();
+		final String product = "{\"product\":{\"title\":\"Simulated Tee\",\"variants\":[{\"option1\":\"S\"},"
+				+ "{\"option1\":\"M\"}],\"images\":[{\"src\":\"https://example.com/tee.jpg\"}]}}";
+
+		final HttpURLConnection connection = call("POST", "/products.json", product);
+		final ShopifyProduct createdProduct = mapper.treeToValue(read(connection), ShopifyProductRoot.class)
+				.getProduct();
+
+		assertEquals(201, connection.getResponseCode());
+		assertNotNull(createdProduct.getId());
+		assertEquals(createdProduct.getId(), createdProduct.getVariants().get(1).getProductId());
+		assertEquals(2, createdProduct.getVariants().get(1).getPosition());
+		assertNotNull(createdProduct.getImages().get(0).getId());
+		final JsonNode fetchedProduct = read(call("GET", "/products/" + createdProduct.getId(), null));
+		assertEquals("Simulated Tee", fetchedProduct.path("product").path("title").asText());
+		assertEquals(2, shopifySimulator.getProductCount());
+	}
+
+	@Test
+	public void givenOrderWhenRefundingThenUpdateFinancialStatus() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withoutRateLimit().withProducts(5, 1).withOrders(1).start();
+		final JsonNode order = read(call("GET", "/orders?status=any", null)).path("orders").get(0);
+		final String orderId = order.path("id").asText();
+
+		final JsonNode calculatedRefund = read(call("POST", "/orders/" + orderId + "/refunds/calculate.json",
+				"{\"refund\":{}}"));
+		final JsonNode transaction = calculatedRefund.path("refund").path("transactions").get(0);
+		assertEquals("suggested_refund", transaction.path("kind").asText());
+		final String refund = "{\"refund\":{\"transactions\":[{\"kind\":\"refund\",\"amount\":\""
+				+ transaction.path("amount").asText() + "\"}]}}";
+		assertEquals(201, call("POST", "/orders/" + orderId + "/refunds.json", refund).getResponseCode());
+
+		final JsonNode refundedOrder = read(call("GET", "/orders/" + orderId, null));
+		assertEquals("refunded", refundedOrder.path("order").path("financial_status").asText());
+		assertEquals(2, read(call("GET", "/orders/" + orderId + "/transactions", null)).path("transactions").size());
+	}
+
+	@Test
+	public void givenUnknownOrderWhenGettingThenReturnNotFound() throws Exception {
+		shopifySimulator = ShopifySimulator.newBuilder().withProducts(1, 1).start();
+
+		final HttpURLConnection connection = call("GET", "/orders/1.json", null);
+
+		assertEquals(404, connection.getResponseCode());
+		assertEquals("Not Found", readError(connection).path("errors").asText());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenNegativeFailureRateWhenBuildingThenThrowIllegalArgumentException() {
+		ShopifySimulator.newBuilder().withFailureRates(-0.1, 0);
+	}
+
+	private HttpURLConnection call(final String method, final String path, final String body) throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection) new URL(shopifySimulator.getApiUrl() + path)
+				.openConnection();
+		connection.setRequestMethod(method);
+		connection.setRequestProperty(ShopifySimulator.ACCESS_TOKEN_HEADER, ShopifySimulator.ACCESS_TOKEN);
+		if (body != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type", "application/json");
+			try (final OutputStream outputStream = connection.getOutputStream()) {
+				outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		return connection;
+	}
+
+	private JsonNode read(final HttpURLConnection connection) throws IOException {
+		try (final InputStream inputStream = connection.getInputStream()) {
+			return mapper.readTree(toBytes(inputStream));
+		}
+	}
+
+	private JsonNode readError(final HttpURLConnection connection) throws IOException {
+		try (final InputStream inputStream = connection.getErrorStream()) {
+			return mapper.readTree(toBytes(inputStream));
+		}
+	}
+
+	private static byte[] toBytes(final InputStream inputStream) throws IOException {
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[8192];
+		int read;
+		while ((read = inputStream.read(buffer)) != -1) {
+			byteArrayOutputStream.write(buffer, 0, read);
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+
+}
@@ -0,0 +1,187 @@
+package com.shopify.snapshots;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+import com.shopify.model.ShopifyVariant;
+
+public class ShopifySnapshotsTest {
+
+	private static final int HEADER_COUNT_OFFSET = 9;
+	private static final DateTime SOME_UPDATED_AT = new DateTime(1540232715000L, DateTimeZone.UTC);
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void givenSomeProductsWhenWritingAndReadingSnapshotThenReturnSameProducts() throws IOException {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("products.snapshot");
+		final ShopifyProduct someProduct = new ShopifyProduct();
+		someProduct.setId("632910392");
+		someProduct.setTitle("IPod Nano - 8GB");
+		someProduct.setUpdatedAt(SOME_UPDATED_AT);
+		final ShopifyVariant someVariant = new ShopifyVariant();
+		someVariant.setId("808950810");
+		someVariant.setSku("IPOD2008PINK");
+		someVariant.setPrice(new BigDecimal("199.00"));
+		someProduct.getVariants().add(someVariant);
+		final ShopifyProduct someOtherProduct = new ShopifyProduct();
+		someOtherProduct.setId("921728736");
+		someOtherProduct.setUpdatedAt(SOME_UPDATED_AT.minusDays(1));
+
+		ShopifySnapshots.writeProducts(file, Arrays.asList(someProduct, someOtherProduct));
+		final List<ShopifyProduct> actualShopifyProducts = ShopifySnapshots.readProducts(file);
+
+		assertEquals(2, actualShopifyProducts.size());
+		assertEquals("632910392", actualShopifyProducts.get(0).getId());
+		assertEquals("IPod Nano - 8GB", actualShopifyProducts.get(0).getTitle());
+		assertEquals(SOME_UPDATED_AT.getMillis(), actualShopifyProducts.get(0).getUpdatedAt().getMillis());
+		assertEquals("IPOD2008PINK", actualShopifyProducts.get(0).getVariants().get(0).getSku());
+		assertEquals(new BigDecimal("199.00"), actualShopifyProducts.get(0).getVariants().get(0).getPrice());
+		assertEquals("921728736", actualShopifyProducts.get(1).getId());
+		assertEquals(false, Files.exists(file.resolveSibling("products.snapshot.tmp")));
+	}
+
+	@Test
+	public void givenSomeOrdersWhenWritingSnapshotThenExpectHeaderToDescribeOrders() throws IOException {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("orders.snapshot");
+		final ShopifyOrder someOrder = new ShopifyOrder();
+		someOrder.setId("450789469");
+		someOrder.setUpdatedAt(SOME_UPDATED_AT);
+		final ShopifyOrder someOtherOrder = new ShopifyOrder();
+		someOtherOrder.setId("450789470");
+		someOtherOrder.setUpdatedAt(SOME_UPDATED_AT.minusHours(1));
+
+		ShopifySnapshots.writeOrders(file, Arrays.asList(someOrder, someOtherOrder));
+		final ShopifySnapshotHeader actualShopifySnapshotHeader = ShopifySnapshots.readHeader(file);
+		final List<ShopifyOrder> actualShopifyOrders = ShopifySnapshots.readOrders(file);
+
+		assertEquals(ShopifySnapshots.FORMAT_VERSION, actualShopifySnapshotHeader.getFormatVersion());
+		assertEquals(ShopifySnapshotHeader.Type.ORDERS, actualShopifySnapshotHeader.getType());
+		assertEquals(2, actualShopifySnapshotHeader.getCount());
+		assertNotNull(actualShopifySnapshotHeader.getCreatedAt());
+		assertEquals(SOME_UPDATED_AT.getMillis(), actualShopifySnapshotHeader.getLatestUpdatedAt().getMillis());
+		assertEquals(2, actualShopifyOrders.size());
+		assertEquals("450789470", actualShopifyOrders.get(1).getId());
+	}
+
+	@Test
+	public void givenNoProductsWhenWritingAndReadingSnapshotThenReturnNoProducts() throws IOException {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("products.snapshot");
+
+		ShopifySnapshots.writeProducts(file, Collections.emptyList());
+
+		assertEquals(0, ShopifySnapshots.readProducts(file).size());
+		assertNull(ShopifySnapshots.readHeader(file).getLatestUpdatedAt());
+	}
+
+	@Test(expected = IOException.class)
+	public void givenOrderSnapshotWhenReadingProductsThenExpectIOException() throws IOException {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("orders.snapshot");
+		ShopifySnapshots.writeOrders(file, Collections.emptyList());
+
+		ShopifySnapshots.readProducts(file);
+	}
+
+	@Test(expected = IOException.class)
+	public void givenSnapshotWithOtherFormatVersionWhenReadingThenExpectIOException() throws IOException {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("products.snapshot");
+		try (final DataOutputStream dataOutputStream = new DataOutputStream(Files.newOutputStream(file))) {
+			dataOutputStream.writeInt(0x53485053);
+			dataOutputStream.writeInt(ShopifySnapshots.FORMAT_VERSION + 1);
+		}
+
+		ShopifySnapshots.readProducts(file);
+	}
+
+	@Test
+	public void givenSnapshotWithFewerProductsThanHeaderWhenReadingThenExpectIOException() throws IOException {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("products.snapshot");
+		ShopifySnapshots.writeProducts(file, Arrays.asList(new ShopifyProduct(), new ShopifyProduct()));
+		writeHeaderCount(file, 3);
+
+		try {
+			ShopifySnapshots.readProducts(file);
+			fail();
+		} catch (final IOException e) {
+			assertEquals(String.format(ShopifySnapshots.COUNT_MISMATCH_MESSAGE, file, 2, 3), e.getMessage());
+		}
+	}
+
+	@Test
+	public void givenSnapshotWithMoreOrdersThanHeaderWhenReadingThenExpectIOException() throws IOException {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("orders.snapshot");
+		ShopifySnapshots.writeOrders(file, Arrays.asList(new ShopifyOrder(), new ShopifyOrder()));
+		writeHeaderCount(file, 1);
+
+		try {
+			ShopifySnapshots.readOrders(file);
+			fail();
+		} catch (final IOException e) {
+			assertEquals(String.format(ShopifySnapshots.COUNT_MISMATCH_MESSAGE, file, 2, 1), e.getMessage());
+		}
+	}
+
+	@Test
+	public void givenSnapshotWithNegativeCountWhenReadingThenExpectIOException() throws IOException {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("products.snapshot");
+		ShopifySnapshots.writeProducts(file, Collections.emptyList());
+		writeHeaderCount(file, -1);
+
+		try {
+			ShopifySnapshots.readProducts(file);
+			fail();
+		} catch (final IOException e) {
+			assertEquals(String.format(ShopifySnapshots.INVALID_COUNT_MESSAGE, file, -1), e.getMessage());
+		}
+	}
+
+	@Test
+	public void givenSnapshotThatCannotBeMovedIntoPlaceWhenWritingThenDeleteTemporaryFile() throws IOException {
+		final Path file = temporaryFolder.newFolder("products.snapshot").toPath();
+		Files.createFile(file.resolve("other.snapshot"));
+
+		try {
+			ShopifySnapshots.writeProducts(file, Collections.singletonList(new ShopifyProduct()));
+			fail();
+		} catch (final IOException e) {
+			assertFalse(Files.exists(file.resolveSibling("products.snapshot.tmp")));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void givenFileThatIsNotSnapshotWhenReadingThenExpectIOException() throws IOException {
+		final Path file = temporaryFolder.newFile().toPath();
+		Files.write(file, "{\"products\":[]}".getBytes("UTF-8"));
+
+		ShopifySnapshots.readHeader(file);
+	}
+
+	private static void writeHeaderCount(final Path file, final int count) throws IOException {
+		final byte[] snapshot = Files.readAllBytes(file);
+		ByteBuffer.wrap(snapshot).putInt(HEADER_COUNT_OFFSET, count);
+		Files.write(file, snapshot);
+	}
+
+}
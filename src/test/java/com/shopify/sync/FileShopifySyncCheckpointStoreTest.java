@@ -0,0 +1,56 @@
+package com.shopify.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.joda.time.DateTime;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileShopifySyncCheckpointStoreTest {
+
+	private static final DateTime SOME_UPDATED_AT = new DateTime(1540232715000L);
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void givenSavedCheckpointWhenLoadingThenReturnCheckpoint() {
+		final FileShopifySyncCheckpointStore fileShopifySyncCheckpointStore = new FileShopifySyncCheckpointStore(
+				temporaryFolder.getRoot().toPath().resolve("checkpoints"));
+		final ShopifySyncCheckpoint someCheckpoint = new ShopifySyncCheckpoint(SOME_UPDATED_AT, 450789469L);
+
+		fileShopifySyncCheckpointStore.save("some-shop", ShopifySyncResource.ORDERS, someCheckpoint);
+
+		assertEquals(someCheckpoint, fileShopifySyncCheckpointStore.load("some-shop", ShopifySyncResource.ORDERS));
+		assertNull(fileShopifySyncCheckpointStore.load("some-shop", ShopifySyncResource.PRODUCTS));
+		assertNull(fileShopifySyncCheckpointStore.load("other-shop", ShopifySyncResource.ORDERS));
+	}
+
+	@Test
+	public void givenSavedCheckpointWhenSavingNewCheckpointThenReplaceCheckpoint() {
+		final FileShopifySyncCheckpointStore fileShopifySyncCheckpointStore = new FileShopifySyncCheckpointStore(
+				temporaryFolder.getRoot().toPath());
+		fileShopifySyncCheckpointStore.save("some-shop", ShopifySyncResource.CUSTOMERS,
+				new ShopifySyncCheckpoint(SOME_UPDATED_AT, 207119551L));
+		final ShopifySyncCheckpoint newCheckpoint = new ShopifySyncCheckpoint(SOME_UPDATED_AT.plusMinutes(5), 1L);
+
+		fileShopifySyncCheckpointStore.save("some-shop", ShopifySyncResource.CUSTOMERS, newCheckpoint);
+
+		assertEquals(newCheckpoint, fileShopifySyncCheckpointStore.load("some-shop", ShopifySyncResource.CUSTOMERS));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void givenCorruptCheckpointFileWhenLoadingThenExpectIllegalStateException() throws IOException {
+		final Path directory = temporaryFolder.getRoot().toPath();
+		Files.write(directory.resolve("some-shop.orders.checkpoint"), "not-a-checkpoint".getBytes("UTF-8"));
+
+		new FileShopifySyncCheckpointStore(directory).load("some-shop", ShopifySyncResource.ORDERS);
+	}
+
+}
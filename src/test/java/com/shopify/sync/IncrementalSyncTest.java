@@ -0,0 +1,189 @@
+package com.shopify.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shopify.ShopifySdk;
+import com.shopify.model.ShopifyCustomer;
+import com.shopify.model.ShopifyGetCustomersRequest;
+import com.shopify.model.ShopifyIds;
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+
+public class IncrementalSyncTest {
+
+	private static final String SOME_SHOP = "some-shop";
+	private static final DateTime SOME_UPDATED_AT = DateTime.now(DateTimeZone.UTC).minusHours(1).withMillisOfSecond(0);
+
+	private final List<ShopifyOrder> shopifyOrders = new ArrayList<>();
+	private final List<ShopifyProduct> shopifyProducts = new ArrayList<>();
+	private final List<ShopifyCustomer> shopifyCustomers = new ArrayList<>();
+	private final List<String> requestedSinceIds = new ArrayList<>();
+	private final Map<ShopifySyncResource, ShopifySyncCheckpoint> checkpoints = new EnumMap<>(
+			ShopifySyncResource.class);
+
+	private IncrementalSync incrementalSync;
+
+	@Before
+	public void setUp() {
+		final ShopifySdk shopifySdk = new ShopifySdk(null) {
+
+			@Override
+			public List<ShopifyOrder> getUpdatedOrders(final DateTime minimumUpdatedAt,
+					final DateTime maximumUpdatedAt, final String sinceId, final int pageSize) {
+				return getPage(shopifyOrders, ShopifyOrder::getUpdatedAt, ShopifyOrder::getId, minimumUpdatedAt,
+						maximumUpdatedAt, sinceId, pageSize);
+			}
+
+			@Override
+			public List<ShopifyProduct> getUpdatedProducts(final DateTime minimumUpdatedAt,
+					final DateTime maximumUpdatedAt, final String sinceId, final int pageSize) {
+				return getPage(shopifyProducts, ShopifyProduct::getUpdatedAt, ShopifyProduct::getId, minimumUpdatedAt,
+						maximumUpdatedAt, sinceId, pageSize);
+			}
+
+			@Override
+			public List<ShopifyCustomer> getCustomers(final ShopifyGetCustomersRequest shopifyGetCustomersRequest) {
+				return getPage(shopifyCustomers, ShopifyCustomer::getUpdatedAt, ShopifyCustomer::getId,
+						shopifyGetCustomersRequest.getUpdatedAtMin(), shopifyGetCustomersRequest.getUpdatedAtMax(),
+						shopifyGetCustomersRequest.getSinceId(), shopifyGetCustomersRequest.getLimit());
+			}
+		};
+		incrementalSync = new IncrementalSync(shopifySdk, SOME_SHOP, new ShopifySyncCheckpointStore() {
+
+			@Override
+			public ShopifySyncCheckpoint load(final String shop, final ShopifySyncResource resource) {
+				return checkpoints.get(resource);
+			}
+
+			@Override
+			public void save(final String shop, final ShopifySyncResource resource,
+					final ShopifySyncCheckpoint checkpoint) {
+				checkpoints.put(resource, checkpoint);
+			}
+		});
+	}
+
+	@Test
+	public void givenNoCheckpointWhenSyncingOrdersThenEmitAllOrdersAndSaveCheckpoint() {
+		shopifyOrders.add(buildShopifyOrder(450789469L, SOME_UPDATED_AT));
+		shopifyOrders.add(buildShopifyOrder(450789470L, SOME_UPDATED_AT.minusDays(1)));
+		final List<ShopifyOrder> actualShopifyOrders = new ArrayList<>();
+
+		final int actualCount = incrementalSync.syncOrders(actualShopifyOrders::add);
+
+		assertEquals(2, actualCount);
+		assertEquals(2, actualShopifyOrders.size());
+		assertEquals(Arrays.asList(IncrementalSync.FIRST_PAGE_SINCE_ID), requestedSinceIds);
+		final ShopifySyncCheckpoint actualCheckpoint = checkpoints.get(ShopifySyncResource.ORDERS);
+		assertEquals(ShopifyIds.NO_ID, actualCheckpoint.getId());
+		assertTrue(actualCheckpoint.getUpdatedAt().isAfter(SOME_UPDATED_AT));
+	}
+
+	@Test
+	public void givenCheckpointWhenSyncingOrdersThenEmitOnlyOrdersAfterCheckpoint() {
+		checkpoints.put(ShopifySyncResource.ORDERS, new ShopifySyncCheckpoint(SOME_UPDATED_AT, 450789469L));
+		shopifyOrders.add(buildShopifyOrder(450789468L, SOME_UPDATED_AT));
+		shopifyOrders.add(buildShopifyOrder(450789469L, SOME_UPDATED_AT));
+		shopifyOrders.add(buildShopifyOrder(450789470L, SOME_UPDATED_AT));
+		shopifyOrders.add(buildShopifyOrder(450789400L, SOME_UPDATED_AT.plusMinutes(1)));
+		shopifyOrders.add(buildShopifyOrder(450789500L, SOME_UPDATED_AT.minusMinutes(1)));
+		final List<ShopifyOrder> actualShopifyOrders = new ArrayList<>();
+
+		final int actualCount = incrementalSync.syncOrders(actualShopifyOrders::add);
+
+		assertEquals(2, actualCount);
+		assertEquals(Arrays.asList("450789400", "450789470"),
+				actualShopifyOrders.stream().map(ShopifyOrder::getId).sorted().collect(Collectors.toList()));
+	}
+
+	@Test
+	public void givenMoreOrdersThanPageSizeWhenSyncingOrdersThenPageThroughWindowBySinceId() {
+		for (int i = 1; i <= (IncrementalSync.PAGE_SIZE * 2) + 10; i++) {
+			shopifyOrders.add(buildShopifyOrder(i, SOME_UPDATED_AT.plusSeconds(i)));
+		}
+		final List<ShopifyOrder> actualShopifyOrders = new ArrayList<>();
+
+		final int actualCount = incrementalSync.syncOrders(actualShopifyOrders::add);
+
+		assertEquals((IncrementalSync.PAGE_SIZE * 2) + 10, actualCount);
+		assertEquals(Arrays.asList(IncrementalSync.FIRST_PAGE_SINCE_ID, String.valueOf(IncrementalSync.PAGE_SIZE),
+				String.valueOf(IncrementalSync.PAGE_SIZE * 2)), requestedSinceIds);
+	}
+
+	@Test
+	public void givenNoChangesSincePreviousSyncWhenSyncingOrdersAgainThenEmitNothing() {
+		shopifyOrders.add(buildShopifyOrder(450789469L, SOME_UPDATED_AT));
+		incrementalSync.syncOrders(shopifyOrder -> {
+		});
+
+		final int actualCount = incrementalSync.syncOrders(shopifyOrder -> {
+		});
+
+		assertEquals(0, actualCount);
+	}
+
+	@Test
+	public void givenChangedProductsAndCustomersWhenSyncingThenEmitEachResourceWithItsOwnCheckpoint() {
+		final ShopifyProduct shopifyProduct = new ShopifyProduct();
+		shopifyProduct.setId("632910392");
+		shopifyProduct.setUpdatedAt(SOME_UPDATED_AT);
+		shopifyProducts.add(shopifyProduct);
+		final ShopifyCustomer shopifyCustomer = new ShopifyCustomer();
+		shopifyCustomer.setId("207119551");
+		shopifyCustomer.setUpdatedAt(SOME_UPDATED_AT);
+		shopifyCustomers.add(shopifyCustomer);
+
+		assertEquals(1, incrementalSync.syncProducts(product -> {
+		}));
+		assertEquals(1, incrementalSync.syncCustomers(customer -> {
+		}));
+		assertNull(checkpoints.get(ShopifySyncResource.ORDERS));
+		assertEquals(2, checkpoints.size());
+	}
+
+	private <T> List<T> getPage(final List<T> entities, final Function<T, DateTime> updatedAtExtractor,
+			final Function<T, String> idExtractor, final DateTime minimumUpdatedAt, final DateTime maximumUpdatedAt,
+			final String sinceId, final int pageSize) {
+		requestedSinceIds.add(sinceId);
+		final Comparator<T> idComparator = Comparator
+				.comparingLong(entity -> ShopifyIds.toLong(idExtractor.apply(entity)));
+		final List<T> page = entities.stream().filter(entity -> {
+			final DateTime updatedAt = updatedAtExtractor.apply(entity);
+			return ((minimumUpdatedAt == null) || !updatedAt.isBefore(minimumUpdatedAt))
+					&& !updatedAt.isAfter(maximumUpdatedAt);
+		}).filter(entity -> (sinceId == null)
+				|| (ShopifyIds.toLong(idExtractor.apply(entity)) > ShopifyIds.toLong(sinceId)))
+				.sorted((sinceId == null) ? idComparator.reversed() : idComparator).limit(pageSize)
+				.collect(Collectors.toList());
+		// Like Shopify, list newest first without a since ID, and make no
+		// promise about the order within a page.
+		Collections.shuffle(page, new Random(pageSize));
+		return page;
+	}
+
+	private static ShopifyOrder buildShopifyOrder(final long id, final DateTime updatedAt) {
+		final ShopifyOrder shopifyOrder = new ShopifyOrder();
+		shopifyOrder.setId(String.valueOf(id));
+		shopifyOrder.setUpdatedAt(updatedAt);
+		return shopifyOrder;
+	}
+
+}
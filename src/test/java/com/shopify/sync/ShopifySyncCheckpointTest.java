@@ -0,0 +1,35 @@
+package com.shopify.sync;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public class ShopifySyncCheckpointTest {
+
+	private static final DateTime SOME_UPDATED_AT = new DateTime(1540232715000L);
+	private static final ShopifySyncCheckpoint SOME_CHECKPOINT = new ShopifySyncCheckpoint(SOME_UPDATED_AT, 100L);
+
+	@Test
+	public void givenLaterUpdatedAtWhenComparingThenCheckpointIsBefore() {
+		assertTrue(SOME_CHECKPOINT.isBefore(SOME_UPDATED_AT.plusSeconds(1), 1L));
+	}
+
+	@Test
+	public void givenSameUpdatedAtAndHigherIdWhenComparingThenCheckpointIsBefore() {
+		assertTrue(SOME_CHECKPOINT.isBefore(SOME_UPDATED_AT, 101L));
+	}
+
+	@Test
+	public void givenSameUpdatedAtAndSameOrLowerIdWhenComparingThenCheckpointIsNotBefore() {
+		assertFalse(SOME_CHECKPOINT.isBefore(SOME_UPDATED_AT, 100L));
+		assertFalse(SOME_CHECKPOINT.isBefore(SOME_UPDATED_AT, 99L));
+	}
+
+	@Test
+	public void givenEarlierUpdatedAtWhenComparingThenCheckpointIsNotBefore() {
+		assertFalse(SOME_CHECKPOINT.isBefore(SOME_UPDATED_AT.minusSeconds(1), 1000L));
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.shopify.webhooks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class ShopifyWebhookDeduplicatorTest {
+
+	private static final String SOME_WEBHOOK_ID = "b54557e4-bdd9-4b37-8a5f-bf7d70bcd043";
+	private static final String OTHER_WEBHOOK_ID = "0cbd53a3-0e1f-4b02-9fba-3f26b5ea2a4a";
+	private static final String SOME_ENTITY_KEY = "orders/updated:450789469";
+	private static final long SOME_UPDATED_AT = 1_540_000_000_000L;
+
+	private final AtomicLong nanoClock = new AtomicLong();
+	private final ShopifyWebhookDeduplicator shopifyWebhookDeduplicator = new ShopifyWebhookDeduplicator(10,
+			TimeUnit.SECONDS, 3, nanoClock::get);
+
+	@Test
+	public void givenNewWebhookIdWhenCheckingForDuplicateThenReturnFalseAndTrueAfterwards() {
+		assertFalse(shopifyWebhookDeduplicator.isDuplicate(SOME_WEBHOOK_ID));
+		assertTrue(shopifyWebhookDeduplicator.isDuplicate(SOME_WEBHOOK_ID));
+		assertFalse(shopifyWebhookDeduplicator.isDuplicate(OTHER_WEBHOOK_ID));
+	}
+
+	@Test
+	public void givenWebhookIdOlderThanWindowWhenCheckingForDuplicateThenReturnFalse() {
+		shopifyWebhookDeduplicator.isDuplicate(SOME_WEBHOOK_ID);
+		nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(9));
+		assertTrue(shopifyWebhookDeduplicator.isDuplicate(SOME_WEBHOOK_ID));
+
+		nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+		assertFalse(shopifyWebhookDeduplicator.isDuplicate(SOME_WEBHOOK_ID));
+	}
+
+	@Test
+	public void givenMoreWebhookIdsThanMaximumWhenCheckingForDuplicateThenForgetTheOldest() {
+		for (int index = 0; index < 4; index++) {
+			shopifyWebhookDeduplicator.isDuplicate("webhook-" + index);
+		}
+
+		assertFalse(shopifyWebhookDeduplicator.isDuplicate("webhook-0"));
+		assertTrue(shopifyWebhookDeduplicator.isDuplicate("webhook-3"));
+	}
+
+	@Test
+	public void givenForgottenWebhookIdWhenCheckingForDuplicateThenReturnFalse() {
+		shopifyWebhookDeduplicator.isDuplicate(SOME_WEBHOOK_ID);
+
+		shopifyWebhookDeduplicator.forget(SOME_WEBHOOK_ID);
+
+		assertFalse(shopifyWebhookDeduplicator.isDuplicate(SOME_WEBHOOK_ID));
+	}
+
+	@Test
+	public void givenOlderVersionAfterNewerOneWhenCheckingForStaleThenReturnTrue() {
+		assertFalse(shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT));
+
+		assertTrue(shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT - 1000));
+		assertFalse(shopifyWebhookDeduplicator.isStale("orders/updated:450789470", SOME_UPDATED_AT - 1000));
+	}
+
+	@Test
+	public void givenVersionWithSameUpdatedAtWhenCheckingForStaleThenReturnFalse() {
+		shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT);
+
+		assertFalse(shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT));
+	}
+
+	@Test
+	public void givenNewerVersionReceivedWhenCheckingForSupersededThenReturnTrueForOlderVersions() {
+		shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT);
+		assertFalse(shopifyWebhookDeduplicator.isSuperseded(SOME_ENTITY_KEY, SOME_UPDATED_AT));
+
+		assertFalse(shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT + 1000));
+
+		assertTrue(shopifyWebhookDeduplicator.isSuperseded(SOME_ENTITY_KEY, SOME_UPDATED_AT));
+		assertFalse(shopifyWebhookDeduplicator.isSuperseded(SOME_ENTITY_KEY, SOME_UPDATED_AT + 1000));
+	}
+
+	@Test
+	public void givenEntityVersionOlderThanWindowWhenCheckingForStaleThenReturnFalse() {
+		shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT);
+
+		nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+		assertFalse(shopifyWebhookDeduplicator.isSuperseded(SOME_ENTITY_KEY, SOME_UPDATED_AT - 1000));
+		assertFalse(shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT - 1000));
+	}
+
+	@Test
+	public void givenManyVersionsOfOneEntityWhenCheckingForStaleThenKeepOnlyTheNewest() {
+		for (int index = 0; index < 10; index++) {
+			shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT + index);
+		}
+
+		assertTrue(shopifyWebhookDeduplicator.isStale(SOME_ENTITY_KEY, SOME_UPDATED_AT + 8));
+	}
+
+	@Test
+	public void givenTimeWindowWhenWritingThenEvictExpiredEntries() {
+		final ShopifyWebhookDeduplicator.TimeWindow<Long> timeWindow = new ShopifyWebhookDeduplicator.TimeWindow<>(
+				TimeUnit.SECONDS.toNanos(10), 100, nanoClock::get);
+		timeWindow.putIfGreater("some-key", 1L);
+		nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+		timeWindow.putIfGreater("other-key", 1L);
+
+		assertEquals(1, timeWindow.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroWindowWhenCreatingDeduplicatorThenThrowIllegalArgumentException() {
+		new ShopifyWebhookDeduplicator(0, TimeUnit.SECONDS, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroMaximumEntriesWhenCreatingDeduplicatorThenThrowIllegalArgumentException() {
+		new ShopifyWebhookDeduplicator(1, TimeUnit.SECONDS, 0);
+	}
+
+}
@@ -0,0 +1,323 @@
+package com.shopify.webhooks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.shopify.model.ShopifyOrder;
+import com.shopify.model.ShopifyProduct;
+
+public class ShopifyWebhookReceiverTest {
+
+	private static final String SOME_SECRET = "some-shared-secret";
+	private static final String SOME_SHOP_DOMAIN = "some-shop.myshopify.com";
+	private static final String SOME_WEBHOOK_ID = "b54557e4-bdd9-4b37-8a5f-bf7d70bcd043";
+	private static final String SOME_ORDER = "{\"id\":\"450789469\",\"name\":\"#1001\",\"email\":\"bob@example.com\","
+			+ "\"total_price\":\"409.94\",\"line_items\":[{\"id\":\"466157049\",\"quantity\":1,\"sku\":\"IPOD2008GREEN\"}],"
+			+ "\"unknown_field\":{\"nested\":[1,2,3]}}";
+	private static final String SOME_PRODUCT = "{\"id\":\"632910392\",\"title\":\"IPod Nano - 8GB\"}";
+	private static final long TIMEOUT_SECONDS = 5;
+
+	private final ShopifyWebhookVerifier shopifyWebhookVerifier = new ShopifyWebhookVerifier(SOME_SECRET);
+	private final BlockingQueue<ShopifyWebhook<ShopifyOrder>> receivedOrders = new LinkedBlockingQueue<>();
+	private ShopifyWebhookReceiver shopifyWebhookReceiver;
+
+	@After
+	public void tearDown() {
+		if (shopifyWebhookReceiver != null) {
+			shopifyWebhookReceiver.close();
+		}
+	}
+
+	@Test
+	public void givenSignedOrderWebhookWhenReceivingThenBindOrderAndPassItToHandler() throws Exception {
+		shopifyWebhookReceiver = newBuilder().build();
+
+		final ShopifyWebhookStatus status = receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER);
+
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, status);
+		assertEquals(200, status.getHttpStatus());
+		final ShopifyWebhook<ShopifyOrder> shopifyWebhook = receivedOrders.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		assertEquals(ShopifyWebhookTopic.ORDERS_CREATE, shopifyWebhook.getTopic());
+		assertEquals(SOME_SHOP_DOMAIN, shopifyWebhook.getShopDomain());
+		assertEquals(SOME_WEBHOOK_ID, shopifyWebhook.getWebhookId());
+		assertEquals("2019-04", shopifyWebhook.getApiVersion());
+		assertEquals("450789469", shopifyWebhook.getPayload().getId());
+		assertEquals("#1001", shopifyWebhook.getPayload().getName());
+		assertEquals("IPOD2008GREEN", shopifyWebhook.getPayload().getLineItems().get(0).getSku());
+	}
+
+	@Test
+	public void givenSignedWebhooksOfSeveralTopicsWhenReceivingThenPassEachToTheHandlerOfItsTopic()
+			throws Exception {
+		final BlockingQueue<ShopifyWebhook<ShopifyProduct>> receivedProducts = new LinkedBlockingQueue<>();
+		shopifyWebhookReceiver = newBuilder().withHandler(ShopifyWebhookTopic.PRODUCTS_UPDATE, receivedProducts::add)
+				.build();
+
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.PRODUCTS_UPDATE.getName(), SOME_PRODUCT));
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER));
+
+		assertEquals("IPod Nano - 8GB",
+				receivedProducts.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS).getPayload().getTitle());
+		assertEquals("450789469", receivedOrders.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS).getPayload().getId());
+	}
+
+	@Test
+	public void givenBodyLargerThanTheReusedBufferWhenReceivingThenBindTheWholeBody() throws Exception {
+		shopifyWebhookReceiver = newBuilder().build();
+		final StringBuilder note = new StringBuilder();
+		while (note.length() < 100_000) {
+			note.append("some note ");
+		}
+		final String largeOrder = "{\"id\":\"450789469\",\"note\":\"" + note + "\"}";
+
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), largeOrder));
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER));
+
+		assertEquals(note.toString(), receivedOrders.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS).getPayload().getNote());
+		assertEquals("#1001", receivedOrders.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS).getPayload().getName());
+	}
+
+	@Test
+	public void givenWrongHmacWhenReceivingThenReturnUnauthorizedAndDoNotHandle() throws Exception {
+		shopifyWebhookReceiver = newBuilder().build();
+		final Map<String, String> headers = buildHeaders(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER);
+		headers.put(ShopifyWebhookReceiver.HMAC_HEADER,
+				new ShopifyWebhookVerifier("other-secret").sign(SOME_ORDER.getBytes(StandardCharsets.UTF_8)));
+
+		final ShopifyWebhookStatus status = shopifyWebhookReceiver.receive(headers::get,
+				new ByteArrayInputStream(SOME_ORDER.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(ShopifyWebhookStatus.UNAUTHORIZED, status);
+		assertEquals(401, status.getHttpStatus());
+		assertEquals(null, receivedOrders.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void givenMissingHmacWhenReceivingThenReturnUnauthorized() throws Exception {
+		shopifyWebhookReceiver = newBuilder().build();
+		final Map<String, String> headers = buildHeaders(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER);
+		headers.remove(ShopifyWebhookReceiver.HMAC_HEADER);
+
+		assertEquals(ShopifyWebhookStatus.UNAUTHORIZED,
+				shopifyWebhookReceiver.receive(headers::get, SOME_ORDER.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void givenTopicWithoutHandlerWhenReceivingThenReturnIgnored() throws Exception {
+		shopifyWebhookReceiver = newBuilder().build();
+
+		final ShopifyWebhookStatus status = receive("shop/update", "{\"id\":1}");
+
+		assertEquals(ShopifyWebhookStatus.IGNORED, status);
+		assertEquals(200, status.getHttpStatus());
+	}
+
+	@Test
+	public void givenSignedBodyThatIsNotJsonWhenReceivingThenReturnMalformed() throws Exception {
+		shopifyWebhookReceiver = newBuilder().build();
+
+		assertEquals(ShopifyWebhookStatus.MALFORMED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), "{\"id\":"));
+		assertEquals(ShopifyWebhookStatus.MALFORMED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), ""));
+	}
+
+	@Test
+	public void givenBodyLargerThanMaximumPayloadSizeWhenReceivingThenReturnPayloadTooLarge() throws Exception {
+		shopifyWebhookReceiver = newBuilder().withMaximumPayloadSize(SOME_ORDER.length() - 1).build();
+
+		assertEquals(ShopifyWebhookStatus.PAYLOAD_TOO_LARGE,
+				receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER));
+		assertEquals(ShopifyWebhookStatus.PAYLOAD_TOO_LARGE, shopifyWebhookReceiver.receive(
+				buildHeaders(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER)::get,
+				SOME_ORDER.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void givenFullHandlerQueueWhenReceivingThenReturnOverloaded() throws Exception {
+		final CountDownLatch handlerStarted = new CountDownLatch(1);
+		final CountDownLatch releaseHandler = new CountDownLatch(1);
+		shopifyWebhookReceiver = ShopifyWebhookReceiver.newBuilder().withSharedSecret(SOME_SECRET)
+				.withHandlerThreads(1).withQueueCapacity(1)
+				.withHandler(ShopifyWebhookTopic.ORDERS_CREATE, shopifyWebhook -> {
+					handlerStarted.countDown();
+					releaseHandler.await();
+				}).build();
+
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER));
+		assertTrue(handlerStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER));
+		final ShopifyWebhookStatus status = receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER);
+		releaseHandler.countDown();
+
+		assertEquals(ShopifyWebhookStatus.OVERLOADED, status);
+		assertEquals(503, status.getHttpStatus());
+		shopifyWebhookReceiver.close();
+		assertEquals(2, shopifyWebhookReceiver.getHandledCount());
+	}
+
+	@Test
+	public void givenHandlerThatThrowsWhenReceivingThenCountFailureAndKeepHandling() throws Exception {
+		shopifyWebhookReceiver = ShopifyWebhookReceiver.newBuilder().withSharedSecret(SOME_SECRET)
+				.withHandlerThreads(1).withHandler(ShopifyWebhookTopic.ORDERS_CREATE, shopifyWebhook -> {
+					throw new IllegalStateException("Some failure");
+				}).withHandler(ShopifyWebhookTopic.ORDERS_UPDATED, receivedOrders::add).build();
+
+		receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER);
+		receive(ShopifyWebhookTopic.ORDERS_UPDATED.getName(), SOME_ORDER);
+
+		assertEquals("450789469", receivedOrders.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS).getPayload().getId());
+		assertEquals(1, shopifyWebhookReceiver.getFailedCount());
+	}
+
+	@Test
+	public void givenDeduplicatorAndRedeliveredWebhookWhenReceivingThenReturnDuplicateAndHandleOnce()
+			throws Exception {
+		shopifyWebhookReceiver = newBuilder().withDeduplicator(new ShopifyWebhookDeduplicator()).build();
+
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER));
+		final ShopifyWebhookStatus status = receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER);
+
+		assertEquals(ShopifyWebhookStatus.DUPLICATE, status);
+		assertEquals(200, status.getHttpStatus());
+		shopifyWebhookReceiver.close();
+		assertEquals(1, receivedOrders.size());
+	}
+
+	@Test
+	public void givenDeduplicatorAndOlderVersionAfterNewerOneWhenReceivingThenReturnStale() throws Exception {
+		shopifyWebhookReceiver = newBuilder().withDeduplicator(new ShopifyWebhookDeduplicator()).build();
+
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(),
+				"webhook-2", buildOrder("2018-10-22T18:25:15.000Z")));
+		assertEquals(ShopifyWebhookStatus.STALE, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), "webhook-1",
+				buildOrder("2018-10-22T18:25:14.000Z")));
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(),
+				"webhook-3", buildOrder("2018-10-22T18:25:15.000Z")));
+
+		shopifyWebhookReceiver.close();
+		assertEquals(2, receivedOrders.size());
+	}
+
+	@Test
+	public void givenDeduplicatorAndNewerVersionReceivedWhileOlderIsQueuedWhenHandlingThenSkipOlderVersion()
+			throws Exception {
+		final CountDownLatch releaseHandler = new CountDownLatch(1);
+		final BlockingQueue<String> handledUpdatedAts = new LinkedBlockingQueue<>();
+		shopifyWebhookReceiver = ShopifyWebhookReceiver.newBuilder().withSharedSecret(SOME_SECRET)
+				.withDeduplicator(new ShopifyWebhookDeduplicator()).withHandlerThreads(1)
+				.withHandler(ShopifyWebhookTopic.PRODUCTS_UPDATE, shopifyWebhook -> releaseHandler.await())
+				.withHandler(ShopifyWebhookTopic.ORDERS_UPDATED,
+						shopifyWebhook -> handledUpdatedAts.add(shopifyWebhook.getPayload().getUpdatedAt().toString()))
+				.build();
+		receive(ShopifyWebhookTopic.PRODUCTS_UPDATE.getName(), "webhook-0", SOME_PRODUCT);
+
+		receive(ShopifyWebhookTopic.ORDERS_UPDATED.getName(), "webhook-1", buildOrder("2018-10-22T18:25:14.000Z"));
+		receive(ShopifyWebhookTopic.ORDERS_UPDATED.getName(), "webhook-2", buildOrder("2018-10-22T18:25:15.000Z"));
+		releaseHandler.countDown();
+		shopifyWebhookReceiver.close();
+
+		assertEquals(1, handledUpdatedAts.size());
+		assertTrue(handledUpdatedAts.poll().startsWith("2018-10-22T18:25:15.000"));
+		assertEquals(1, shopifyWebhookReceiver.getSupersededCount());
+	}
+
+	@Test
+	public void givenVersionsOfSameEntityWhenHandlingThenHandleThemInOrderReceived() throws Exception {
+		final BlockingQueue<Long> handledQuantities = new LinkedBlockingQueue<>();
+		shopifyWebhookReceiver = ShopifyWebhookReceiver.newBuilder().withSharedSecret(SOME_SECRET)
+				.withHandlerThreads(4).withHandler(ShopifyWebhookTopic.ORDERS_UPDATED, shopifyWebhook -> {
+					handledQuantities.add(shopifyWebhook.getPayload().getLineItems().get(0).getQuantity());
+				}).build();
+
+		for (int quantity = 0; quantity < 100; quantity++) {
+			receive(ShopifyWebhookTopic.ORDERS_UPDATED.getName(), "{\"id\":\"450789469\",\"line_items\":[{\"quantity\":"
+					+ quantity + "}]}");
+		}
+		shopifyWebhookReceiver.close();
+
+		for (long quantity = 0; quantity < 100; quantity++) {
+			assertEquals(Long.valueOf(quantity), handledQuantities.poll());
+		}
+	}
+
+	@Test
+	public void givenDeduplicatorAndFullHandlerQueueWhenReceivingRedeliveryThenAcceptIt() throws Exception {
+		final CountDownLatch releaseHandler = new CountDownLatch(1);
+		shopifyWebhookReceiver = ShopifyWebhookReceiver.newBuilder().withSharedSecret(SOME_SECRET)
+				.withDeduplicator(new ShopifyWebhookDeduplicator()).withHandlerThreads(1).withQueueCapacity(1)
+				.withHandler(ShopifyWebhookTopic.PRODUCTS_UPDATE, shopifyWebhook -> releaseHandler.await())
+				.withHandler(ShopifyWebhookTopic.ORDERS_CREATE, receivedOrders::add).build();
+		receive(ShopifyWebhookTopic.PRODUCTS_UPDATE.getName(), "webhook-0", SOME_PRODUCT);
+		receive(ShopifyWebhookTopic.PRODUCTS_UPDATE.getName(), "webhook-1", SOME_PRODUCT);
+		assertEquals(ShopifyWebhookStatus.OVERLOADED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER));
+
+		releaseHandler.countDown();
+		while (shopifyWebhookReceiver.getQueuedCount() > 0) {
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+
+		assertEquals(ShopifyWebhookStatus.ACCEPTED, receive(ShopifyWebhookTopic.ORDERS_CREATE.getName(), SOME_ORDER));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenNoSharedSecretWhenBuildingReceiverThenThrowIllegalArgumentException() {
+		ShopifyWebhookReceiver.newBuilder().build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenZeroQueueCapacityWhenBuildingReceiverThenThrowIllegalArgumentException() {
+		ShopifyWebhookReceiver.newBuilder().withQueueCapacity(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenQueueCapacityBelowHandlerThreadsWhenBuildingReceiverThenThrowIllegalArgumentException() {
+		ShopifyWebhookReceiver.newBuilder().withSharedSecret(SOME_SECRET).withHandlerThreads(4).withQueueCapacity(2)
+				.build();
+	}
+
+	private ShopifyWebhookReceiver.Builder newBuilder() {
+		return ShopifyWebhookReceiver.newBuilder().withSharedSecret(SOME_SECRET)
+				.withHandler(ShopifyWebhookTopic.ORDERS_CREATE, receivedOrders::add);
+	}
+
+	private ShopifyWebhookStatus receive(final String topic, final String body) throws IOException {
+		return shopifyWebhookReceiver.receive(buildHeaders(topic, body)::get,
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private ShopifyWebhookStatus receive(final String topic, final String webhookId, final String body)
+			throws IOException {
+		final Map<String, String> headers = buildHeaders(topic, body);
+		headers.put(ShopifyWebhookReceiver.WEBHOOK_ID_HEADER, webhookId);
+		return shopifyWebhookReceiver.receive(headers::get,
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private String buildOrder(final String updatedAt) {
+		return "{\"id\":\"450789469\",\"updated_at\":\"" + updatedAt + "\"}";
+	}
+
+	private Map<String, String> buildHeaders(final String topic, final String body) {
+		final Map<String, String> headers = new HashMap<>();
+		headers.put(ShopifyWebhookReceiver.TOPIC_HEADER, topic);
+		headers.put(ShopifyWebhookReceiver.HMAC_HEADER,
+				shopifyWebhookVerifier.sign(body.getBytes(StandardCharsets.UTF_8)));
+		headers.put(ShopifyWebhookReceiver.SHOP_DOMAIN_HEADER, SOME_SHOP_DOMAIN);
+		headers.put(ShopifyWebhookReceiver.WEBHOOK_ID_HEADER, SOME_WEBHOOK_ID);
+		headers.put(ShopifyWebhookReceiver.API_VERSION_HEADER, "2019-04");
+		return headers;
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.shopify.webhooks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class ShopifyWebhookVerifierTest {
+
+	private static final String SOME_SECRET = "some-shared-secret";
+	private static final byte[] SOME_BODY = "{\"id\":1234}".getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * Computed independently with
+	 * <code>openssl dgst -sha256 -hmac some-shared-secret -binary | base64</code>.
+	 */
+	private static final String SOME_BODY_HMAC = "2qscXJCq4BkSwJ7VXdj0WZb7YAsun4sPirk7WsX+PBo=";
+
+	private final ShopifyWebhookVerifier shopifyWebhookVerifier = new ShopifyWebhookVerifier(SOME_SECRET);
+
+	@Test
+	public void givenSomeBodyWhenSigningThenReturnBase64HmacSha256() {
+		assertEquals(SOME_BODY_HMAC, shopifyWebhookVerifier.sign(SOME_BODY));
+	}
+
+	@Test
+	public void givenMatchingHmacWhenVerifyingThenReturnTrue() {
+		assertTrue(shopifyWebhookVerifier.isValid(SOME_BODY, SOME_BODY_HMAC));
+	}
+
+	@Test
+	public void givenBodyWithinLargerBufferWhenVerifyingThenOnlyVerifyTheBody() {
+		final byte[] buffer = new byte[SOME_BODY.length + 10];
+		System.arraycopy(SOME_BODY, 0, buffer, 5, SOME_BODY.length);
+
+		assertTrue(shopifyWebhookVerifier.isValid(buffer, 5, SOME_BODY.length, SOME_BODY_HMAC));
+	}
+
+	@Test
+	public void givenAlteredBodyWhenVerifyingThenReturnFalse() {
+		final byte[] alteredBody = "{\"id\":1235}".getBytes(StandardCharsets.UTF_8);
+
+		assertFalse(shopifyWebhookVerifier.isValid(alteredBody, SOME_BODY_HMAC));
+	}
+
+	@Test
+	public void givenHmacOfOtherSecretWhenVerifyingThenReturnFalse() {
+		final String otherHmac = new ShopifyWebhookVerifier("other-secret").sign(SOME_BODY);
+
+		assertFalse(shopifyWebhookVerifier.isValid(SOME_BODY, otherHmac));
+	}
+
+	@Test
+	public void givenMissingOrInvalidHmacWhenVerifyingThenReturnFalse() {
+		assertFalse(shopifyWebhookVerifier.isValid(SOME_BODY, null));
+		assertFalse(shopifyWebhookVerifier.isValid(SOME_BODY, "not base64!"));
+		assertFalse(shopifyWebhookVerifier.isValid(SOME_BODY, ""));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenEmptySecretWhenCreatingVerifierThenThrowIllegalArgumentException() {
+		new ShopifyWebhookVerifier("");
+	}
+
+}